@@ -8,6 +8,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("com.adarshr.test-logger") version "4.0.0"
     id("com.autonomousapps.dependency-analysis") version "2.10.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -15,7 +16,7 @@ version = "0.0.1-SNAPSHOT"
 
 java {
     toolchain {
-        languageVersion = JavaLanguageVersion.of(17)
+        languageVersion = JavaLanguageVersion.of(21)
     }
 }
 
@@ -44,6 +45,7 @@ val curatorVersion: String by extra("5.8.0")
 val instancioVersion: String by extra("5.4.1")
 val h2Version: String by extra("2.3.232")
 val grpcVersion: String by extra("3.1.0.RELEASE")
+val grpcJavaVersion: String by extra("1.71.0") // same as protoc-gen-grpc-java of the gencode in grpc/protobufs
 val protobufVersion: String by extra("4.30.2")
 val javaxVersion: String by extra("1.3.2")
 
@@ -51,13 +53,16 @@ dependencies {
 
     implementation("org.springframework.boot:spring-boot-starter-web:$springBootStarterVersion")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa:$springBootStarterVersion")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.kafka:spring-kafka")
     implementation("net.lbruun.springboot:preliquibase-spring-boot-starter:$preLiquibaseVersion")
     implementation("org.apache.curator:curator-x-async:$curatorVersion")
     implementation("org.apache.curator:curator-recipes:$curatorVersion")
     implementation("net.devh:grpc-client-spring-boot-starter:$grpcVersion")
+    implementation(platform("io.grpc:grpc-bom:$grpcJavaVersion"))
     implementation("com.google.protobuf:protobuf-java:$protobufVersion")
     implementation("javax.annotation:javax.annotation-api:$javaxVersion")
+    implementation("org.postgresql:postgresql") // PGConnection for LISTEN/NOTIFY
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.testcontainers:postgresql:$testContainerVersion")
@@ -78,10 +83,12 @@ dependencies {
 
     runtimeOnly("org.apache.kafka:kafka-clients:$kafkaClientVersion")
     runtimeOnly("org.liquibase:liquibase-core")
-    runtimeOnly("org.postgresql:postgresql")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus") // /actuator/prometheus
 
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 
+    jmh("org.apache.curator:curator-test:$curatorVersion")
+
 }
 
 
@@ -112,9 +119,51 @@ tasks.withType<Test> {
 
 tasks.test {
     failFast = true
+    useJUnitPlatform {
+        excludeTags("benchmark", "loadtest")
+    }
     finalizedBy(tasks.jacocoTestReport) // report is always generated after tests run
 }
 
+// benchmarks are slow & only print numbers, run them on demand: ./gradlew benchmark
+tasks.register<Test>("benchmark") {
+    description = "Runs the tests tagged as benchmark"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+}
+
+// end-to-end saga throughput against testcontainers & local stand-ins, run it on demand: ./gradlew loadTest
+// -Ploadtest.<knob>=<value> is passed to the harness, e.g. -Ploadtest.orders=5000 -Ploadtest.grpc.latency-ms=20
+tasks.register<Test>("loadTest") {
+    description = "Runs the end-to-end saga load harness"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    systemProperties(providers.gradlePropertiesPrefixedBy("loadtest.").get())
+    outputs.upToDateWhen { false } // the numbers are the output
+    useJUnitPlatform {
+        includeTags("loadtest")
+    }
+}
+
+// JMH benchmarks of the hot paths (src/jmh), run them on demand: ./gradlew jmh
+// -PjmhIncludes=<regex> runs a subset, e.g. -PjmhIncludes=CheckoutHelper
+// results are JSON, -PjmhResults=<name> keeps them apart per commit, e.g. -PjmhResults=$(git rev-parse --short HEAD)
+// and can be diffed or uploaded to https://jmh.morethan.io
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/${findProperty("jmhResults") ?: "results"}.json")
+    findProperty("jmhIncludes")?.let { includes.add(it.toString()) }
+}
+
 testlogger {
     theme = ThemeType.STANDARD
     showExceptions = true
@@ -0,0 +1,27 @@
+package com.saga.playground.checkoutservice;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Inputs shared by the benchmarks
+ */
+public final class BenchmarkPayloads {
+
+    private static final String ORDER_CREATED_ENVELOPE = "/cdc/order-created-envelope.json";
+
+    private BenchmarkPayloads() {
+    }
+
+    // Debezium envelope of a created order, incl. the schema block (value.converter.schemas.enable=true)
+    public static String orderCreatedEnvelope() {
+        try (InputStream inputStream = BenchmarkPayloads.class.getResourceAsStream(ORDER_CREATED_ENVELOPE)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.saga.playground.checkoutservice.configs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saga.playground.checkoutservice.BenchmarkPayloads;
+import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import com.saga.playground.checkoutservice.presentations.requests.KafkaCheckoutStatusMessage;
+import com.saga.playground.checkoutservice.presentations.requests.KafkaCreatedOrderMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The kafka message mapper:
+ * - readCreatedOrder: binding of a whole Debezium envelope
+ * - writeCheckoutStatus: the message of the checkout status relay, once per outbox record
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectMapperConfigBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private String rawPayload;
+
+    private KafkaCheckoutStatusMessage checkoutStatusMessage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapperConfig().kafkaMessageObjectMapper();
+        rawPayload = BenchmarkPayloads.orderCreatedEnvelope();
+        checkoutStatusMessage = new KafkaCheckoutStatusMessage("120", PaymentStatus.FINALIZED);
+    }
+
+    @Benchmark
+    public KafkaCreatedOrderMessage readCreatedOrder() throws JsonProcessingException {
+        return objectMapper.readValue(rawPayload, KafkaCreatedOrderMessage.class);
+    }
+
+    @Benchmark
+    public String writeCheckoutStatus() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(checkoutStatusMessage);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.saga.playground.checkoutservice.tasks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tryRun of 1 shared runner, like the pull order runner which is triggered by inbox notifications,
+ * the refill of the prefetch buffer & the scheduler at the same time
+ * uncontended: 1 caller, contended: 4 callers, most of them only queue or drop their request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SingleExecutionQueuedTaskRunnerBenchmark {
+
+    // amount of work of the task, in JMH tokens
+    @Param({"10", "1000"})
+    private long taskTokens;
+
+    private SingleExecutionQueuedTaskRunner runner;
+
+    @Setup
+    public void setUp() {
+        runner = new SingleExecutionQueuedTaskRunner("benchmark", () -> Blackhole.consumeCPU(taskTokens));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void tryRunUncontended() {
+        runner.tryRun();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void tryRunContended() {
+        runner.tryRun();
+    }
+
+}
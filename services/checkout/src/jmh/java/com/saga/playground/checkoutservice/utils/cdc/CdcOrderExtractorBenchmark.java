@@ -0,0 +1,54 @@
+package com.saga.playground.checkoutservice.utils.cdc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saga.playground.checkoutservice.BenchmarkPayloads;
+import com.saga.playground.checkoutservice.configs.ObjectMapperConfig;
+import com.saga.playground.checkoutservice.presentations.requests.KafkaCreatedOrderMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of the created order from a Debezium envelope (incl. the schema block)
+ * - dataBinding: the previous path, ObjectMapper.readValue into KafkaCreatedOrderMessage & decoding the amount
+ * - streaming: CdcOrderExtractor, 1 pass over the tokens without binding the skipped parts
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CdcOrderExtractorBenchmark {
+
+    private String rawPayload;
+
+    private ObjectMapper objectMapper;
+
+    private CdcOrderExtractor cdcOrderExtractor;
+
+    @Setup
+    public void setUp() {
+        rawPayload = BenchmarkPayloads.orderCreatedEnvelope();
+        objectMapper = new ObjectMapperConfig().kafkaMessageObjectMapper();
+        cdcOrderExtractor = new CdcOrderExtractor();
+    }
+
+    @Benchmark
+    public CdcOrderExtractor.CreatedOrder dataBinding() throws IOException {
+        var after = objectMapper.readValue(rawPayload, KafkaCreatedOrderMessage.class).payload().after();
+        return new CdcOrderExtractor.CreatedOrder(
+            "%d".formatted(after.id()), after.userId(), CdcOrderExtractor.decodeAmount(after.amount()));
+    }
+
+    @Benchmark
+    public CdcOrderExtractor.CreatedOrder streaming() throws IOException {
+        return cdcOrderExtractor.extract(rawPayload).orElseThrow();
+    }
+
+}
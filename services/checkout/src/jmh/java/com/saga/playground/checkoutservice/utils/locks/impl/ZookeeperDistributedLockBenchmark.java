@@ -0,0 +1,80 @@
+package com.saga.playground.checkoutservice.utils.locks.impl;
+
+import com.saga.playground.checkoutservice.constants.ZookeeperConstant;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * acquireLock & releaseLock of the publish/pull locks against an in-process zookeeper (curator-test)
+ * every acquire is at least 1 node creation & 1 children read, so this is mostly zookeeper round trips
+ * contended: 4 threads, losers fail right away (timeout 0) like the workers which skip their run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ZookeeperDistributedLockBenchmark {
+
+    private static final String LOCK_KEY = "/benchmark-lock";
+
+    private TestingServer testingServer;
+
+    private CuratorFramework client;
+
+    private ZookeeperDistributedLock distributedLock;
+
+    @Setup
+    public void setUp() throws Exception {
+        testingServer = new TestingServer(true);
+        client = CuratorFrameworkFactory.builder()
+            .namespace(ZookeeperConstant.NAMESPACE)
+            .connectString(testingServer.getConnectString())
+            .retryPolicy(new ExponentialBackoffRetry(
+                ZookeeperConstant.CLIENT_RETRY_MILLISECONDS, ZookeeperConstant.CLIENT_MAX_RETRY_TIMES))
+            .build();
+        client.start();
+        client.blockUntilConnected();
+        distributedLock = new ZookeeperDistributedLock(client, new ConcurrentHashMap<>());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        testingServer.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean acquireAndReleaseUncontended() {
+        return acquireAndRelease();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean acquireAndReleaseContended() {
+        return acquireAndRelease();
+    }
+
+    private boolean acquireAndRelease() {
+        if (distributedLock.acquireLock(LOCK_KEY)) {
+            distributedLock.releaseLock(LOCK_KEY);
+            return true;
+        }
+        return false;
+    }
+
+}
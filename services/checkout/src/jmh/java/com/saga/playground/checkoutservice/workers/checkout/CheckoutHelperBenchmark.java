@@ -0,0 +1,82 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import com.saga.playground.checkoutservice.BenchmarkPayloads;
+import com.saga.playground.checkoutservice.domains.entities.Checkout;
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
+import com.saga.playground.checkoutservice.utils.compression.GzipCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of an inbox order to a new checkout, without the database
+ * the inbox row is in the shape of the configured payload storage:
+ * - EXTRACTED: rows ingested with the extracted columns, the payload isn't read
+ * - JSON / COMPRESSED: rows ingested before the extracted columns existed, the payload is parsed (& gunzipped)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CheckoutHelperBenchmark {
+
+    private static final String ENCODED_AMOUNT = "Hxk=";
+
+    @Param({"EXTRACTED", "JSON", "COMPRESSED"})
+    private String inboxRow;
+
+    private TransactionalInboxOrder inboxOrder;
+
+    private CheckoutHelper checkoutHelper;
+
+    @Setup
+    public void setUp() {
+        var rawPayload = BenchmarkPayloads.orderCreatedEnvelope();
+        inboxOrder = switch (inboxRow) {
+            case "EXTRACTED" -> new TransactionalInboxOrder("120", "user", new BigDecimal("79.61"), null);
+            case "JSON" -> new TransactionalInboxOrder("120", rawPayload);
+            case "COMPRESSED" -> {
+                var order = new TransactionalInboxOrder("120", null);
+                order.setCompressedPayload(GzipCodec.compress(rawPayload));
+                yield order;
+            }
+            default -> throw new IllegalArgumentException(inboxRow);
+        };
+
+        checkoutHelper = new CheckoutHelper(new CdcOrderExtractor(), null, newCheckoutRepository());
+    }
+
+    // no existing checkout, save returns its argument
+    private static CheckoutRepository newCheckoutRepository() {
+        return (CheckoutRepository) Proxy.newProxyInstance(
+            CheckoutRepository.class.getClassLoader(),
+            new Class<?>[]{CheckoutRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findByOrderId" -> Optional.empty();
+                case "save" -> args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    @Benchmark
+    public BigDecimal decodeAmount() {
+        return checkoutHelper.decodeAmount(ENCODED_AMOUNT);
+    }
+
+    @Benchmark
+    public Optional<Checkout> upsertCheckoutInfo() {
+        return checkoutHelper.upsertCheckoutInfo(inboxOrder);
+    }
+
+}
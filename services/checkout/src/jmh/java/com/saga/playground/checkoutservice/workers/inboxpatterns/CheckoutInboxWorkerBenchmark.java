@@ -0,0 +1,52 @@
+package com.saga.playground.checkoutservice.workers.inboxpatterns;
+
+import com.saga.playground.checkoutservice.BenchmarkPayloads;
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest cost of 1 CDC message: extraction of the order & preparing the payload for the inbox row
+ * per payload storage mode, COMPRESSED adds the gzip of the envelope
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckoutInboxWorkerBenchmark {
+
+    @Param({"JSON", "COMPRESSED", "NONE"})
+    private InboxPayloadStorage payloadStorage;
+
+    private Message<String> message;
+
+    private CheckoutInboxWorker checkoutInboxWorker;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        message = MessageBuilder.withPayload(BenchmarkPayloads.orderCreatedEnvelope()).build();
+        // only the extraction is measured, nothing is written
+        checkoutInboxWorker = new CheckoutInboxWorker(null, null, new CdcOrderExtractor(), null);
+
+        var payloadStorageField = CheckoutInboxWorker.class.getDeclaredField("payloadStorage");
+        payloadStorageField.setAccessible(true);
+        payloadStorageField.set(checkoutInboxWorker, payloadStorage);
+    }
+
+    @Benchmark
+    public Optional<TransactionalInboxOrder> extractPayloadFromMessage() {
+        return checkoutInboxWorker.extractPayloadFromMessage(message);
+    }
+
+}
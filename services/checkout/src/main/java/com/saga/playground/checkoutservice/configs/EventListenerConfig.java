@@ -3,8 +3,10 @@ package com.saga.playground.checkoutservice.configs;
 import com.saga.playground.checkoutservice.constants.ThreadPoolConstant;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -15,9 +17,36 @@ import java.util.concurrent.Executor;
 @Slf4j
 public class EventListenerConfig implements AsyncConfigurer {
 
+    @Value("${worker.executor.mode:PLATFORM}")
+    private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+
+    // the async tasks get their own share of the hikari pool, separate from the one of the checkout executor
+    @Value("${spring.datasource.hikari.maximum-pool-size:" + ThreadPoolConstant.DB_POOL_SIZE + "}")
+    private int maxDbConnections = ThreadPoolConstant.DB_POOL_SIZE;
+
+    @Value("${worker.executor.virtual.reserved-connections:" + ThreadPoolConstant.RESERVED_DB_CONNECTIONS + "}")
+    private int reservedDbConnections = ThreadPoolConstant.RESERVED_DB_CONNECTIONS;
+
+    // 0 means derived from the hikari pool, see VirtualThreadLimits
+    @Value("${worker.executor.virtual.checkout-concurrency:0}")
+    private int checkoutConcurrency;
+
+    @Value("${worker.executor.virtual.async-concurrency:0}")
+    private int asyncConcurrency;
+
     @Override
     @Bean
     public Executor getAsyncExecutor() {
+        if (ExecutorMode.VIRTUAL.equals(executorMode)) {
+            // a new virtual thread per task, the throttle blocks the caller once the limit is reached
+            SimpleAsyncTaskExecutor virtualThreadExecutor =
+                new SimpleAsyncTaskExecutor(ThreadPoolConstant.ASYNC_VIRTUAL_THREAD_PREFIX);
+            virtualThreadExecutor.setVirtualThreads(true);
+            virtualThreadExecutor.setConcurrencyLimit(VirtualThreadLimits.of(
+                maxDbConnections, reservedDbConnections, checkoutConcurrency, asyncConcurrency).asyncConcurrency());
+            return virtualThreadExecutor;
+        }
+
         ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
         threadPoolTaskExecutor.setCorePoolSize(ThreadPoolConstant.CORE_POOL_SIZE);
         threadPoolTaskExecutor.setMaxPoolSize(ThreadPoolConstant.MAX_POOL_SIZE);
@@ -0,0 +1,11 @@
+package com.saga.playground.checkoutservice.configs;
+
+/**
+ * Which kind of threads run the checkout worker pool & the async executor
+ */
+public enum ExecutorMode {
+    // bounded pool of platform threads, see ThreadPoolConstant
+    PLATFORM,
+    // virtual threads, concurrency is bounded by the number of database connections instead of threads
+    VIRTUAL
+}
@@ -1,16 +1,30 @@
 package com.saga.playground.checkoutservice.configs;
 
+import com.saga.playground.checkoutservice.constants.ThreadPoolConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
 import com.saga.playground.checkoutservice.tasks.SingleExecutionQueuedTaskRunner;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutHelper;
+import com.saga.playground.checkoutservice.workers.checkout.CheckoutPrefetchBuffer;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutProcessingWorker;
+import com.saga.playground.checkoutservice.workers.checkout.CheckoutTaskSubmitter;
+import com.saga.playground.checkoutservice.workers.checkout.ClaimBatchSizer;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.saga.playground.checkoutservice.constants.ErrorConstant.CODE_UNHANDED_ERROR;
 
@@ -19,52 +33,187 @@ import static com.saga.playground.checkoutservice.constants.ErrorConstant.CODE_U
 @Slf4j
 public class ScheduledRunnerConfig {
 
-    private final ThreadPoolExecutor threadPoolExecutor;
+    private final CheckoutTaskSubmitter checkoutTaskSubmitter;
 
     private final CheckoutProcessingWorker checkoutProcessingWorker;
 
     private final CheckoutHelper checkoutHelper;
 
+    private final ClaimBatchSizer claimBatchSizer;
+
+    private final CheckoutPrefetchBuffer checkoutPrefetchBuffer;
+
+    /**
+     * switched orders are handed to the checkout pool from this thread instead of the gRPC callback thread,
+     * the submission may wait for a free slot of the pool & releasing an order is a db call
+     * refill claims run here as well, the claim is a single db call & the switches complete asynchronously
+     */
+    @Bean(name = "checkoutSubmitExecutor", destroyMethod = "shutdown")
+    public ExecutorService checkoutSubmitExecutor() {
+        return Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name(ThreadPoolConstant.CHECKOUT_SUBMIT_THREAD_NAME).factory());
+    }
+
     @Bean(name = "checkoutPullOrderRunner")
     public SingleExecutionQueuedTaskRunner checkoutPullOrderRunner() {
-        return new SingleExecutionQueuedTaskRunner(
-            WorkerConstant.CHECKOUT_PROCESSING_RUNNER,
-            new CheckoutProcessingCoordinator(
-                threadPoolExecutor,
-                checkoutProcessingWorker,
-                checkoutHelper)
-        );
+        var submitExecutor = checkoutSubmitExecutor();
+        var coordinator = new CheckoutProcessingCoordinator(
+            checkoutTaskSubmitter,
+            checkoutProcessingWorker,
+            checkoutHelper,
+            claimBatchSizer,
+            checkoutPrefetchBuffer,
+            submitExecutor);
+        var runner = new SingleExecutionQueuedTaskRunner(WorkerConstant.CHECKOUT_PROCESSING_RUNNER, coordinator);
+
+        // checkout threads only ask for a refill, at most one request is queued on the submit executor,
+        // whose queue is unbounded, so the finishing order never waits for a throttled executor
+        var refillRequested = new AtomicBoolean(false);
+        coordinator.setRefillTrigger(() -> {
+            if (!refillRequested.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                submitExecutor.execute(() -> {
+                    refillRequested.set(false);
+                    runner.tryRun();
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down, nothing to claim anymore
+                refillRequested.set(false);
+            }
+        });
+        return runner;
     }
 
+    /**
+     * Claim orders, switch them with one call to the order service & submit them to the checkout thread pool,
+     * the claimed orders are tracked in the prefetch buffer until they are finished
+     * Every finished order frees a slot of the buffer, once the occupancy drops to the refill threshold
+     * the next claim is triggered right away, so claiming overlaps with processing while the backlog is deep
+     * Orders which the pool can't accept in time are un-claimed back to NEW instead of staying IN_PROGRESS
+     */
     @RequiredArgsConstructor
     static class CheckoutProcessingCoordinator implements Runnable {
 
-        private final ThreadPoolExecutor threadPoolExecutor;
+        private final CheckoutTaskSubmitter checkoutTaskSubmitter;
 
         private final CheckoutProcessingWorker checkoutProcessingWorker;
 
         private final CheckoutHelper checkoutHelper;
 
+        private final ClaimBatchSizer claimBatchSizer;
+
+        private final CheckoutPrefetchBuffer checkoutPrefetchBuffer;
+
+        // owned by the worker, never a thread of the order service client
+        private final Executor submitExecutor;
+
+        @Setter
+        private Runnable refillTrigger = () -> {
+        };
+
         @Override
         public void run() {
             var runId = UUID.randomUUID().toString();
             log.info("{} Retrieving orders", runId);
-            var orders = checkoutProcessingWorker.pullOrders();
-
-            orders.forEach(
-                order -> threadPoolExecutor.execute(
-                    () -> {
-                        try {
-                            checkoutProcessingWorker.processCheckout(order.getOrderId());
-                            checkoutHelper.postCheckoutProcess(order.getOrderId());
-                        } catch (Exception e) {
-                            log.error(CODE_UNHANDED_ERROR, e);
-                        }
-                    }
-                )
-            );
-
-            log.info("{} Finish submitting {} orders for checking out", runId, orders.size());
+            List<TransactionalInboxOrder> orders;
+            try {
+                orders = checkoutProcessingWorker.pullOrders();
+            } catch (Exception e) {
+                // e.g. a transient db error, the next refill or scheduled pull claims again
+                log.error(CODE_UNHANDED_ERROR, e);
+                return;
+            }
+
+            List<String> orderIds = new ArrayList<>();
+            for (var order : orders) {
+                if (checkoutPrefetchBuffer.add(order.getOrderId())) {
+                    orderIds.add(order.getOrderId());
+                }
+                // otherwise still queued or running
+            }
+
+            if (!orderIds.isEmpty()) {
+                // one round trip to the order service for the whole claimed batch
+                var switches = checkoutProcessingWorker.switchOrderStatuses(orderIds);
+                List<String> rejectedOrderIds = Collections.synchronizedList(new ArrayList<>());
+                var submissions = orderIds.stream()
+                    .map(orderId -> switches.get(orderId).whenCompleteAsync((ignored, switchError) ->
+                        submitOrder(rejectedOrderIds, orderId, switchError), submitExecutor))
+                    .toArray(CompletableFuture<?>[]::new);
+                // the orders which the pool didn't accept are given back together once the whole batch is submitted
+                CompletableFuture.allOf(submissions).whenCompleteAsync((ignored, submitError) ->
+                    releaseOrders(runId, rejectedOrderIds), submitExecutor);
+            }
+
+            log.info("{} Finish submitting {} orders for checking out", runId, orderIds.size());
+        }
+
+        /**
+         * runs on the submit executor once the switch of the order completed, so neither the gRPC callback thread
+         * nor the shared switch stream waits for a free slot of the pool
+         * only the db part is submitted to the checkout pool, so no checkout thread waits for the order service
+         * Once the pool turned out to be saturated, the rest of the batch is rejected right away
+         * instead of waiting again for every order
+         */
+        private void submitOrder(List<String> rejectedOrderIds, String orderId, Throwable switchError) {
+            if (rejectedOrderIds.isEmpty()
+                && checkoutTaskSubmitter.submit(() -> completeOrder(orderId, switchError))) {
+                return;
+            }
+
+            rejectedOrderIds.add(orderId);
+        }
+
+        /**
+         * un-claim the rejected orders of a run with one statement & free their slots of the prefetch buffer,
+         * a released order is switched again when it's re-claimed, which the order service treats as a no-op
+         */
+        private void releaseOrders(String runId, List<String> rejectedOrderIds) {
+            if (rejectedOrderIds.isEmpty()) {
+                return;
+            }
+
+            var orderIds = List.copyOf(rejectedOrderIds);
+            try {
+                int releasedOrders = checkoutProcessingWorker.releaseOrders(orderIds);
+                checkoutTaskSubmitter.recordRequeued(releasedOrders);
+                log.info("{} Released {} orders back to the inbox {}", runId, releasedOrders, orderIds);
+            } catch (Exception e) {
+                // still IN_PROGRESS of this worker, picked up by the next pull
+                log.error(CODE_UNHANDED_ERROR, e);
+            } finally {
+                checkoutPrefetchBuffer.removeAll(orderIds);
+            }
+        }
+
+        private void completeOrder(String orderId, Throwable switchError) {
+            // only the time on the checkout thread, the wait for the switch & a free thread isn't per-order work
+            long startTime = System.currentTimeMillis();
+            try {
+                if (switchError != null) {
+                    checkoutProcessingWorker.failCheckout(orderId, switchError);
+                    return;
+                }
+
+                checkoutProcessingWorker.processCheckout(orderId);
+                checkoutHelper.postCheckoutProcess(orderId);
+            } catch (Exception e) {
+                log.error(CODE_UNHANDED_ERROR, e);
+            } finally {
+                finishOrder(orderId, startTime);
+            }
+        }
+
+        private void finishOrder(String orderId, long startTime) {
+            // feed the next claim size with how long an order occupies a checkout thread
+            claimBatchSizer.recordLatency(System.currentTimeMillis() - startTime);
+
+            checkoutPrefetchBuffer.remove(orderId);
+            if (checkoutPrefetchBuffer.needsRefill()) {
+                refillTrigger.run();
+            }
         }
     }
 
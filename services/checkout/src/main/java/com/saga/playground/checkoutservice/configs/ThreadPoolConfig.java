@@ -1,6 +1,10 @@
 package com.saga.playground.checkoutservice.configs;
 
 import com.saga.playground.checkoutservice.constants.ThreadPoolConstant;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,8 +15,36 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class ThreadPoolConfig {
 
+    static final String CHECKOUT_EXECUTOR_NAME = "checkout";
+
+    @Value("${worker.executor.mode:PLATFORM}")
+    private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+
+    // a running order only holds a db connection during its short transactions, not during the gateway call,
+    // but every running order may be inside one at the same time, so its limit is a share of the hikari pool
+    @Value("${spring.datasource.hikari.maximum-pool-size:" + ThreadPoolConstant.DB_POOL_SIZE + "}")
+    private int maxDbConnections = ThreadPoolConstant.DB_POOL_SIZE;
+
+    @Value("${worker.executor.virtual.reserved-connections:" + ThreadPoolConstant.RESERVED_DB_CONNECTIONS + "}")
+    private int reservedDbConnections = ThreadPoolConstant.RESERVED_DB_CONNECTIONS;
+
+    // 0 means derived from the hikari pool, see VirtualThreadLimits
+    @Value("${worker.executor.virtual.checkout-concurrency:0}")
+    private int checkoutConcurrency;
+
+    @Value("${worker.executor.virtual.async-concurrency:0}")
+    private int asyncConcurrency;
+
+    VirtualThreadLimits virtualThreadLimits() {
+        return VirtualThreadLimits.of(maxDbConnections, reservedDbConnections, checkoutConcurrency, asyncConcurrency);
+    }
+
     @Bean(destroyMethod = "shutdown")
     public ThreadPoolExecutor threadPoolExecutor() {
+        if (ExecutorMode.VIRTUAL.equals(executorMode)) {
+            return virtualThreadPoolExecutor(virtualThreadLimits().checkoutConcurrency());
+        }
+
         return new ThreadPoolExecutor(
             ThreadPoolConstant.CORE_POOL_SIZE,
             ThreadPoolConstant.MAX_POOL_SIZE,
@@ -20,4 +52,34 @@ public class ThreadPoolConfig {
             TimeUnit.MILLISECONDS,
             new ArrayBlockingQueue<>(ThreadPoolConstant.QUEUE_CAPACITY, true));
     }
+
+    /**
+     * executor.queued, executor.active, executor.pool.size, etc. of the checkout pool, tagged name=checkout
+     * the queue depth shows how far the claims run ahead of the processing
+     */
+    @Bean
+    public MeterBinder checkoutExecutorMetrics(ThreadPoolExecutor threadPoolExecutor) {
+        return new ExecutorServiceMetrics(threadPoolExecutor, CHECKOUT_EXECUTOR_NAME, Tags.empty());
+    }
+
+    /**
+     * Every task runs on a virtual thread, blocking on grpc/jdbc/gateway calls only parks the virtual thread.
+     * The pool size works as the semaphore of the concurrent orders (one permit = one running order),
+     * idle virtual threads are not kept around.
+     * It's still a ThreadPoolExecutor, so the claim sizing keeps reading active count & free queue slots from it.
+     *
+     * @param maxConcurrentOrders maximum number of orders which are processed at the same time
+     * @return executor backed by virtual threads
+     */
+    static ThreadPoolExecutor virtualThreadPoolExecutor(int maxConcurrentOrders) {
+        var executor = new ThreadPoolExecutor(
+            maxConcurrentOrders,
+            maxConcurrentOrders,
+            ThreadPoolConstant.THREAD_KEEP_ALIVE_TIME_MS,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(ThreadPoolConstant.QUEUE_CAPACITY, true),
+            Thread.ofVirtual().name(ThreadPoolConstant.VIRTUAL_THREAD_PREFIX, 0).factory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
@@ -0,0 +1,43 @@
+package com.saga.playground.checkoutservice.configs;
+
+/**
+ * Concurrency limits of the virtual thread executors, both are carved out of the hikari pool
+ * a virtual thread is cheap but a db connection isn't, more concurrent db users than connections
+ * only block inside hikari until its connectionTimeout
+ * - the reserved connections are left for the LISTEN connection, the scheduled tasks & the kafka listeners
+ * - the @Async executor gets a fifth of the rest, the checkout executor everything else
+ * A configured limit is taken as is, but all of them have to fit into the pool, otherwise the startup fails
+ *
+ * @param checkoutConcurrency maximum number of orders which are processed at the same time
+ * @param asyncConcurrency    maximum number of @Async tasks which run at the same time
+ */
+record VirtualThreadLimits(int checkoutConcurrency, int asyncConcurrency) {
+
+    static final int ASYNC_SHARE_DIVISOR = 5;
+
+    /**
+     * @param maxDbConnections    spring.datasource.hikari.maximum-pool-size
+     * @param reservedConnections connections which are never used by the executors
+     * @param checkoutConcurrency configured limit of the checkout executor, 0 to derive it from the pool
+     * @param asyncConcurrency    configured limit of the @Async executor, 0 to derive it from the pool
+     * @return limits which fit into the pool
+     */
+    static VirtualThreadLimits of(int maxDbConnections, int reservedConnections,
+                                  int checkoutConcurrency, int asyncConcurrency) {
+        int usableConnections = maxDbConnections - reservedConnections;
+        int async = asyncConcurrency > 0
+            ? asyncConcurrency
+            : Math.max(1, usableConnections / ASYNC_SHARE_DIVISOR);
+        int checkout = checkoutConcurrency > 0
+            ? checkoutConcurrency
+            : usableConnections - async;
+
+        if (checkout < 1 || checkout + async > usableConnections) {
+            throw new IllegalStateException(("Virtual thread executors need %d checkout & %d async connections, "
+                + "but only %d of the %d hikari connections are left after %d reserved ones")
+                .formatted(checkout, async, usableConnections, maxDbConnections, reservedConnections));
+        }
+        return new VirtualThreadLimits(checkout, async);
+    }
+
+}
@@ -5,6 +5,13 @@ public final class ThreadPoolConstant {
     public static final int MAX_POOL_SIZE = 10;
     public static final int QUEUE_CAPACITY = 20;
     public static final int THREAD_KEEP_ALIVE_TIME_MS = 5000;
+    // hikari's default maximum-pool-size
+    public static final int DB_POOL_SIZE = 10;
+    // db connections which the virtual thread executors leave to LISTEN, scheduled tasks & kafka listeners
+    public static final int RESERVED_DB_CONNECTIONS = 10;
+    public static final String VIRTUAL_THREAD_PREFIX = "checkout-vt-";
+    public static final String ASYNC_VIRTUAL_THREAD_PREFIX = "async-vt-";
+    public static final String CHECKOUT_SUBMIT_THREAD_NAME = "checkout-submit";
 
     private ThreadPoolConstant() {
     }
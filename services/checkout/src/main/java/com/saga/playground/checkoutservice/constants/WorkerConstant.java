@@ -24,6 +24,13 @@ public final class WorkerConstant {
 
     public static final String CHECKOUT_PROCESSING_RUNNER = "CheckoutProcessingRunner";
 
+    // must match the channel of the insert trigger on t_inbox_order (changelog 000007)
+    public static final String INBOX_ORDER_NOTIFICATION_CHANNEL = "inbox_order_created";
+    public static final int INBOX_ORDER_NOTIFICATION_TIMEOUT_MILLISECONDS = 500;
+    public static final int INBOX_ORDER_NOTIFICATION_RECONNECT_DELAY_MILLISECONDS = 5_000;
+    public static final String INBOX_ORDER_LOCAL_SIGNAL = "local";
+    public static final String INBOX_ORDER_REMOTE_SIGNAL = "postgres";
+
     private WorkerConstant() {
     }
 }
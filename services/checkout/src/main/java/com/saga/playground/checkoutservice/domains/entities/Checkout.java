@@ -22,7 +22,11 @@ import java.time.Instant;
 public class Checkout {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence of the identity column (increment 50, changelog 000008)
+    // ids are allocated in memory, so Hibernate can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checkout_id_seq")
+    @SequenceGenerator(name = "checkout_id_seq", schema = "checkout_schema", sequenceName = "checkout_id_seq",
+        allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -44,9 +48,6 @@ public class Checkout {
     @JdbcTypeCode(SqlTypes.JSON)
     private String webhookPayload;
 
-    @Column(nullable = false)
-    private Boolean eventPublished = false;
-
     @CreationTimestamp
     private Instant createdAt;
 
@@ -0,0 +1,53 @@
+package com.saga.playground.checkoutservice.domains.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.dialect.PostgreSQLEnumJdbcType;
+
+import java.time.Instant;
+
+/**
+ * Append-only record of a checkout status change which has to be published to the checkout status topic
+ * It's written in the same transaction as the change of the checkout record & deleted once it's sent
+ */
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(name = "checkout_outbox", schema = "checkout_schema")
+@ToString
+public class CheckoutOutbox {
+
+    @Id
+    // one row per transaction, nothing to batch, the identity id keeps the publish order
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, name = "status")
+    @JdbcType(value = PostgreSQLEnumJdbcType.class) // this will help to convert from enum of Java <-> enum of Postgres
+    private PaymentStatus checkoutStatus;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+    // failed sends so far, only changed by the relay's bulk update
+    @Column(insertable = false, updatable = false)
+    private int attempts;
+
+    // the relay skips the record until then, now() of the insert by default
+    @Column(insertable = false, updatable = false)
+    private Instant nextAttemptAt;
+
+    public CheckoutOutbox(String orderId, PaymentStatus checkoutStatus) {
+        this.orderId = orderId;
+        this.checkoutStatus = checkoutStatus;
+    }
+
+}
@@ -9,6 +9,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.dialect.PostgreSQLEnumJdbcType;
 import org.hibernate.type.SqlTypes;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 
 @Getter
@@ -22,7 +23,11 @@ import java.time.Instant;
 public class TransactionalInboxOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence of the identity column (increment 50, changelog 000008)
+    // ids are allocated in memory, so Hibernate can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "t_inbox_order_id_seq")
+    @SequenceGenerator(name = "t_inbox_order_id_seq", schema = "checkout_schema", sequenceName = "t_inbox_order_id_seq",
+        allocationSize = 50)
     private Long id;
 
     @Column(unique = true)
@@ -33,11 +38,27 @@ public class TransactionalInboxOrder {
     @JdbcType(value = PostgreSQLEnumJdbcType.class) // this will help to convert from enum of Java <-> enum of Postgres
     private InboxOrderStatus status;
 
+    // raw CDC envelope, depending on worker.inbox.payload-storage as is, compressed or not at all
     @JdbcTypeCode(SqlTypes.JSON)
     private String payload;
 
+    @Column(name = "payload_compressed")
+    @ToString.Exclude
+    private byte[] compressedPayload;
+
+    // extracted from the payload at ingest time, null for rows ingested before they existed
+    private String userId;
+
+    private BigDecimal amount;
+
     private String workerId;
 
+    // ownership of the claiming worker, expired leases are handed back to NEW by the reclaim sweep
+    private Instant leaseUntil;
+
+    // number of claims
+    private int attempts;
+
     private String note;
 
     @CreationTimestamp
@@ -52,4 +73,10 @@ public class TransactionalInboxOrder {
         this.status = InboxOrderStatus.NEW;
     }
 
+    public TransactionalInboxOrder(String orderId, String userId, BigDecimal amount, String payload) {
+        this(orderId, payload);
+        this.userId = userId;
+        this.amount = amount;
+    }
+
 }
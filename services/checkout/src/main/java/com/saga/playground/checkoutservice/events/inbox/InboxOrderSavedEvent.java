@@ -0,0 +1,5 @@
+package com.saga.playground.checkoutservice.events.inbox;
+
+// new orders are available in the inbox, either saved by this node or notified by postgres for other nodes
+public record InboxOrderSavedEvent(String source) {
+}
@@ -0,0 +1,34 @@
+package com.saga.playground.checkoutservice.events.inbox;
+
+import com.saga.playground.checkoutservice.tasks.SingleExecutionQueuedTaskRunner;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wake up the pull order runner as soon as there are new orders in the inbox
+ * instead of waiting for the next scheduled poll, which is only kept as a safety net.
+ * Bursts of events are collapsed by the runner itself (at most 1 running + 1 queued run)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InboxOrderSavedListener {
+
+    @Qualifier("checkoutPullOrderRunner")
+    @NonNull
+    private final SingleExecutionQueuedTaskRunner checkoutPullOrderRunner;
+
+    @Async
+    @EventListener
+    public void inboxOrderSavedHandler(InboxOrderSavedEvent event) {
+        log.info("New inbox orders signaled by {}", event.source());
+
+        checkoutPullOrderRunner.tryRun();
+    }
+
+}
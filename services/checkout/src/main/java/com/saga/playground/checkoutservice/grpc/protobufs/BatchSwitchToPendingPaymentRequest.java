@@ -0,0 +1,588 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// NO CHECKED-IN PROTOBUF GENCODE
+// source: order.proto
+// Protobuf Java Version: 4.29.3
+
+package com.saga.playground.checkoutservice.grpc.protobufs;
+
+/**
+ * <pre>
+ * switch a batch of orders in one round trip, every order is switched independently
+ * </pre>
+ *
+ * Protobuf type {@code BatchSwitchToPendingPaymentRequest}
+ */
+public final class BatchSwitchToPendingPaymentRequest extends
+    com.google.protobuf.GeneratedMessage implements
+    // @@protoc_insertion_point(message_implements:BatchSwitchToPendingPaymentRequest)
+    BatchSwitchToPendingPaymentRequestOrBuilder {
+private static final long serialVersionUID = 0L;
+  static {
+    com.google.protobuf.RuntimeVersion.validateProtobufGencodeVersion(
+      com.google.protobuf.RuntimeVersion.RuntimeDomain.PUBLIC,
+      /* major= */ 4,
+      /* minor= */ 29,
+      /* patch= */ 3,
+      /* suffix= */ "",
+      BatchSwitchToPendingPaymentRequest.class.getName());
+  }
+  // Use BatchSwitchToPendingPaymentRequest.newBuilder() to construct.
+  private BatchSwitchToPendingPaymentRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+    super(builder);
+  }
+  private BatchSwitchToPendingPaymentRequest() {
+    ids_ = emptyIntList();
+  }
+
+  public static final com.google.protobuf.Descriptors.Descriptor
+      getDescriptor() {
+    return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_BatchSwitchToPendingPaymentRequest_descriptor;
+  }
+
+  @java.lang.Override
+  protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internalGetFieldAccessorTable() {
+    return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_BatchSwitchToPendingPaymentRequest_fieldAccessorTable
+        .ensureFieldAccessorsInitialized(
+            com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.class, com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.Builder.class);
+  }
+
+  public static final int IDS_FIELD_NUMBER = 1;
+  @SuppressWarnings("serial")
+  private com.google.protobuf.Internal.IntList ids_ =
+      emptyIntList();
+  /**
+   * <pre>
+   * order ids
+   * </pre>
+   *
+   * <code>repeated int32 ids = 1;</code>
+   * @return A list containing the ids.
+   */
+  @java.lang.Override
+  public java.util.List<java.lang.Integer>
+      getIdsList() {
+    return ids_;
+  }
+  /**
+   * <pre>
+   * order ids
+   * </pre>
+   *
+   * <code>repeated int32 ids = 1;</code>
+   * @return The count of ids.
+   */
+  public int getIdsCount() {
+    return ids_.size();
+  }
+  /**
+   * <pre>
+   * order ids
+   * </pre>
+   *
+   * <code>repeated int32 ids = 1;</code>
+   * @param index The index of the element to return.
+   * @return The ids at the given index.
+   */
+  public int getIds(int index) {
+    return ids_.getInt(index);
+  }
+  private int idsMemoizedSerializedSize = -1;
+
+  private byte memoizedIsInitialized = -1;
+  @java.lang.Override
+  public final boolean isInitialized() {
+    byte isInitialized = memoizedIsInitialized;
+    if (isInitialized == 1) return true;
+    if (isInitialized == 0) return false;
+
+    memoizedIsInitialized = 1;
+    return true;
+  }
+
+  @java.lang.Override
+  public void writeTo(com.google.protobuf.CodedOutputStream output)
+                      throws java.io.IOException {
+    getSerializedSize();
+    if (getIdsList().size() > 0) {
+      output.writeUInt32NoTag(10);
+      output.writeUInt32NoTag(idsMemoizedSerializedSize);
+    }
+    for (int i = 0; i < ids_.size(); i++) {
+      output.writeInt32NoTag(ids_.getInt(i));
+    }
+    getUnknownFields().writeTo(output);
+  }
+
+  @java.lang.Override
+  public int getSerializedSize() {
+    int size = memoizedSize;
+    if (size != -1) return size;
+
+    size = 0;
+    {
+      int dataSize = 0;
+      for (int i = 0; i < ids_.size(); i++) {
+        dataSize += com.google.protobuf.CodedOutputStream
+          .computeInt32SizeNoTag(ids_.getInt(i));
+      }
+      size += dataSize;
+      if (!getIdsList().isEmpty()) {
+        size += 1;
+        size += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(dataSize);
+      }
+      idsMemoizedSerializedSize = dataSize;
+    }
+    size += getUnknownFields().getSerializedSize();
+    memoizedSize = size;
+    return size;
+  }
+
+  @java.lang.Override
+  public boolean equals(final java.lang.Object obj) {
+    if (obj == this) {
+     return true;
+    }
+    if (!(obj instanceof com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest)) {
+      return super.equals(obj);
+    }
+    com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest other = (com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest) obj;
+
+    if (!getIdsList()
+        .equals(other.getIdsList())) return false;
+    if (!getUnknownFields().equals(other.getUnknownFields())) return false;
+    return true;
+  }
+
+  @java.lang.Override
+  public int hashCode() {
+    if (memoizedHashCode != 0) {
+      return memoizedHashCode;
+    }
+    int hash = 41;
+    hash = (19 * hash) + getDescriptor().hashCode();
+    if (getIdsCount() > 0) {
+      hash = (37 * hash) + IDS_FIELD_NUMBER;
+      hash = (53 * hash) + getIdsList().hashCode();
+    }
+    hash = (29 * hash) + getUnknownFields().hashCode();
+    memoizedHashCode = hash;
+    return hash;
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      java.nio.ByteBuffer data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      java.nio.ByteBuffer data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      com.google.protobuf.ByteString data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      com.google.protobuf.ByteString data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(byte[] data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      byte[] data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(java.io.InputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      java.io.InputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input, extensionRegistry);
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseDelimitedFrom(java.io.InputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseDelimitedWithIOException(PARSER, input);
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseDelimitedFrom(
+      java.io.InputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      com.google.protobuf.CodedInputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest parseFrom(
+      com.google.protobuf.CodedInputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input, extensionRegistry);
+  }
+
+  @java.lang.Override
+  public Builder newBuilderForType() { return newBuilder(); }
+  public static Builder newBuilder() {
+    return DEFAULT_INSTANCE.toBuilder();
+  }
+  public static Builder newBuilder(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest prototype) {
+    return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+  }
+  @java.lang.Override
+  public Builder toBuilder() {
+    return this == DEFAULT_INSTANCE
+        ? new Builder() : new Builder().mergeFrom(this);
+  }
+
+  @java.lang.Override
+  protected Builder newBuilderForType(
+      com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+    Builder builder = new Builder(parent);
+    return builder;
+  }
+  /**
+   * <pre>
+   * switch a batch of orders in one round trip, every order is switched independently
+   * </pre>
+   *
+   * Protobuf type {@code BatchSwitchToPendingPaymentRequest}
+   */
+  public static final class Builder extends
+      com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+      // @@protoc_insertion_point(builder_implements:BatchSwitchToPendingPaymentRequest)
+      com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequestOrBuilder {
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_BatchSwitchToPendingPaymentRequest_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_BatchSwitchToPendingPaymentRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.class, com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.Builder.class);
+    }
+
+    // Construct using com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.newBuilder()
+    private Builder() {
+
+    }
+
+    private Builder(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      super(parent);
+
+    }
+    @java.lang.Override
+    public Builder clear() {
+      super.clear();
+      bitField0_ = 0;
+      ids_ = emptyIntList();
+      return this;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Descriptors.Descriptor
+        getDescriptorForType() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_BatchSwitchToPendingPaymentRequest_descriptor;
+    }
+
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest getDefaultInstanceForType() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.getDefaultInstance();
+    }
+
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest build() {
+      com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest result = buildPartial();
+      if (!result.isInitialized()) {
+        throw newUninitializedMessageException(result);
+      }
+      return result;
+    }
+
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest buildPartial() {
+      com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest result = new com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest(this);
+      if (bitField0_ != 0) { buildPartial0(result); }
+      onBuilt();
+      return result;
+    }
+
+    private void buildPartial0(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest result) {
+      int from_bitField0_ = bitField0_;
+      if (((from_bitField0_ & 0x00000001) != 0)) {
+        ids_.makeImmutable();
+        result.ids_ = ids_;
+      }
+    }
+
+    @java.lang.Override
+    public Builder mergeFrom(com.google.protobuf.Message other) {
+      if (other instanceof com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest) {
+        return mergeFrom((com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest)other);
+      } else {
+        super.mergeFrom(other);
+        return this;
+      }
+    }
+
+    public Builder mergeFrom(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest other) {
+      if (other == com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.getDefaultInstance()) return this;
+      if (!other.ids_.isEmpty()) {
+        if (ids_.isEmpty()) {
+          ids_ = other.ids_;
+          ids_.makeImmutable();
+          bitField0_ |= 0x00000001;
+        } else {
+          ensureIdsIsMutable();
+          ids_.addAll(other.ids_);
+        }
+        onChanged();
+      }
+      this.mergeUnknownFields(other.getUnknownFields());
+      onChanged();
+      return this;
+    }
+
+    @java.lang.Override
+    public final boolean isInitialized() {
+      return true;
+    }
+
+    @java.lang.Override
+    public Builder mergeFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+              int v = input.readInt32();
+              ensureIdsIsMutable();
+              ids_.addInt(v);
+              break;
+            } // case 8
+            case 10: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              ensureIdsIsMutable();
+              while (input.getBytesUntilLimit() > 0) {
+                ids_.addInt(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            } // case 10
+            default: {
+              if (!super.parseUnknownField(input, extensionRegistry, tag)) {
+                done = true; // was an endgroup tag
+              }
+              break;
+            } // default:
+          } // switch (tag)
+        } // while (!done)
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.unwrapIOException();
+      } finally {
+        onChanged();
+      } // finally
+      return this;
+    }
+    private int bitField0_;
+
+    private com.google.protobuf.Internal.IntList ids_ = emptyIntList();
+    private void ensureIdsIsMutable() {
+      if (!ids_.isModifiable()) {
+        ids_ = makeMutableCopy(ids_);
+      }
+      bitField0_ |= 0x00000001;
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @return A list containing the ids.
+     */
+    public java.util.List<java.lang.Integer>
+        getIdsList() {
+      ids_.makeImmutable();
+      return ids_;
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @return The count of ids.
+     */
+    public int getIdsCount() {
+      return ids_.size();
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @param index The index of the element to return.
+     * @return The ids at the given index.
+     */
+    public int getIds(int index) {
+      return ids_.getInt(index);
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @param index The index to set the value at.
+     * @param value The ids to set.
+     * @return This builder for chaining.
+     */
+    public Builder setIds(
+        int index, int value) {
+
+      ensureIdsIsMutable();
+      ids_.setInt(index, value);
+      bitField0_ |= 0x00000001;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @param value The ids to add.
+     * @return This builder for chaining.
+     */
+    public Builder addIds(int value) {
+
+      ensureIdsIsMutable();
+      ids_.addInt(value);
+      bitField0_ |= 0x00000001;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @param values The ids to add.
+     * @return This builder for chaining.
+     */
+    public Builder addAllIds(
+        java.lang.Iterable<? extends java.lang.Integer> values) {
+      ensureIdsIsMutable();
+      com.google.protobuf.AbstractMessageLite.Builder.addAll(
+          values, ids_);
+      bitField0_ |= 0x00000001;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * order ids
+     * </pre>
+     *
+     * <code>repeated int32 ids = 1;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearIds() {
+      ids_ = emptyIntList();
+      bitField0_ = (bitField0_ & ~0x00000001);
+      onChanged();
+      return this;
+    }
+
+    // @@protoc_insertion_point(builder_scope:BatchSwitchToPendingPaymentRequest)
+  }
+
+  // @@protoc_insertion_point(class_scope:BatchSwitchToPendingPaymentRequest)
+  private static final com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest DEFAULT_INSTANCE;
+  static {
+    DEFAULT_INSTANCE = new com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest();
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest getDefaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
+  private static final com.google.protobuf.Parser<BatchSwitchToPendingPaymentRequest>
+      PARSER = new com.google.protobuf.AbstractParser<BatchSwitchToPendingPaymentRequest>() {
+    @java.lang.Override
+    public BatchSwitchToPendingPaymentRequest parsePartialFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      Builder builder = newBuilder();
+      try {
+        builder.mergeFrom(input, extensionRegistry);
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(builder.buildPartial());
+      } catch (com.google.protobuf.UninitializedMessageException e) {
+        throw e.asInvalidProtocolBufferException().setUnfinishedMessage(builder.buildPartial());
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(e)
+            .setUnfinishedMessage(builder.buildPartial());
+      }
+      return builder.buildPartial();
+    }
+  };
+
+  public static com.google.protobuf.Parser<BatchSwitchToPendingPaymentRequest> parser() {
+    return PARSER;
+  }
+
+  @java.lang.Override
+  public com.google.protobuf.Parser<BatchSwitchToPendingPaymentRequest> getParserForType() {
+    return PARSER;
+  }
+
+  @java.lang.Override
+  public com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest getDefaultInstanceForType() {
+    return DEFAULT_INSTANCE;
+  }
+
+}
+
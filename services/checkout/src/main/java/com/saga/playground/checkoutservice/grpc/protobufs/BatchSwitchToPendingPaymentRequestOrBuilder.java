@@ -0,0 +1,40 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// NO CHECKED-IN PROTOBUF GENCODE
+// source: order.proto
+// Protobuf Java Version: 4.29.3
+
+package com.saga.playground.checkoutservice.grpc.protobufs;
+
+public interface BatchSwitchToPendingPaymentRequestOrBuilder extends
+    // @@protoc_insertion_point(interface_extends:BatchSwitchToPendingPaymentRequest)
+    com.google.protobuf.MessageOrBuilder {
+
+  /**
+   * <pre>
+   * order ids
+   * </pre>
+   *
+   * <code>repeated int32 ids = 1;</code>
+   * @return A list containing the ids.
+   */
+  java.util.List<java.lang.Integer> getIdsList();
+  /**
+   * <pre>
+   * order ids
+   * </pre>
+   *
+   * <code>repeated int32 ids = 1;</code>
+   * @return The count of ids.
+   */
+  int getIdsCount();
+  /**
+   * <pre>
+   * order ids
+   * </pre>
+   *
+   * <code>repeated int32 ids = 1;</code>
+   * @param index The index of the element to return.
+   * @return The ids at the given index.
+   */
+  int getIds(int index);
+}
@@ -0,0 +1,55 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// NO CHECKED-IN PROTOBUF GENCODE
+// source: order.proto
+// Protobuf Java Version: 4.29.3
+
+package com.saga.playground.checkoutservice.grpc.protobufs;
+
+public interface BatchSwitchToPendingPaymentResponseOrBuilder extends
+    // @@protoc_insertion_point(interface_extends:BatchSwitchToPendingPaymentResponse)
+    com.google.protobuf.MessageOrBuilder {
+
+  /**
+   * <pre>
+   * one result per requested order id
+   * </pre>
+   *
+   * <code>repeated .SwitchToPendingPaymentResult results = 1;</code>
+   */
+  java.util.List<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult> 
+      getResultsList();
+  /**
+   * <pre>
+   * one result per requested order id
+   * </pre>
+   *
+   * <code>repeated .SwitchToPendingPaymentResult results = 1;</code>
+   */
+  com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult getResults(int index);
+  /**
+   * <pre>
+   * one result per requested order id
+   * </pre>
+   *
+   * <code>repeated .SwitchToPendingPaymentResult results = 1;</code>
+   */
+  int getResultsCount();
+  /**
+   * <pre>
+   * one result per requested order id
+   * </pre>
+   *
+   * <code>repeated .SwitchToPendingPaymentResult results = 1;</code>
+   */
+  java.util.List<? extends com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResultOrBuilder> 
+      getResultsOrBuilderList();
+  /**
+   * <pre>
+   * one result per requested order id
+   * </pre>
+   *
+   * <code>repeated .SwitchToPendingPaymentResult results = 1;</code>
+   */
+  com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResultOrBuilder getResultsOrBuilder(
+      int index);
+}
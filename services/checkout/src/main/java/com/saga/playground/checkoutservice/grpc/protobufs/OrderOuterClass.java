@@ -40,6 +40,21 @@ public final class OrderOuterClass {
   static final 
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_SwitchToPendingPaymentResponse_fieldAccessorTable;
+  static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_BatchSwitchToPendingPaymentRequest_descriptor;
+  static final 
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_BatchSwitchToPendingPaymentRequest_fieldAccessorTable;
+  static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_SwitchToPendingPaymentResult_descriptor;
+  static final 
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_SwitchToPendingPaymentResult_fieldAccessorTable;
+  static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_BatchSwitchToPendingPaymentResponse_descriptor;
+  static final 
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_BatchSwitchToPendingPaymentResponse_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -52,12 +67,25 @@ public final class OrderOuterClass {
       "\n\013order.proto\"#\n\005Order\022\n\n\002id\030\001 \001(\005\022\016\n\006st" +
       "atus\030\002 \001(\t\"+\n\035SwitchToPendingPaymentRequ" +
       "est\022\n\n\002id\030\001 \001(\005\"7\n\036SwitchToPendingPaymen" +
-      "tResponse\022\025\n\005order\030\001 \001(\0132\006.Order2n\n\014Orde" +
-      "rService\022^\n\033SwitchOrderToPendingPayment\022" +
-      "\036.SwitchToPendingPaymentRequest\032\037.Switch" +
-      "ToPendingPaymentResponseB<\n2com.saga.pla" +
-      "yground.checkoutservice.grpc.protobufsP\001" +
-      "Z\004./pbb\006proto3"
+      "tResponse\022\025\n\005order\030\001 \001(\0132\006.Order\"1\n\"Batc" +
+      "hSwitchToPendingPaymentRequest\022\013\n\003ids\030\001 " +
+      "\003(\005\"X\n\034SwitchToPendingPaymentResult\022\n\n\002i" +
+      "d\030\001 \001(\005\022\035\n\006result\030\002 \001(\0162\r.SwitchResult\022\r" +
+      "\n\005error\030\003 \001(\t\"U\n#BatchSwitchToPendingPay" +
+      "mentResponse\022.\n\007results\030\001 \003(\0132\035.SwitchTo" +
+      "PendingPaymentResult*Z\n\014SwitchResult\022\035\n\031" +
+      "SWITCH_RESULT_UNSPECIFIED\020\000\022\014\n\010SWITCHED\020" +
+      "\001\022\022\n\016INVALID_ACTION\020\002\022\t\n\005ERROR\020\0032\305\002\n\014Ord" +
+      "erService\022^\n\033SwitchOrderToPendingPayment" +
+      "\022\036.SwitchToPendingPaymentRequest\032\037.Switc" +
+      "hToPendingPaymentResponse\022m\n BatchSwitch" +
+      "OrderToPendingPayment\022#.BatchSwitchToPen" +
+      "dingPaymentRequest\032$.BatchSwitchToPendin" +
+      "gPaymentResponse\022f\n!StreamSwitchOrderToP" +
+      "endingPayment\022\036.SwitchToPendingPaymentRe" +
+      "quest\032\035.SwitchToPendingPaymentResult(\0010\001" +
+      "B<\n2com.saga.playground.checkoutservice." +
+      "grpc.protobufsP\001Z\004./pbb\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -81,6 +109,24 @@ public final class OrderOuterClass {
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_SwitchToPendingPaymentResponse_descriptor,
         new java.lang.String[] { "Order", });
+    internal_static_BatchSwitchToPendingPaymentRequest_descriptor =
+      getDescriptor().getMessageTypes().get(3);
+    internal_static_BatchSwitchToPendingPaymentRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_BatchSwitchToPendingPaymentRequest_descriptor,
+        new java.lang.String[] { "Ids", });
+    internal_static_SwitchToPendingPaymentResult_descriptor =
+      getDescriptor().getMessageTypes().get(4);
+    internal_static_SwitchToPendingPaymentResult_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_SwitchToPendingPaymentResult_descriptor,
+        new java.lang.String[] { "Id", "Result", "Error", });
+    internal_static_BatchSwitchToPendingPaymentResponse_descriptor =
+      getDescriptor().getMessageTypes().get(5);
+    internal_static_BatchSwitchToPendingPaymentResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_BatchSwitchToPendingPaymentResponse_descriptor,
+        new java.lang.String[] { "Results", });
     descriptor.resolveAllFeaturesImmutable();
   }
 
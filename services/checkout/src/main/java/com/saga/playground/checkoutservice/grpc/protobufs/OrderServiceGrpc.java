@@ -46,6 +46,68 @@ public final class OrderServiceGrpc {
     return getSwitchOrderToPendingPaymentMethod;
   }
 
+  private static volatile io.grpc.MethodDescriptor<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest,
+      com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse> getBatchSwitchOrderToPendingPaymentMethod;
+
+  @io.grpc.stub.annotations.RpcMethod(
+      fullMethodName = SERVICE_NAME + '/' + "BatchSwitchOrderToPendingPayment",
+      requestType = com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.class,
+      responseType = com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse.class,
+      methodType = io.grpc.MethodDescriptor.MethodType.UNARY)
+  public static io.grpc.MethodDescriptor<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest,
+      com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse> getBatchSwitchOrderToPendingPaymentMethod() {
+    io.grpc.MethodDescriptor<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest, com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse> getBatchSwitchOrderToPendingPaymentMethod;
+    if ((getBatchSwitchOrderToPendingPaymentMethod = OrderServiceGrpc.getBatchSwitchOrderToPendingPaymentMethod) == null) {
+      synchronized (OrderServiceGrpc.class) {
+        if ((getBatchSwitchOrderToPendingPaymentMethod = OrderServiceGrpc.getBatchSwitchOrderToPendingPaymentMethod) == null) {
+          OrderServiceGrpc.getBatchSwitchOrderToPendingPaymentMethod = getBatchSwitchOrderToPendingPaymentMethod =
+              io.grpc.MethodDescriptor.<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest, com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse>newBuilder()
+              .setType(io.grpc.MethodDescriptor.MethodType.UNARY)
+              .setFullMethodName(generateFullMethodName(SERVICE_NAME, "BatchSwitchOrderToPendingPayment"))
+              .setSampledToLocalTracing(true)
+              .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest.getDefaultInstance()))
+              .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse.getDefaultInstance()))
+              .setSchemaDescriptor(new OrderServiceMethodDescriptorSupplier("BatchSwitchOrderToPendingPayment"))
+              .build();
+        }
+      }
+    }
+    return getBatchSwitchOrderToPendingPaymentMethod;
+  }
+
+  private static volatile io.grpc.MethodDescriptor<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest,
+      com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult> getStreamSwitchOrderToPendingPaymentMethod;
+
+  @io.grpc.stub.annotations.RpcMethod(
+      fullMethodName = SERVICE_NAME + '/' + "StreamSwitchOrderToPendingPayment",
+      requestType = com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest.class,
+      responseType = com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.class,
+      methodType = io.grpc.MethodDescriptor.MethodType.BIDI_STREAMING)
+  public static io.grpc.MethodDescriptor<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest,
+      com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult> getStreamSwitchOrderToPendingPaymentMethod() {
+    io.grpc.MethodDescriptor<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest, com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult> getStreamSwitchOrderToPendingPaymentMethod;
+    if ((getStreamSwitchOrderToPendingPaymentMethod = OrderServiceGrpc.getStreamSwitchOrderToPendingPaymentMethod) == null) {
+      synchronized (OrderServiceGrpc.class) {
+        if ((getStreamSwitchOrderToPendingPaymentMethod = OrderServiceGrpc.getStreamSwitchOrderToPendingPaymentMethod) == null) {
+          OrderServiceGrpc.getStreamSwitchOrderToPendingPaymentMethod = getStreamSwitchOrderToPendingPaymentMethod =
+              io.grpc.MethodDescriptor.<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest, com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult>newBuilder()
+              .setType(io.grpc.MethodDescriptor.MethodType.BIDI_STREAMING)
+              .setFullMethodName(generateFullMethodName(SERVICE_NAME, "StreamSwitchOrderToPendingPayment"))
+              .setSampledToLocalTracing(true)
+              .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest.getDefaultInstance()))
+              .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.getDefaultInstance()))
+              .setSchemaDescriptor(new OrderServiceMethodDescriptorSupplier("StreamSwitchOrderToPendingPayment"))
+              .build();
+        }
+      }
+    }
+    return getStreamSwitchOrderToPendingPaymentMethod;
+  }
+
   /**
    * Creates a new async stub that supports all call types for the service
    */
@@ -115,6 +177,23 @@ public final class OrderServiceGrpc {
         io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse> responseObserver) {
       io.grpc.stub.ServerCalls.asyncUnimplementedUnaryCall(getSwitchOrderToPendingPaymentMethod(), responseObserver);
     }
+
+    /**
+     */
+    default void batchSwitchOrderToPendingPayment(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest request,
+        io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse> responseObserver) {
+      io.grpc.stub.ServerCalls.asyncUnimplementedUnaryCall(getBatchSwitchOrderToPendingPaymentMethod(), responseObserver);
+    }
+
+    /**
+     * <pre>
+     * long-lived stream of switches, answered with one result per request in any order, correlated by order id
+     * </pre>
+     */
+    default io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest> streamSwitchOrderToPendingPayment(
+        io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult> responseObserver) {
+      return io.grpc.stub.ServerCalls.asyncUnimplementedStreamingCall(getStreamSwitchOrderToPendingPaymentMethod(), responseObserver);
+    }
   }
 
   /**
@@ -151,6 +230,25 @@ public final class OrderServiceGrpc {
       io.grpc.stub.ClientCalls.asyncUnaryCall(
           getChannel().newCall(getSwitchOrderToPendingPaymentMethod(), getCallOptions()), request, responseObserver);
     }
+
+    /**
+     */
+    public void batchSwitchOrderToPendingPayment(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest request,
+        io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse> responseObserver) {
+      io.grpc.stub.ClientCalls.asyncUnaryCall(
+          getChannel().newCall(getBatchSwitchOrderToPendingPaymentMethod(), getCallOptions()), request, responseObserver);
+    }
+
+    /**
+     * <pre>
+     * long-lived stream of switches, answered with one result per request in any order, correlated by order id
+     * </pre>
+     */
+    public io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest> streamSwitchOrderToPendingPayment(
+        io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult> responseObserver) {
+      return io.grpc.stub.ClientCalls.asyncBidiStreamingCall(
+          getChannel().newCall(getStreamSwitchOrderToPendingPaymentMethod(), getCallOptions()), responseObserver);
+    }
   }
 
   /**
@@ -175,6 +273,25 @@ public final class OrderServiceGrpc {
       return io.grpc.stub.ClientCalls.blockingUnaryCall(
           getChannel(), getSwitchOrderToPendingPaymentMethod(), getCallOptions(), request);
     }
+
+    /**
+     */
+    public com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse batchSwitchOrderToPendingPayment(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest request) {
+      return io.grpc.stub.ClientCalls.blockingUnaryCall(
+          getChannel(), getBatchSwitchOrderToPendingPaymentMethod(), getCallOptions(), request);
+    }
+
+    /**
+     * <pre>
+     * long-lived stream of switches, answered with one result per request in any order, correlated by order id
+     * </pre>
+     */
+    @io.grpc.ExperimentalApi("https://github.com/grpc/grpc-java/issues/10918")
+    public io.grpc.stub.BlockingClientCall<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest, com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult>
+        streamSwitchOrderToPendingPayment() {
+      return io.grpc.stub.ClientCalls.blockingBidiStreamingCall(
+          getChannel(), getStreamSwitchOrderToPendingPaymentMethod(), getCallOptions());
+    }
   }
 
   /**
@@ -199,6 +316,13 @@ public final class OrderServiceGrpc {
       return io.grpc.stub.ClientCalls.blockingUnaryCall(
           getChannel(), getSwitchOrderToPendingPaymentMethod(), getCallOptions(), request);
     }
+
+    /**
+     */
+    public com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse batchSwitchOrderToPendingPayment(com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest request) {
+      return io.grpc.stub.ClientCalls.blockingUnaryCall(
+          getChannel(), getBatchSwitchOrderToPendingPaymentMethod(), getCallOptions(), request);
+    }
   }
 
   /**
@@ -224,9 +348,19 @@ public final class OrderServiceGrpc {
       return io.grpc.stub.ClientCalls.futureUnaryCall(
           getChannel().newCall(getSwitchOrderToPendingPaymentMethod(), getCallOptions()), request);
     }
+
+    /**
+     */
+    public com.google.common.util.concurrent.ListenableFuture<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse> batchSwitchOrderToPendingPayment(
+        com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest request) {
+      return io.grpc.stub.ClientCalls.futureUnaryCall(
+          getChannel().newCall(getBatchSwitchOrderToPendingPaymentMethod(), getCallOptions()), request);
+    }
   }
 
   private static final int METHODID_SWITCH_ORDER_TO_PENDING_PAYMENT = 0;
+  private static final int METHODID_BATCH_SWITCH_ORDER_TO_PENDING_PAYMENT = 1;
+  private static final int METHODID_STREAM_SWITCH_ORDER_TO_PENDING_PAYMENT = 2;
 
   private static final class MethodHandlers<Req, Resp> implements
       io.grpc.stub.ServerCalls.UnaryMethod<Req, Resp>,
@@ -249,6 +383,10 @@ public final class OrderServiceGrpc {
           serviceImpl.switchOrderToPendingPayment((com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest) request,
               (io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse>) responseObserver);
           break;
+        case METHODID_BATCH_SWITCH_ORDER_TO_PENDING_PAYMENT:
+          serviceImpl.batchSwitchOrderToPendingPayment((com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest) request,
+              (io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse>) responseObserver);
+          break;
         default:
           throw new AssertionError();
       }
@@ -259,6 +397,9 @@ public final class OrderServiceGrpc {
     public io.grpc.stub.StreamObserver<Req> invoke(
         io.grpc.stub.StreamObserver<Resp> responseObserver) {
       switch (methodId) {
+        case METHODID_STREAM_SWITCH_ORDER_TO_PENDING_PAYMENT:
+          return (io.grpc.stub.StreamObserver<Req>) serviceImpl.streamSwitchOrderToPendingPayment(
+              (io.grpc.stub.StreamObserver<com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult>) responseObserver);
         default:
           throw new AssertionError();
       }
@@ -274,6 +415,20 @@ public final class OrderServiceGrpc {
               com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest,
               com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse>(
                 service, METHODID_SWITCH_ORDER_TO_PENDING_PAYMENT)))
+        .addMethod(
+          getBatchSwitchOrderToPendingPaymentMethod(),
+          io.grpc.stub.ServerCalls.asyncUnaryCall(
+            new MethodHandlers<
+              com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest,
+              com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse>(
+                service, METHODID_BATCH_SWITCH_ORDER_TO_PENDING_PAYMENT)))
+        .addMethod(
+          getStreamSwitchOrderToPendingPaymentMethod(),
+          io.grpc.stub.ServerCalls.asyncBidiStreamingCall(
+            new MethodHandlers<
+              com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest,
+              com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult>(
+                service, METHODID_STREAM_SWITCH_ORDER_TO_PENDING_PAYMENT)))
         .build();
   }
 
@@ -323,6 +478,8 @@ public final class OrderServiceGrpc {
           serviceDescriptor = result = io.grpc.ServiceDescriptor.newBuilder(SERVICE_NAME)
               .setSchemaDescriptor(new OrderServiceFileDescriptorSupplier())
               .addMethod(getSwitchOrderToPendingPaymentMethod())
+              .addMethod(getBatchSwitchOrderToPendingPaymentMethod())
+              .addMethod(getStreamSwitchOrderToPendingPaymentMethod())
               .build();
         }
       }
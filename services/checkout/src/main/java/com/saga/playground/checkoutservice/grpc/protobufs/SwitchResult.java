@@ -0,0 +1,170 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// NO CHECKED-IN PROTOBUF GENCODE
+// source: order.proto
+// Protobuf Java Version: 4.29.3
+
+package com.saga.playground.checkoutservice.grpc.protobufs;
+
+/**
+ * <pre>
+ * outcome of switching one order of a batch
+ * </pre>
+ *
+ * Protobuf enum {@code SwitchResult}
+ */
+public enum SwitchResult
+    implements com.google.protobuf.ProtocolMessageEnum {
+  /**
+   * <code>SWITCH_RESULT_UNSPECIFIED = 0;</code>
+   */
+  SWITCH_RESULT_UNSPECIFIED(0),
+  /**
+   * <pre>
+   * the order is in OrderStatusPendingPayment now
+   * </pre>
+   *
+   * <code>SWITCHED = 1;</code>
+   */
+  SWITCHED(1),
+  /**
+   * <pre>
+   * the order can't be switched from its current status, retrying won't help
+   * </pre>
+   *
+   * <code>INVALID_ACTION = 2;</code>
+   */
+  INVALID_ACTION(2),
+  /**
+   * <pre>
+   * the switch failed, e.g. db error, the order can be retried
+   * </pre>
+   *
+   * <code>ERROR = 3;</code>
+   */
+  ERROR(3),
+  UNRECOGNIZED(-1),
+  ;
+
+  static {
+    com.google.protobuf.RuntimeVersion.validateProtobufGencodeVersion(
+      com.google.protobuf.RuntimeVersion.RuntimeDomain.PUBLIC,
+      /* major= */ 4,
+      /* minor= */ 29,
+      /* patch= */ 3,
+      /* suffix= */ "",
+      SwitchResult.class.getName());
+  }
+  /**
+   * <code>SWITCH_RESULT_UNSPECIFIED = 0;</code>
+   */
+  public static final int SWITCH_RESULT_UNSPECIFIED_VALUE = 0;
+  /**
+   * <pre>
+   * the order is in OrderStatusPendingPayment now
+   * </pre>
+   *
+   * <code>SWITCHED = 1;</code>
+   */
+  public static final int SWITCHED_VALUE = 1;
+  /**
+   * <pre>
+   * the order can't be switched from its current status, retrying won't help
+   * </pre>
+   *
+   * <code>INVALID_ACTION = 2;</code>
+   */
+  public static final int INVALID_ACTION_VALUE = 2;
+  /**
+   * <pre>
+   * the switch failed, e.g. db error, the order can be retried
+   * </pre>
+   *
+   * <code>ERROR = 3;</code>
+   */
+  public static final int ERROR_VALUE = 3;
+
+
+  public final int getNumber() {
+    if (this == UNRECOGNIZED) {
+      throw new java.lang.IllegalArgumentException(
+          "Can't get the number of an unknown enum value.");
+    }
+    return value;
+  }
+
+  /**
+   * @param value The numeric wire value of the corresponding enum entry.
+   * @return The enum associated with the given numeric wire value.
+   * @deprecated Use {@link #forNumber(int)} instead.
+   */
+  @java.lang.Deprecated
+  public static SwitchResult valueOf(int value) {
+    return forNumber(value);
+  }
+
+  /**
+   * @param value The numeric wire value of the corresponding enum entry.
+   * @return The enum associated with the given numeric wire value.
+   */
+  public static SwitchResult forNumber(int value) {
+    switch (value) {
+      case 0: return SWITCH_RESULT_UNSPECIFIED;
+      case 1: return SWITCHED;
+      case 2: return INVALID_ACTION;
+      case 3: return ERROR;
+      default: return null;
+    }
+  }
+
+  public static com.google.protobuf.Internal.EnumLiteMap<SwitchResult>
+      internalGetValueMap() {
+    return internalValueMap;
+  }
+  private static final com.google.protobuf.Internal.EnumLiteMap<
+      SwitchResult> internalValueMap =
+        new com.google.protobuf.Internal.EnumLiteMap<SwitchResult>() {
+          public SwitchResult findValueByNumber(int number) {
+            return SwitchResult.forNumber(number);
+          }
+        };
+
+  public final com.google.protobuf.Descriptors.EnumValueDescriptor
+      getValueDescriptor() {
+    if (this == UNRECOGNIZED) {
+      throw new java.lang.IllegalStateException(
+          "Can't get the descriptor of an unrecognized enum value.");
+    }
+    return getDescriptor().getValues().get(ordinal());
+  }
+  public final com.google.protobuf.Descriptors.EnumDescriptor
+      getDescriptorForType() {
+    return getDescriptor();
+  }
+  public static final com.google.protobuf.Descriptors.EnumDescriptor
+      getDescriptor() {
+    return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.getDescriptor().getEnumTypes().get(0);
+  }
+
+  private static final SwitchResult[] VALUES = values();
+
+  public static SwitchResult valueOf(
+      com.google.protobuf.Descriptors.EnumValueDescriptor desc) {
+    if (desc.getType() != getDescriptor()) {
+      throw new java.lang.IllegalArgumentException(
+        "EnumValueDescriptor is not for this type.");
+    }
+    if (desc.getIndex() == -1) {
+      return UNRECOGNIZED;
+    }
+    return VALUES[desc.getIndex()];
+  }
+
+  private final int value;
+
+  private SwitchResult(int value) {
+    this.value = value;
+  }
+
+  // @@protoc_insertion_point(enum_scope:SwitchResult)
+}
+
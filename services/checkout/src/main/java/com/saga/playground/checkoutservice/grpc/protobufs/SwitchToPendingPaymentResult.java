@@ -0,0 +1,705 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// NO CHECKED-IN PROTOBUF GENCODE
+// source: order.proto
+// Protobuf Java Version: 4.29.3
+
+package com.saga.playground.checkoutservice.grpc.protobufs;
+
+/**
+ * Protobuf type {@code SwitchToPendingPaymentResult}
+ */
+public final class SwitchToPendingPaymentResult extends
+    com.google.protobuf.GeneratedMessage implements
+    // @@protoc_insertion_point(message_implements:SwitchToPendingPaymentResult)
+    SwitchToPendingPaymentResultOrBuilder {
+private static final long serialVersionUID = 0L;
+  static {
+    com.google.protobuf.RuntimeVersion.validateProtobufGencodeVersion(
+      com.google.protobuf.RuntimeVersion.RuntimeDomain.PUBLIC,
+      /* major= */ 4,
+      /* minor= */ 29,
+      /* patch= */ 3,
+      /* suffix= */ "",
+      SwitchToPendingPaymentResult.class.getName());
+  }
+  // Use SwitchToPendingPaymentResult.newBuilder() to construct.
+  private SwitchToPendingPaymentResult(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+    super(builder);
+  }
+  private SwitchToPendingPaymentResult() {
+    result_ = 0;
+    error_ = "";
+  }
+
+  public static final com.google.protobuf.Descriptors.Descriptor
+      getDescriptor() {
+    return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_SwitchToPendingPaymentResult_descriptor;
+  }
+
+  @java.lang.Override
+  protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internalGetFieldAccessorTable() {
+    return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_SwitchToPendingPaymentResult_fieldAccessorTable
+        .ensureFieldAccessorsInitialized(
+            com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.class, com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.Builder.class);
+  }
+
+  public static final int ID_FIELD_NUMBER = 1;
+  private int id_ = 0;
+  /**
+   * <pre>
+   * order id
+   * </pre>
+   *
+   * <code>int32 id = 1;</code>
+   * @return The id.
+   */
+  @java.lang.Override
+  public int getId() {
+    return id_;
+  }
+
+  public static final int RESULT_FIELD_NUMBER = 2;
+  private int result_ = 0;
+  /**
+   * <code>.SwitchResult result = 2;</code>
+   * @return The enum numeric value on the wire for result.
+   */
+  @java.lang.Override public int getResultValue() {
+    return result_;
+  }
+  /**
+   * <code>.SwitchResult result = 2;</code>
+   * @return The result.
+   */
+  @java.lang.Override public com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult getResult() {
+    com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult result = com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult.forNumber(result_);
+    return result == null ? com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult.UNRECOGNIZED : result;
+  }
+
+  public static final int ERROR_FIELD_NUMBER = 3;
+  @SuppressWarnings("serial")
+  private volatile java.lang.Object error_ = "";
+  /**
+   * <pre>
+   * reason of the failure, empty if the order is switched
+   * </pre>
+   *
+   * <code>string error = 3;</code>
+   * @return The error.
+   */
+  @java.lang.Override
+  public java.lang.String getError() {
+    java.lang.Object ref = error_;
+    if (ref instanceof java.lang.String) {
+      return (java.lang.String) ref;
+    } else {
+      com.google.protobuf.ByteString bs = 
+          (com.google.protobuf.ByteString) ref;
+      java.lang.String s = bs.toStringUtf8();
+      error_ = s;
+      return s;
+    }
+  }
+  /**
+   * <pre>
+   * reason of the failure, empty if the order is switched
+   * </pre>
+   *
+   * <code>string error = 3;</code>
+   * @return The bytes for error.
+   */
+  @java.lang.Override
+  public com.google.protobuf.ByteString
+      getErrorBytes() {
+    java.lang.Object ref = error_;
+    if (ref instanceof java.lang.String) {
+      com.google.protobuf.ByteString b = 
+          com.google.protobuf.ByteString.copyFromUtf8(
+              (java.lang.String) ref);
+      error_ = b;
+      return b;
+    } else {
+      return (com.google.protobuf.ByteString) ref;
+    }
+  }
+
+  private byte memoizedIsInitialized = -1;
+  @java.lang.Override
+  public final boolean isInitialized() {
+    byte isInitialized = memoizedIsInitialized;
+    if (isInitialized == 1) return true;
+    if (isInitialized == 0) return false;
+
+    memoizedIsInitialized = 1;
+    return true;
+  }
+
+  @java.lang.Override
+  public void writeTo(com.google.protobuf.CodedOutputStream output)
+                      throws java.io.IOException {
+    if (id_ != 0) {
+      output.writeInt32(1, id_);
+    }
+    if (result_ != com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult.SWITCH_RESULT_UNSPECIFIED.getNumber()) {
+      output.writeEnum(2, result_);
+    }
+    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(error_)) {
+      com.google.protobuf.GeneratedMessage.writeString(output, 3, error_);
+    }
+    getUnknownFields().writeTo(output);
+  }
+
+  @java.lang.Override
+  public int getSerializedSize() {
+    int size = memoizedSize;
+    if (size != -1) return size;
+
+    size = 0;
+    if (id_ != 0) {
+      size += com.google.protobuf.CodedOutputStream
+        .computeInt32Size(1, id_);
+    }
+    if (result_ != com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult.SWITCH_RESULT_UNSPECIFIED.getNumber()) {
+      size += com.google.protobuf.CodedOutputStream
+        .computeEnumSize(2, result_);
+    }
+    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(error_)) {
+      size += com.google.protobuf.GeneratedMessage.computeStringSize(3, error_);
+    }
+    size += getUnknownFields().getSerializedSize();
+    memoizedSize = size;
+    return size;
+  }
+
+  @java.lang.Override
+  public boolean equals(final java.lang.Object obj) {
+    if (obj == this) {
+     return true;
+    }
+    if (!(obj instanceof com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult)) {
+      return super.equals(obj);
+    }
+    com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult other = (com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult) obj;
+
+    if (getId()
+        != other.getId()) return false;
+    if (result_ != other.result_) return false;
+    if (!getError()
+        .equals(other.getError())) return false;
+    if (!getUnknownFields().equals(other.getUnknownFields())) return false;
+    return true;
+  }
+
+  @java.lang.Override
+  public int hashCode() {
+    if (memoizedHashCode != 0) {
+      return memoizedHashCode;
+    }
+    int hash = 41;
+    hash = (19 * hash) + getDescriptor().hashCode();
+    hash = (37 * hash) + ID_FIELD_NUMBER;
+    hash = (53 * hash) + getId();
+    hash = (37 * hash) + RESULT_FIELD_NUMBER;
+    hash = (53 * hash) + result_;
+    hash = (37 * hash) + ERROR_FIELD_NUMBER;
+    hash = (53 * hash) + getError().hashCode();
+    hash = (29 * hash) + getUnknownFields().hashCode();
+    memoizedHashCode = hash;
+    return hash;
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      java.nio.ByteBuffer data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      java.nio.ByteBuffer data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      com.google.protobuf.ByteString data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      com.google.protobuf.ByteString data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(byte[] data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      byte[] data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(java.io.InputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      java.io.InputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input, extensionRegistry);
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseDelimitedFrom(java.io.InputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseDelimitedWithIOException(PARSER, input);
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseDelimitedFrom(
+      java.io.InputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      com.google.protobuf.CodedInputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input);
+  }
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult parseFrom(
+      com.google.protobuf.CodedInputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessage
+        .parseWithIOException(PARSER, input, extensionRegistry);
+  }
+
+  @java.lang.Override
+  public Builder newBuilderForType() { return newBuilder(); }
+  public static Builder newBuilder() {
+    return DEFAULT_INSTANCE.toBuilder();
+  }
+  public static Builder newBuilder(com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult prototype) {
+    return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+  }
+  @java.lang.Override
+  public Builder toBuilder() {
+    return this == DEFAULT_INSTANCE
+        ? new Builder() : new Builder().mergeFrom(this);
+  }
+
+  @java.lang.Override
+  protected Builder newBuilderForType(
+      com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+    Builder builder = new Builder(parent);
+    return builder;
+  }
+  /**
+   * Protobuf type {@code SwitchToPendingPaymentResult}
+   */
+  public static final class Builder extends
+      com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+      // @@protoc_insertion_point(builder_implements:SwitchToPendingPaymentResult)
+      com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResultOrBuilder {
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_SwitchToPendingPaymentResult_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_SwitchToPendingPaymentResult_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.class, com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.Builder.class);
+    }
+
+    // Construct using com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.newBuilder()
+    private Builder() {
+
+    }
+
+    private Builder(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      super(parent);
+
+    }
+    @java.lang.Override
+    public Builder clear() {
+      super.clear();
+      bitField0_ = 0;
+      id_ = 0;
+      result_ = 0;
+      error_ = "";
+      return this;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Descriptors.Descriptor
+        getDescriptorForType() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.OrderOuterClass.internal_static_SwitchToPendingPaymentResult_descriptor;
+    }
+
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult getDefaultInstanceForType() {
+      return com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.getDefaultInstance();
+    }
+
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult build() {
+      com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult result = buildPartial();
+      if (!result.isInitialized()) {
+        throw newUninitializedMessageException(result);
+      }
+      return result;
+    }
+
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult buildPartial() {
+      com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult result = new com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult(this);
+      if (bitField0_ != 0) { buildPartial0(result); }
+      onBuilt();
+      return result;
+    }
+
+    private void buildPartial0(com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult result) {
+      int from_bitField0_ = bitField0_;
+      if (((from_bitField0_ & 0x00000001) != 0)) {
+        result.id_ = id_;
+      }
+      if (((from_bitField0_ & 0x00000002) != 0)) {
+        result.result_ = result_;
+      }
+      if (((from_bitField0_ & 0x00000004) != 0)) {
+        result.error_ = error_;
+      }
+    }
+
+    @java.lang.Override
+    public Builder mergeFrom(com.google.protobuf.Message other) {
+      if (other instanceof com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult) {
+        return mergeFrom((com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult)other);
+      } else {
+        super.mergeFrom(other);
+        return this;
+      }
+    }
+
+    public Builder mergeFrom(com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult other) {
+      if (other == com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult.getDefaultInstance()) return this;
+      if (other.getId() != 0) {
+        setId(other.getId());
+      }
+      if (other.result_ != 0) {
+        setResultValue(other.getResultValue());
+      }
+      if (!other.getError().isEmpty()) {
+        error_ = other.error_;
+        bitField0_ |= 0x00000004;
+        onChanged();
+      }
+      this.mergeUnknownFields(other.getUnknownFields());
+      onChanged();
+      return this;
+    }
+
+    @java.lang.Override
+    public final boolean isInitialized() {
+      return true;
+    }
+
+    @java.lang.Override
+    public Builder mergeFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+              id_ = input.readInt32();
+              bitField0_ |= 0x00000001;
+              break;
+            } // case 8
+            case 16: {
+              result_ = input.readEnum();
+              bitField0_ |= 0x00000002;
+              break;
+            } // case 16
+            case 26: {
+              error_ = input.readStringRequireUtf8();
+              bitField0_ |= 0x00000004;
+              break;
+            } // case 26
+            default: {
+              if (!super.parseUnknownField(input, extensionRegistry, tag)) {
+                done = true; // was an endgroup tag
+              }
+              break;
+            } // default:
+          } // switch (tag)
+        } // while (!done)
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.unwrapIOException();
+      } finally {
+        onChanged();
+      } // finally
+      return this;
+    }
+    private int bitField0_;
+
+    private int id_ ;
+    /**
+     * <pre>
+     * order id
+     * </pre>
+     *
+     * <code>int32 id = 1;</code>
+     * @return The id.
+     */
+    @java.lang.Override
+    public int getId() {
+      return id_;
+    }
+    /**
+     * <pre>
+     * order id
+     * </pre>
+     *
+     * <code>int32 id = 1;</code>
+     * @param value The id to set.
+     * @return This builder for chaining.
+     */
+    public Builder setId(int value) {
+
+      id_ = value;
+      bitField0_ |= 0x00000001;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * order id
+     * </pre>
+     *
+     * <code>int32 id = 1;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearId() {
+      bitField0_ = (bitField0_ & ~0x00000001);
+      id_ = 0;
+      onChanged();
+      return this;
+    }
+
+    private int result_ = 0;
+    /**
+     * <code>.SwitchResult result = 2;</code>
+     * @return The enum numeric value on the wire for result.
+     */
+    @java.lang.Override public int getResultValue() {
+      return result_;
+    }
+    /**
+     * <code>.SwitchResult result = 2;</code>
+     * @param value The enum numeric value on the wire for result to set.
+     * @return This builder for chaining.
+     */
+    public Builder setResultValue(int value) {
+      result_ = value;
+      bitField0_ |= 0x00000002;
+      onChanged();
+      return this;
+    }
+    /**
+     * <code>.SwitchResult result = 2;</code>
+     * @return The result.
+     */
+    @java.lang.Override
+    public com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult getResult() {
+      com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult result = com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult.forNumber(result_);
+      return result == null ? com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult.UNRECOGNIZED : result;
+    }
+    /**
+     * <code>.SwitchResult result = 2;</code>
+     * @param value The result to set.
+     * @return This builder for chaining.
+     */
+    public Builder setResult(com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      bitField0_ |= 0x00000002;
+      result_ = value.getNumber();
+      onChanged();
+      return this;
+    }
+    /**
+     * <code>.SwitchResult result = 2;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearResult() {
+      bitField0_ = (bitField0_ & ~0x00000002);
+      result_ = 0;
+      onChanged();
+      return this;
+    }
+
+    private java.lang.Object error_ = "";
+    /**
+     * <pre>
+     * reason of the failure, empty if the order is switched
+     * </pre>
+     *
+     * <code>string error = 3;</code>
+     * @return The error.
+     */
+    public java.lang.String getError() {
+      java.lang.Object ref = error_;
+      if (!(ref instanceof java.lang.String)) {
+        com.google.protobuf.ByteString bs =
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        error_ = s;
+        return s;
+      } else {
+        return (java.lang.String) ref;
+      }
+    }
+    /**
+     * <pre>
+     * reason of the failure, empty if the order is switched
+     * </pre>
+     *
+     * <code>string error = 3;</code>
+     * @return The bytes for error.
+     */
+    public com.google.protobuf.ByteString
+        getErrorBytes() {
+      java.lang.Object ref = error_;
+      if (ref instanceof String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        error_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+    /**
+     * <pre>
+     * reason of the failure, empty if the order is switched
+     * </pre>
+     *
+     * <code>string error = 3;</code>
+     * @param value The error to set.
+     * @return This builder for chaining.
+     */
+    public Builder setError(
+        java.lang.String value) {
+      if (value == null) { throw new NullPointerException(); }
+      error_ = value;
+      bitField0_ |= 0x00000004;
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * reason of the failure, empty if the order is switched
+     * </pre>
+     *
+     * <code>string error = 3;</code>
+     * @return This builder for chaining.
+     */
+    public Builder clearError() {
+      error_ = getDefaultInstance().getError();
+      bitField0_ = (bitField0_ & ~0x00000004);
+      onChanged();
+      return this;
+    }
+    /**
+     * <pre>
+     * reason of the failure, empty if the order is switched
+     * </pre>
+     *
+     * <code>string error = 3;</code>
+     * @param value The bytes for error to set.
+     * @return This builder for chaining.
+     */
+    public Builder setErrorBytes(
+        com.google.protobuf.ByteString value) {
+      if (value == null) { throw new NullPointerException(); }
+      checkByteStringIsUtf8(value);
+      error_ = value;
+      bitField0_ |= 0x00000004;
+      onChanged();
+      return this;
+    }
+
+    // @@protoc_insertion_point(builder_scope:SwitchToPendingPaymentResult)
+  }
+
+  // @@protoc_insertion_point(class_scope:SwitchToPendingPaymentResult)
+  private static final com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult DEFAULT_INSTANCE;
+  static {
+    DEFAULT_INSTANCE = new com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult();
+  }
+
+  public static com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult getDefaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
+  private static final com.google.protobuf.Parser<SwitchToPendingPaymentResult>
+      PARSER = new com.google.protobuf.AbstractParser<SwitchToPendingPaymentResult>() {
+    @java.lang.Override
+    public SwitchToPendingPaymentResult parsePartialFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      Builder builder = newBuilder();
+      try {
+        builder.mergeFrom(input, extensionRegistry);
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(builder.buildPartial());
+      } catch (com.google.protobuf.UninitializedMessageException e) {
+        throw e.asInvalidProtocolBufferException().setUnfinishedMessage(builder.buildPartial());
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(e)
+            .setUnfinishedMessage(builder.buildPartial());
+      }
+      return builder.buildPartial();
+    }
+  };
+
+  public static com.google.protobuf.Parser<SwitchToPendingPaymentResult> parser() {
+    return PARSER;
+  }
+
+  @java.lang.Override
+  public com.google.protobuf.Parser<SwitchToPendingPaymentResult> getParserForType() {
+    return PARSER;
+  }
+
+  @java.lang.Override
+  public com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult getDefaultInstanceForType() {
+    return DEFAULT_INSTANCE;
+  }
+
+}
+
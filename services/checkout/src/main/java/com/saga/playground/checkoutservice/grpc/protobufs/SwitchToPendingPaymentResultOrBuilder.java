@@ -0,0 +1,52 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// NO CHECKED-IN PROTOBUF GENCODE
+// source: order.proto
+// Protobuf Java Version: 4.29.3
+
+package com.saga.playground.checkoutservice.grpc.protobufs;
+
+public interface SwitchToPendingPaymentResultOrBuilder extends
+    // @@protoc_insertion_point(interface_extends:SwitchToPendingPaymentResult)
+    com.google.protobuf.MessageOrBuilder {
+
+  /**
+   * <pre>
+   * order id
+   * </pre>
+   *
+   * <code>int32 id = 1;</code>
+   * @return The id.
+   */
+  int getId();
+
+  /**
+   * <code>.SwitchResult result = 2;</code>
+   * @return The enum numeric value on the wire for result.
+   */
+  int getResultValue();
+  /**
+   * <code>.SwitchResult result = 2;</code>
+   * @return The result.
+   */
+  com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult getResult();
+
+  /**
+   * <pre>
+   * reason of the failure, empty if the order is switched
+   * </pre>
+   *
+   * <code>string error = 3;</code>
+   * @return The error.
+   */
+  java.lang.String getError();
+  /**
+   * <pre>
+   * reason of the failure, empty if the order is switched
+   * </pre>
+   *
+   * <code>string error = 3;</code>
+   * @return The bytes for error.
+   */
+  com.google.protobuf.ByteString
+      getErrorBytes();
+}
@@ -1,31 +1,110 @@
 package com.saga.playground.checkoutservice.grpc.services;
 
+import com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest;
+import com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse;
 import com.saga.playground.checkoutservice.grpc.protobufs.OrderServiceGrpc;
 import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest;
 import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class OrderGRPCService {
 
+    // tagged by the gRPC status code of the call
+    static final String SWITCH_ORDER_TIMER = "checkout.order.switch";
+    static final String SWITCH_ORDERS_TIMER = "checkout.order.switch.batch";
+
+    private final MeterRegistry meterRegistry;
+
+    // async stub, the response is delivered to a callback instead of parking the calling thread
     @GrpcClient("order-service")
-    private OrderServiceGrpc.OrderServiceBlockingStub stub;
+    private OrderServiceGrpc.OrderServiceStub stub;
+
+    // per call, a hanging order service fails the call with DEADLINE_EXCEEDED instead of holding the order forever
+    @Value("${worker.checkout.order-switch.deadline-ms:3000}")
+    private long deadlineMs = 3000;
 
-    // instead of catch and handle exception here, we will delegate it to the upstream method
-    public void switchOrderStatus(int orderId) {
+    /**
+     * instead of catch and handle exception here, we will delegate it to the upstream method
+     *
+     * @param orderId id of the order
+     * @return completes on the gRPC callback thread, exceptionally with a StatusRuntimeException if the call failed
+     */
+    public CompletableFuture<SwitchToPendingPaymentResponse> switchOrderStatus(int orderId) {
         log.info("Make gRPC call to switch status of order {}", orderId);
         SwitchToPendingPaymentRequest request = SwitchToPendingPaymentRequest
             .newBuilder()
             .setId(orderId)
             .build();
 
-        SwitchToPendingPaymentResponse res =
-            stub.switchOrderToPendingPayment(request);
-        log.info("Successfully switch order {} to {}",
-            res.getOrder().getId(), res.getOrder().getStatus());
+        var response = new CompletableFuture<SwitchToPendingPaymentResponse>();
+        stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+            .switchOrderToPendingPayment(request, completing(response, SWITCH_ORDER_TIMER, res ->
+                log.info("Successfully switch order {} to {}", res.getOrder().getId(), res.getOrder().getStatus())));
+        return response;
+    }
+
+    /**
+     * switch a batch of orders with one round trip, the order service switches every order independently
+     *
+     * @param orderIds id of the orders
+     * @return one result per order id, exceptionally with a StatusRuntimeException if the whole call failed
+     */
+    public CompletableFuture<List<SwitchToPendingPaymentResult>> switchOrderStatuses(List<Integer> orderIds) {
+        log.info("Make gRPC call to switch status of orders {}", orderIds);
+        BatchSwitchToPendingPaymentRequest request = BatchSwitchToPendingPaymentRequest
+            .newBuilder()
+            .addAllIds(orderIds)
+            .build();
+
+        var response = new CompletableFuture<BatchSwitchToPendingPaymentResponse>();
+        stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+            .batchSwitchOrderToPendingPayment(request, completing(response, SWITCH_ORDERS_TIMER, res ->
+                log.info("Switched orders {}", res.getResultsList().stream()
+                    .map(result -> result.getId() + "=" + result.getResult())
+                    .toList())));
+        return response.thenApply(BatchSwitchToPendingPaymentResponse::getResultsList);
+    }
+
+    // completes the future with the single response of a unary call, timed by the gRPC status code
+    private <T> StreamObserver<T> completing(CompletableFuture<T> response, String timerName, Consumer<T> onSuccess) {
+        var sample = Timer.start(meterRegistry);
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T res) {
+                sample.stop(meterRegistry.timer(timerName, "status", Status.Code.OK.name()));
+                onSuccess.accept(res);
+                response.complete(res);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // UNKNOWN if it's not a gRPC error
+                sample.stop(meterRegistry.timer(timerName, "status", Status.fromThrowable(t).getCode().name()));
+                response.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                // unary call, the response is already delivered by onNext
+            }
+        };
     }
 
 }
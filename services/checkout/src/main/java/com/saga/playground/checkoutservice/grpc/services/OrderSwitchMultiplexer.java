@@ -0,0 +1,300 @@
+package com.saga.playground.checkoutservice.grpc.services;
+
+import com.saga.playground.checkoutservice.constants.GRPCConstant;
+import com.saga.playground.checkoutservice.grpc.protobufs.OrderServiceGrpc;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multiplexes the order switches of this node over one bidirectional stream to the order service,
+ * so the call setup is paid once per stream instead of once per call.
+ * Responses are correlated to their order by id & may come back in any order.
+ * While the stream is broken, switches fall back to unary calls until it's reopened after a backoff
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderSwitchMultiplexer {
+
+    static final String FALLBACK_COUNTER = "checkout.order.switch.stream.fallbacks";
+    static final String BROKEN_COUNTER = "checkout.order.switch.stream.broken";
+
+    private final OrderGRPCService orderGRPCService;
+
+    private final MeterRegistry meterRegistry;
+
+    @GrpcClient("order-service")
+    private OrderServiceGrpc.OrderServiceStub stub;
+
+    // same as a unary call, an order without response after this is failed with DEADLINE_EXCEEDED
+    @Value("${worker.checkout.order-switch.deadline-ms:3000}")
+    private long deadlineMs = 3000;
+
+    // requests sent without a response yet, further requests are queued until responses come back
+    @Value("${worker.checkout.order-switch.stream.max-in-flight:1000}")
+    private int maxInFlight = 1000;
+
+    @Value("${worker.checkout.order-switch.stream.reconnect-backoff-ms:1000}")
+    private long reconnectBackoffMs = 1000;
+
+    // below state is guarded by this
+
+    // every order which is switched at the moment, a second switch of the same order joins the first one
+    private final Map<Integer, CompletableFuture<SwitchToPendingPaymentResult>> switches = new HashMap<>();
+
+    // orders waiting for the stream to be ready or for a free in-flight slot
+    private final Queue<Integer> waiting = new ArrayDeque<>();
+
+    private SwitchStream stream;
+
+    private long reconnectAt;
+
+    /**
+     * switch a batch of orders over the stream
+     *
+     * @param orderIds id of the orders
+     * @return one result per order id, never completes exceptionally, failures are ERROR results
+     */
+    public CompletableFuture<List<SwitchToPendingPaymentResult>> switchOrderStatuses(List<Integer> orderIds) {
+        List<CompletableFuture<SwitchToPendingPaymentResult>> switched = orderIds.stream()
+            .map(this::switchOrderStatus)
+            .toList();
+        return CompletableFuture.allOf(switched.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> switched.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * @param orderId id of the order
+     * @return result of the order, never completes exceptionally, failures are ERROR results
+     */
+    public CompletableFuture<SwitchToPendingPaymentResult> switchOrderStatus(int orderId) {
+        CompletableFuture<SwitchToPendingPaymentResult> switched;
+        SwitchStream current;
+        synchronized (this) {
+            var existing = switches.get(orderId);
+            if (existing != null) {
+                return existing;
+            }
+
+            switched = new CompletableFuture<>();
+            switches.put(orderId, switched);
+            current = openStream();
+            if (current != null) {
+                waiting.add(orderId);
+            }
+        }
+
+        CompletableFuture.delayedExecutor(deadlineMs, TimeUnit.MILLISECONDS)
+            .execute(() -> expire(orderId, switched));
+        if (current != null) {
+            current.drain();
+        } else {
+            fallback(orderId, switched);
+        }
+        return switched;
+    }
+
+    @PreDestroy
+    public void close() {
+        SwitchStream current;
+        synchronized (this) {
+            current = stream;
+            stream = null;
+        }
+
+        if (current != null) {
+            current.requestStream.onCompleted();
+        }
+    }
+
+    // reuse the stream or open a new one after the backoff, null if switches have to fall back to unary calls
+    private SwitchStream openStream() {
+        if (stream != null || System.currentTimeMillis() < reconnectAt) {
+            return stream;
+        }
+
+        try {
+            var opened = new SwitchStream();
+            // beforeStart of the observer is called within, so the request stream is set once it returns
+            stub.streamSwitchOrderToPendingPayment(opened);
+            stream = opened;
+            log.info("Opened order switch stream");
+        } catch (RuntimeException e) {
+            log.warn("Can't open order switch stream, fall back to unary calls", e);
+            reconnectAt = System.currentTimeMillis() + reconnectBackoffMs;
+        }
+        return stream;
+    }
+
+    private void fallback(int orderId, CompletableFuture<SwitchToPendingPaymentResult> switched) {
+        meterRegistry.counter(FALLBACK_COUNTER).increment();
+        // composed, so even an error thrown by the call itself ends up as a result
+        CompletableFuture.completedFuture(orderId)
+            .thenCompose(orderGRPCService::switchOrderStatus)
+            .handle((ignored, e) -> e == null
+                ? result(orderId, SwitchResult.SWITCHED, "")
+                : toResult(orderId, e))
+            .thenAccept(result -> complete(orderId, switched, result));
+    }
+
+    private void expire(int orderId, CompletableFuture<SwitchToPendingPaymentResult> switched) {
+        SwitchStream current;
+        synchronized (this) {
+            if (!switches.remove(orderId, switched)) {
+                return;
+            }
+
+            waiting.remove(orderId);
+            current = stream;
+            if (current != null) {
+                // a late response is ignored, so the slot is free for the next order
+                current.sent.remove(orderId);
+            }
+        }
+
+        switched.complete(toResult(orderId, Status.DEADLINE_EXCEEDED
+            .withDescription("No switch result for order %d after %d ms".formatted(orderId, deadlineMs))
+            .asRuntimeException()));
+        if (current != null) {
+            current.drain();
+        }
+    }
+
+    private void complete(int orderId, CompletableFuture<SwitchToPendingPaymentResult> switched,
+                          SwitchToPendingPaymentResult result) {
+        synchronized (this) {
+            if (!switches.remove(orderId, switched)) {
+                return;
+            }
+        }
+        // outside of the lock, dependent stages of the caller run on this thread
+        switched.complete(result);
+    }
+
+    // same results as the order service reports for a failed order of a batch
+    private static SwitchToPendingPaymentResult toResult(int orderId, Throwable e) {
+        var status = Status.fromThrowable(e);
+        if (GRPCConstant.ORDER_SERVER_INVALID_ACTION.equals(status.getDescription())) {
+            return result(orderId, SwitchResult.INVALID_ACTION, GRPCConstant.ORDER_SERVER_INVALID_ACTION);
+        }
+        return result(orderId, SwitchResult.ERROR, String.valueOf(e.getMessage()));
+    }
+
+    private static SwitchToPendingPaymentResult result(int orderId, SwitchResult switchResult, String error) {
+        return SwitchToPendingPaymentResult.newBuilder()
+            .setId(orderId)
+            .setResult(switchResult)
+            .setError(error)
+            .build();
+    }
+
+    /**
+     * One opened stream, callbacks of a stream which was replaced already are ignored
+     */
+    private class SwitchStream implements ClientResponseObserver<SwitchToPendingPaymentRequest,
+        SwitchToPendingPaymentResult> {
+
+        // orders sent on this stream without a response yet, guarded by the multiplexer
+        private final Set<Integer> sent = new HashSet<>();
+
+        private ClientCallStreamObserver<SwitchToPendingPaymentRequest> requestStream;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<SwitchToPendingPaymentRequest> requestStream) {
+            this.requestStream = requestStream;
+            // the transport has room for more requests again
+            requestStream.setOnReadyHandler(this::drain);
+        }
+
+        // send waiting orders as long as the transport is ready & the in-flight limit is not reached
+        void drain() {
+            synchronized (OrderSwitchMultiplexer.this) {
+                // also serializes the writes, the request stream is not thread safe
+                while (stream == this && !waiting.isEmpty()
+                    && sent.size() < maxInFlight && requestStream.isReady()) {
+                    int orderId = waiting.poll();
+                    sent.add(orderId);
+                    requestStream.onNext(SwitchToPendingPaymentRequest.newBuilder().setId(orderId).build());
+                }
+            }
+        }
+
+        @Override
+        public void onNext(SwitchToPendingPaymentResult result) {
+            CompletableFuture<SwitchToPendingPaymentResult> switched = null;
+            synchronized (OrderSwitchMultiplexer.this) {
+                if (sent.remove(result.getId())) {
+                    switched = switches.get(result.getId());
+                }
+            }
+
+            if (switched != null) {
+                complete(result.getId(), switched, result);
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            broken(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            broken(Status.UNAVAILABLE.withDescription("Order switch stream completed by the server")
+                .asRuntimeException());
+        }
+
+        // in-flight & waiting orders of this stream are switched with unary calls instead
+        private void broken(Throwable t) {
+            List<Integer> orphans;
+            synchronized (OrderSwitchMultiplexer.this) {
+                if (stream != this) {
+                    return;
+                }
+
+                stream = null;
+                reconnectAt = System.currentTimeMillis() + reconnectBackoffMs;
+                orphans = new ArrayList<>(sent);
+                orphans.addAll(waiting);
+                sent.clear();
+                waiting.clear();
+            }
+
+            log.warn("Order switch stream is broken, {} orders fall back to unary calls", orphans.size(), t);
+            meterRegistry.counter(BROKEN_COUNTER, "status", Status.fromThrowable(t).getCode().name()).increment();
+            for (var orderId : orphans) {
+                CompletableFuture<SwitchToPendingPaymentResult> switched;
+                synchronized (OrderSwitchMultiplexer.this) {
+                    switched = switches.get(orderId);
+                }
+                if (switched != null) {
+                    fallback(orderId, switched);
+                }
+            }
+        }
+    }
+
+}
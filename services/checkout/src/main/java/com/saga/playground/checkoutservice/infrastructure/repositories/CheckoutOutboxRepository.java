@@ -0,0 +1,57 @@
+package com.saga.playground.checkoutservice.infrastructure.repositories;
+
+import com.saga.playground.checkoutservice.constants.WorkerConstant;
+import com.saga.playground.checkoutservice.domains.entities.Checkout;
+import com.saga.playground.checkoutservice.domains.entities.CheckoutOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface CheckoutOutboxRepository extends JpaRepository<CheckoutOutbox, Long> {
+
+    /**
+     * append the current status of the checkout to the outbox if it has to be published
+     * must be called in the transaction which changes the status
+     *
+     * @param checkout checkout record with the new status
+     */
+    default void appendStatusChange(Checkout checkout) {
+        if (WorkerConstant.NOTIFIABLE_CHECKOUT_STATUSES.contains(checkout.getCheckoutStatus())) {
+            save(new CheckoutOutbox(checkout.getOrderId(), checkout.getCheckoutStatus()));
+        }
+    }
+
+    // keyset pagination by the primary key, the next page starts right after the last id of the previous one
+    // records which are still backing off after a failed send are skipped
+    @Query("SELECT o FROM CheckoutOutbox o WHERE o.id > :id AND o.nextAttemptAt <= CURRENT_TIMESTAMP ORDER BY o.id")
+    List<CheckoutOutbox> findPublishableRecords(long id, Limit limit);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM checkout_schema.checkout_outbox WHERE id = ANY(:ids)", nativeQuery = true)
+    int deleteSentRecords(Long[] ids);
+
+    /**
+     * postpone records whose send failed, the delay doubles with every attempt
+     * backoffMs * 2^attempts, capped at maxBackoffMs (the exponent is capped too, so power() can't overflow)
+     *
+     * @return number of rescheduled records
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        value = "UPDATE checkout_schema.checkout_outbox "
+            + "SET attempts = attempts + 1, "
+            + "next_attempt_at = now() "
+            + "+ LEAST(:backoffMs * power(2, LEAST(attempts, 30)), :maxBackoffMs) * interval '1 millisecond' "
+            + "WHERE id = ANY(:ids)",
+        nativeQuery = true)
+    int rescheduleFailedRecords(Long[] ids, long backoffMs, long maxBackoffMs);
+
+}
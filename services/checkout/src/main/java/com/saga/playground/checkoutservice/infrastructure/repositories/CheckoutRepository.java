@@ -1,11 +1,9 @@
 package com.saga.playground.checkoutservice.infrastructure.repositories;
 
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
-import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +11,4 @@ public interface CheckoutRepository extends JpaRepository<Checkout, Long> {
 
     Optional<Checkout> findByOrderId(String orderId);
 
-    List<Checkout> findTop100ByCheckoutStatusAndEventPublished(PaymentStatus status, Boolean isPublished);
-
 }
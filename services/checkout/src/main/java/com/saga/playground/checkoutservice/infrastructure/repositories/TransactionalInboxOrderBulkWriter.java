@@ -0,0 +1,73 @@
+package com.saga.playground.checkoutservice.infrastructure.repositories;
+
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC writer for the inbox, because ON CONFLICT DO NOTHING can't be expressed with JPA saveAll.
+ * One multi-row INSERT per chunk, duplicated order ids (e.g. redelivered kafka messages) are skipped by postgres
+ * instead of failing the whole batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionalInboxOrderBulkWriter {
+
+    // bind parameters per row, far below the 32767 parameters limit of postgres with MAX_ROWS_PER_STATEMENT
+    private static final int PARAMS_PER_ROW = 5;
+
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX = "INSERT INTO checkout_schema.t_inbox_order "
+        + "(order_id, user_id, amount, payload, payload_compressed, status, created_at, updated_at) VALUES ";
+
+    private static final String ROW_VALUES =
+        "(?, ?, ?, ?::json, ?, 'NEW'::checkout_schema.inbox_order_status, now(), now())";
+
+    private static final String INSERT_SUFFIX = " ON CONFLICT (order_id) DO NOTHING RETURNING order_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param orders new orders, only order id, extracted fields & payload (json or compressed) are written
+     * @return order ids which are actually inserted, duplicated ones are not included
+     */
+    public List<String> insertIgnoreDuplicates(List<TransactionalInboxOrder> orders) {
+        if (orders.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> insertedOrderIds = new ArrayList<>();
+        for (int from = 0; from < orders.size(); from += MAX_ROWS_PER_STATEMENT) {
+            var chunk = orders.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, orders.size()));
+
+            Object[] params = new Object[chunk.size() * PARAMS_PER_ROW];
+            for (int i = 0; i < chunk.size(); i++) {
+                var order = chunk.get(i);
+                params[i * PARAMS_PER_ROW] = order.getOrderId();
+                // typed, so nulls don't need a lookup of the parameter types
+                params[i * PARAMS_PER_ROW + 1] = new SqlParameterValue(Types.VARCHAR, order.getUserId());
+                params[i * PARAMS_PER_ROW + 2] = new SqlParameterValue(Types.NUMERIC, order.getAmount());
+                params[i * PARAMS_PER_ROW + 3] = new SqlParameterValue(Types.VARCHAR, order.getPayload());
+                params[i * PARAMS_PER_ROW + 4] = new SqlParameterValue(Types.BINARY, order.getCompressedPayload());
+            }
+
+            insertedOrderIds.addAll(
+                jdbcTemplate.queryForList(buildInsertStatement(chunk.size()), String.class, params));
+        }
+
+        return insertedOrderIds;
+    }
+
+    static String buildInsertStatement(int numberOfRows) {
+        return INSERT_PREFIX + String.join(", ", Collections.nCopies(numberOfRows, ROW_VALUES)) + INSERT_SUFFIX;
+    }
+
+}
@@ -3,9 +3,12 @@ package com.saga.playground.checkoutservice.infrastructure.repositories;
 import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,12 +25,94 @@ public interface TransactionalInboxOrderRepository extends JpaRepository<Transac
 
     List<TransactionalInboxOrder> findByWorkerIdAndStatus(String workerId, InboxOrderStatus status);
 
+    // oldest orders first, the predicate matches the partial index idx_t_inbox_order_new_fifo
     @Query(
         value = "SELECT * FROM checkout_schema.t_inbox_order t "
             + "WHERE (t.worker_id <> '') IS NOT TRUE "
             + "AND t.status = 'NEW'::checkout_schema.inbox_order_status "
-            + "LIMIT 10",
+            + "ORDER BY t.id "
+            + "LIMIT :limit",
         nativeQuery = true)
-    List<TransactionalInboxOrder> findNewOrders();
+    List<TransactionalInboxOrder> findNewOrders(int limit);
+
+    // select & update in one statement, rows locked by another worker's claim are skipped instead of waited for
+    // therefore concurrent workers always get disjoint batches without any distributed lock
+    // the claimed orders are leased to the worker for leaseMs
+    // no @Modifying here because the statement returns the claimed rows
+    @Transactional
+    @Query(
+        value = "UPDATE checkout_schema.t_inbox_order "
+            + "SET worker_id = :workerId, "
+            + "status = 'IN_PROGRESS'::checkout_schema.inbox_order_status, "
+            + "lease_until = now() + :leaseMs * interval '1 millisecond', "
+            + "attempts = attempts + 1, "
+            + "updated_at = now() "
+            + "WHERE id IN ("
+            + "SELECT t.id FROM checkout_schema.t_inbox_order t "
+            + "WHERE (t.worker_id <> '') IS NOT TRUE "
+            + "AND t.status = 'NEW'::checkout_schema.inbox_order_status "
+            + "ORDER BY t.id "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED) "
+            + "RETURNING *",
+        nativeQuery = true)
+    List<TransactionalInboxOrder> claimNewOrders(String workerId, int limit, long leaseMs);
+
+    // hand claimed orders back to the inbox, only if they are still in progress by the given worker
+    // they were never started, so the claim isn't counted as an attempt
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        value = "UPDATE checkout_schema.t_inbox_order "
+            + "SET worker_id = NULL, "
+            + "status = 'NEW'::checkout_schema.inbox_order_status, "
+            + "lease_until = NULL, "
+            + "attempts = GREATEST(attempts - 1, 0), "
+            + "updated_at = now() "
+            + "WHERE worker_id = :workerId "
+            + "AND status = 'IN_PROGRESS'::checkout_schema.inbox_order_status "
+            + "AND order_id IN (:orderIds)",
+        nativeQuery = true)
+    int releaseOrders(String workerId, List<String> orderIds);
+
+    // heartbeat of a live worker, all of its in-progress orders are leased for another leaseMs
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        value = "UPDATE checkout_schema.t_inbox_order "
+            + "SET lease_until = now() + :leaseMs * interval '1 millisecond' "
+            + "WHERE worker_id = :workerId "
+            + "AND status = 'IN_PROGRESS'::checkout_schema.inbox_order_status",
+        nativeQuery = true)
+    int renewLeases(String workerId, long leaseMs);
+
+    // orders of dead workers go back to NEW in bulk, so any worker can claim them
+    // orders which were already claimed maxAttempts times fail instead, e.g. an order which crashes every worker
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        value = "UPDATE checkout_schema.t_inbox_order "
+            + "SET status = CASE WHEN attempts >= :maxAttempts "
+            + "THEN 'FAILED'::checkout_schema.inbox_order_status "
+            + "ELSE 'NEW'::checkout_schema.inbox_order_status END, "
+            + "note = CASE WHEN attempts >= :maxAttempts THEN 'LEASE_EXPIRED_MAX_ATTEMPTS' ELSE note END, "
+            + "worker_id = NULL, "
+            + "lease_until = NULL, "
+            + "updated_at = now() "
+            + "WHERE status = 'IN_PROGRESS'::checkout_schema.inbox_order_status "
+            + "AND lease_until < now()",
+        nativeQuery = true)
+    int reclaimExpiredLeases(int maxAttempts);
+
+    // number of orders per status, for the backlog gauge
+    @Query("SELECT o.status AS status, count(o) AS total FROM TransactionalInboxOrder o "
+        + "WHERE o.status IN :statuses GROUP BY o.status")
+    List<StatusCount> countByStatusIn(Collection<InboxOrderStatus> statuses);
+
+    interface StatusCount {
+        InboxOrderStatus getStatus();
+
+        long getTotal();
+    }
 
 }
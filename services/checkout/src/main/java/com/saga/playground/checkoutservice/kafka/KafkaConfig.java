@@ -2,6 +2,8 @@ package com.saga.playground.checkoutservice.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -14,11 +16,16 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.converter.BatchMessagingMessageConverter;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @RequiredArgsConstructor
@@ -29,6 +36,48 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // the CDC topic has 5 partitions (deploys/cdc-configs/order.json), 1 consumer thread per partition
+    @Value("${worker.inbox.consumer.concurrency:5}")
+    private int consumerConcurrency;
+
+    @Value("${worker.inbox.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${worker.inbox.consumer.fetch-min-bytes:1}")
+    private int fetchMinBytes;
+
+    @Value("${worker.inbox.consumer.fetch-max-wait-ms:500}")
+    private int fetchMaxWaitMs;
+
+    // startup waits for the lookup, so it's kept short
+    @Value("${worker.inbox.consumer.partition-lookup-timeout-ms:1000}")
+    private int partitionLookupTimeoutMs;
+
+    // looked up once per topic for all containers, 0 if the lookup failed
+    private final Map<String, Integer> partitionsByTopic = new ConcurrentHashMap<>();
+
+    // falls back to the kafka client defaults if the profile isn't configured
+    @Value("${worker.checkout-status.producer.profile:DEFAULT}")
+    private KafkaProducerProfile producerProfile;
+
+    @Value("${worker.checkout-status.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${worker.checkout-status.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${worker.checkout-status.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${worker.checkout-status.producer.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+
+    @Value("${worker.checkout-status.producer.delivery-timeout-ms:30000}")
+    private int deliveryTimeoutMs;
+
+    @Value("${worker.checkout-status.producer.max-block-ms:5000}")
+    private long maxBlockMs;
+
     @Bean
     @Primary
     public Map<String, Object> consumerConfigs() {
@@ -38,6 +87,11 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // size of one listener batch, i.e. of one bulk insert into the inbox
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // the broker answers a fetch once fetch.min.bytes are there or fetch.max.wait.ms is over
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
 
         log.info("Consumer config = {}", props);
         return props;
@@ -50,6 +104,23 @@ public class KafkaConfig {
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
 
+        if (KafkaProducerProfile.THROUGHPUT.equals(producerProfile)) {
+            // the relay sends a whole outbox page at once, then waits for all of them
+            // -> no duplicates on retries, fewer & bigger compressed requests, bounded waiting per send
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+            // 5 is the max which still keeps the order with idempotence
+            props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+            props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+            props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+            // upper bound of one send incl. retries, must be >= linger.ms + request.timeout.ms
+            props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+            // send() itself blocks at most this long on metadata or a full buffer
+            props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        }
+
         log.info("Producer config = {}", props);
         return props;
     }
@@ -77,10 +148,82 @@ public class KafkaConfig {
             new BatchMessagingMessageConverter(
             )
         );
-        factory.setConcurrency(1);
+        factory.setConcurrency(consumerConcurrency);
+        // listeners may override the concurrency, the cap is applied after that
+        factory.setContainerCustomizer(this::capConcurrencyToPartitions);
         return factory;
     }
 
+    /**
+     * A partition is consumed by only 1 consumer of the group, threads above the number of partitions stay idle
+     * so the concurrency of the container is capped to the partitions of its topics
+     * if the partitions can't be looked up (e.g. the topic isn't created yet) the configured concurrency is kept
+     */
+    void capConcurrencyToPartitions(ConcurrentMessageListenerContainer<String, String> container) {
+        var topics = container.getContainerProperties().getTopics();
+        if (topics == null || topics.length == 0) {
+            return;
+        }
+
+        int partitions = countPartitions(List.of(topics));
+        if (partitions > 0 && container.getConcurrency() > partitions) {
+            log.info("Cap concurrency of listener {} from {} to {} partitions of {}",
+                container.getListenerId(), container.getConcurrency(), partitions, topics);
+            container.setConcurrency(partitions);
+        }
+    }
+
+    /**
+     * @param topics topics of a container
+     * @return total number of their partitions, 0 if the partitions of any of them are unknown
+     */
+    synchronized int countPartitions(List<String> topics) {
+        var unknownTopics = topics.stream()
+            .filter(topic -> !partitionsByTopic.containsKey(topic))
+            .toList();
+        if (!unknownTopics.isEmpty()) {
+            var partitions = lookUpPartitions(unknownTopics);
+            // a failed lookup is cached as well, so the next containers don't wait for it again
+            unknownTopics.forEach(topic -> partitionsByTopic.put(topic, partitions.getOrDefault(topic, 0)));
+        }
+
+        int total = 0;
+        for (var topic : topics) {
+            int partitions = partitionsByTopic.get(topic);
+            if (partitions == 0) {
+                return 0;
+            }
+            total += partitions;
+        }
+        return total;
+    }
+
+    // admin client instead of a consumer, metadata requests of a consumer may auto-create the topic
+    Map<String, Integer> lookUpPartitions(List<String> topics) {
+        var adminConfigs = Map.<String, Object>of(
+            AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+            // otherwise the pending request keeps the close waiting for the default api timeout (60s)
+            AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, partitionLookupTimeoutMs,
+            AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, partitionLookupTimeoutMs);
+        var adminClient = AdminClient.create(adminConfigs);
+        try {
+            Map<String, Integer> partitions = new HashMap<>();
+            adminClient.describeTopics(topics)
+                .allTopicNames()
+                .get(partitionLookupTimeoutMs, TimeUnit.MILLISECONDS)
+                .forEach((topic, description) -> partitions.put(topic, description.partitions().size()));
+            return partitions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        } catch (Exception e) {
+            log.warn("Can't look up partitions of {}, keep the configured concurrency", topics, e);
+            return Map.of();
+        } finally {
+            adminClient.close(Duration.ZERO);
+        }
+    }
+
     @Bean
     public KafkaTemplate<String, String> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
@@ -2,6 +2,7 @@ package com.saga.playground.checkoutservice.kafka;
 
 import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
 import com.saga.playground.checkoutservice.workers.inboxpatterns.CheckoutInboxWorker;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
@@ -11,20 +12,29 @@ import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class KafkaListenerRegistrations {
 
+    static final String BATCH_SIZE_SUMMARY = "inbox.consumer.batch.size";
+    static final String INGEST_TIMER = "inbox.consumer.ingest";
+    static final String RECORD_AGE_TIMER = "inbox.consumer.record.age";
+
     private final CheckoutInboxWorker checkoutInboxWorker;
 
+    private final MeterRegistry meterRegistry;
+
     @KafkaListener(
         groupId = MessageBrokerConstant.ORDER_CREATED_CONSUMER_GROUP_ID,
         topics = MessageBrokerConstant.ORDER_CREATED_TOPIC,
-        concurrency = "1" // for demo purpose
+        // 1 consumer thread per partition, capped to the partitions of the topic by the container factory
+        concurrency = "${worker.inbox.consumer.concurrency:5}"
     )
     public void pullCreatedOrder(List<Message<String>> list, Acknowledgment ack) {
+        long startTime = System.nanoTime();
         log.info("INBOX_ORDER_START received from topic {}, offset {} - {}",
             list.get(0).getHeaders().get(KafkaHeaders.RECEIVED_TOPIC),
             list.get(0).getHeaders().get(KafkaHeaders.OFFSET),
@@ -40,6 +50,7 @@ public class KafkaListenerRegistrations {
             list.get(list.size() - 1).getHeaders().get(KafkaHeaders.OFFSET)
         );
         ack.acknowledge();
+        recordIngest(list, System.nanoTime() - startTime);
 
         log.info("INBOX_ORDER_FINISHED topic {}, offset {} - {}",
             list.get(0).getHeaders().get(KafkaHeaders.RECEIVED_TOPIC),
@@ -48,4 +59,18 @@ public class KafkaListenerRegistrations {
         );
     }
 
+    /**
+     * batch size & time to save + ack the batch,
+     * record age is from the broker timestamp of the oldest record in the batch (~ CDC time) until its ack
+     */
+    private void recordIngest(List<Message<String>> list, long ingestNanos) {
+        meterRegistry.summary(BATCH_SIZE_SUMMARY).record(list.size());
+        meterRegistry.timer(INGEST_TIMER).record(ingestNanos, TimeUnit.NANOSECONDS);
+
+        if (list.get(0).getHeaders().get(KafkaHeaders.RECEIVED_TIMESTAMP) instanceof Long receivedTimestamp) {
+            long recordAgeMs = Math.max(0, System.currentTimeMillis() - receivedTimestamp);
+            meterRegistry.timer(RECORD_AGE_TIMER).record(recordAgeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
 }
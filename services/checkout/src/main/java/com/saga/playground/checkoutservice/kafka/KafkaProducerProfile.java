@@ -0,0 +1,11 @@
+package com.saga.playground.checkoutservice.kafka;
+
+/**
+ * Producer settings of the checkout status publisher
+ * - DEFAULT: only bootstrap servers & serializers, everything else is the kafka client default
+ * - THROUGHPUT: idempotent, compressed & batched sends for the bursts of the outbox relay
+ */
+public enum KafkaProducerProfile {
+    DEFAULT,
+    THROUGHPUT
+}
@@ -2,6 +2,8 @@ package com.saga.playground.checkoutservice.schedulers;
 
 import com.saga.playground.checkoutservice.tasks.SingleExecutionQueuedTaskRunner;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutStatusPublishWorker;
+import com.saga.playground.checkoutservice.workers.checkout.InboxLeaseSweeper;
+import com.saga.playground.checkoutservice.workers.inboxpatterns.InboxBacklogMetrics;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +23,12 @@ public class CheckoutWorkerTriggerTask {
 
     private final CheckoutStatusPublishWorker checkoutStatusPublishWorker;
 
+    private final InboxBacklogMetrics inboxBacklogMetrics;
+
+    private final InboxLeaseSweeper inboxLeaseSweeper;
+
+    // new orders normally wake the runner up through InboxOrderSavedListener
+    // this poll only picks up what was missed, e.g. notifications lost during a reconnection
     @Async(value = "getAsyncExecutor")
     @Scheduled(fixedRateString = "${worker.checkout.interval}")
     public void scheduledPullOrders() {
@@ -28,8 +36,23 @@ public class CheckoutWorkerTriggerTask {
     }
 
     @Async(value = "getAsyncExecutor")
-    @Scheduled(fixedRateString = "${worker.checkout.interval}")
+    @Scheduled(fixedRateString = "${worker.checkout-status.interval}")
     public void scheduledPublishCheckoutStatus() {
         checkoutStatusPublishWorker.publishCheckoutStatus();
     }
+
+    @Async(value = "getAsyncExecutor")
+    @Scheduled(fixedRateString = "${worker.inbox.backlog-metrics-interval}")
+    public void scheduledRefreshInboxBacklog() {
+        inboxBacklogMetrics.refresh();
+    }
+
+    // reclaimed orders are NEW again, wake this worker up instead of waiting for the next poll
+    @Async(value = "getAsyncExecutor")
+    @Scheduled(fixedRateString = "${worker.checkout.lease.sweep-interval}")
+    public void scheduledSweepInboxLeases() {
+        if (inboxLeaseSweeper.sweep() > 0) {
+            checkoutPullOrderRunner.tryRun();
+        }
+    }
 }
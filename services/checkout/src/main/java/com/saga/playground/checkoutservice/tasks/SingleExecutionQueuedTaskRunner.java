@@ -57,11 +57,14 @@ public class SingleExecutionQueuedTaskRunner {
             Thread.currentThread().getName(), this.taskName);
         isRunning.set(true);
 
-        task.run();
-
-        log.info("Thread {}  - task {} finishes running task",
-            Thread.currentThread().getName(), this.taskName);
-        isRunning.set(false);
+        try {
+            task.run();
+        } finally {
+            // a failed task must not block every later run
+            log.info("Thread {}  - task {} finishes running task",
+                Thread.currentThread().getName(), this.taskName);
+            isRunning.set(false);
+        }
     }
 
 }
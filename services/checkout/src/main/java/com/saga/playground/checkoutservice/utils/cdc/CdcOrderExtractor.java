@@ -0,0 +1,114 @@
+package com.saga.playground.checkoutservice.utils.cdc;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Single pass reader of the Debezium envelope of a created order
+ * only the fields of payload.after which the checkout needs are read, everything else
+ * (e.g. the schema block, most of the message with schemas.enable=true) is skipped token by token
+ * without binding it to any object
+ */
+@Component
+public class CdcOrderExtractor {
+
+    // thread-safe, parsers are created per message
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * <a href="https://debezium.io/documentation/faq/#how_to_retrieve_decimal_field_from_binary_representation">...</a>
+     * The amount is of type decimal in postgres, Debezium encodes it before publishing to Kafka
+     *
+     * @param encodedAmount encoded value from Debezium
+     * @return decodedValue - the original decimal value
+     */
+    public static BigDecimal decodeAmount(String encodedAmount) {
+        BigInteger integer = new BigInteger(Base64.getDecoder().decode(encodedAmount));
+        return new BigDecimal(integer, MessageBrokerConstant.ORDER_AMOUNT_SCALE);
+    }
+
+    /**
+     * @param rawPayload JSON string of the Debezium envelope
+     * @return the created order, empty if the envelope has no payload.after.id
+     * @throws IOException if the payload isn't valid JSON up to payload.after
+     */
+    public Optional<CreatedOrder> extract(String rawPayload) throws IOException {
+        try (var parser = jsonFactory.createParser(rawPayload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                || !moveIntoObjectField(parser, "payload")
+                || !moveIntoObjectField(parser, "after")) {
+                return Optional.empty();
+            }
+
+            // the rest of the envelope (source, op, ts_ms...) isn't needed, the parser stops here
+            return readAfter(parser);
+        }
+    }
+
+    // moves the parser into the object value of the field, the other fields of the current object are skipped
+    private boolean moveIntoObjectField(JsonParser parser, String fieldName) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var currentName = parser.currentName();
+            var valueToken = parser.nextToken();
+            if (fieldName.equals(currentName)) {
+                return valueToken == JsonToken.START_OBJECT;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private Optional<CreatedOrder> readAfter(JsonParser parser) throws IOException {
+        Long id = null;
+        String userId = null;
+        String encodedAmount = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var currentName = parser.currentName();
+            var valueToken = parser.nextToken();
+            if (valueToken.isStructStart()) {
+                // none of the read fields is an object or an array, so a nested value is skipped as a whole
+                // instead of reading its first scalar or taking its fields for the ones of after
+                parser.skipChildren();
+                continue;
+            }
+            if (valueToken == JsonToken.VALUE_NULL) {
+                // the field stays null
+                continue;
+            }
+            switch (currentName) {
+                case "id" -> id = parser.getLongValue();
+                case "user_id" -> userId = parser.getValueAsString();
+                case "amount" -> encodedAmount = parser.getValueAsString();
+                default -> {
+                    // a scalar which the checkout doesn't need
+                }
+            }
+        }
+
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new CreatedOrder(
+            "%d".formatted(id),
+            userId,
+            encodedAmount == null ? null : decodeAmount(encodedAmount)));
+    }
+
+    /**
+     * Fields of a created order which the checkout is built from
+     *
+     * @param amount already decoded
+     */
+    public record CreatedOrder(String orderId, String userId, BigDecimal amount) {
+    }
+
+}
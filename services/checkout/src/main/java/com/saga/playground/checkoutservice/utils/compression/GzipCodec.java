@@ -0,0 +1,37 @@
+package com.saga.playground.checkoutservice.utils.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip of UTF-8 strings, all in memory so IOExceptions are only thrown for corrupted input
+ */
+public final class GzipCodec {
+
+    private GzipCodec() {
+    }
+
+    public static byte[] compress(String value) {
+        var outputStream = new ByteArrayOutputStream();
+        try (var gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    public static String decompress(byte[] compressedValue) {
+        try (var gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressedValue))) {
+            return new String(gzipStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
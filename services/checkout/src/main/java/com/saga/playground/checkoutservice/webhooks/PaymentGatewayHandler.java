@@ -3,6 +3,7 @@ package com.saga.playground.checkoutservice.webhooks;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
 import com.saga.playground.checkoutservice.presentations.responses.IPNResponse;
 import com.saga.playground.checkoutservice.utils.http.error.CommonHttpError;
@@ -11,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class will be used to simulate the Payment Gateway
@@ -22,6 +24,8 @@ public class PaymentGatewayHandler {
 
     private final CheckoutRepository checkoutRepository;
 
+    private final CheckoutOutboxRepository checkoutOutboxRepository;
+
     private final ObjectMapper objectMapper;
 
     /**
@@ -32,6 +36,7 @@ public class PaymentGatewayHandler {
      * We don't have the real PG in this playground yet.
      * Therefore, this class will be used to simulate that behavior
      */
+    @Transactional
     public void simulateWebhookReceived(IPNResponse response) {
         log.info("Received IPN for order {}", response.orderId());
 
@@ -66,7 +71,9 @@ public class PaymentGatewayHandler {
         return true;
     }
 
+    // the checkout & its outbox record are committed together
     @SneakyThrows
+    @Transactional
     public void persistIPNResponse(IPNResponse response) {
         var checkoutRecord = checkoutRepository.findByOrderId(response.orderId())
             .orElseThrow(() -> {
@@ -83,6 +90,7 @@ public class PaymentGatewayHandler {
         checkoutRecord.setWebhookPayload(jsonRes);
 
         checkoutRepository.save(checkoutRecord);
+        checkoutOutboxRepository.appendStatusChange(checkoutRecord);
     }
 
 }
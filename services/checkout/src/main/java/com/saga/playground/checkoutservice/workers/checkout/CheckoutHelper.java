@@ -1,23 +1,23 @@
 package com.saga.playground.checkoutservice.workers.checkout;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
 import com.saga.playground.checkoutservice.events.checkout.CheckoutRegisteredEvent;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
-import com.saga.playground.checkoutservice.presentations.requests.KafkaCreatedOrderMessage;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
+import com.saga.playground.checkoutservice.utils.compression.GzipCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,7 +26,7 @@ import java.util.UUID;
 @Slf4j
 public class CheckoutHelper {
 
-    private final ObjectMapper objectMapper;
+    private final CdcOrderExtractor cdcOrderExtractor;
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
@@ -65,17 +65,13 @@ public class CheckoutHelper {
             }
         } else {
             // not existed -> but new entity
-
-            var payload =
-                objectMapper.readValue(inboxOrder.getPayload(), KafkaCreatedOrderMessage.class);
-
-            BigDecimal decodedAmount = decodeAmount(payload.payload().after().amount());
+            var createdOrder = getCreatedOrder(inboxOrder);
 
             var checkout = new Checkout(
-                "%d".formatted(payload.payload().after().id()),
-                payload.payload().after().userId(),
+                createdOrder.orderId(),
+                createdOrder.userId(),
                 PaymentStatus.INIT,
-                decodedAmount
+                createdOrder.amount()
             );
 
             checkoutRepository.save(checkout);
@@ -83,6 +79,26 @@ public class CheckoutHelper {
         }
     }
 
+    // fields extracted at ingest time, the payload is never parsed for them
+    // only rows ingested before the extraction existed fall back to the payload
+    private CdcOrderExtractor.CreatedOrder getCreatedOrder(TransactionalInboxOrder inboxOrder) throws IOException {
+        if (inboxOrder.getUserId() != null && inboxOrder.getAmount() != null) {
+            return new CdcOrderExtractor.CreatedOrder(
+                inboxOrder.getOrderId(), inboxOrder.getUserId(), inboxOrder.getAmount());
+        }
+
+        var rawPayload = inboxOrder.getPayload() != null || inboxOrder.getCompressedPayload() == null
+            ? inboxOrder.getPayload()
+            : GzipCodec.decompress(inboxOrder.getCompressedPayload());
+        if (rawPayload == null) {
+            throw new JsonMappingException(null, "No payload of inbox order %s".formatted(inboxOrder.getOrderId()));
+        }
+
+        return cdcOrderExtractor.extract(rawPayload)
+            .orElseThrow(() -> new JsonMappingException(null,
+                "No order in the payload of inbox order %s".formatted(inboxOrder.getOrderId())));
+    }
+
     /**
      * <a href="https://debezium.io/documentation/faq/#how_to_retrieve_decimal_field_from_binary_representation">...</a>
      * We are using Debezium to capture the changes from order service, the amount is of type decimal in postgres
@@ -93,14 +109,14 @@ public class CheckoutHelper {
      * @return decodedValue - the original decimal value
      */
     BigDecimal decodeAmount(String encodedAmount) {
-        BigInteger integer = new BigInteger(Base64.getDecoder().decode(encodedAmount));
-        return new BigDecimal(integer, MessageBrokerConstant.ORDER_AMOUNT_SCALE);
+        return CdcOrderExtractor.decodeAmount(encodedAmount);
     }
 
     /**
      * This method will handle to core logic of checkout
      * It will make call to the payment gateway in the actual implementation
      * For demo purpose, it will just stimulate a call here
+     * It's called outside of any transaction, so no db connection is held while waiting for the gateway
      *
      * @param checkoutInfo Checkout entity
      * @return sessionId of the checkout from Payment gateway which can be used later
@@ -110,8 +126,11 @@ public class CheckoutHelper {
     public String registerCheckout(Checkout checkoutInfo) {
         try {
             log.info("Call payment gateway for checking out order {}", checkoutInfo.getOrderId());
+            String idempotencyKey = idempotencyKey(checkoutInfo);
             Thread.sleep(WorkerConstant.WORKER_CHECKOUT_DELAY_MILLISECONDS);
-            return UUID.randomUUID().toString(); // fake a session id from payment gateway
+            // the gateway returns the session of the first call with the same key instead of registering a new one
+            // faked by deriving the session id from the key
+            return UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8)).toString();
         } catch (Exception e) {
             log.error("Error when call payment gateway for order {}", checkoutInfo.getOrderId(), e);
             Thread.currentThread().interrupt();
@@ -119,6 +138,17 @@ public class CheckoutHelper {
         }
     }
 
+    /**
+     * one checkout per order, so a call repeated after a crash before its result was persisted
+     * is recognized by the payment gateway
+     *
+     * @param checkoutInfo Checkout entity
+     * @return idempotency key of the gateway call
+     */
+    static String idempotencyKey(Checkout checkoutInfo) {
+        return "checkout-%s".formatted(checkoutInfo.getOrderId());
+    }
+
     /**
      * This method will be used to process ASYNC post checkout process
      * E.g:
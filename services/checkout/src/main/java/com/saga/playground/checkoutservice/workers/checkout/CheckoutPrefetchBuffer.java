@@ -0,0 +1,61 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded set of the orders which are claimed by this worker & submitted to the checkout thread pool
+ * (waiting in the queue or running), it's the look-ahead of the processing pipeline
+ * - the claimer only claims as many orders as the remaining capacity
+ * - workers ask for a refill as soon as the occupancy drops to the refill threshold
+ * so the pool is kept busy while the backlog is deep, without waiting for the next scheduled pull
+ * - an order is never submitted twice while it's still in flight
+ */
+@Component
+public class CheckoutPrefetchBuffer {
+
+    private final Set<String> inFlightOrderIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${worker.checkout.prefetch.capacity}")
+    private int capacity;
+
+    @Value("${worker.checkout.prefetch.refill-threshold}")
+    private int refillThreshold;
+
+    /**
+     * @param orderId id of the order which is going to be submitted
+     * @return false if the order is already in flight
+     */
+    public boolean add(String orderId) {
+        return inFlightOrderIds.add(orderId);
+    }
+
+    public void remove(String orderId) {
+        inFlightOrderIds.remove(orderId);
+    }
+
+    public void removeAll(Collection<String> orderIds) {
+        inFlightOrderIds.removeAll(orderIds);
+    }
+
+    public boolean contains(String orderId) {
+        return inFlightOrderIds.contains(orderId);
+    }
+
+    public int occupancy() {
+        return inFlightOrderIds.size();
+    }
+
+    public int remainingCapacity() {
+        return Math.max(0, capacity - occupancy());
+    }
+
+    public boolean needsRefill() {
+        return occupancy() <= refillThreshold;
+    }
+
+}
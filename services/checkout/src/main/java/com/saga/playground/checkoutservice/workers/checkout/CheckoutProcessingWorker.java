@@ -3,29 +3,46 @@ package com.saga.playground.checkoutservice.workers.checkout;
 import com.saga.playground.checkoutservice.constants.ErrorConstant;
 import com.saga.playground.checkoutservice.constants.GRPCConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
+import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
 import com.saga.playground.checkoutservice.grpc.services.OrderGRPCService;
+import com.saga.playground.checkoutservice.grpc.services.OrderSwitchMultiplexer;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
 import com.saga.playground.checkoutservice.utils.http.error.CommonHttpError;
 import com.saga.playground.checkoutservice.utils.http.error.HttpException;
 import com.saga.playground.checkoutservice.utils.locks.DistributedLock;
 import com.saga.playground.checkoutservice.workers.workerregistration.CheckoutRegistrationWorker;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -34,6 +51,11 @@ import java.util.concurrent.TimeUnit;
 @Qualifier("kafkaMessageObjectMapper")
 public class CheckoutProcessingWorker {
 
+    static final String RETRY_COUNTER = "checkout.process.retries";
+    static final String RECOVERED_COUNTER = "checkout.process.recovered";
+    static final String CLAIM_TIMER = "checkout.claim";
+    static final String CLAIM_LOCK_WAIT_TIMER = "checkout.claim.lock.wait";
+
     private final TransactionalInboxOrderRepository transactionalInboxOrderRepository;
 
     private final CheckoutRegistrationWorker registrationWorker;
@@ -42,11 +64,38 @@ public class CheckoutProcessingWorker {
 
     private final OrderGRPCService orderGRPCService;
 
+    private final OrderSwitchMultiplexer orderSwitchMultiplexer;
+
     private final CheckoutRepository checkoutRepository;
 
+    private final CheckoutOutboxRepository checkoutOutboxRepository;
+
     private final CheckoutHelper checkoutHelper;
 
-    void updateFailedInbox(String orderId, Exception e) {
+    private final ClaimBatchSizer claimBatchSizer;
+
+    private final CheckoutPrefetchBuffer checkoutPrefetchBuffer;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${worker.checkout.claim-strategy}")
+    private InboxClaimStrategy claimStrategy;
+
+    // claimed orders are leased to this worker, renewed by InboxLeaseSweeper while the worker is alive
+    @Value("${worker.checkout.lease.duration-ms:120000}")
+    private long leaseDurationMs = 120000;
+
+    // same as the default backoff of @Retryable
+    @Value("${worker.checkout.order-switch.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    // switches go over the shared stream instead of one batch call per claim
+    @Value("${worker.checkout.order-switch.stream.enabled:false}")
+    private boolean streamEnabled = false;
+
+    void updateFailedInbox(String orderId, Throwable e) {
         transactionalInboxOrderRepository.findByOrderId(orderId)
             .ifPresent(inboxOrder -> {
                 inboxOrder.setStatus(InboxOrderStatus.FAILED);
@@ -55,63 +104,194 @@ public class CheckoutProcessingWorker {
     }
 
     /**
-     * method to start checkout process of an order
+     * first step of the checkout, switch a batch of orders to pending payment with one call to the order service,
+     * or over the stream of OrderSwitchMultiplexer if it's enabled
+     * It runs outside of any transaction & doesn't block the calling thread,
+     * failed orders are retried together after a backoff, invalid orders are not retried
+     *
+     * @param orderIds id of orders
+     * @return one future per order id, completes once the order is switched,
+     * exceptionally with the last error if it can't be switched
+     */
+    public Map<String, CompletableFuture<Void>> switchOrderStatuses(List<String> orderIds) {
+        Map<String, CompletableFuture<Void>> switches = new HashMap<>();
+        Map<Integer, CompletableFuture<Void>> pendingSwitches = new LinkedHashMap<>();
+        for (var orderId : orderIds) {
+            var switched = new CompletableFuture<Void>();
+            switches.put(orderId, switched);
+            try {
+                pendingSwitches.put(Integer.parseInt(orderId), switched);
+            } catch (NumberFormatException e) {
+                switched.completeExceptionally(e);
+            }
+        }
+
+        if (!pendingSwitches.isEmpty()) {
+            switchOrderStatuses(pendingSwitches, 0);
+        }
+        return switches;
+    }
+
+    private void switchOrderStatuses(Map<Integer, CompletableFuture<Void>> pendingSwitches, int retryCount) {
+        var orderIds = List.copyOf(pendingSwitches.keySet());
+        log.info("Start switching orders {}, retry {}", orderIds, retryCount);
+        if (retryCount > 0) {
+            meterRegistry.counter(RETRY_COUNTER).increment(orderIds.size());
+        }
+
+        // composed, so even an error thrown by the call itself fails the batch instead of leaving it pending
+        CompletableFuture.completedFuture(orderIds)
+            .thenCompose(ids -> streamEnabled
+                ? orderSwitchMultiplexer.switchOrderStatuses(ids)
+                : orderGRPCService.switchOrderStatuses(ids))
+            .whenComplete((results, e) -> {
+                Map<Integer, Throwable> errors = new LinkedHashMap<>();
+                if (e != null) {
+                    var cause = e instanceof CompletionException ? e.getCause() : e;
+                    orderIds.forEach(orderId -> errors.put(orderId, cause));
+                } else {
+                    Map<Integer, SwitchToPendingPaymentResult> resultByOrderId = new HashMap<>();
+                    results.forEach(result -> resultByOrderId.put(result.getId(), result));
+                    pendingSwitches.forEach((orderId, switched) -> {
+                        var result = resultByOrderId.get(orderId);
+                        if (result != null && result.getResult() == SwitchResult.SWITCHED) {
+                            switched.complete(null);
+                        } else {
+                            errors.put(orderId, toSwitchError(orderId, result));
+                        }
+                    });
+                }
+
+                Map<Integer, CompletableFuture<Void>> retries = new LinkedHashMap<>();
+                errors.forEach((orderId, error) -> {
+                    if (isInvalidAction(error) || retryCount + 1 >= WorkerConstant.MAX_RETRY_TIMES) {
+                        pendingSwitches.get(orderId).completeExceptionally(error);
+                    } else {
+                        retries.put(orderId, pendingSwitches.get(orderId));
+                    }
+                });
+
+                if (!retries.isEmpty()) {
+                    // the backoff is a timer, no thread waits for it
+                    CompletableFuture.delayedExecutor(retryBackoffMs, TimeUnit.MILLISECONDS)
+                        .execute(() -> switchOrderStatuses(retries, retryCount + 1));
+                }
+            });
+    }
+
+    // same errors as a failed unary call, so failCheckout classifies both the same way
+    private static StatusRuntimeException toSwitchError(int orderId, SwitchToPendingPaymentResult result) {
+        if (result == null) {
+            return Status.INTERNAL.withDescription("No switch result for order %d".formatted(orderId))
+                .asRuntimeException();
+        }
+
+        if (result.getResult() == SwitchResult.INVALID_ACTION) {
+            return Status.UNKNOWN.withDescription(GRPCConstant.ORDER_SERVER_INVALID_ACTION).asRuntimeException();
+        }
+
+        return Status.UNKNOWN.withDescription(result.getError()).asRuntimeException();
+    }
+
+    private static boolean isInvalidAction(Throwable e) {
+        return e instanceof StatusRuntimeException statusException
+            && GRPCConstant.ORDER_SERVER_INVALID_ACTION.equals(statusException.getStatus().getDescription());
+    }
+
+    /**
+     * mark the inbox as failed when its order can't be switched
      *
      * @param orderId id of order
+     * @param e       error which completed its future of switchOrderStatuses
      */
     @Transactional
+    public void failCheckout(String orderId, Throwable e) {
+        if (e instanceof NumberFormatException) {
+            log.error("INVALID ORDER FORMAT {}", orderId);
+        } else if (isInvalidAction(e)) {
+            log.info("INVALID ACTION {}", orderId);
+        } else {
+            log.error(ErrorConstant.CODE_RETRY_LIMIT_EXCEEDED, orderId, e);
+            meterRegistry.counter(RECOVERED_COUNTER, "exception", e.getClass().getSimpleName()).increment();
+        }
+        updateFailedInbox(orderId, e);
+    }
+
+    /**
+     * second step of the checkout, only started after the order is switched (switchOrderStatuses)
+     * so no transaction & db connection is held while waiting for the order service
+     * It's split into short transactions around the payment gateway call, which runs outside of any transaction:
+     * - persist the intent, a checkout in INIT
+     * - call the payment gateway
+     * - persist the result, checkout PROCESSING & inbox DONE
+     * A crash between the steps leaves the checkout in INIT & the inbox IN_PROGRESS, so the order is processed again,
+     * the gateway call is idempotent per checkout & returns the session of the first call
+     *
+     * @param orderId id of order
+     */
     @Retryable(recover = "recoverCheckoutFailed", maxAttempts = WorkerConstant.MAX_RETRY_TIMES)
     public void processCheckout(String orderId) {
-        log.info("Start checking out order {}, retry {}",
-            orderId,
-            Objects.requireNonNull(RetrySynchronizationManager.getContext()).getRetryCount());
-        // grpc call to switch order status
-        try {
-            orderGRPCService.switchOrderStatus(Integer.parseInt(orderId));
-        } catch (NumberFormatException e) {
-            log.error("INVALID ORDER FORMAT {}", orderId); // no retry
-            updateFailedInbox(orderId, e);
+        int retryCount = Objects.requireNonNull(RetrySynchronizationManager.getContext()).getRetryCount();
+        log.info("Start checking out order {}, retry {}", orderId, retryCount);
+        if (retryCount > 0) {
+            meterRegistry.counter(RETRY_COUNTER).increment();
+        }
+
+        var checkout = transactionTemplate.execute(status -> prepareCheckout(orderId));
+        if (checkout == null || checkout.isEmpty()) {
             return;
-        } catch (StatusRuntimeException e) {
-            if (GRPCConstant.ORDER_SERVER_INVALID_ACTION.equals(e.getStatus().getDescription())) {
-                log.info("INVALID ACTION {}", orderId); // no retry
-                updateFailedInbox(orderId, e);
-                return;
-            } else {
-                throw e;
-            }
-        } // other exception won't be caught & this method will retry
+        }
 
-        // if switch status OK -> continue
+        // fake logic to process order
+        String checkoutSessionId = checkoutHelper.registerCheckout(checkout.get());
 
+        transactionTemplate.executeWithoutResult(status -> completeCheckout(orderId, checkoutSessionId));
+    }
+
+    // persist the intent, the checkout is created in INIT or the existing one is picked up again
+    private Optional<Checkout> prepareCheckout(String orderId) {
         // query inbox & extract order data
         var inbox = transactionalInboxOrderRepository.findByOrderId(orderId);
         if (inbox.isEmpty()) {
             log.info("INBOX NOT FOUND {}", orderId);
-            return;
+            return Optional.empty();
         }
 
-        checkoutHelper.upsertCheckoutInfo(inbox.get())
-            .ifPresentOrElse(savedCheckout -> {
-                // fake logic to process order
-                String checkoutSessionId = checkoutHelper.registerCheckout(savedCheckout);
+        var checkout = checkoutHelper.upsertCheckoutInfo(inbox.get());
+        if (checkout.isEmpty()) {
+            updateFailedInbox(orderId, new HttpException(CommonHttpError.ILLEGAL_ARGS));
+        }
+        return checkout;
+    }
+
+    // persist the result of the gateway call, re-read since the checkout may have changed in the meantime
+    private void completeCheckout(String orderId, String checkoutSessionId) {
+        var inbox = transactionalInboxOrderRepository.findByOrderId(orderId)
+            .orElseThrow(() -> new IllegalStateException("Inbox of order %s is gone".formatted(orderId)));
+        var checkout = checkoutRepository.findByOrderId(orderId)
+            .orElseThrow(() -> new IllegalStateException("Checkout of order %s is gone".formatted(orderId)));
 
-                // mark done for transactional inbox pattern
-                inbox.get().setStatus(InboxOrderStatus.DONE);
+        // a previous attempt may have completed it already, e.g. it crashed after the commit
+        // or the webhook came first, its status is never overwritten & notified twice
+        if (PaymentStatus.INIT.equals(checkout.getCheckoutStatus())) {
+            checkout.setCheckoutSessionId(checkoutSessionId);
+            checkout.setCheckoutStatus(PaymentStatus.PROCESSING);
+            // same transaction as the status change, only notifiable statuses are appended
+            checkoutOutboxRepository.appendStatusChange(checkout);
+        }
 
-                // update checkout status
-                // info will be saved at the end of the transaction
-                savedCheckout.setCheckoutSessionId(checkoutSessionId);
-                savedCheckout.setCheckoutStatus(PaymentStatus.PROCESSING);
+        // mark done for transactional inbox pattern
+        inbox.setStatus(InboxOrderStatus.DONE);
 
-                log.info("Successfully submit checkout request for order {}", orderId);
-            }, () -> updateFailedInbox(orderId, new HttpException(CommonHttpError.ILLEGAL_ARGS)));
+        log.info("Successfully submit checkout request for order {}", orderId);
     }
 
     @Recover
     public void recoverCheckoutFailed(Exception e, String orderId) {
         log.error(ErrorConstant.CODE_RETRY_LIMIT_EXCEEDED, orderId, e);
-        updateFailedInbox(orderId, e);
+        meterRegistry.counter(RECOVERED_COUNTER, "exception", e.getClass().getSimpleName()).increment();
+        // processCheckout has no transaction of its own anymore
+        transactionTemplate.executeWithoutResult(status -> updateFailedInbox(orderId, e));
     }
 
     /**
@@ -130,53 +310,115 @@ public class CheckoutProcessingWorker {
     /**
      * check if there is any existing orders we can continue to process
      * otherwise will pull new order from TransactionalInboxOrder table and process them
+     * orders which are still in the prefetch buffer are in-progress as well, but must not be submitted again
      */
     @Transactional
     public List<TransactionalInboxOrder> pullOrders() {
-        var existingOrders = retrieveExistingOrder();
+        var existingOrders = retrieveExistingOrder().stream()
+            .filter(order -> !checkoutPrefetchBuffer.contains(order.getOrderId()))
+            .toList();
         if (!existingOrders.isEmpty()) {
             log.info("{} found existing orders: {}", registrationWorker.getWorkerId(),
                 existingOrders.stream().map(TransactionalInboxOrder::getOrderId).toList());
             return existingOrders;
-        } else {
-            // try to acquire zookeeper log
-            List<TransactionalInboxOrder> newOrders = null;
-            if (distributedLock.acquireLock(
-                WorkerConstant.WORKER_PULL_ORDER_LOCK,
-                WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
-                TimeUnit.SECONDS)) {
-                log.info("{} acquired lock successfully, start querying new orders",
-                    registrationWorker.getWorkerId());
-
-                try {
-                    // if successfully acquire lock -> query 100 record
-                    newOrders = transactionalInboxOrderRepository.findNewOrders();
-                    // set all record to in-progress with worker_id
-                    newOrders.forEach(order -> {
-                        order.setWorkerId(registrationWorker.getWorkerId());
-                        order.setStatus(InboxOrderStatus.IN_PROGRESS);
-                    });
+        }
 
-                    transactionalInboxOrderRepository.saveAll(newOrders);
-                    log.info("{} successfully acquired orders {}", registrationWorker.getWorkerId(),
-                        newOrders.stream().map(TransactionalInboxOrder::getOrderId).toList());
-                } catch (Exception e) {
-                    log.error("Unhandled error when {} pulling new orders", registrationWorker.getWorkerId(), e);
-                    throw e;
-                } finally {
-                    // release lock
-                    distributedLock.releaseLock(WorkerConstant.WORKER_PULL_ORDER_LOCK);
-                    log.info("{} successfully released lock", registrationWorker.getWorkerId());
-                }
-            } else {
-                log.info("{} cannot acquire lock to pull new orders", registrationWorker.getWorkerId());
+        int batchSize = claimBatchSizer.nextBatchSize();
+        if (batchSize == 0) {
+            log.info("{} has no free capacity to pull new orders", registrationWorker.getWorkerId());
+            return Collections.emptyList();
+        }
+
+        var sample = Timer.start(meterRegistry);
+        try {
+            if (InboxClaimStrategy.SKIP_LOCKED.equals(claimStrategy)) {
+                return claimNewOrders(batchSize);
             }
 
-            if (!Objects.isNull(newOrders)) {
-                return newOrders;
+            return pullNewOrdersWithLock(batchSize);
+        } finally {
+            sample.stop(meterRegistry.timer(CLAIM_TIMER, "strategy", String.valueOf(claimStrategy)));
+        }
+    }
+
+    /**
+     * un-claim orders which this worker can't process right now, they become NEW again for any worker
+     *
+     * @param orderIds id of the claimed orders
+     * @return number of released orders
+     */
+    public int releaseOrders(List<String> orderIds) {
+        String workerId = registrationWorker.getWorkerId();
+        int releasedOrders = transactionalInboxOrderRepository.releaseOrders(workerId, orderIds);
+        log.info("{} released orders {}", workerId, orderIds);
+        return releasedOrders;
+    }
+
+    /**
+     * claim new orders with a single UPDATE ... FOR UPDATE SKIP LOCKED statement
+     * workers don't wait for each other, rows which are being claimed by another worker are just skipped
+     *
+     * @param batchSize maximum number of orders to claim
+     * @return claimed orders, already marked as in-progress with this worker id & leased to it
+     */
+    List<TransactionalInboxOrder> claimNewOrders(int batchSize) {
+        String workerId = registrationWorker.getWorkerId();
+        var newOrders = transactionalInboxOrderRepository.claimNewOrders(workerId, batchSize, leaseDurationMs);
+        log.info("{} successfully claimed orders {}", workerId,
+            newOrders.stream().map(TransactionalInboxOrder::getOrderId).toList());
+        return newOrders;
+    }
+
+    /**
+     * acquire the distributed pull lock, then query new orders & mark them as in-progress with this worker id
+     *
+     * @param batchSize maximum number of orders to pull
+     * @return pulled orders, empty list if the lock can't be acquired
+     */
+    List<TransactionalInboxOrder> pullNewOrdersWithLock(int batchSize) {
+        // try to acquire zookeeper log
+        List<TransactionalInboxOrder> newOrders = null;
+        var lockWaitSample = Timer.start(meterRegistry);
+        boolean lockAcquired = distributedLock.acquireLock(
+            WorkerConstant.WORKER_PULL_ORDER_LOCK,
+            WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
+            TimeUnit.SECONDS);
+        lockWaitSample.stop(meterRegistry.timer(CLAIM_LOCK_WAIT_TIMER, "acquired", String.valueOf(lockAcquired)));
+        if (lockAcquired) {
+            log.info("{} acquired lock successfully, start querying new orders",
+                registrationWorker.getWorkerId());
+
+            try {
+                // if successfully acquire lock -> query a batch of records
+                newOrders = transactionalInboxOrderRepository.findNewOrders(batchSize);
+                // set all record to in-progress with worker_id
+                var leaseUntil = Instant.now().plusMillis(leaseDurationMs);
+                newOrders.forEach(order -> {
+                    order.setWorkerId(registrationWorker.getWorkerId());
+                    order.setStatus(InboxOrderStatus.IN_PROGRESS);
+                    order.setLeaseUntil(leaseUntil);
+                    order.setAttempts(order.getAttempts() + 1);
+                });
+
+                transactionalInboxOrderRepository.saveAll(newOrders);
+                log.info("{} successfully acquired orders {}", registrationWorker.getWorkerId(),
+                    newOrders.stream().map(TransactionalInboxOrder::getOrderId).toList());
+            } catch (Exception e) {
+                log.error("Unhandled error when {} pulling new orders", registrationWorker.getWorkerId(), e);
+                throw e;
+            } finally {
+                // release lock
+                distributedLock.releaseLock(WorkerConstant.WORKER_PULL_ORDER_LOCK);
+                log.info("{} successfully released lock", registrationWorker.getWorkerId());
             }
+        } else {
+            log.info("{} cannot acquire lock to pull new orders", registrationWorker.getWorkerId());
+        }
 
-            return Collections.emptyList();
+        if (!Objects.isNull(newOrders)) {
+            return newOrders;
         }
+
+        return Collections.emptyList();
     }
 }
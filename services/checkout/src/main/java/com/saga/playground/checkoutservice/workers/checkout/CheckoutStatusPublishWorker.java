@@ -5,29 +5,42 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saga.playground.checkoutservice.constants.ErrorConstant;
 import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
-import com.saga.playground.checkoutservice.domains.entities.Checkout;
-import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
+import com.saga.playground.checkoutservice.domains.entities.CheckoutOutbox;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.presentations.requests.KafkaCheckoutStatusMessage;
 import com.saga.playground.checkoutservice.utils.locks.DistributedLock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Relay of the checkout outbox, status changes are appended to checkout_outbox in their own transactions
+ * this worker sends them to the checkout status topic in id order & deletes the acknowledged rows
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 @Qualifier("kafkaMessageObjectMapper")
 public class CheckoutStatusPublishWorker {
 
-    private final CheckoutRepository checkoutRepository;
+    static final String PUBLISH_CYCLE_TIMER = "checkout.outbox.publish.cycle";
+    static final String PUBLISH_CYCLE_RECORDS_SUMMARY = "checkout.outbox.publish.cycle.records";
+    static final String PUBLISHED_RECORDS_COUNTER = "checkout.outbox.publish.records";
+
+    private final CheckoutOutboxRepository checkoutOutboxRepository;
 
     private final DistributedLock distributedLock;
 
@@ -35,13 +48,22 @@ public class CheckoutStatusPublishWorker {
 
     private final ObjectMapper objectMapper;
 
+    private final MeterRegistry meterRegistry;
+
+    @Value("${worker.checkout-status.page-size}")
+    private int pageSize;
+
+    @Value("${worker.checkout-status.retry.backoff-ms}")
+    private long backoffMs;
+
+    @Value("${worker.checkout-status.retry.max-backoff-ms}")
+    private long maxBackoffMs;
+
     public void publishCheckoutStatus() {
         // acquire distributed lock with timeout
         if (distributedLock.acquireLock(WorkerConstant.WORKER_CHECKOUT_STATUS_PUBLISH_LOCK)) {
             try {
-                // query status that are not published
-                var checkouts = this.getCheckoutRecordForPublishing();
-                publish(checkouts);
+                drainOutbox();
             } catch (Exception e) {
                 log.error(ErrorConstant.CODE_UNHANDED_ERROR, e);
             } finally {
@@ -54,60 +76,129 @@ public class CheckoutStatusPublishWorker {
         }
     }
 
-    public void publish(List<Checkout> checkouts) {
-        if (checkouts.isEmpty()) {
+    /**
+     * Send the records & wait for the broker's acknowledgements
+     * only acknowledged records are deleted from the outbox, the failed ones are postponed with a backoff
+     * both are 1 bulk statement per page, no matter how many records there are
+     */
+    public void publish(List<CheckoutOutbox> outboxRecords) {
+        if (outboxRecords.isEmpty()) {
             return;
         }
         log.info("Start publishing {} checkouts : {}",
-            checkouts.size(),
-            checkouts.stream().map(Checkout::getOrderId).toList());
-        List<CompletableFuture<SendResult<String, String>>> futureList = new ArrayList<>();
+            outboxRecords.size(),
+            outboxRecords.stream().map(CheckoutOutbox::getOrderId).toList());
+        Map<CheckoutOutbox, CompletableFuture<Boolean>> acks = new LinkedHashMap<>();
 
-        // update db as sent
-        checkouts.forEach(checkout -> {
-            var message = new KafkaCheckoutStatusMessage(checkout.getOrderId(), checkout.getCheckoutStatus());
+        outboxRecords.forEach(outboxRecord -> {
+            var message = new KafkaCheckoutStatusMessage(outboxRecord.getOrderId(), outboxRecord.getCheckoutStatus());
             String stringPayload = "";
             try {
                 stringPayload = objectMapper.writeValueAsString(message);
             } catch (JsonProcessingException e) {
-                log.error("Can't parse data of checkout record {}", checkout);
+                log.error("Can't parse data of checkout record {}", outboxRecord);
             }
 
             if (Strings.isBlank(stringPayload)) {
-                // no payload can be parsed -> skip this entry
+                // no payload can be parsed -> retry later instead of sending garbage
+                acks.put(outboxRecord, CompletableFuture.completedFuture(false));
                 return;
             }
 
+            acks.put(outboxRecord, send(outboxRecord, stringPayload));
+        });
+
+        // waiting for the acknowledgements of all messages, failures are already mapped to false
+        CompletableFuture.allOf(acks.values().toArray(CompletableFuture[]::new)).join();
+
+        List<CheckoutOutbox> sentRecords = new ArrayList<>();
+        List<Long> failedRecordIds = new ArrayList<>();
+        acks.forEach((outboxRecord, ack) -> {
+            if (Boolean.TRUE.equals(ack.join())) {
+                sentRecords.add(outboxRecord);
+            } else {
+                failedRecordIds.add(outboxRecord.getId());
+            }
+        });
+
+        meterRegistry.counter(PUBLISHED_RECORDS_COUNTER, "result", "sent").increment(sentRecords.size());
+        meterRegistry.counter(PUBLISHED_RECORDS_COUNTER, "result", "failed").increment(failedRecordIds.size());
+
+        if (!sentRecords.isEmpty()) {
+            // acknowledged records are removed from the outbox
+            int deletedRecords = checkoutOutboxRepository.deleteSentRecords(
+                sentRecords.stream().map(CheckoutOutbox::getId).toArray(Long[]::new));
+            log.info("Deleted {} sent records from the outbox", deletedRecords);
+            sentRecords.forEach(outboxRecord -> log.info("Published checkout of order {} with status {}",
+                outboxRecord.getOrderId(), outboxRecord.getCheckoutStatus()));
+        }
+
+        if (!failedRecordIds.isEmpty()) {
+            int rescheduledRecords = checkoutOutboxRepository.rescheduleFailedRecords(
+                failedRecordIds.toArray(Long[]::new), backoffMs, maxBackoffMs);
+            log.warn("Rescheduled {} failed records of the outbox {}", rescheduledRecords, failedRecordIds);
+        }
+    }
+
+    // completes with true once the broker acknowledged the record, false if the send failed
+    private CompletableFuture<Boolean> send(CheckoutOutbox outboxRecord, String payload) {
+        try {
             // send to queue with key = order_id (idempotent)
-            var futureRequest = kafkaTemplate.send(
+            return kafkaTemplate.send(
                 MessageBrokerConstant.CHECKOUT_STATUS_TOPIC,
-                checkout.getOrderId(),
-                stringPayload
-            ).exceptionally(e -> {
-                // ensure that allOf won't infinity throw exception
-                log.error("ERROR_KAFKA_SEND for checkout {}", checkout, e);
-                return null;
+                outboxRecord.getOrderId(),
+                payload
+            ).handle((result, e) -> {
+                if (e != null) {
+                    log.error("ERROR_KAFKA_SEND for checkout {}", outboxRecord, e);
+                    return false;
+                }
+                return true;
             });
-            futureList.add(futureRequest);
-            checkout.setEventPublished(true);
-        });
+        } catch (Exception e) {
+            // e.g. metadata of the topic isn't available within max.block.ms
+            log.error("ERROR_KAFKA_SEND for checkout {}", outboxRecord, e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
 
-        // waiting for all message publishing become successful
-        CompletableFuture.allOf(futureList.toArray(CompletableFuture[]::new)).join();
+    /**
+     * Publish the outbox page by page within one lock hold,
+     * until a page isn't full anymore (the backlog is drained)
+     * so the drain rate isn't capped by the page size per scheduling interval
+     */
+    public void drainOutbox() {
+        var sample = Timer.start(meterRegistry);
+        int numberOfRecords = 0;
+        var outboxRecords = getCheckoutRecordForPublishing();
+        while (!outboxRecords.isEmpty()) {
+            publish(outboxRecords);
+            numberOfRecords += outboxRecords.size();
+
+            if (outboxRecords.size() < pageSize) {
+                break;
+            }
+            outboxRecords = getCheckoutRecordForPublishing(outboxRecords.get(outboxRecords.size() - 1));
+        }
 
-        checkoutRepository.saveAll(checkouts);
-        checkouts.forEach(checkout -> log.info("Published checkout of order {} with status {}",
-            checkout.getOrderId(), checkout.getCheckoutStatus()));
-    }
+        // 1 cycle = 1 drain within the lock, empty cycles included
+        sample.stop(meterRegistry.timer(PUBLISH_CYCLE_TIMER));
+        meterRegistry.summary(PUBLISH_CYCLE_RECORDS_SUMMARY).record(numberOfRecords);
 
-    public List<Checkout> getCheckoutRecordForPublishing() {
-        List<Checkout> res = new ArrayList<>();
+        if (numberOfRecords > 0) {
+            log.info("Drained {} checkouts from the outbox", numberOfRecords);
+        }
+    }
 
-        WorkerConstant.NOTIFIABLE_CHECKOUT_STATUSES
-            .forEach(status -> res.addAll(
-                checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(status, false)));
+    // first page of the outbox, oldest status changes first
+    public List<CheckoutOutbox> getCheckoutRecordForPublishing() {
+        return checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(pageSize));
+    }
 
-        return res;
+    // next page, right after the last record of the previous one
+    // records which couldn't be sent are behind the last id, they are picked up by a later drain after the backoff
+    public List<CheckoutOutbox> getCheckoutRecordForPublishing(CheckoutOutbox lastRecord) {
+        return checkoutOutboxRepository.findPublishableRecords(lastRecord.getId(), Limit.of(pageSize));
     }
 
 }
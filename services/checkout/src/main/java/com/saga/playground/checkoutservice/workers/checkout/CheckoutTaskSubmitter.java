@@ -0,0 +1,93 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Submit checkout tasks to the bounded checkout thread pool without dropping claimed orders
+ * - if the pool & its queue are full, the submission is retried until the timeout passes (blocking submit)
+ * - if it still can't be accepted, the caller gets false & should un-claim the order back to NEW,
+ * so another worker (or this one later) can pick it up
+ * The waiting blocks the calling thread, so it must only be called from threads owned by the checkout worker
+ * (the claim runner or the checkout-submit thread), never from a gRPC/kafka/db callback thread
+ */
+@Component
+@Slf4j
+public class CheckoutTaskSubmitter {
+
+    static final String REJECTED_COUNTER = "checkout.submission.rejected";
+    static final String BLOCKED_COUNTER = "checkout.submission.blocked";
+    static final String REQUEUED_COUNTER = "checkout.submission.requeued";
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    // every RejectedExecutionException from the pool
+    private final Counter rejectedCounter;
+
+    // submissions which had to wait for a free slot
+    private final Counter blockedCounter;
+
+    // claimed orders which are handed back to the inbox as NEW
+    private final Counter requeuedCounter;
+
+    @Value("${worker.checkout.submit.timeout}")
+    private long submitTimeoutMilliseconds;
+
+    @Value("${worker.checkout.submit.retry-interval}")
+    private long retryIntervalMilliseconds;
+
+    public CheckoutTaskSubmitter(ThreadPoolExecutor threadPoolExecutor, MeterRegistry meterRegistry) {
+        this.threadPoolExecutor = threadPoolExecutor;
+        this.rejectedCounter = meterRegistry.counter(REJECTED_COUNTER);
+        this.blockedCounter = meterRegistry.counter(BLOCKED_COUNTER);
+        this.requeuedCounter = meterRegistry.counter(REQUEUED_COUNTER);
+    }
+
+    /**
+     * blocks the calling thread for up to the submit timeout while the pool is full,
+     * only call it from a thread owned by the checkout worker
+     *
+     * @param task checkout task of one order
+     * @return true if the pool accepted the task, false if it's still full after the timeout
+     */
+    public boolean submit(Runnable task) {
+        long deadline = System.currentTimeMillis() + submitTimeoutMilliseconds;
+        boolean blocked = false;
+
+        while (true) {
+            try {
+                threadPoolExecutor.execute(task);
+                return true;
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                if (threadPoolExecutor.isShutdown() || System.currentTimeMillis() >= deadline) {
+                    log.info("Checkout thread pool is still full after {} ms", submitTimeoutMilliseconds);
+                    return false;
+                }
+            }
+
+            if (!blocked) {
+                blocked = true;
+                blockedCounter.increment();
+            }
+
+            try {
+                Thread.sleep(retryIntervalMilliseconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    public void recordRequeued(int numberOfOrders) {
+        requeuedCounter.increment(numberOfOrders);
+    }
+
+}
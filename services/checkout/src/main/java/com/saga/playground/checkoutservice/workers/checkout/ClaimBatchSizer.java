@@ -0,0 +1,125 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Decide how many new orders a worker should claim from the inbox in one pull
+ * - never more than the free capacity of the checkout thread pool (idle threads + free queue slots),
+ * otherwise the submission will be rejected
+ * - never more than the remaining capacity of the prefetch buffer
+ * - never more than the idle threads plus what the pool can finish until the next refill, based on the recent
+ * per-order latency & the recent interval between claims, otherwise claimed orders just wait in the queue
+ * while other workers could process them
+ * - always within the configured lower & upper bounds
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimBatchSizer {
+
+    // weight of the newest sample in the moving averages of per-order latency & refill interval
+    static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private final CheckoutPrefetchBuffer checkoutPrefetchBuffer;
+
+    @Value("${worker.checkout.claim.min-batch-size}")
+    private int minBatchSize;
+
+    @Value("${worker.checkout.claim.max-batch-size}")
+    private int maxBatchSize;
+
+    // safety-net pull, the longest time between two claims
+    @Value("${worker.checkout.interval}")
+    private long pullIntervalMilliseconds;
+
+    // exponentially weighted moving average, 0 means no order has been processed yet
+    private double averageLatencyMilliseconds = 0;
+
+    // exponentially weighted moving average of the time between two claims, 0 means no sample yet
+    private double averageRefillIntervalMilliseconds = 0;
+
+    // 0 means nothing has been claimed yet
+    private long lastClaimMilliseconds = 0;
+
+    /**
+     * feed the latency of a processed order into the moving average
+     *
+     * @param latencyMilliseconds end-to-end processing time of one order on the thread pool
+     */
+    public synchronized void recordLatency(long latencyMilliseconds) {
+        if (averageLatencyMilliseconds == 0) {
+            averageLatencyMilliseconds = latencyMilliseconds;
+        } else {
+            averageLatencyMilliseconds = LATENCY_SMOOTHING_FACTOR * latencyMilliseconds
+                + (1 - LATENCY_SMOOTHING_FACTOR) * averageLatencyMilliseconds;
+        }
+    }
+
+    public synchronized double getAverageLatencyMilliseconds() {
+        return averageLatencyMilliseconds;
+    }
+
+    public synchronized double getAverageRefillIntervalMilliseconds() {
+        return averageRefillIntervalMilliseconds;
+    }
+
+    /**
+     * @return number of orders to claim in the next pull, 0 if the thread pool or the buffer has no room left
+     */
+    public int nextBatchSize() {
+        return nextBatchSize(System.currentTimeMillis());
+    }
+
+    synchronized int nextBatchSize(long nowMilliseconds) {
+        int idleThreads = Math.max(0, threadPoolExecutor.getMaximumPoolSize() - threadPoolExecutor.getActiveCount());
+        int freeCapacity = Math.min(
+            idleThreads + threadPoolExecutor.getQueue().remainingCapacity(),
+            checkoutPrefetchBuffer.remainingCapacity());
+        if (freeCapacity <= 0) {
+            return 0;
+        }
+        recordClaim(nowMilliseconds);
+
+        double latency = averageLatencyMilliseconds;
+        // refills are triggered by finished orders, the safety-net interval is only used until claims are observed
+        double refillInterval = averageRefillIntervalMilliseconds > 0
+            ? averageRefillIntervalMilliseconds
+            : pullIntervalMilliseconds;
+        long estimatedBatchSize = freeCapacity;
+        if (latency > 0) {
+            // work for the idle threads now & for the whole pool until the next refill
+            estimatedBatchSize = idleThreads
+                + (long) (threadPoolExecutor.getMaximumPoolSize() * refillInterval / latency);
+        }
+
+        int batchSize = (int) Math.max(minBatchSize, Math.min(maxBatchSize, estimatedBatchSize));
+        batchSize = Math.min(batchSize, freeCapacity);
+
+        log.debug("Claim batch size {}, free capacity {}, average latency {} ms, average refill interval {} ms",
+            batchSize, freeCapacity, latency, refillInterval);
+        return batchSize;
+    }
+
+    // feed the time since the previous claim into the moving average of the refill interval
+    private void recordClaim(long nowMilliseconds) {
+        if (lastClaimMilliseconds > 0) {
+            long refillInterval = Math.min(pullIntervalMilliseconds,
+                Math.max(1, nowMilliseconds - lastClaimMilliseconds));
+            if (averageRefillIntervalMilliseconds == 0) {
+                averageRefillIntervalMilliseconds = refillInterval;
+            } else {
+                averageRefillIntervalMilliseconds = LATENCY_SMOOTHING_FACTOR * refillInterval
+                    + (1 - LATENCY_SMOOTHING_FACTOR) * averageRefillIntervalMilliseconds;
+            }
+        }
+        lastClaimMilliseconds = nowMilliseconds;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+/**
+ * How a worker claims new orders from the transactional inbox
+ */
+public enum InboxClaimStrategy {
+    // serialize all workers behind the zookeeper pull lock, then query & update the claimed records
+    DISTRIBUTED_LOCK,
+    // single UPDATE ... FOR UPDATE SKIP LOCKED statement, workers claim disjoint batches concurrently
+    SKIP_LOCKED
+}
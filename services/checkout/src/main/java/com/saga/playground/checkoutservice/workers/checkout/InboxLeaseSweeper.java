@@ -0,0 +1,59 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
+import com.saga.playground.checkoutservice.workers.workerregistration.CheckoutRegistrationWorker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lease keeping of the claimed inbox orders, every node runs it on a schedule
+ * - the leases of this worker's in-progress orders are renewed, that's the heartbeat of a live worker
+ * - expired leases (their worker died or was scaled in) are handed back to NEW in bulk, so any node can claim them
+ * The sweep of several nodes at the same time is fine, an expired lease can only be reclaimed once
+ * An order can still be processed twice if its worker stalls longer than the lease, both runs converge:
+ * - the switch is idempotent, the order service reports success if the order is already in PENDING_PAYMENT
+ * - the checkout is upserted by order id & the gateway returns the same session for the idempotency key of the order
+ * - only a checkout still in INIT is moved to PROCESSING & appended to the outbox, so its status is published once
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InboxLeaseSweeper {
+
+    static final String RENEWED_COUNTER = "inbox.lease.renewed";
+    static final String RECLAIMED_COUNTER = "inbox.lease.reclaimed";
+
+    private final TransactionalInboxOrderRepository transactionalInboxOrderRepository;
+
+    private final CheckoutRegistrationWorker registrationWorker;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${worker.checkout.lease.duration-ms:120000}")
+    private long leaseDurationMs = 120000;
+
+    @Value("${worker.checkout.lease.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    /**
+     * renew the own leases first, so a live worker never reclaims its own orders
+     *
+     * @return number of reclaimed orders, they are claimable again (or failed after too many attempts)
+     */
+    public int sweep() {
+        String workerId = registrationWorker.getWorkerId();
+        int renewedOrders = transactionalInboxOrderRepository.renewLeases(workerId, leaseDurationMs);
+        meterRegistry.counter(RENEWED_COUNTER).increment(renewedOrders);
+
+        int reclaimedOrders = transactionalInboxOrderRepository.reclaimExpiredLeases(maxAttempts);
+        meterRegistry.counter(RECLAIMED_COUNTER).increment(reclaimedOrders);
+        if (reclaimedOrders > 0) {
+            log.warn("{} reclaimed {} orders with expired leases", workerId, reclaimedOrders);
+        }
+        return reclaimedOrders;
+    }
+
+}
@@ -1,30 +1,41 @@
 package com.saga.playground.checkoutservice.workers.inboxpatterns;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saga.playground.checkoutservice.constants.WorkerConstant;
+import com.saga.playground.checkoutservice.events.inbox.InboxOrderSavedEvent;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderBulkWriter;
 import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
-import com.saga.playground.checkoutservice.presentations.requests.KafkaCreatedOrderMessage;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
+import com.saga.playground.checkoutservice.utils.compression.GzipCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
-@Qualifier("kafkaMessageObjectMapper")
 public class CheckoutInboxWorker {
 
     private final TransactionalInboxOrderRepository transactionalInboxOrderRepository;
 
-    private final ObjectMapper mapper;
+    private final TransactionalInboxOrderBulkWriter transactionalInboxOrderBulkWriter;
+
+    private final CdcOrderExtractor cdcOrderExtractor;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    // kept as is if not configured, like before the extracted columns existed
+    @Value("${worker.inbox.payload-storage:JSON}")
+    private InboxPayloadStorage payloadStorage;
 
     public void bulkSaveMessages(List<Message<String>> listMessages) {
         List<TransactionalInboxOrder> orders = new ArrayList<>();
@@ -33,36 +44,45 @@ public class CheckoutInboxWorker {
             // actually we can just bulk save all received messages here
             // but when we process them, we need to validate again if it's an already-processed order
             // Therefore, we also extract orderId here and use it for de-duplication
-            List<String> extractedData = extractPayloadFromMessage(msg);
-            if (extractedData.isEmpty()) {
-                continue;
-            }
-
-            // push order to list
-            orders.add(new TransactionalInboxOrder(
-                extractedData.get(0), extractedData.get(1)));
+            // the other fields of the checkout are extracted in the same pass, so processing never parses again
+            extractPayloadFromMessage(msg).ifPresent(orders::add);
         }
 
+        int savedOrders = 0;
         try {
             if (!orders.isEmpty()) {
-                // save all
-                transactionalInboxOrderRepository.saveAllAndFlush(orders);
-                log.info("INBOX_ORDER_BULK_SAVED {}",
-                    orders.stream().map(TransactionalInboxOrder::getOrderId));
+                // save all in 1 round trip, already received orders (redelivered messages) are skipped
+                var insertedOrderIds = transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(orders);
+                savedOrders = insertedOrderIds.size();
+                log.info("INBOX_ORDER_BULK_SAVED {}, {} duplicated",
+                    insertedOrderIds, orders.size() - insertedOrderIds.size());
             } else {
                 // can not parse any message -> just log it down
                 log.info("INBOX_ORDER_EMPTY_MESSAGE {}", listMessages);
             }
         } catch (Exception e) {
             // can't bulk insert -> switch to sequentially insert & log error for manually retry
-            sequentialSaveOrders(orders);
+            savedOrders = sequentialSaveOrders(orders);
+        }
+
+        // a batch of redelivered messages has nothing new to claim
+        if (savedOrders > 0) {
+            // wake up the local pull runner, other nodes are notified by the insert trigger of postgres
+            applicationEventPublisher.publishEvent(
+                new InboxOrderSavedEvent(WorkerConstant.INBOX_ORDER_LOCAL_SIGNAL));
         }
     }
 
-    public void sequentialSaveOrders(List<TransactionalInboxOrder> orders) {
+    /**
+     * @param orders orders which couldn't be bulk inserted
+     * @return number of saved orders, duplicates & failed ones excluded
+     */
+    public int sequentialSaveOrders(List<TransactionalInboxOrder> orders) {
+        int savedOrders = 0;
         for (var order : orders) {
             try {
                 transactionalInboxOrderRepository.save(order);
+                savedOrders++;
                 log.info("INBOX_ORDER_SAVED {}", order.getOrderId());
             } catch (DataIntegrityViolationException e) {
                 log.info("INBOX_ORDER_SQL_ERROR {}", order.getOrderId());
@@ -70,31 +90,48 @@ public class CheckoutInboxWorker {
                 log.error("INBOX_ORDER_SAVE_ERROR {}", order, e);
             }
         }
+        return savedOrders;
     }
 
     /**
      * @param message The received message from kafka
-     * @return List of 2 strings
-     * the first element is the string format of the id
-     * the second element is the raw converted payload of message (in JSON string format)
+     * @return inbox order with the order id & the extracted fields of the checkout
+     * and the raw payload of message as configured by worker.inbox.payload-storage, empty if it can't be parsed
      */
-    public List<String> extractPayloadFromMessage(Message<String> message) {
+    public Optional<TransactionalInboxOrder> extractPayloadFromMessage(Message<String> message) {
 
         // get string payload from byte[]
         String rawPayload = message.getPayload();
         log.info("INBOX_ORDER_EXTRACTED_MSG: {}", rawPayload);
 
         try {
-            // parse json from string
-            var payload = mapper.readValue(rawPayload, KafkaCreatedOrderMessage.class);
-            return List.of(String.valueOf(payload.payload().after().id()), rawPayload);
+            // stream through the json, only payload.after is read
+            var createdOrder = cdcOrderExtractor.extract(rawPayload);
+            if (createdOrder.isEmpty()) {
+                log.error("Failed to parse payload from message, no order id {}", rawPayload);
+            }
+            return createdOrder.map(order -> toInboxOrder(order, rawPayload));
         } catch (JsonProcessingException e) {
             log.error("Failed to parse payload from message {}", rawPayload, e);
         } catch (Exception e) {
             log.error("UNHANDLED_ERROR Failed to parse payload from message {}", rawPayload, e);
         }
 
-        return Collections.emptyList();
+        return Optional.empty();
+    }
+
+    private TransactionalInboxOrder toInboxOrder(CdcOrderExtractor.CreatedOrder createdOrder, String rawPayload) {
+        var inboxOrder = new TransactionalInboxOrder(
+            createdOrder.orderId(), createdOrder.userId(), createdOrder.amount(), null);
+        switch (payloadStorage) {
+            case JSON -> inboxOrder.setPayload(rawPayload);
+            case COMPRESSED -> inboxOrder.setCompressedPayload(GzipCodec.compress(rawPayload));
+            case NONE -> {
+                // the extracted columns are all the processing needs
+            }
+            default -> throw new IllegalStateException("Unexpected payload storage: " + payloadStorage);
+        }
+        return inboxOrder;
     }
 
 }
@@ -0,0 +1,55 @@
+package com.saga.playground.checkoutservice.workers.inboxpatterns;
+
+import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauge of the inbox backlog, tagged by status
+ * The counts are refreshed on a schedule instead of querying the database on every scrape
+ * DONE isn't counted, it's the whole history of the inbox & only grows
+ */
+@Component
+@Slf4j
+public class InboxBacklogMetrics {
+
+    static final String BACKLOG_GAUGE = "inbox.backlog";
+
+    static final List<InboxOrderStatus> BACKLOG_STATUSES =
+        List.of(InboxOrderStatus.NEW, InboxOrderStatus.IN_PROGRESS, InboxOrderStatus.FAILED);
+
+    private final TransactionalInboxOrderRepository transactionalInboxOrderRepository;
+
+    private final Map<InboxOrderStatus, AtomicLong> backlog = new EnumMap<>(InboxOrderStatus.class);
+
+    public InboxBacklogMetrics(TransactionalInboxOrderRepository transactionalInboxOrderRepository,
+                               MeterRegistry meterRegistry) {
+        this.transactionalInboxOrderRepository = transactionalInboxOrderRepository;
+        BACKLOG_STATUSES.forEach(status -> backlog.put(status,
+            meterRegistry.gauge(BACKLOG_GAUGE, Tags.of("status", status.name()), new AtomicLong())));
+    }
+
+    public void refresh() {
+        Map<InboxOrderStatus, Long> counts = new EnumMap<>(InboxOrderStatus.class);
+        BACKLOG_STATUSES.forEach(status -> counts.put(status, 0L));
+        try {
+            transactionalInboxOrderRepository.countByStatusIn(BACKLOG_STATUSES)
+                .forEach(statusCount -> counts.put(statusCount.getStatus(), statusCount.getTotal()));
+        } catch (Exception e) {
+            // keep the last values, the next refresh will try again
+            log.error("Can't count the inbox backlog", e);
+            return;
+        }
+
+        counts.forEach((status, count) -> backlog.get(status).set(count));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.saga.playground.checkoutservice.workers.inboxpatterns;
+
+import com.saga.playground.checkoutservice.constants.WorkerConstant;
+import com.saga.playground.checkoutservice.events.inbox.InboxOrderSavedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Postgres LISTEN on the insert trigger of t_inbox_order, so the workers of every node are woken up
+ * right after another node saves new orders into the inbox.
+ * One pooled connection is held by a dedicated thread for the whole lifetime of the application,
+ * if the connection is broken, it will be re-established after a delay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "worker.checkout.notification-enabled", havingValue = "true")
+public class InboxOrderNotificationListener implements Runnable {
+
+    private final DataSource dataSource;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private volatile boolean running;
+
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this, "inbox-order-notification-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(WorkerConstant.INBOX_ORDER_NOTIFICATION_RECONNECT_DELAY_MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Inbox order notification connection failed, reconnect in {} ms",
+                    WorkerConstant.INBOX_ORDER_NOTIFICATION_RECONNECT_DELAY_MILLISECONDS, e);
+                try {
+                    Thread.sleep(WorkerConstant.INBOX_ORDER_NOTIFICATION_RECONNECT_DELAY_MILLISECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + WorkerConstant.INBOX_ORDER_NOTIFICATION_CHANNEL);
+            }
+            log.info("Listening on channel {}", WorkerConstant.INBOX_ORDER_NOTIFICATION_CHANNEL);
+
+            try {
+                while (running) {
+                    // blocks until a notification arrives or the timeout passes, so stop() is noticed quickly
+                    PGNotification[] notifications =
+                        pgConnection.getNotifications(WorkerConstant.INBOX_ORDER_NOTIFICATION_TIMEOUT_MILLISECONDS);
+
+                    if (notifications != null && notifications.length > 0) {
+                        // several inserts are collapsed into 1 wake-up
+                        applicationEventPublisher.publishEvent(
+                            new InboxOrderSavedEvent(WorkerConstant.INBOX_ORDER_REMOTE_SIGNAL));
+                    }
+                }
+            } finally {
+                // the connection goes back to the pool, don't leak the subscription to other users
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("UNLISTEN *");
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.saga.playground.checkoutservice.workers.inboxpatterns;
+
+/**
+ * How the raw CDC envelope is kept on the inbox row
+ * processing only needs the extracted columns, the envelope is for debugging & manual replays
+ */
+public enum InboxPayloadStorage {
+    // as is in the json column, readable with SQL
+    JSON,
+    // gzip in the bytea column, the schema block of the envelope compresses well
+    COMPRESSED,
+    // not kept at all, only the extracted columns
+    NONE
+}
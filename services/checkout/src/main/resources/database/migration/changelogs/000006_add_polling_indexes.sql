@@ -0,0 +1,10 @@
+-- claim query of new orders, rows are claimed FIFO by their identity id
+CREATE INDEX "idx_t_inbox_order_new_fifo" ON "t_inbox_order" ("id")
+WHERE "status" = 'NEW' AND ("worker_id" <> '') IS NOT TRUE;
+
+-- orders which are already claimed by a worker
+CREATE INDEX "idx_t_inbox_order_worker_status" ON "t_inbox_order" ("worker_id", "status");
+
+-- checkout status publishing, only the not yet published records are indexed
+CREATE INDEX "idx_checkout_unpublished_status" ON "checkout" ("status", "updated_at", "id")
+WHERE "event_published" = false;
@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset checkout:000007 splitStatements:false
+-- wake up the workers of every node as soon as new orders are inserted into the inbox
+-- statement level, so a bulk insert only sends 1 notification
+CREATE FUNCTION "notify_inbox_order_created"() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('inbox_order_created', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER "trg_t_inbox_order_notify_created"
+AFTER INSERT ON "t_inbox_order"
+FOR EACH STATEMENT EXECUTE FUNCTION "notify_inbox_order_created"();
@@ -0,0 +1,6 @@
+-- Hibernate allocates ids in blocks of 50 from these sequences (pooled optimizer) to batch inserts
+-- existing ids are kept, the next value just continues from the current one
+-- inserts without id (e.g. the inbox bulk writer) still get the next value of the same sequence
+ALTER TABLE "checkout" ALTER COLUMN "id" SET INCREMENT BY 50;
+
+ALTER TABLE "t_inbox_order" ALTER COLUMN "id" SET INCREMENT BY 50;
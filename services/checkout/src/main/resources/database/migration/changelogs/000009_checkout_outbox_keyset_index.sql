@@ -0,0 +1,6 @@
+-- the outbox is scanned across all notifiable statuses at once, ordered by (updated_at, id)
+-- statuses are filtered on the (small) partial index, pages are read in index order without sorting
+CREATE INDEX "idx_checkout_unpublished_updated_at" ON "checkout" ("updated_at", "id")
+WHERE "event_published" = false;
+
+DROP INDEX IF EXISTS "idx_checkout_unpublished_status";
@@ -0,0 +1,22 @@
+-- append-only outbox of checkout status changes, written in the same transaction as the change
+-- the relay deletes rows once they are sent, so publishing never rewrites checkout rows
+-- the identity id (increment 1) is the publish order
+CREATE TABLE "checkout_outbox" (
+  "id" BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  "order_id" varchar NOT NULL,
+  "status" checkout_status NOT NULL,
+  "created_at" timestamptz NOT NULL DEFAULT now()
+);
+
+-- every row is deleted shortly after the insert, vacuum the dead tuples early instead of at 20% of the table
+ALTER TABLE "checkout_outbox" SET (autovacuum_vacuum_scale_factor = 0, autovacuum_vacuum_threshold = 1000);
+
+-- status changes which are not published yet move over to the outbox
+INSERT INTO "checkout_outbox" ("order_id", "status")
+SELECT "order_id", "status" FROM "checkout"
+WHERE "event_published" = false AND "status" IN ('FINALIZED', 'FAILED')
+ORDER BY "updated_at", "id";
+
+DROP INDEX IF EXISTS "idx_checkout_unpublished_updated_at";
+
+ALTER TABLE "checkout" DROP COLUMN "event_published";
@@ -0,0 +1,5 @@
+-- records are only deleted once the broker acknowledged them, failed sends stay in the outbox
+-- & are retried with an exponential backoff, next_attempt_at is when the relay may pick them up again
+ALTER TABLE "checkout_outbox" ADD COLUMN "attempts" int NOT NULL DEFAULT 0;
+
+ALTER TABLE "checkout_outbox" ADD COLUMN "next_attempt_at" timestamptz NOT NULL DEFAULT now();
@@ -0,0 +1,6 @@
+-- fields of the order which are extracted from the CDC envelope once at ingest time
+-- the processing worker builds the checkout from them instead of parsing the payload again
+-- nullable, rows ingested before this change only have the payload
+ALTER TABLE "t_inbox_order" ADD COLUMN "user_id" varchar;
+
+ALTER TABLE "t_inbox_order" ADD COLUMN "amount" decimal(10,2);
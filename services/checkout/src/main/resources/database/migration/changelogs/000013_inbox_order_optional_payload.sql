@@ -0,0 +1,7 @@
+-- processing reads the extracted columns only, the raw envelope is optional (worker.inbox.payload-storage)
+-- either as is in "payload", gzip in "payload_compressed" or not kept at all
+ALTER TABLE "t_inbox_order" ALTER COLUMN "payload" DROP NOT NULL;
+
+ALTER TABLE "t_inbox_order" ADD COLUMN "payload_compressed" bytea;
+
+COMMENT ON COLUMN "t_inbox_order"."payload_compressed" IS 'gzip of the full payload of the msg, instead of json';
@@ -0,0 +1,13 @@
+-- claimed orders are leased to their worker, live workers renew the leases of their in-progress orders
+-- the leases of a dead worker expire & a sweep of any node hands its orders back to NEW
+-- attempts counts the claims of an order, an order which keeps killing its workers isn't reclaimed forever
+ALTER TABLE "t_inbox_order" ADD COLUMN "lease_until" timestamptz;
+
+ALTER TABLE "t_inbox_order" ADD COLUMN "attempts" int NOT NULL DEFAULT 0;
+
+-- orders which are in progress right now get a grace period, their workers renew it if they are alive
+UPDATE "t_inbox_order" SET "lease_until" = now() + interval '5 minutes' WHERE "status" = 'IN_PROGRESS';
+
+-- reclaim sweep, only in-progress orders are leased
+CREATE INDEX "idx_t_inbox_order_lease" ON "t_inbox_order" ("lease_until")
+WHERE "status" = 'IN_PROGRESS';
@@ -0,0 +1,416 @@
+package com.saga.playground.checkoutservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saga.playground.checkoutservice.basetest.PostgresKafkaContainerBaseTest;
+import com.saga.playground.checkoutservice.basetest.ZookeeperTestConfig;
+import com.saga.playground.checkoutservice.constants.GRPCConstant;
+import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
+import com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest;
+import com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse;
+import com.saga.playground.checkoutservice.grpc.protobufs.Order;
+import com.saga.playground.checkoutservice.grpc.protobufs.OrderServiceGrpc;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
+import com.saga.playground.checkoutservice.presentations.requests.KafkaCheckoutStatusMessage;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.curator.test.TestingServer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Throughput of the whole saga within this service, with local stand-ins for everything around it:
+ * CDC message -> inbox -> claim -> gRPC switch -> checkout -> IPN -> outbox -> status message
+ * - postgres & kafka are the testcontainers of the base tests, zookeeper is the curator testing server
+ * - the order service is a gRPC server in this JVM, with configurable latency & error rates
+ * - N synthetic Debezium envelopes are produced to the CDC topic at once
+ * The run is done when every order is either published as FINALIZED or FAILED in the inbox
+ * <p>
+ * Run with ./gradlew loadTest, the knobs are gradle properties, e.g.
+ * ./gradlew loadTest -Ploadtest.orders=5000 -Ploadtest.grpc.latency-ms=20 -Ploadtest.grpc.error-rate=0.05
+ * Stage latencies mix the JVM clock with now() of postgres (inbox created_at), both are the host clock here
+ */
+@Tag("loadtest")
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(ZookeeperTestConfig.class)
+@TestPropertySource(properties = {
+    "zookeeper.port=22181",
+    "zookeeper.host=localhost",
+    "logging.level.com.saga.playground=WARN" // per order INFO logs would dominate the numbers
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CheckoutSagaLoadHarnessTest extends PostgresKafkaContainerBaseTest {
+
+    private static final int ORDERS = Integer.getInteger("loadtest.orders", 1000);
+
+    private static final long GRPC_LATENCY_MS = Long.getLong("loadtest.grpc.latency-ms", 10);
+
+    // UNAVAILABLE, retried by the processing worker
+    private static final double GRPC_ERROR_RATE =
+        Double.parseDouble(System.getProperty("loadtest.grpc.error-rate", "0.01"));
+
+    // INVALID_ACTION, the order fails right away
+    private static final double GRPC_INVALID_ACTION_RATE =
+        Double.parseDouble(System.getProperty("loadtest.grpc.invalid-action-rate", "0"));
+
+    private static final long TIMEOUT_SECONDS = Long.getLong("loadtest.timeout-seconds", 300);
+
+    private static final int ORDER_TOPIC_PARTITIONS = 5;
+
+    private static final OrderServiceStub ORDER_SERVICE = new OrderServiceStub();
+
+    private static final Server ORDER_SERVICE_STUB = startOrderServiceStub();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // the kafka container is reused across runs, order ids of previous runs must not be matched
+    private final int firstOrderId = ThreadLocalRandom.current().nextInt(1, 100_000) * 10_000;
+
+    private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> publishedAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestingServer testingServer;
+
+    @DynamicPropertySource
+    public static void overrideOrderServiceProperties(DynamicPropertyRegistry registry) {
+        createTopics();
+        registry.add("grpc.client.order-service.address",
+            () -> "static://localhost:%d".formatted(ORDER_SERVICE_STUB.getPort()));
+    }
+
+    @AfterAll
+    void shutdown() throws IOException {
+        ORDER_SERVICE_STUB.shutdownNow();
+        testingServer.stop();
+        testingServer.close();
+    }
+
+    @Test
+    void loadTestCheckoutSaga() throws InterruptedException {
+        var consuming = new AtomicBoolean(true);
+        var statusConsumer = Thread.ofPlatform().name("loadtest-status-consumer")
+            .start(() -> consumeStatusMessages(consuming));
+
+        long startTime = System.currentTimeMillis();
+        try {
+            produceEnvelopes();
+
+            Awaitility.await()
+                .atMost(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .pollInterval(500, TimeUnit.MILLISECONDS)
+                .until(() -> publishedAt.size() + countFailedOrders() >= ORDERS);
+        } finally {
+            consuming.set(false);
+            statusConsumer.join();
+        }
+        long elapsedMs = System.currentTimeMillis() - startTime;
+
+        report(elapsedMs);
+        Assertions.assertEquals(ORDERS, publishedAt.size() + countFailedOrders(),
+            "Every order should be either published or failed");
+    }
+
+    private void produceEnvelopes() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_CONTAINER.getBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+
+        try (var producer = new KafkaProducer<String, String>(props)) {
+            for (int i = 0; i < ORDERS; i++) {
+                String orderId = "%d".formatted(firstOrderId + i);
+                sentAt.put(orderId, System.currentTimeMillis());
+                producer.send(new ProducerRecord<>(MessageBrokerConstant.ORDER_CREATED_TOPIC, orderId,
+                    TestConstants.MOCK_CDC_PAYLOAD.formatted(orderId)));
+            }
+            producer.flush();
+        }
+    }
+
+    private void consumeStatusMessages(AtomicBoolean consuming) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_CONTAINER.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "loadtest-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        try (var consumer = new KafkaConsumer<String, String>(props)) {
+            consumer.subscribe(List.of(MessageBrokerConstant.CHECKOUT_STATUS_TOPIC));
+            while (consuming.get()) {
+                for (var consumerRecord : consumer.poll(Duration.ofMillis(200))) {
+                    long receivedAt = System.currentTimeMillis();
+                    var message = parseStatusMessage(consumerRecord.value());
+                    if (sentAt.containsKey(message.orderId())) {
+                        publishedAt.putIfAbsent(message.orderId(), receivedAt);
+                    }
+                }
+            }
+        }
+    }
+
+    @SneakyThrows
+    private KafkaCheckoutStatusMessage parseStatusMessage(String value) {
+        return objectMapper.readValue(value, KafkaCheckoutStatusMessage.class);
+    }
+
+    private int countFailedOrders() {
+        Integer failedOrders = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM checkout_schema.t_inbox_order "
+                + "WHERE status = 'FAILED'::checkout_schema.inbox_order_status AND order_id = ANY(?)",
+            Integer.class, (Object) sentAt.keySet().toArray(String[]::new));
+        return failedOrders == null ? 0 : failedOrders;
+    }
+
+    private void report(long elapsedMs) {
+        List<StageTimestamps> orders = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT i.order_id, i.created_at AS inbox_created_at, "
+                + "c.created_at AS checkout_created_at, c.updated_at AS checkout_updated_at "
+                + "FROM checkout_schema.t_inbox_order i "
+                + "JOIN checkout_schema.checkout c ON c.order_id = i.order_id "
+                + "WHERE i.order_id = ANY(?)",
+            rs -> {
+                String orderId = rs.getString("order_id");
+                if (publishedAt.containsKey(orderId)) {
+                    orders.add(new StageTimestamps(
+                        sentAt.get(orderId),
+                        toMillis(rs.getTimestamp("inbox_created_at")),
+                        toMillis(rs.getTimestamp("checkout_created_at")),
+                        toMillis(rs.getTimestamp("checkout_updated_at")),
+                        publishedAt.get(orderId)));
+                }
+            },
+            (Object) publishedAt.keySet().toArray(String[]::new));
+
+        log.warn("Load test of {} orders, gRPC latency {} ms, error rate {}, invalid action rate {}, {} gRPC calls",
+            ORDERS, GRPC_LATENCY_MS, GRPC_ERROR_RATE, GRPC_INVALID_ACTION_RATE, ORDER_SERVICE.calls.get());
+        log.warn("{} published, {} failed in {} ms | {} orders/s",
+            publishedAt.size(), countFailedOrders(), elapsedMs,
+            "%.1f".formatted(publishedAt.size() * 1000.0 / elapsedMs));
+
+        Map<String, ToLongFunction<StageTimestamps>> stages = new LinkedHashMap<>();
+        stages.put("end to end", order -> order.publishedAt() - order.sentAt());
+        stages.put("CDC message -> inbox", order -> order.inboxCreatedAt() - order.sentAt());
+        stages.put("inbox -> checkout (claim, gRPC switch)",
+            order -> order.checkoutCreatedAt() - order.inboxCreatedAt());
+        stages.put("checkout -> IPN finalized", order -> order.checkoutFinalizedAt() - order.checkoutCreatedAt());
+        stages.put("IPN finalized -> status message (outbox relay)",
+            order -> order.publishedAt() - order.checkoutFinalizedAt());
+
+        stages.forEach((stage, latency) -> {
+            long[] sorted = orders.stream().mapToLong(latency).sorted().toArray();
+            if (sorted.length == 0) {
+                return;
+            }
+            log.warn("{} | p50 {} ms, p99 {} ms, max {} ms",
+                stage, percentile(sorted, 50), percentile(sorted, 99), sorted[sorted.length - 1]);
+        });
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp.toInstant().toEpochMilli();
+    }
+
+    // before the context, the listener containers look up the partitions of the CDC topic on start up
+    private static void createTopics() {
+        try (var adminClient = AdminClient.create(
+            Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_CONTAINER.getBootstrapServers()))) {
+            for (var topic : List.of(
+                new NewTopic(MessageBrokerConstant.ORDER_CREATED_TOPIC, ORDER_TOPIC_PARTITIONS, (short) 1),
+                new NewTopic(MessageBrokerConstant.CHECKOUT_STATUS_TOPIC, 1, (short) 1))) {
+                try {
+                    adminClient.createTopics(List.of(topic)).all().get();
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof TopicExistsException)) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SneakyThrows
+    private static Server startOrderServiceStub() {
+        return ServerBuilder.forPort(0)
+            .addService(ORDER_SERVICE)
+            .build()
+            .start();
+    }
+
+    private record StageTimestamps(long sentAt, long inboxCreatedAt, long checkoutCreatedAt,
+                                   long checkoutFinalizedAt, long publishedAt) {
+    }
+
+    /**
+     * Stand-in of the order service, the order is switched to pending payment after the configured latency
+     */
+    static class OrderServiceStub extends OrderServiceGrpc.OrderServiceImplBase {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void switchOrderToPendingPayment(SwitchToPendingPaymentRequest request,
+                                                StreamObserver<SwitchToPendingPaymentResponse> responseObserver) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(GRPC_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responseObserver.onError(Status.CANCELLED.asRuntimeException());
+                return;
+            }
+
+            double draw = ThreadLocalRandom.current().nextDouble();
+            if (draw < GRPC_INVALID_ACTION_RATE) {
+                responseObserver.onError(Status.FAILED_PRECONDITION
+                    .withDescription(GRPCConstant.ORDER_SERVER_INVALID_ACTION)
+                    .asRuntimeException());
+                return;
+            }
+            if (draw < GRPC_INVALID_ACTION_RATE + GRPC_ERROR_RATE) {
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                return;
+            }
+
+            responseObserver.onNext(SwitchToPendingPaymentResponse.newBuilder()
+                .setOrder(Order.newBuilder().setId(request.getId()).setStatus("pending_payment"))
+                .build());
+            responseObserver.onCompleted();
+        }
+
+        // one latency per call, every order draws its own outcome like the real service
+        @Override
+        public void batchSwitchOrderToPendingPayment(
+            BatchSwitchToPendingPaymentRequest request,
+            StreamObserver<BatchSwitchToPendingPaymentResponse> responseObserver) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(GRPC_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responseObserver.onError(Status.CANCELLED.asRuntimeException());
+                return;
+            }
+
+            var response = BatchSwitchToPendingPaymentResponse.newBuilder();
+            for (int id : request.getIdsList()) {
+                response.addResults(drawResult(id));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+
+        // every request is answered after the latency without holding back the next ones,
+        // the whole stream counts as one call
+        @Override
+        public StreamObserver<SwitchToPendingPaymentRequest> streamSwitchOrderToPendingPayment(
+            StreamObserver<SwitchToPendingPaymentResult> responseObserver) {
+            calls.incrementAndGet();
+            var latency = CompletableFuture.delayedExecutor(GRPC_LATENCY_MS, TimeUnit.MILLISECONDS);
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(SwitchToPendingPaymentRequest request) {
+                    latency.execute(() -> {
+                        var result = drawResult(request.getId());
+                        // the response stream is not thread safe
+                        synchronized (responseObserver) {
+                            responseObserver.onNext(result);
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    // the client is gone, nothing to answer
+                }
+
+                @Override
+                public void onCompleted() {
+                    // after the results which are still delayed
+                    latency.execute(() -> {
+                        synchronized (responseObserver) {
+                            responseObserver.onCompleted();
+                        }
+                    });
+                }
+            };
+        }
+
+        private static SwitchToPendingPaymentResult drawResult(int id) {
+            var result = SwitchToPendingPaymentResult.newBuilder().setId(id);
+            double draw = ThreadLocalRandom.current().nextDouble();
+            if (draw < GRPC_INVALID_ACTION_RATE) {
+                result.setResult(SwitchResult.INVALID_ACTION)
+                    .setError(GRPCConstant.ORDER_SERVER_INVALID_ACTION);
+            } else if (draw < GRPC_INVALID_ACTION_RATE + GRPC_ERROR_RATE) {
+                result.setResult(SwitchResult.ERROR).setError(Status.Code.UNAVAILABLE.name());
+            } else {
+                result.setResult(SwitchResult.SWITCHED);
+            }
+            return result.build();
+        }
+    }
+
+}
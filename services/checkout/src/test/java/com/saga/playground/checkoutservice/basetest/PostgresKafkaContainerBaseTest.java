@@ -0,0 +1,19 @@
+package com.saga.playground.checkoutservice.basetest;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.kafka.KafkaContainer;
+
+/**
+ * For tests which need both postgres & kafka, e.g. the whole application context
+ * The kafka container is the same as the one of KafkaContainerBaseTest
+ */
+public abstract class PostgresKafkaContainerBaseTest extends PostgresContainerBaseTest {
+
+    protected static final KafkaContainer KAFKA_CONTAINER = KafkaContainerBaseTest.KAFKA_CONTAINER;
+
+    @DynamicPropertySource
+    public static void overrideKafkaProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.kafka.bootstrap-servers", KAFKA_CONTAINER::getBootstrapServers);
+    }
+}
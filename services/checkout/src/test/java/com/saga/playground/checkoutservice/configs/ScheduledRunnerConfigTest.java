@@ -1,20 +1,43 @@
 package com.saga.playground.checkoutservice.configs;
 
 import com.saga.playground.checkoutservice.constants.ErrorConstant;
+import com.saga.playground.checkoutservice.constants.ThreadPoolConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutHelper;
+import com.saga.playground.checkoutservice.workers.checkout.CheckoutPrefetchBuffer;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutProcessingWorker;
+import com.saga.playground.checkoutservice.workers.checkout.CheckoutTaskSubmitter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.saga.playground.checkoutservice.workers.checkout.ClaimBatchSizer;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @ExtendWith(OutputCaptureExtension.class)
 class ScheduledRunnerConfigTest {
@@ -25,9 +48,57 @@ class ScheduledRunnerConfigTest {
 
     private final CheckoutHelper checkoutHelper = Mockito.mock(CheckoutHelper.class);
 
+    private final ClaimBatchSizer claimBatchSizer = Mockito.mock(ClaimBatchSizer.class);
+
+    private final CheckoutPrefetchBuffer checkoutPrefetchBuffer = new CheckoutPrefetchBuffer();
+
+    private final Runnable refillTrigger = Mockito.mock(Runnable.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(checkoutPrefetchBuffer, "capacity", 30);
+        ReflectionTestUtils.setField(checkoutPrefetchBuffer, "refillThreshold", 10);
+        mockSwitches(() -> CompletableFuture.completedFuture(null));
+    }
+
+    // every order of the batch gets its own switch future
+    private void mockSwitches(Supplier<CompletableFuture<Void>> switchResult) {
+        Mockito.when(checkoutProcessingWorker.switchOrderStatuses(Mockito.anyList()))
+            .thenAnswer(invocation -> {
+                List<String> orderIds = invocation.getArgument(0);
+                Map<String, CompletableFuture<Void>> switches = new HashMap<>();
+                orderIds.forEach(orderId -> switches.put(orderId, switchResult.get()));
+                return switches;
+            });
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CheckoutTaskSubmitter createSubmitter(ThreadPoolExecutor pool) {
+        var submitter = new CheckoutTaskSubmitter(pool, meterRegistry);
+        ReflectionTestUtils.setField(submitter, "submitTimeoutMilliseconds", 50L);
+        ReflectionTestUtils.setField(submitter, "retryIntervalMilliseconds", 10L);
+        return submitter;
+    }
+
+    // the submission runs on the thread which completed the switch
+    private ScheduledRunnerConfig.CheckoutProcessingCoordinator createCoordinator(ThreadPoolExecutor pool) {
+        return createCoordinator(pool, Runnable::run);
+    }
+
+    private ScheduledRunnerConfig.CheckoutProcessingCoordinator createCoordinator(ThreadPoolExecutor pool,
+                                                                                  Executor submitExecutor) {
+        var coordinator = new ScheduledRunnerConfig.CheckoutProcessingCoordinator(
+            createSubmitter(pool), checkoutProcessingWorker, checkoutHelper, claimBatchSizer, checkoutPrefetchBuffer,
+            submitExecutor);
+        coordinator.setRefillTrigger(refillTrigger);
+        return coordinator;
+    }
+
     @Test
     void testInitBean() {
-        var config = new ScheduledRunnerConfig(threadPool, checkoutProcessingWorker, checkoutHelper);
+        var config = new ScheduledRunnerConfig(createSubmitter(threadPool), checkoutProcessingWorker, checkoutHelper,
+            claimBatchSizer, checkoutPrefetchBuffer);
         var runner = config.checkoutPullOrderRunner();
 
         Assertions.assertNotNull(runner);
@@ -36,14 +107,80 @@ class ScheduledRunnerConfigTest {
         Assertions.assertFalse(runner.getIsRunning().get());
     }
 
+    @Test
+    void testRun_ClaimFailedOnce(CapturedOutput output) {
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(1)
+            .create();
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenThrow(new DataAccessResourceFailureException("connection refused"))
+            .thenReturn(mockOrders)
+            .thenReturn(Collections.emptyList());
+        var config = new ScheduledRunnerConfig(createSubmitter(threadPool), checkoutProcessingWorker, checkoutHelper,
+            claimBatchSizer, checkoutPrefetchBuffer);
+        var runner = config.checkoutPullOrderRunner();
+
+        Assertions.assertDoesNotThrow(runner::tryRun);
+        Assertions.assertTrue(output.toString().contains(ErrorConstant.CODE_UNHANDED_ERROR));
+        Assertions.assertFalse(runner.getIsRunning().get());
+
+        // the next trigger claims again
+        runner.tryRun();
+
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
+                .processCheckout(mockOrders.get(0).getOrderId()));
+        // the finished order asks for a refill, which finds nothing new
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(checkoutProcessingWorker, Mockito.times(3)).pullOrders());
+    }
+
+    @Test
+    void testRefillTrigger_NonBlocking() throws InterruptedException {
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(1)
+            .create();
+        var claimStarted = new CountDownLatch(1);
+        var releaseClaim = new CountDownLatch(1);
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders)
+            .thenAnswer(invocation -> {
+                claimStarted.countDown();
+                releaseClaim.await();
+                return Collections.emptyList();
+            })
+            .thenReturn(Collections.emptyList());
+        var config = new ScheduledRunnerConfig(createSubmitter(threadPool), checkoutProcessingWorker, checkoutHelper,
+            claimBatchSizer, checkoutPrefetchBuffer);
+        var runner = config.checkoutPullOrderRunner();
+        var coordinator = (Runnable) ReflectionTestUtils.getField(runner, "task");
+        var refillTrigger = (Runnable) ReflectionTestUtils.getField(coordinator, "refillTrigger");
+        var submitExecutor = (ExecutorService) ReflectionTestUtils.getField(coordinator, "submitExecutor");
+
+        // the finished order of the first claim triggers a refill, which is stuck in its claim
+        refillTrigger.run();
+        Assertions.assertTrue(claimStarted.await(1, TimeUnit.SECONDS));
+
+        // the finishing checkout threads return right away, their requests are coalesced
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            refillTrigger.run();
+        }
+        Assertions.assertTrue(System.currentTimeMillis() - startTime < 50,
+            "Asking for a refill should not wait for the running claim");
+
+        releaseClaim.countDown();
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(checkoutProcessingWorker, Mockito.times(3)).pullOrders());
+        submitExecutor.shutdown();
+    }
+
     @Test
     void testRun_EmptyOrder(CapturedOutput output) {
         var spyThreadPool = Mockito.spy(threadPool);
         Mockito.when(checkoutProcessingWorker.pullOrders()).thenReturn(Collections.emptyList());
 
-        var checkoutCoordinator =
-            new ScheduledRunnerConfig.CheckoutProcessingCoordinator(
-                spyThreadPool, checkoutProcessingWorker, checkoutHelper);
+        var checkoutCoordinator = createCoordinator(spyThreadPool);
 
         checkoutCoordinator.run();
 
@@ -51,6 +188,8 @@ class ScheduledRunnerConfigTest {
         Assertions.assertTrue(output.toString().contains("Finish submitting 0 orders for checking out"));
         Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
             .pullOrders();
+        Mockito.verify(checkoutProcessingWorker, Mockito.never())
+            .switchOrderStatuses(Mockito.anyList());
         Mockito.verify(checkoutProcessingWorker, Mockito.times(0))
             .processCheckout(Mockito.any());
         Mockito.verify(checkoutHelper, Mockito.times(0))
@@ -71,9 +210,7 @@ class ScheduledRunnerConfigTest {
         Mockito.when(checkoutProcessingWorker.pullOrders())
             .thenReturn(mockOrders);
 
-        var checkoutCoordinator =
-            new ScheduledRunnerConfig.CheckoutProcessingCoordinator(
-                spyThreadPool, checkoutProcessingWorker, checkoutHelper);
+        var checkoutCoordinator = createCoordinator(spyThreadPool);
 
         checkoutCoordinator.run();
 
@@ -82,6 +219,13 @@ class ScheduledRunnerConfigTest {
             .formatted(mockOrders.size())));
         Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
             .pullOrders();
+        // the whole batch is switched with one call
+        Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
+            .switchOrderStatuses(mockOrders.stream().map(TransactionalInboxOrder::getOrderId).toList());
+        // only the db part of every order is submitted to the pool
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(claimBatchSizer, Mockito.times(numberOfRecords))
+                .recordLatency(Mockito.anyLong()));
         Mockito.verify(spyThreadPool, Mockito.times(numberOfRecords))
             .execute(Mockito.any());
         mockOrders.forEach(
@@ -91,6 +235,58 @@ class ScheduledRunnerConfigTest {
                 Mockito.verify(checkoutHelper, Mockito.times(1))
                     .postCheckoutProcess(order.getOrderId());
             });
+        // buffer is drained below the threshold -> the finishing orders ask for more
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(refillTrigger, Mockito.atLeastOnce()).run());
+        Assertions.assertEquals(0, checkoutPrefetchBuffer.occupancy());
+    }
+
+    @Test
+    void testRun_SkipInFlightOrder(CapturedOutput output) {
+        var spyThreadPool = Mockito.spy(threadPool);
+        int numberOfRecords = 10;
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(numberOfRecords)
+            .create();
+        checkoutPrefetchBuffer.add(mockOrders.get(0).getOrderId());
+
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders);
+
+        createCoordinator(spyThreadPool).run();
+
+        Assertions.assertTrue(output.toString().contains("Finish submitting %d orders for checking out"
+            .formatted(numberOfRecords - 1)));
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(spyThreadPool, Mockito.times(numberOfRecords - 1))
+                .execute(Mockito.any()));
+        Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
+            .switchOrderStatuses(mockOrders.subList(1, numberOfRecords).stream()
+                .map(TransactionalInboxOrder::getOrderId)
+                .toList());
+        Mockito.verify(checkoutProcessingWorker, Mockito.never())
+            .processCheckout(mockOrders.get(0).getOrderId());
+    }
+
+    @Test
+    void testRun_NoRefillAboveThreshold() {
+        var spyThreadPool = Mockito.spy(threadPool);
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(1)
+            .create();
+        // plenty of orders are still in flight
+        for (int i = 0; i < 20; i++) {
+            checkoutPrefetchBuffer.add("in-flight-%d".formatted(i));
+        }
+
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders);
+
+        createCoordinator(spyThreadPool).run();
+
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .until(() -> !checkoutPrefetchBuffer.contains(mockOrders.get(0).getOrderId()));
+        Mockito.verify(refillTrigger, Mockito.never()).run();
     }
 
     @Test
@@ -106,9 +302,7 @@ class ScheduledRunnerConfigTest {
         Mockito.doThrow(new RuntimeException(""))
             .when(checkoutProcessingWorker).processCheckout(Mockito.any());
 
-        var checkoutCoordinator =
-            new ScheduledRunnerConfig.CheckoutProcessingCoordinator(
-                spyThreadPool, checkoutProcessingWorker, checkoutHelper);
+        var checkoutCoordinator = createCoordinator(spyThreadPool);
 
         Assertions.assertDoesNotThrow(checkoutCoordinator::run);
 
@@ -117,17 +311,150 @@ class ScheduledRunnerConfigTest {
             .formatted(mockOrders.size())));
         Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
             .pullOrders();
-        Mockito.verify(spyThreadPool, Mockito.times(numberOfRecords))
-            .execute(Mockito.any());
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(claimBatchSizer, Mockito.times(numberOfRecords))
+                .recordLatency(Mockito.anyLong()));
         mockOrders.forEach(
             order -> {
                 Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
                     .processCheckout(order.getOrderId());
             });
+        Assertions.assertEquals(0, checkoutPrefetchBuffer.occupancy());
 
         // regardless how many failed checkout process -> no post checkout happen
         Mockito.verify(checkoutHelper, Mockito.times(0))
             .postCheckoutProcess(Mockito.any());
         Assertions.assertTrue(output.toString().contains(ErrorConstant.CODE_UNHANDED_ERROR));
     }
+
+    @Test
+    void testRun_SwitchFailed() {
+        var spyThreadPool = Mockito.spy(threadPool);
+        int numberOfRecords = 5;
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(numberOfRecords)
+            .create();
+        var switchError = new StatusRuntimeException(Status.UNAVAILABLE);
+
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders);
+        mockSwitches(() -> CompletableFuture.failedFuture(switchError));
+
+        createCoordinator(spyThreadPool).run();
+
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .untilAsserted(() -> Mockito.verify(claimBatchSizer, Mockito.times(numberOfRecords))
+                .recordLatency(Mockito.anyLong()));
+        mockOrders.forEach(order -> Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
+            .failCheckout(order.getOrderId(), switchError));
+        // an order which isn't switched is never checked out
+        Mockito.verify(checkoutProcessingWorker, Mockito.never()).processCheckout(Mockito.any());
+        Mockito.verify(checkoutHelper, Mockito.never()).postCheckoutProcess(Mockito.any());
+        Assertions.assertEquals(0, checkoutPrefetchBuffer.occupancy());
+    }
+
+    @Test
+    void testRun_PendingSwitchKeepsBufferSlot() throws InterruptedException {
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(1)
+            .create();
+        var spyThreadPool = Mockito.spy(threadPool);
+        var pendingSwitch = new CompletableFuture<Void>();
+
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders);
+        mockSwitches(() -> pendingSwitch);
+
+        createCoordinator(spyThreadPool).run();
+
+        // no checkout thread is used while the order service hasn't answered
+        Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
+            .switchOrderStatuses(List.of(mockOrders.get(0).getOrderId()));
+        Mockito.verify(spyThreadPool, Mockito.never()).execute(Mockito.any());
+        Assertions.assertTrue(checkoutPrefetchBuffer.contains(mockOrders.get(0).getOrderId()));
+        Mockito.verify(checkoutProcessingWorker, Mockito.never()).processCheckout(Mockito.any());
+
+        Thread.sleep(200); // slow order service
+        pendingSwitch.complete(null);
+
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .until(() -> !checkoutPrefetchBuffer.contains(mockOrders.get(0).getOrderId()));
+        Mockito.verify(checkoutProcessingWorker, Mockito.times(1))
+            .processCheckout(mockOrders.get(0).getOrderId());
+        // the latency only covers the processing, not the wait for the switch
+        Mockito.verify(claimBatchSizer, Mockito.times(1))
+            .recordLatency(Mockito.longThat(latency -> latency < 200));
+    }
+
+    @Test
+    void testRun_ReleaseOverflowOrders(CapturedOutput output) {
+        var fullThreadPool = Mockito.mock(ThreadPoolExecutor.class);
+        int numberOfRecords = 10;
+        int acceptedRecords = 4;
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(numberOfRecords)
+            .create();
+        var overflowOrderIds = mockOrders.subList(acceptedRecords, numberOfRecords).stream()
+            .map(TransactionalInboxOrder::getOrderId)
+            .toList();
+
+        // only the first orders fit into the pool, it stays full afterward
+        var stubber = Mockito.doNothing();
+        for (int i = 1; i < acceptedRecords; i++) {
+            stubber = stubber.doNothing();
+        }
+        stubber.doThrow(new RejectedExecutionException()).when(fullThreadPool).execute(Mockito.any());
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders);
+        Mockito.when(checkoutProcessingWorker.releaseOrders(Mockito.anyList()))
+            .thenReturn(overflowOrderIds.size());
+
+        Assertions.assertDoesNotThrow(createCoordinator(fullThreadPool)::run);
+
+        Assertions.assertTrue(output.toString().contains("Finish submitting %d orders for checking out"
+            .formatted(numberOfRecords)));
+        // the rejected orders are released together with one statement
+        Mockito.verify(checkoutProcessingWorker, Mockito.times(1)).releaseOrders(Mockito.anyList());
+        Mockito.verify(checkoutProcessingWorker, Mockito.times(1)).releaseOrders(overflowOrderIds);
+        // the waiting is only paid once, the rest of the batch is released right away
+        Assertions.assertEquals(1, meterRegistry.counter("checkout.submission.blocked").count());
+        Assertions.assertEquals(overflowOrderIds.size(), meterRegistry.counter("checkout.submission.requeued").count());
+        // released orders are not in flight anymore
+        Assertions.assertEquals(acceptedRecords, checkoutPrefetchBuffer.occupancy());
+    }
+
+    @Test
+    void testRun_SubmitOffCallbackThread() {
+        var fullThreadPool = Mockito.mock(ThreadPoolExecutor.class);
+        var mockOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(1)
+            .create();
+        var pendingSwitch = new CompletableFuture<Void>();
+        var releaseThread = new AtomicReference<String>();
+        var submitExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name(ThreadPoolConstant.CHECKOUT_SUBMIT_THREAD_NAME).factory());
+
+        Mockito.doThrow(new RejectedExecutionException()).when(fullThreadPool).execute(Mockito.any());
+        Mockito.when(checkoutProcessingWorker.pullOrders())
+            .thenReturn(mockOrders);
+        Mockito.when(checkoutProcessingWorker.releaseOrders(Mockito.anyList()))
+            .thenAnswer(invocation -> {
+                releaseThread.set(Thread.currentThread().getName());
+                return 1;
+            });
+        mockSwitches(() -> pendingSwitch);
+
+        createCoordinator(fullThreadPool, submitExecutor).run();
+
+        // the callback thread of the order service doesn't wait for the full pool (50 ms submit timeout)
+        long startTime = System.currentTimeMillis();
+        pendingSwitch.complete(null);
+        Assertions.assertTrue(System.currentTimeMillis() - startTime < 50,
+            "Completing the switch should not wait for the checkout pool");
+
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+            .until(() -> !checkoutPrefetchBuffer.contains(mockOrders.get(0).getOrderId()));
+        Assertions.assertEquals(ThreadPoolConstant.CHECKOUT_SUBMIT_THREAD_NAME, releaseThread.get());
+        submitExecutor.shutdown();
+    }
 }
@@ -1,16 +1,21 @@
 package com.saga.playground.checkoutservice.configs;
 
 import com.saga.playground.checkoutservice.constants.ThreadPoolConstant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @ExtendWith({OutputCaptureExtension.class})
 @Slf4j
@@ -62,4 +67,114 @@ class ThreadPoolConfigTest {
         Assertions.assertFalse(output.toString().contains(missingLog));
     }
 
+    @Test
+    void testVirtualThreadPoolInit() throws InterruptedException {
+        int maxConcurrentOrders = 3;
+        var threadPool = ThreadPoolConfig.virtualThreadPoolExecutor(maxConcurrentOrders);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(maxConcurrentOrders);
+        var allVirtual = new AtomicBoolean(true);
+
+        for (int i = 0; i < maxConcurrentOrders + ThreadPoolConstant.QUEUE_CAPACITY; i++) {
+            threadPool.execute(() -> {
+                allVirtual.compareAndSet(true, Thread.currentThread().isVirtual());
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+        // only as many orders as permits run at the same time, the others wait in the queue
+        Assertions.assertEquals(maxConcurrentOrders, threadPool.getActiveCount());
+        Assertions.assertEquals(ThreadPoolConstant.QUEUE_CAPACITY, threadPool.getQueue().size());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> threadPool.execute(() -> { }));
+
+        release.countDown();
+        threadPool.shutdown();
+        Assertions.assertTrue(threadPool.awaitTermination(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(allVirtual.get(), "Tasks should run on virtual threads");
+    }
+
+    @Test
+    void testVirtualModeConcurrencyLimit() {
+        var config = new ThreadPoolConfig();
+        ReflectionTestUtils.setField(config, "executorMode", ExecutorMode.VIRTUAL);
+        ReflectionTestUtils.setField(config, "maxDbConnections", 50);
+        ReflectionTestUtils.setField(config, "reservedDbConnections", 10);
+
+        var threadPool = config.threadPoolExecutor();
+
+        // its share of the hikari pool, after the reserved connections & the one of the @Async executor
+        Assertions.assertEquals(32, threadPool.getMaximumPoolSize());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void testVirtualModeConfiguredConcurrencyLimit() {
+        var config = new ThreadPoolConfig();
+        ReflectionTestUtils.setField(config, "executorMode", ExecutorMode.VIRTUAL);
+        ReflectionTestUtils.setField(config, "maxDbConnections", 50);
+        ReflectionTestUtils.setField(config, "checkoutConcurrency", 20);
+
+        var threadPool = config.threadPoolExecutor();
+
+        Assertions.assertEquals(20, threadPool.getMaximumPoolSize());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void testVirtualModeConcurrencyLimitAboveDbPool() {
+        var config = new ThreadPoolConfig();
+        ReflectionTestUtils.setField(config, "executorMode", ExecutorMode.VIRTUAL);
+        ReflectionTestUtils.setField(config, "maxDbConnections", 50);
+        ReflectionTestUtils.setField(config, "checkoutConcurrency", 40);
+
+        // 40 orders + 8 async tasks don't fit into the 40 connections left after the reserved ones
+        Assertions.assertThrows(IllegalStateException.class, config::threadPoolExecutor);
+    }
+
+    @Test
+    void testVirtualModeDbPoolSmallerThanReserved() {
+        var config = new ThreadPoolConfig();
+        ReflectionTestUtils.setField(config, "executorMode", ExecutorMode.VIRTUAL);
+
+        // hikari's default pool of 10 is fully reserved
+        Assertions.assertThrows(IllegalStateException.class, config::threadPoolExecutor);
+    }
+
+    @Test
+    void testCheckoutExecutorMetrics() throws InterruptedException {
+        var config = new ThreadPoolConfig();
+        var threadPool = config.threadPoolExecutor();
+        var meterRegistry = new SimpleMeterRegistry();
+        config.checkoutExecutorMetrics(threadPool).bindTo(meterRegistry);
+
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(ThreadPoolConstant.CORE_POOL_SIZE);
+        for (int i = 0; i < ThreadPoolConstant.CORE_POOL_SIZE + 1; i++) {
+            threadPool.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        Assertions.assertEquals((double) ThreadPoolConstant.CORE_POOL_SIZE,
+            meterRegistry.get("executor.active").tag("name", ThreadPoolConfig.CHECKOUT_EXECUTOR_NAME).gauge().value());
+        Assertions.assertEquals(1,
+            meterRegistry.get("executor.queued").tag("name", ThreadPoolConfig.CHECKOUT_EXECUTOR_NAME).gauge().value());
+
+        release.countDown();
+        threadPool.shutdown();
+        Assertions.assertTrue(threadPool.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
 }
@@ -5,6 +5,7 @@ import com.saga.playground.checkoutservice.configs.EventListenerConfig;
 import com.saga.playground.checkoutservice.configs.ObjectMapperConfig;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
 import com.saga.playground.checkoutservice.webhooks.PaymentGatewayHandler;
 import org.instancio.Instancio;
@@ -48,6 +49,9 @@ class CheckoutRegisteredListenerTest extends PostgresContainerBaseTest {
     @Autowired
     private CheckoutRepository checkoutRepository;
 
+    @Autowired
+    private CheckoutOutboxRepository checkoutOutboxRepository;
+
     @AfterEach
     void reset() throws Exception {
         LogManager.getLogManager().readConfiguration();
@@ -92,8 +96,15 @@ class CheckoutRegisteredListenerTest extends PostgresContainerBaseTest {
         Assertions.assertNotNull(mockCheckout.getWebhookPayload());
         Assertions.assertEquals(PaymentStatus.FINALIZED, mockCheckout.getCheckoutStatus());
 
+        // the status change is committed together with its outbox record
+        var outboxRecords = checkoutOutboxRepository.findAll();
+        Assertions.assertEquals(1, outboxRecords.size());
+        Assertions.assertEquals(orderId, outboxRecords.get(0).getOrderId());
+        Assertions.assertEquals(PaymentStatus.FINALIZED, outboxRecords.get(0).getCheckoutStatus());
+
         // clean up db
         checkoutRepository.delete(mockCheckout);
+        checkoutOutboxRepository.deleteAll();
 
     }
 
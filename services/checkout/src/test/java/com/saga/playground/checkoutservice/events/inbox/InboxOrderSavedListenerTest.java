@@ -0,0 +1,27 @@
+package com.saga.playground.checkoutservice.events.inbox;
+
+import com.saga.playground.checkoutservice.tasks.SingleExecutionQueuedTaskRunner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+@ExtendWith({OutputCaptureExtension.class})
+class InboxOrderSavedListenerTest {
+
+    private final SingleExecutionQueuedTaskRunner checkoutPullOrderRunner =
+        Mockito.mock(SingleExecutionQueuedTaskRunner.class);
+
+    private final InboxOrderSavedListener listener = new InboxOrderSavedListener(checkoutPullOrderRunner);
+
+    @Test
+    void testInboxOrderSavedHandler(CapturedOutput output) {
+        listener.inboxOrderSavedHandler(new InboxOrderSavedEvent("local"));
+
+        Mockito.verify(checkoutPullOrderRunner, Mockito.times(1)).tryRun();
+        Assertions.assertTrue(output.toString().contains("New inbox orders signaled by local"));
+    }
+
+}
@@ -1,35 +1,138 @@
 package com.saga.playground.checkoutservice.grpc.services;
 
+import com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentRequest;
+import com.saga.playground.checkoutservice.grpc.protobufs.BatchSwitchToPendingPaymentResponse;
 import com.saga.playground.checkoutservice.grpc.protobufs.OrderServiceGrpc;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest;
 import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
 class OrderGRPCServiceTest {
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private OrderServiceGrpc.OrderServiceStub stub;
+
     @Mock
-    private OrderServiceGrpc.OrderServiceBlockingStub stub;
+    private OrderServiceGrpc.OrderServiceStub deadlineStub;
 
-    @InjectMocks
     private OrderGRPCService orderGRPCService;
 
+    @BeforeEach
+    void setUp() {
+        orderGRPCService = new OrderGRPCService(meterRegistry);
+        ReflectionTestUtils.setField(orderGRPCService, "stub", stub);
+        ReflectionTestUtils.setField(orderGRPCService, "deadlineMs", 500L);
+        Mockito.when(stub.withDeadlineAfter(500L, TimeUnit.MILLISECONDS)).thenReturn(deadlineStub);
+    }
+
+    @SuppressWarnings("unchecked")
+    private StreamObserver<SwitchToPendingPaymentResponse> captureObserver() {
+        ArgumentCaptor<StreamObserver<SwitchToPendingPaymentResponse>> observerCaptor =
+            ArgumentCaptor.forClass(StreamObserver.class);
+        Mockito.verify(deadlineStub, Mockito.times(1))
+            .switchOrderToPendingPayment(Mockito.any(SwitchToPendingPaymentRequest.class), observerCaptor.capture());
+        return observerCaptor.getValue();
+    }
+
     @Test
     void switchOrderStatus_OK(CapturedOutput output) {
-        Mockito.when(stub.switchOrderToPendingPayment(Mockito.any()))
-            .thenReturn(SwitchToPendingPaymentResponse.newBuilder().build());
-
         int orderId = 1;
-        Assertions.assertDoesNotThrow(() -> orderGRPCService.switchOrderStatus(orderId));
+        var res = orderGRPCService.switchOrderStatus(orderId);
+        // nothing is waited for until the response arrives
+        Assertions.assertFalse(res.isDone());
 
+        var observer = captureObserver();
+        observer.onNext(SwitchToPendingPaymentResponse.newBuilder().build());
+        observer.onCompleted();
+
+        Assertions.assertTrue(res.isDone());
+        Assertions.assertDoesNotThrow(res::join);
         Assertions.assertTrue(output.toString().contains("Successfully switch order"));
+        Assertions.assertEquals(1,
+            meterRegistry.timer(OrderGRPCService.SWITCH_ORDER_TIMER, "status", "OK").count());
+    }
+
+    @Test
+    void switchOrderStatus_Error() {
+        var res = orderGRPCService.switchOrderStatus(1);
+
+        captureObserver().onError(new StatusRuntimeException(Status.DEADLINE_EXCEEDED));
+
+        var e = Assertions.assertThrows(CompletionException.class, res::join);
+        Assertions.assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        Assertions.assertEquals(1,
+            meterRegistry.timer(OrderGRPCService.SWITCH_ORDER_TIMER, "status", "DEADLINE_EXCEEDED").count());
+        Assertions.assertEquals(0,
+            meterRegistry.timer(OrderGRPCService.SWITCH_ORDER_TIMER, "status", "OK").count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private StreamObserver<BatchSwitchToPendingPaymentResponse> captureBatchObserver(
+        ArgumentCaptor<BatchSwitchToPendingPaymentRequest> requestCaptor) {
+        ArgumentCaptor<StreamObserver<BatchSwitchToPendingPaymentResponse>> observerCaptor =
+            ArgumentCaptor.forClass(StreamObserver.class);
+        Mockito.verify(deadlineStub, Mockito.times(1))
+            .batchSwitchOrderToPendingPayment(requestCaptor.capture(), observerCaptor.capture());
+        return observerCaptor.getValue();
+    }
+
+    @Test
+    void switchOrderStatuses_OK(CapturedOutput output) {
+        var res = orderGRPCService.switchOrderStatuses(List.of(1, 2));
+        Assertions.assertFalse(res.isDone());
+
+        var requestCaptor = ArgumentCaptor.forClass(BatchSwitchToPendingPaymentRequest.class);
+        var observer = captureBatchObserver(requestCaptor);
+        // one request for the whole batch
+        Assertions.assertEquals(List.of(1, 2), requestCaptor.getValue().getIdsList());
+        var switched = SwitchToPendingPaymentResult.newBuilder().setId(1).setResult(SwitchResult.SWITCHED).build();
+        var invalid = SwitchToPendingPaymentResult.newBuilder().setId(2).setResult(SwitchResult.INVALID_ACTION).build();
+        observer.onNext(BatchSwitchToPendingPaymentResponse.newBuilder()
+            .addResults(switched)
+            .addResults(invalid)
+            .build());
+        observer.onCompleted();
+
+        Assertions.assertEquals(List.of(switched, invalid), res.join());
+        Assertions.assertTrue(output.toString().contains("Switched orders [1=SWITCHED, 2=INVALID_ACTION]"));
+        Assertions.assertEquals(1,
+            meterRegistry.timer(OrderGRPCService.SWITCH_ORDERS_TIMER, "status", "OK").count());
+    }
+
+    @Test
+    void switchOrderStatuses_Error() {
+        var res = orderGRPCService.switchOrderStatuses(List.of(1, 2));
+
+        captureBatchObserver(ArgumentCaptor.forClass(BatchSwitchToPendingPaymentRequest.class))
+            .onError(new StatusRuntimeException(Status.UNAVAILABLE));
+
+        var e = Assertions.assertThrows(CompletionException.class, res::join);
+        Assertions.assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        Assertions.assertEquals(1,
+            meterRegistry.timer(OrderGRPCService.SWITCH_ORDERS_TIMER, "status", "UNAVAILABLE").count());
     }
 
 }
@@ -0,0 +1,198 @@
+package com.saga.playground.checkoutservice.grpc.services;
+
+import com.saga.playground.checkoutservice.constants.GRPCConstant;
+import com.saga.playground.checkoutservice.grpc.protobufs.OrderServiceGrpc;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentRequest;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResponse;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSwitchMultiplexerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private OrderServiceGrpc.OrderServiceStub stub;
+
+    @Mock
+    private OrderGRPCService orderGRPCService;
+
+    @Mock
+    private ClientCallStreamObserver<SwitchToPendingPaymentRequest> requestStream;
+
+    private ClientResponseObserver<SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult> responseObserver;
+
+    private OrderSwitchMultiplexer multiplexer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        multiplexer = new OrderSwitchMultiplexer(orderGRPCService, meterRegistry);
+        ReflectionTestUtils.setField(multiplexer, "stub", stub);
+        Mockito.lenient().when(stub.streamSwitchOrderToPendingPayment(Mockito.any())).thenAnswer(invocation -> {
+            responseObserver = invocation.getArgument(0);
+            responseObserver.beforeStart(requestStream);
+            return requestStream;
+        });
+        Mockito.lenient().when(requestStream.isReady()).thenReturn(true);
+    }
+
+    private static SwitchToPendingPaymentResult switchResult(int orderId, SwitchResult result) {
+        return SwitchToPendingPaymentResult.newBuilder()
+            .setId(orderId)
+            .setResult(result)
+            .build();
+    }
+
+    private List<Integer> sentOrderIds() {
+        var requestCaptor = ArgumentCaptor.forClass(SwitchToPendingPaymentRequest.class);
+        Mockito.verify(requestStream, Mockito.atLeast(0)).onNext(requestCaptor.capture());
+        return requestCaptor.getAllValues().stream().map(SwitchToPendingPaymentRequest::getId).toList();
+    }
+
+    @Test
+    void switchOrderStatuses_CorrelatedById() {
+        var res = multiplexer.switchOrderStatuses(List.of(1, 2));
+        Assertions.assertEquals(List.of(1, 2), sentOrderIds());
+
+        // responses may come back in any order
+        responseObserver.onNext(switchResult(2, SwitchResult.INVALID_ACTION));
+        Assertions.assertFalse(res.isDone());
+        responseObserver.onNext(switchResult(1, SwitchResult.SWITCHED));
+
+        Assertions.assertEquals(
+            List.of(switchResult(1, SwitchResult.SWITCHED), switchResult(2, SwitchResult.INVALID_ACTION)),
+            res.join());
+        // one stream for every switch
+        Mockito.verify(stub, Mockito.times(1)).streamSwitchOrderToPendingPayment(Mockito.any());
+        Mockito.verifyNoInteractions(orderGRPCService);
+    }
+
+    @Test
+    void switchOrderStatus_SameOrderJoined() {
+        var first = multiplexer.switchOrderStatus(1);
+        var second = multiplexer.switchOrderStatus(1);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(List.of(1), sentOrderIds());
+    }
+
+    @Test
+    void switchOrderStatus_MaxInFlight() {
+        ReflectionTestUtils.setField(multiplexer, "maxInFlight", 1);
+
+        var first = multiplexer.switchOrderStatus(1);
+        var second = multiplexer.switchOrderStatus(2);
+        Assertions.assertEquals(List.of(1), sentOrderIds());
+
+        // the response frees the slot for the waiting order
+        responseObserver.onNext(switchResult(1, SwitchResult.SWITCHED));
+        Assertions.assertEquals(SwitchResult.SWITCHED, first.join().getResult());
+        Assertions.assertEquals(List.of(1, 2), sentOrderIds());
+        Assertions.assertFalse(second.isDone());
+    }
+
+    @Test
+    void switchOrderStatus_WaitForReadyTransport() {
+        Mockito.when(requestStream.isReady()).thenReturn(false);
+        multiplexer.switchOrderStatus(1);
+        Assertions.assertEquals(List.of(), sentOrderIds());
+
+        var onReadyCaptor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(requestStream).setOnReadyHandler(onReadyCaptor.capture());
+        Mockito.when(requestStream.isReady()).thenReturn(true);
+        onReadyCaptor.getValue().run();
+
+        Assertions.assertEquals(List.of(1), sentOrderIds());
+    }
+
+    @Test
+    void switchOrderStatus_BrokenStreamFallback() {
+        ReflectionTestUtils.setField(multiplexer, "maxInFlight", 1);
+        Mockito.when(orderGRPCService.switchOrderStatus(1))
+            .thenReturn(CompletableFuture.completedFuture(SwitchToPendingPaymentResponse.newBuilder().build()));
+        Mockito.when(orderGRPCService.switchOrderStatus(2))
+            .thenReturn(CompletableFuture.failedFuture(new StatusRuntimeException(
+                Status.UNKNOWN.withDescription(GRPCConstant.ORDER_SERVER_INVALID_ACTION))));
+        Mockito.when(orderGRPCService.switchOrderStatus(3))
+            .thenReturn(CompletableFuture.failedFuture(new StatusRuntimeException(Status.UNAVAILABLE)));
+        // order 1 is in flight, order 2 is waiting
+        var inFlight = multiplexer.switchOrderStatus(1);
+        var queued = multiplexer.switchOrderStatus(2);
+
+        responseObserver.onError(new StatusRuntimeException(Status.UNAVAILABLE));
+
+        Assertions.assertEquals(SwitchResult.SWITCHED, inFlight.join().getResult());
+        Assertions.assertEquals(SwitchResult.INVALID_ACTION, queued.join().getResult());
+        // unary calls until the stream is reopened after the backoff
+        var unary = multiplexer.switchOrderStatus(3).join();
+        Assertions.assertEquals(SwitchResult.ERROR, unary.getResult());
+        Assertions.assertTrue(unary.getError().contains("UNAVAILABLE"));
+        Mockito.verify(stub, Mockito.times(1)).streamSwitchOrderToPendingPayment(Mockito.any());
+        Assertions.assertEquals(3, meterRegistry.counter(OrderSwitchMultiplexer.FALLBACK_COUNTER).count());
+        Assertions.assertEquals(1,
+            meterRegistry.counter(OrderSwitchMultiplexer.BROKEN_COUNTER, "status", "UNAVAILABLE").count());
+    }
+
+    @Test
+    void switchOrderStatus_ReopenAfterBackoff() {
+        ReflectionTestUtils.setField(multiplexer, "reconnectBackoffMs", 0L);
+        Mockito.when(orderGRPCService.switchOrderStatus(1))
+            .thenReturn(CompletableFuture.completedFuture(SwitchToPendingPaymentResponse.newBuilder().build()));
+        multiplexer.switchOrderStatus(1);
+        var brokenStream = responseObserver;
+        brokenStream.onCompleted();
+
+        var res = multiplexer.switchOrderStatus(2);
+
+        Mockito.verify(stub, Mockito.times(2)).streamSwitchOrderToPendingPayment(Mockito.any());
+        // callbacks of the replaced stream are ignored
+        brokenStream.onNext(switchResult(2, SwitchResult.ERROR));
+        Assertions.assertFalse(res.isDone());
+        responseObserver.onNext(switchResult(2, SwitchResult.SWITCHED));
+        Assertions.assertEquals(SwitchResult.SWITCHED, res.join().getResult());
+    }
+
+    @Test
+    void switchOrderStatus_OpenFailed() {
+        Mockito.doThrow(new IllegalStateException("channel shutdown"))
+            .when(stub).streamSwitchOrderToPendingPayment(Mockito.any());
+        Mockito.when(orderGRPCService.switchOrderStatus(1))
+            .thenReturn(CompletableFuture.completedFuture(SwitchToPendingPaymentResponse.newBuilder().build()));
+
+        Assertions.assertEquals(SwitchResult.SWITCHED, multiplexer.switchOrderStatus(1).join().getResult());
+        Assertions.assertEquals(1, meterRegistry.counter(OrderSwitchMultiplexer.FALLBACK_COUNTER).count());
+    }
+
+    @Test
+    void switchOrderStatus_Expired() {
+        ReflectionTestUtils.setField(multiplexer, "deadlineMs", 50L);
+
+        var res = multiplexer.switchOrderStatus(1).join();
+
+        Assertions.assertEquals(SwitchResult.ERROR, res.getResult());
+        Assertions.assertTrue(res.getError().contains("DEADLINE_EXCEEDED"));
+        // the expired order is sent again by the next switch
+        Assertions.assertFalse(multiplexer.switchOrderStatus(1).isDone());
+        Assertions.assertEquals(List.of(1, 1), sentOrderIds());
+    }
+
+}
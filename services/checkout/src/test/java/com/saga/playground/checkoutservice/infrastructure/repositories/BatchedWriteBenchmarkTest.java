@@ -0,0 +1,197 @@
+package com.saga.playground.checkoutservice.infrastructure.repositories;
+
+import com.saga.playground.checkoutservice.basetest.PostgresContainerBaseTest;
+import com.saga.playground.checkoutservice.domains.entities.Checkout;
+import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
+import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Round trips to postgres per 100-row saveAll, with & without JDBC batching
+ * - without batching (jdbc batch size 1) it's the behavior of IDENTITY ids: 1 statement per row
+ * - with batching it's the configured batch size & the pooled sequences
+ * Run with ./gradlew benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BatchedWriteBenchmarkTest extends PostgresContainerBaseTest {
+
+    private static final int NUMBER_OF_ROWS = 100;
+
+    private static final AtomicInteger ROUND_TRIPS = new AtomicInteger();
+
+    @Autowired
+    private CheckoutRepository checkoutRepository;
+
+    @Autowired
+    private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void benchmarkCheckoutSaveAll() {
+        var unbatched = measureCheckoutSaveAll("unbatched", 1);
+        var batched = measureCheckoutSaveAll("batched", null);
+
+        report("checkout", unbatched, batched);
+        assertFewerRoundTrips(unbatched, batched);
+    }
+
+    @Test
+    void benchmarkInboxOrderSaveAll() {
+        var unbatched = measureInboxOrderSaveAll("unbatched", 1);
+        var batched = measureInboxOrderSaveAll("batched", null);
+
+        report("t_inbox_order", unbatched, batched);
+        assertFewerRoundTrips(unbatched, batched);
+    }
+
+    /**
+     * @param jdbcBatchSize batch size of the session, null for the configured one
+     */
+    private RoundTrips measureCheckoutSaveAll(String prefix, Integer jdbcBatchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        var checkouts = IntStream.range(0, NUMBER_OF_ROWS)
+            .mapToObj(i -> new Checkout("%s-%d".formatted(prefix, i), "user", PaymentStatus.INIT, BigDecimal.TEN))
+            .toList();
+
+        ROUND_TRIPS.set(0);
+        checkoutRepository.saveAll(checkouts);
+        entityManager.flush();
+        int inserts = ROUND_TRIPS.get();
+
+        // same as the status change in CheckoutProcessingWorker.processCheckout
+        checkouts.forEach(checkout -> checkout.setCheckoutStatus(PaymentStatus.PROCESSING));
+        ROUND_TRIPS.set(0);
+        checkoutRepository.saveAll(checkouts);
+        entityManager.flush();
+        int updates = ROUND_TRIPS.get();
+
+        entityManager.clear();
+        return new RoundTrips(inserts, updates);
+    }
+
+    private RoundTrips measureInboxOrderSaveAll(String prefix, Integer jdbcBatchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        List<TransactionalInboxOrder> orders = IntStream.range(0, NUMBER_OF_ROWS)
+            .mapToObj(i -> new TransactionalInboxOrder("%s-%d".formatted(prefix, i), "{}"))
+            .toList();
+
+        ROUND_TRIPS.set(0);
+        transactionalInboxOrderRepository.saveAll(orders);
+        entityManager.flush();
+        int inserts = ROUND_TRIPS.get();
+
+        // same as claiming orders in CheckoutProcessingWorker.pullOrders
+        orders.forEach(order -> {
+            order.setWorkerId("worker");
+            order.setStatus(InboxOrderStatus.IN_PROGRESS);
+        });
+        ROUND_TRIPS.set(0);
+        transactionalInboxOrderRepository.saveAll(orders);
+        entityManager.flush();
+        int updates = ROUND_TRIPS.get();
+
+        entityManager.clear();
+        return new RoundTrips(inserts, updates);
+    }
+
+    private void report(String table, RoundTrips unbatched, RoundTrips batched) {
+        log.info("{} round trips per {} rows | unbatched: {} inserts, {} updates | batched: {} inserts, {} updates",
+            table, NUMBER_OF_ROWS, unbatched.inserts(), unbatched.updates(), batched.inserts(), batched.updates());
+    }
+
+    private void assertFewerRoundTrips(RoundTrips unbatched, RoundTrips batched) {
+        Assertions.assertTrue(unbatched.inserts() >= NUMBER_OF_ROWS,
+            "Every row should be 1 insert without batching");
+        Assertions.assertTrue(unbatched.updates() >= NUMBER_OF_ROWS,
+            "Every row should be 1 update without batching");
+        Assertions.assertTrue(batched.inserts() <= NUMBER_OF_ROWS / 10,
+            "Inserts should be sent in a few batches");
+        Assertions.assertTrue(batched.updates() <= NUMBER_OF_ROWS / 10,
+            "Updates should be sent in a few batches");
+    }
+
+    private record RoundTrips(int inserts, int updates) {
+    }
+
+    @TestConfiguration
+    static class RoundTripCounterConfig {
+
+        // every execution of a statement (or a whole batch) is 1 round trip to the database
+        private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch");
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    ROUND_TRIPS.incrementAndGet();
+                }
+
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+
+                if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && method.getReturnType().isInterface()
+                    && Statement.class.isAssignableFrom(method.getReturnType())) {
+                    return proxy(uncheckedType(method.getReturnType()), statement);
+                }
+                return result;
+            };
+
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Class<T> uncheckedType(Class<?> type) {
+            return (Class<T>) type;
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.saga.playground.checkoutservice.infrastructure.repositories;
+
+import com.saga.playground.checkoutservice.basetest.PostgresContainerBaseTest;
+import com.saga.playground.checkoutservice.domains.entities.Checkout;
+import com.saga.playground.checkoutservice.domains.entities.CheckoutOutbox;
+import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CheckoutOutboxRepositoryTest extends PostgresContainerBaseTest {
+
+    @Autowired
+    private CheckoutOutboxRepository checkoutOutboxRepository;
+
+    @Test
+    void testAppendStatusChange() {
+        Assertions.assertTrue(checkoutOutboxRepository.findAll().isEmpty(),
+            "Table should be empty before starting the test");
+
+        checkoutOutboxRepository.appendStatusChange(
+            new Checkout("1", "user", PaymentStatus.PROCESSING, BigDecimal.TEN));
+        checkoutOutboxRepository.appendStatusChange(
+            new Checkout("2", "user", PaymentStatus.FINALIZED, BigDecimal.TEN));
+        checkoutOutboxRepository.appendStatusChange(
+            new Checkout("3", "user", PaymentStatus.FAILED, BigDecimal.TEN));
+
+        var res = checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(10));
+
+        Assertions.assertEquals(2, res.size(), "Only notifiable statuses should be appended");
+        Assertions.assertEquals("2", res.get(0).getOrderId());
+        Assertions.assertEquals(PaymentStatus.FINALIZED, res.get(0).getCheckoutStatus());
+        Assertions.assertEquals("3", res.get(1).getOrderId());
+        Assertions.assertEquals(PaymentStatus.FAILED, res.get(1).getCheckoutStatus());
+    }
+
+    @Test
+    void testFindByIdGreaterThan_KeysetPagination() {
+        int numberOfRecord = 10;
+        int pageSize = 3;
+        checkoutOutboxRepository.saveAllAndFlush(IntStream.range(0, numberOfRecord)
+            .mapToObj(i -> new CheckoutOutbox("%d".formatted(i), PaymentStatus.FINALIZED))
+            .toList());
+
+        List<String> orderIds = new ArrayList<>();
+        int numberOfPages = 0;
+        var page = checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(pageSize));
+        while (!page.isEmpty()) {
+            numberOfPages++;
+            page.forEach(item -> orderIds.add(item.getOrderId()));
+            page = checkoutOutboxRepository.findPublishableRecords(
+                page.get(page.size() - 1).getId(), Limit.of(pageSize));
+        }
+
+        Assertions.assertEquals(4, numberOfPages);
+        // the insertion order is kept
+        Assertions.assertEquals(IntStream.range(0, numberOfRecord).mapToObj("%d"::formatted).toList(), orderIds);
+    }
+
+    @Test
+    void testDeleteSentRecords() {
+        int numberOfRecord = 10;
+        var records = checkoutOutboxRepository.saveAllAndFlush(IntStream.range(0, numberOfRecord)
+            .mapToObj(i -> new CheckoutOutbox("%d".formatted(i), PaymentStatus.FINALIZED))
+            .toList());
+
+        var sentRecordIds = records.subList(0, numberOfRecord / 2).stream()
+            .map(CheckoutOutbox::getId)
+            .toArray(Long[]::new);
+
+        Assertions.assertEquals(numberOfRecord / 2, checkoutOutboxRepository.deleteSentRecords(sentRecordIds));
+        // deleting again is a no-op, e.g. when the relay retries
+        Assertions.assertEquals(0, checkoutOutboxRepository.deleteSentRecords(sentRecordIds));
+
+        var res = checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(numberOfRecord));
+        Assertions.assertEquals(numberOfRecord / 2, res.size());
+        Assertions.assertEquals(records.get(numberOfRecord / 2).getId(), res.get(0).getId());
+    }
+
+    @Test
+    void testRescheduleFailedRecords() {
+        var records = checkoutOutboxRepository.saveAllAndFlush(IntStream.range(0, 3)
+            .mapToObj(i -> new CheckoutOutbox("%d".formatted(i), PaymentStatus.FINALIZED))
+            .toList());
+        var failedRecordIds = new Long[]{records.get(0).getId(), records.get(2).getId()};
+
+        Assertions.assertEquals(2, checkoutOutboxRepository.rescheduleFailedRecords(failedRecordIds, 60000, 60000));
+
+        // backing off records are skipped by the relay
+        var res = checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(10));
+        Assertions.assertEquals(1, res.size());
+        Assertions.assertEquals(records.get(1).getId(), res.get(0).getId());
+
+        var rescheduled = checkoutOutboxRepository.findAllById(List.of(failedRecordIds));
+        rescheduled.forEach(outboxRecord -> {
+            Assertions.assertEquals(1, outboxRecord.getAttempts());
+            Assertions.assertTrue(outboxRecord.getNextAttemptAt().isAfter(Instant.now()),
+                "Next attempt should be in the future");
+        });
+
+        // the retry is due right away without backoff, the attempts keep counting
+        checkoutOutboxRepository.rescheduleFailedRecords(failedRecordIds, 0, 0);
+        Assertions.assertEquals(3, checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(10)).size());
+        checkoutOutboxRepository.findAllById(List.of(failedRecordIds))
+            .forEach(outboxRecord -> Assertions.assertEquals(2, outboxRecord.getAttempts()));
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.saga.playground.checkoutservice.infrastructure.repositories;
+
+import com.saga.playground.checkoutservice.basetest.PostgresContainerBaseTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// verify the polling queries are served by the indexes instead of sequential scans
+// the queries are read from the repository, so the plans are the ones of the SQL which actually runs
+// the tables are filled with mostly finished records & analyzed, so the plan is close to a long-running system
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PollingQueryIndexTest extends PostgresContainerBaseTest {
+
+    private static final int NUMBER_OF_HISTORY_RECORDS = 20000;
+
+    private static final int NUMBER_OF_FAILED_RECORDS = 200;
+
+    private static final int NUMBER_OF_IN_PROGRESS_RECORDS = 50;
+
+    private static final int NUMBER_OF_PENDING_RECORDS = 10;
+
+    // named parameters, the :: of the casts are not
+    private static final Pattern PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO checkout_schema.t_inbox_order "
+                + "(order_id, payload, status, worker_id, attempts) "
+                + "SELECT 'history-' || i, '{}', 'DONE', 'worker-' || (i % 5), 1 FROM generate_series(1, ?) i",
+            NUMBER_OF_HISTORY_RECORDS);
+        jdbcTemplate.update("INSERT INTO checkout_schema.t_inbox_order "
+                + "(order_id, payload, status, worker_id, attempts) "
+                + "SELECT 'failed-' || i, '{}', 'FAILED', 'worker-' || (i % 5), 1 FROM generate_series(1, ?) i",
+            NUMBER_OF_FAILED_RECORDS);
+        jdbcTemplate.update("INSERT INTO checkout_schema.t_inbox_order "
+                + "(order_id, payload, status, worker_id, lease_until, attempts) "
+                + "SELECT 'in-progress-' || i, '{}', 'IN_PROGRESS', 'worker-' || (i % 5), "
+                + "now() + interval '2 minutes', 1 FROM generate_series(1, ?) i",
+            NUMBER_OF_IN_PROGRESS_RECORDS);
+        jdbcTemplate.update("INSERT INTO checkout_schema.t_inbox_order (order_id, payload, status) "
+                + "SELECT 'pending-' || i, '{}', 'NEW' FROM generate_series(1, ?) i",
+            NUMBER_OF_PENDING_RECORDS);
+
+        jdbcTemplate.execute("ANALYZE checkout_schema.t_inbox_order");
+    }
+
+    // native query of the repository method with the parameters bound as literals
+    private static String repositoryQuery(String methodName, Map<String, String> parameters) {
+        var method = Arrays.stream(TransactionalInboxOrderRepository.class.getDeclaredMethods())
+            .filter(m -> m.getName().equals(methodName))
+            .findFirst()
+            .orElseThrow();
+        var query = method.getAnnotation(Query.class).value();
+        return PARAMETER.matcher(query)
+            .replaceAll(match -> Matcher.quoteReplacement(parameters.get(match.group(1))));
+    }
+
+    private String explain(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+    }
+
+    @Test
+    void testFindNewOrders_UsePartialIndex() {
+        var plan = explain(repositoryQuery("findNewOrders", Map.of("limit", "10")));
+
+        Assertions.assertTrue(plan.contains("idx_t_inbox_order_new_fifo"), plan);
+        // rows already come in FIFO order from the index
+        Assertions.assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void testClaimNewOrders_UsePartialIndex() {
+        var plan = explain(repositoryQuery("claimNewOrders",
+            Map.of("workerId", "'worker'", "limit", "10", "leaseMs", "120000")));
+
+        Assertions.assertTrue(plan.contains("idx_t_inbox_order_new_fifo"), plan);
+        Assertions.assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testReclaimExpiredLeases_UsePartialIndex() {
+        var plan = explain(repositoryQuery("reclaimExpiredLeases", Map.of("maxAttempts", "5")));
+
+        Assertions.assertTrue(plan.contains("idx_t_inbox_order_lease"), plan);
+    }
+
+    @Test
+    void testFindByWorkerIdAndStatus_UseCompositeIndex() {
+        // derived query, same predicate as the SQL generated by hibernate
+        var plan = explain("SELECT * FROM checkout_schema.t_inbox_order t "
+            + "WHERE t.worker_id = 'worker-1' "
+            + "AND t.status = 'IN_PROGRESS'::checkout_schema.inbox_order_status");
+
+        Assertions.assertTrue(plan.contains("idx_t_inbox_order_worker_status"), plan);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.saga.playground.checkoutservice.infrastructure.repositories;
+
+import com.saga.playground.checkoutservice.basetest.PostgresContainerBaseTest;
+import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.utils.compression.GzipCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionalInboxOrderBulkWriter.class})
+class TransactionalInboxOrderBulkWriterTest extends PostgresContainerBaseTest {
+
+    private static final String PAYLOAD = "{\"key\":\"dummyValue\"}";
+
+    @Autowired
+    private TransactionalInboxOrderBulkWriter transactionalInboxOrderBulkWriter;
+
+    @Autowired
+    private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
+
+    @BeforeEach
+    void deleteMockRecords() {
+        transactionalInboxOrderRepository.deleteAll();
+    }
+
+    private List<TransactionalInboxOrder> createOrders(int from, int to) {
+        return IntStream.range(from, to)
+            .mapToObj(i -> new TransactionalInboxOrder("%d".formatted(i), PAYLOAD))
+            .toList();
+    }
+
+    @Test
+    void testInsertIgnoreDuplicates_OK() {
+        int numberOfOrders = 10;
+        var insertedOrderIds =
+            transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(createOrders(0, numberOfOrders));
+
+        Assertions.assertEquals(numberOfOrders, insertedOrderIds.size());
+        for (int i = 0; i < numberOfOrders; i++) {
+            var order = transactionalInboxOrderRepository.findByOrderId("%d".formatted(i));
+            Assertions.assertTrue(order.isPresent(), "Order should be stored");
+            Assertions.assertEquals(InboxOrderStatus.NEW, order.get().getStatus());
+            Assertions.assertEquals(PAYLOAD, order.get().getPayload());
+            Assertions.assertNotNull(order.get().getCreatedAt());
+            Assertions.assertNull(order.get().getWorkerId());
+        }
+    }
+
+    @Test
+    void testInsertIgnoreDuplicates_ExtractedFields() {
+        transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(List.of(
+            new TransactionalInboxOrder("1", "user", new BigDecimal("79.61"), PAYLOAD),
+            new TransactionalInboxOrder("2", PAYLOAD)));
+
+        var extracted = transactionalInboxOrderRepository.findByOrderId("1").orElseThrow();
+        Assertions.assertEquals("user", extracted.getUserId());
+        Assertions.assertEquals(new BigDecimal("79.61"), extracted.getAmount());
+
+        // orders without extracted fields are still accepted
+        var payloadOnly = transactionalInboxOrderRepository.findByOrderId("2").orElseThrow();
+        Assertions.assertNull(payloadOnly.getUserId());
+        Assertions.assertNull(payloadOnly.getAmount());
+    }
+
+    @Test
+    void testInsertIgnoreDuplicates_OptionalPayload() {
+        var compressedOrder = new TransactionalInboxOrder("1", "user", BigDecimal.TEN, null);
+        compressedOrder.setCompressedPayload(GzipCodec.compress(PAYLOAD));
+        var extractedOnlyOrder = new TransactionalInboxOrder("2", "user", BigDecimal.TEN, null);
+
+        var insertedOrderIds = transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(
+            List.of(compressedOrder, extractedOnlyOrder));
+
+        Assertions.assertEquals(2, insertedOrderIds.size());
+        var compressed = transactionalInboxOrderRepository.findByOrderId("1").orElseThrow();
+        Assertions.assertNull(compressed.getPayload());
+        Assertions.assertEquals(PAYLOAD, GzipCodec.decompress(compressed.getCompressedPayload()));
+        var extractedOnly = transactionalInboxOrderRepository.findByOrderId("2").orElseThrow();
+        Assertions.assertNull(extractedOnly.getPayload());
+        Assertions.assertNull(extractedOnly.getCompressedPayload());
+        Assertions.assertEquals("user", extractedOnly.getUserId());
+    }
+
+    @Test
+    void testInsertIgnoreDuplicates_Duplicate() {
+        transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(createOrders(0, 5));
+
+        // redelivered batch: 0..4 already exist, 7 is duplicated inside the batch itself
+        List<TransactionalInboxOrder> orders = new ArrayList<>(createOrders(0, 10));
+        orders.add(new TransactionalInboxOrder("7", PAYLOAD));
+
+        var insertedOrderIds = Assertions.assertDoesNotThrow(
+            () -> transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(orders));
+
+        Assertions.assertEquals(List.of("5", "6", "7", "8", "9"), insertedOrderIds.stream().sorted().toList());
+        Assertions.assertEquals(10, transactionalInboxOrderRepository.count());
+    }
+
+    @Test
+    void testInsertIgnoreDuplicates_MultipleStatements() {
+        int numberOfOrders = TransactionalInboxOrderBulkWriter.MAX_ROWS_PER_STATEMENT * 2 + 1;
+
+        var insertedOrderIds =
+            transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(createOrders(0, numberOfOrders));
+
+        Assertions.assertEquals(numberOfOrders, insertedOrderIds.size());
+        Assertions.assertEquals(numberOfOrders, transactionalInboxOrderRepository.count());
+    }
+
+    @Test
+    void testInsertIgnoreDuplicates_Empty() {
+        Assertions.assertTrue(transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(Collections.emptyList())
+            .isEmpty());
+    }
+
+    @Test
+    void testBuildInsertStatement() {
+        var statement = TransactionalInboxOrderBulkWriter.buildInsertStatement(3);
+
+        Assertions.assertEquals(15, statement.chars().filter(c -> c == '?').count(),
+            "Each row should have 5 bind parameters");
+        Assertions.assertTrue(statement.endsWith("ON CONFLICT (order_id) DO NOTHING RETURNING order_id"));
+    }
+
+}
@@ -12,9 +12,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 
 // instead of using embedded H2 db for faster test bootstrapping
@@ -23,12 +33,21 @@ import java.util.List;
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class TransactionalInboxOrderRepositoryTest extends PostgresContainerBaseTest {
+
+    private static final long LEASE_MS = 60000;
+
+    // now() is fixed for the whole test transaction, so an expired lease is claimed with a lease in the past
+    private static final long EXPIRED_LEASE_MS = -1000;
+
     private final TransactionalInboxOrder mockDbLogs =
         new TransactionalInboxOrder("1", "{\"key\":\"dummyValue\"}");
 
     @Autowired
     private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
 
     @BeforeEach
     void deleteMockRecord() {
@@ -215,7 +234,7 @@ class TransactionalInboxOrderRepositoryTest extends PostgresContainerBaseTest {
 
         transactionalInboxOrderRepository.saveAllAndFlush(mockOrders);
 
-        res = transactionalInboxOrderRepository.findNewOrders();
+        res = transactionalInboxOrderRepository.findNewOrders(numberOfRecords);
         Assertions.assertTrue(res.isEmpty(), "No order should be found");
 
         mockOrders.get(0).setWorkerId("");
@@ -241,7 +260,7 @@ class TransactionalInboxOrderRepositoryTest extends PostgresContainerBaseTest {
 
         transactionalInboxOrderRepository.saveAllAndFlush(mockOrders);
 
-        res = transactionalInboxOrderRepository.findNewOrders();
+        res = transactionalInboxOrderRepository.findNewOrders(numberOfRecords);
         Assertions.assertEquals(numberOfRecords / 2, res.size(),
             "Processable orders should be successfully retrieved");
 
@@ -263,6 +282,8 @@ class TransactionalInboxOrderRepositoryTest extends PostgresContainerBaseTest {
             .size(numberOfRecords)
             .ignore(Select.field(TransactionalInboxOrder::getId))
             .ignore(Select.field(TransactionalInboxOrder::getWorkerId))
+            .ignore(Select.field(TransactionalInboxOrder::getLeaseUntil))
+            .set(Select.field(TransactionalInboxOrder::getAttempts), 0)
             .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.NEW)
             .set(Select.field(TransactionalInboxOrder::getPayload), mockDbLogs.getPayload())
             .create();
@@ -270,13 +291,217 @@ class TransactionalInboxOrderRepositoryTest extends PostgresContainerBaseTest {
 
         transactionalInboxOrderRepository.saveAllAndFlush(mockOrders);
 
-        res = transactionalInboxOrderRepository.findNewOrders();
+        int limit = 10;
+        res = transactionalInboxOrderRepository.findNewOrders(limit);
 
-        Assertions.assertEquals(10, res.size(),
+        Assertions.assertEquals(limit, res.size(),
             "Pull new orders should have limit");
 
         res = transactionalInboxOrderRepository.findAll();
         Assertions.assertEquals(numberOfRecords, res.size(),
             "Total order should be more than pulled orders");
     }
+
+    private List<TransactionalInboxOrder> mockNewOrders(int numberOfRecords) {
+        return Instancio.ofList(TransactionalInboxOrder.class)
+            .size(numberOfRecords)
+            .ignore(Select.field(TransactionalInboxOrder::getId))
+            .ignore(Select.field(TransactionalInboxOrder::getWorkerId))
+            .ignore(Select.field(TransactionalInboxOrder::getLeaseUntil))
+            .set(Select.field(TransactionalInboxOrder::getAttempts), 0)
+            .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.NEW)
+            .set(Select.field(TransactionalInboxOrder::getPayload), mockDbLogs.getPayload())
+            .create();
+    }
+
+    @Test
+    void testClaimNewOrders() {
+        int numberOfRecords = 20;
+        var mockOrders = mockNewOrders(numberOfRecords);
+        mockOrders.get(0).setStatus(InboxOrderStatus.DONE);
+        mockOrders.get(1).setWorkerId("worker-2");
+        transactionalInboxOrderRepository.saveAllAndFlush(mockOrders);
+
+        String workerId = "worker-1";
+        var res = transactionalInboxOrderRepository.claimNewOrders(workerId, 10, LEASE_MS);
+
+        Assertions.assertEquals(10, res.size(), "Claim should have limit");
+        res.forEach(order -> {
+            Assertions.assertEquals(InboxOrderStatus.IN_PROGRESS, order.getStatus());
+            Assertions.assertEquals(workerId, order.getWorkerId());
+            Assertions.assertEquals(1, order.getAttempts());
+            Assertions.assertTrue(order.getLeaseUntil().isAfter(Instant.now()), "Claimed order should be leased");
+            Assertions.assertNotEquals(mockOrders.get(0).getOrderId(), order.getOrderId(),
+                "Processed order should not be claimed");
+            Assertions.assertNotEquals(mockOrders.get(1).getOrderId(), order.getOrderId(),
+                "Owned order should not be claimed");
+        });
+
+        res = transactionalInboxOrderRepository.claimNewOrders(workerId, 10, LEASE_MS);
+        Assertions.assertEquals(numberOfRecords - 2 - 10, res.size(),
+            "Only the remaining unclaimed orders should be claimed");
+
+        res = transactionalInboxOrderRepository.claimNewOrders(workerId, 10, LEASE_MS);
+        Assertions.assertTrue(res.isEmpty(), "No order should be left for claiming");
+    }
+
+    @Test
+    void testReleaseOrders() {
+        var mockOrders = mockNewOrders(5);
+        transactionalInboxOrderRepository.saveAllAndFlush(mockOrders);
+
+        String workerId = "worker-1";
+        var claimedOrderIds = transactionalInboxOrderRepository.claimNewOrders(workerId, 5, LEASE_MS).stream()
+            .map(TransactionalInboxOrder::getOrderId)
+            .toList();
+        Assertions.assertEquals(5, claimedOrderIds.size());
+
+        // only orders of the given worker are released
+        int releasedOrders = transactionalInboxOrderRepository.releaseOrders("worker-2", claimedOrderIds);
+        Assertions.assertEquals(0, releasedOrders);
+
+        var releasedOrderIds = claimedOrderIds.subList(0, 3);
+        releasedOrders = transactionalInboxOrderRepository.releaseOrders(workerId, releasedOrderIds);
+        Assertions.assertEquals(3, releasedOrders);
+
+        releasedOrderIds.forEach(orderId -> {
+            var order = transactionalInboxOrderRepository.findByOrderId(orderId).orElseThrow();
+            Assertions.assertEquals(InboxOrderStatus.NEW, order.getStatus());
+            Assertions.assertNull(order.getWorkerId());
+            Assertions.assertNull(order.getLeaseUntil());
+            Assertions.assertEquals(0, order.getAttempts(), "Released claim should not count as an attempt");
+        });
+        Assertions.assertEquals(2, transactionalInboxOrderRepository
+            .findByWorkerIdAndStatus(workerId, InboxOrderStatus.IN_PROGRESS).size());
+
+        // released orders can be claimed again
+        Assertions.assertEquals(3, transactionalInboxOrderRepository.claimNewOrders("worker-2", 5, LEASE_MS).size());
+    }
+
+    @Test
+    // claims need to be committed in separated transactions to verify the row locks
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testClaimNewOrders_ConcurrentWorkersClaimDisjointBatches() throws Exception {
+        transactionalInboxOrderRepository.saveAllAndFlush(mockNewOrders(20));
+
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        var firstClaimed = new CountDownLatch(1);
+        var secondClaimed = new CountDownLatch(1);
+
+        try {
+            // first worker keeps its transaction (and its row locks) open until the second worker finished claiming
+            var firstWorker = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+                var claimed = transactionalInboxOrderRepository.claimNewOrders("worker-1", 10, LEASE_MS)
+                    .stream().map(TransactionalInboxOrder::getOrderId).toList();
+                firstClaimed.countDown();
+                try {
+                    secondClaimed.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return claimed;
+            }));
+
+            Assertions.assertTrue(firstClaimed.await(10, TimeUnit.SECONDS));
+            var secondWorkerOrders = transactionTemplate.execute(status ->
+                transactionalInboxOrderRepository.claimNewOrders("worker-2", 10, LEASE_MS)
+                    .stream().map(TransactionalInboxOrder::getOrderId).toList());
+            secondClaimed.countDown();
+            var firstWorkerOrders = firstWorker.get(10, TimeUnit.SECONDS);
+
+            Assertions.assertNotNull(secondWorkerOrders);
+            Assertions.assertEquals(10, firstWorkerOrders.size());
+            Assertions.assertEquals(10, secondWorkerOrders.size(),
+                "Second worker should not be blocked by the locked rows of the first one");
+            Assertions.assertTrue(Collections.disjoint(firstWorkerOrders, secondWorkerOrders),
+                "Concurrent claims should not overlap");
+            transactionalInboxOrderRepository.findAll().forEach(order -> {
+                Assertions.assertEquals(InboxOrderStatus.IN_PROGRESS, order.getStatus());
+                Assertions.assertTrue(Set.of("worker-1", "worker-2").contains(order.getWorkerId()));
+            });
+        } finally {
+            transactionalInboxOrderRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void testCountByStatusIn() {
+        List<TransactionalInboxOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            var order = new TransactionalInboxOrder("%d".formatted(i), "{}");
+            order.setStatus(i < 3 ? InboxOrderStatus.NEW : InboxOrderStatus.DONE);
+            orders.add(order);
+        }
+        orders.get(5).setStatus(InboxOrderStatus.FAILED);
+        transactionalInboxOrderRepository.saveAllAndFlush(orders);
+
+        var counts = transactionalInboxOrderRepository.countByStatusIn(
+            List.of(InboxOrderStatus.NEW, InboxOrderStatus.IN_PROGRESS, InboxOrderStatus.FAILED));
+
+        // statuses without any order aren't returned, DONE isn't asked for
+        Assertions.assertEquals(2, counts.size());
+        counts.forEach(statusCount -> {
+            switch (statusCount.getStatus()) {
+                case NEW -> Assertions.assertEquals(3, statusCount.getTotal());
+                case FAILED -> Assertions.assertEquals(1, statusCount.getTotal());
+                default -> Assertions.fail("Unexpected status " + statusCount.getStatus());
+            }
+        });
+    }
+
+    @Test
+    void testRenewLeases() {
+        transactionalInboxOrderRepository.saveAllAndFlush(mockNewOrders(5));
+        transactionalInboxOrderRepository.claimNewOrders("worker-1", 3, EXPIRED_LEASE_MS);
+        transactionalInboxOrderRepository.claimNewOrders("worker-2", 2, EXPIRED_LEASE_MS);
+
+        Assertions.assertEquals(3, transactionalInboxOrderRepository.renewLeases("worker-1", LEASE_MS));
+
+        transactionalInboxOrderRepository.findByWorkerIdAndStatus("worker-1", InboxOrderStatus.IN_PROGRESS)
+            .forEach(order -> Assertions.assertTrue(order.getLeaseUntil().isAfter(Instant.now())));
+        // the leases of other workers are untouched
+        transactionalInboxOrderRepository.findByWorkerIdAndStatus("worker-2", InboxOrderStatus.IN_PROGRESS)
+            .forEach(order -> Assertions.assertFalse(order.getLeaseUntil().isAfter(Instant.now())));
+    }
+
+    @Test
+    void testReclaimExpiredLeases() {
+        int maxAttempts = 2;
+        var mockOrders = mockNewOrders(6);
+        mockOrders.get(5).setAttempts(maxAttempts - 1);
+        transactionalInboxOrderRepository.saveAllAndFlush(mockOrders);
+        // a dead worker, its leases are already expired
+        var deadWorkerOrderIds = transactionalInboxOrderRepository
+            .claimNewOrders("worker-1", 3, EXPIRED_LEASE_MS).stream()
+            .map(TransactionalInboxOrder::getOrderId)
+            .toList();
+        // a live worker
+        transactionalInboxOrderRepository.claimNewOrders("worker-2", 2, LEASE_MS);
+        // claimed for the maxAttempts time, then its worker died as well
+        var exhaustedOrder = transactionalInboxOrderRepository
+            .claimNewOrders("worker-3", 1, EXPIRED_LEASE_MS).get(0);
+        Assertions.assertEquals(mockOrders.get(5).getOrderId(), exhaustedOrder.getOrderId());
+
+        Assertions.assertEquals(4, transactionalInboxOrderRepository.reclaimExpiredLeases(maxAttempts));
+
+        deadWorkerOrderIds.forEach(orderId -> {
+            var order = transactionalInboxOrderRepository.findByOrderId(orderId).orElseThrow();
+            Assertions.assertEquals(InboxOrderStatus.NEW, order.getStatus());
+            Assertions.assertNull(order.getWorkerId());
+            Assertions.assertNull(order.getLeaseUntil());
+            Assertions.assertEquals(1, order.getAttempts(), "Attempts should be kept for the next claim");
+        });
+        var failedOrder = transactionalInboxOrderRepository.findByOrderId(exhaustedOrder.getOrderId()).orElseThrow();
+        Assertions.assertEquals(InboxOrderStatus.FAILED, failedOrder.getStatus());
+        Assertions.assertEquals("LEASE_EXPIRED_MAX_ATTEMPTS", failedOrder.getNote());
+        Assertions.assertEquals(2, transactionalInboxOrderRepository
+            .findByWorkerIdAndStatus("worker-2", InboxOrderStatus.IN_PROGRESS).size(),
+            "Orders of live workers should not be reclaimed");
+
+        // reclaimed orders can be claimed by any worker, the next claim counts as another attempt
+        var reclaimedOrders = transactionalInboxOrderRepository.claimNewOrders("worker-2", 5, LEASE_MS);
+        Assertions.assertEquals(3, reclaimedOrders.size());
+        reclaimedOrders.forEach(order -> Assertions.assertEquals(2, order.getAttempts()));
+        Assertions.assertEquals(0, transactionalInboxOrderRepository.reclaimExpiredLeases(maxAttempts));
+    }
 }
@@ -0,0 +1,106 @@
+package com.saga.playground.checkoutservice.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saga.playground.checkoutservice.basetest.KafkaContainerBaseTest;
+import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
+import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import com.saga.playground.checkoutservice.presentations.requests.KafkaCheckoutStatusMessage;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Latency of one publish cycle of the outbox relay (a burst of sends, then waiting for all of them)
+ * with the kafka client defaults vs the THROUGHPUT producer profile, against a real broker
+ * Run with ./gradlew benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+class CheckoutStatusProducerBenchmarkTest extends KafkaContainerBaseTest {
+
+    // 2 outbox pages, the burst size of the relay before the keyset drain
+    private static final int SENDS_PER_CYCLE = 200;
+
+    private static final int WARMUP_CYCLES = 10;
+
+    private static final int MEASURED_CYCLES = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void benchmarkPublishCycle() {
+        var defaultLatencies = measure(KafkaProducerProfile.DEFAULT);
+        var throughputLatencies = measure(KafkaProducerProfile.THROUGHPUT);
+
+        report(KafkaProducerProfile.DEFAULT, defaultLatencies);
+        report(KafkaProducerProfile.THROUGHPUT, throughputLatencies);
+    }
+
+    private long[] measure(KafkaProducerProfile profile) {
+        var kafkaConfig = KafkaConfigTest.createKafkaConfig(KAFKA_CONTAINER.getBootstrapServers(), profile);
+        var producerFactory = new DefaultKafkaProducerFactory<String, String>(kafkaConfig.producerConfigs());
+        var kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+        try {
+            for (int i = 0; i < WARMUP_CYCLES; i++) {
+                publishCycle(kafkaTemplate, i);
+            }
+
+            long[] latencies = new long[MEASURED_CYCLES];
+            for (int i = 0; i < MEASURED_CYCLES; i++) {
+                long startTime = System.nanoTime();
+                publishCycle(kafkaTemplate, WARMUP_CYCLES + i);
+                latencies[i] = System.nanoTime() - startTime;
+            }
+            return latencies;
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    // same as CheckoutStatusPublishWorker.publish: send the whole page, then wait for all acks
+    @SneakyThrows
+    private void publishCycle(KafkaTemplate<String, String> kafkaTemplate, int cycle) {
+        List<CompletableFuture<SendResult<String, String>>> futureList = new ArrayList<>();
+        for (int i = 0; i < SENDS_PER_CYCLE; i++) {
+            String orderId = "%d".formatted(cycle * SENDS_PER_CYCLE + i);
+            var message = new KafkaCheckoutStatusMessage(orderId, PaymentStatus.FINALIZED);
+            futureList.add(kafkaTemplate.send(MessageBrokerConstant.CHECKOUT_STATUS_TOPIC, orderId,
+                objectMapper.writeValueAsString(message)));
+        }
+
+        CompletableFuture.allOf(futureList.toArray(CompletableFuture[]::new)).join();
+        Assertions.assertTrue(futureList.stream().noneMatch(CompletableFuture::isCompletedExceptionally),
+            "Every message should be acked");
+    }
+
+    private void report(KafkaProducerProfile profile, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        log.info("{} publish cycle of {} sends over {} cycles | mean {} ms, p50 {} ms, p99 {} ms",
+            profile, SENDS_PER_CYCLE, MEASURED_CYCLES,
+            toMillis((long) Arrays.stream(sorted).average().orElse(0)),
+            toMillis(percentile(sorted, 50)),
+            toMillis(percentile(sorted, 99)));
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.saga.playground.checkoutservice.kafka;
+
+import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+class KafkaConfigTest {
+
+    static KafkaConfig createKafkaConfig(String bootstrapServers, KafkaProducerProfile profile) {
+        var kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", bootstrapServers);
+        ReflectionTestUtils.setField(kafkaConfig, "producerProfile", profile);
+        ReflectionTestUtils.setField(kafkaConfig, "compressionType", "lz4");
+        ReflectionTestUtils.setField(kafkaConfig, "lingerMs", 5);
+        ReflectionTestUtils.setField(kafkaConfig, "batchSize", 65536);
+        ReflectionTestUtils.setField(kafkaConfig, "requestTimeoutMs", 10000);
+        ReflectionTestUtils.setField(kafkaConfig, "deliveryTimeoutMs", 30000);
+        ReflectionTestUtils.setField(kafkaConfig, "maxBlockMs", 5000L);
+        ReflectionTestUtils.setField(kafkaConfig, "consumerConcurrency", 5);
+        ReflectionTestUtils.setField(kafkaConfig, "maxPollRecords", 500);
+        ReflectionTestUtils.setField(kafkaConfig, "fetchMinBytes", 1024);
+        ReflectionTestUtils.setField(kafkaConfig, "fetchMaxWaitMs", 100);
+        ReflectionTestUtils.setField(kafkaConfig, "partitionLookupTimeoutMs", 1000);
+        return kafkaConfig;
+    }
+
+    @Test
+    void testConsumerConfigs() {
+        var props = createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT).consumerConfigs();
+
+        Assertions.assertEquals(500, props.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG));
+        Assertions.assertEquals(1024, props.get(ConsumerConfig.FETCH_MIN_BYTES_CONFIG));
+        Assertions.assertEquals(100, props.get(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG));
+        Assertions.assertEquals(false, props.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG));
+    }
+
+    @Test
+    void testCapConcurrencyToPartitions() {
+        var kafkaConfig = Mockito.spy(createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT));
+        var container = createContainer(8);
+        Mockito.doReturn(5).when(kafkaConfig).countPartitions(List.of(MessageBrokerConstant.ORDER_CREATED_TOPIC));
+
+        kafkaConfig.capConcurrencyToPartitions(container);
+
+        Assertions.assertEquals(5, container.getConcurrency(), "Idle consumers above the partitions are dropped");
+    }
+
+    @Test
+    void testCapConcurrencyToPartitions_FewerThreads() {
+        var kafkaConfig = Mockito.spy(createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT));
+        var container = createContainer(2);
+        Mockito.doReturn(5).when(kafkaConfig).countPartitions(List.of(MessageBrokerConstant.ORDER_CREATED_TOPIC));
+
+        kafkaConfig.capConcurrencyToPartitions(container);
+
+        Assertions.assertEquals(2, container.getConcurrency());
+    }
+
+    @Test
+    void testCapConcurrencyToPartitions_UnknownPartitions() {
+        var kafkaConfig = Mockito.spy(createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT));
+        var container = createContainer(8);
+        Mockito.doReturn(0).when(kafkaConfig).countPartitions(List.of(MessageBrokerConstant.ORDER_CREATED_TOPIC));
+
+        kafkaConfig.capConcurrencyToPartitions(container);
+
+        Assertions.assertEquals(8, container.getConcurrency(), "Configured concurrency should be kept");
+    }
+
+    @Test
+    void testCountPartitions_LookedUpOncePerTopic() {
+        var kafkaConfig = Mockito.spy(createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT));
+        Mockito.doReturn(Map.of(MessageBrokerConstant.ORDER_CREATED_TOPIC, 5))
+            .when(kafkaConfig).lookUpPartitions(Mockito.anyList());
+
+        kafkaConfig.capConcurrencyToPartitions(createContainer(8));
+        var container = createContainer(8);
+        kafkaConfig.capConcurrencyToPartitions(container);
+
+        Assertions.assertEquals(5, container.getConcurrency());
+        Mockito.verify(kafkaConfig, Mockito.times(1))
+            .lookUpPartitions(List.of(MessageBrokerConstant.ORDER_CREATED_TOPIC));
+    }
+
+    @Test
+    void testCountPartitions_FailedLookupIsCached() {
+        var kafkaConfig = Mockito.spy(createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT));
+        Mockito.doReturn(Map.of()).when(kafkaConfig).lookUpPartitions(Mockito.anyList());
+
+        kafkaConfig.capConcurrencyToPartitions(createContainer(8));
+        var container = createContainer(8);
+        kafkaConfig.capConcurrencyToPartitions(container);
+
+        Assertions.assertEquals(8, container.getConcurrency(), "Configured concurrency should be kept");
+        // the next containers don't wait for the broker again
+        Mockito.verify(kafkaConfig, Mockito.times(1)).lookUpPartitions(Mockito.anyList());
+    }
+
+    @Test
+    void testCountPartitions_UnknownTopic() {
+        var kafkaConfig = Mockito.spy(createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT));
+        Mockito.doReturn(Map.of("known", 3)).when(kafkaConfig).lookUpPartitions(Mockito.anyList());
+
+        Assertions.assertEquals(0, kafkaConfig.countPartitions(List.of("known", "unknown")),
+            "Partitions of the container are unknown if any of its topics is");
+        Assertions.assertEquals(3, kafkaConfig.countPartitions(List.of("known")));
+    }
+
+    @Test
+    void testLookUpPartitions_Unreachable() {
+        // nothing listens on this port, the lookup gives up after its timeout
+        var kafkaConfig = createKafkaConfig("localhost:1", KafkaProducerProfile.DEFAULT);
+        ReflectionTestUtils.setField(kafkaConfig, "partitionLookupTimeoutMs", 200);
+
+        long startTime = System.currentTimeMillis();
+        Assertions.assertTrue(kafkaConfig.lookUpPartitions(List.of(MessageBrokerConstant.ORDER_CREATED_TOPIC))
+            .isEmpty());
+        Assertions.assertTrue(System.currentTimeMillis() - startTime < 5000,
+            "The lookup & closing the admin client should not wait for the default api timeout");
+    }
+
+    private ConcurrentMessageListenerContainer<String, String> createContainer(int concurrency) {
+        var container = new ConcurrentMessageListenerContainer<>(
+            new DefaultKafkaConsumerFactory<String, String>(Map.of()),
+            new ContainerProperties(MessageBrokerConstant.ORDER_CREATED_TOPIC));
+        container.setConcurrency(concurrency);
+        return container;
+    }
+
+    @Test
+    void testProducerConfigs_DefaultProfile() {
+        var props = createKafkaConfig("localhost:9092", KafkaProducerProfile.DEFAULT).producerConfigs();
+
+        Assertions.assertEquals("localhost:9092", props.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        Assertions.assertFalse(props.containsKey(ProducerConfig.COMPRESSION_TYPE_CONFIG),
+            "Client defaults should be kept");
+        Assertions.assertFalse(props.containsKey(ProducerConfig.LINGER_MS_CONFIG),
+            "Client defaults should be kept");
+    }
+
+    @Test
+    void testProducerConfigs_ThroughputProfile() {
+        var props = createKafkaConfig("localhost:9092", KafkaProducerProfile.THROUGHPUT).producerConfigs();
+
+        Assertions.assertEquals(true, props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        Assertions.assertEquals("all", props.get(ProducerConfig.ACKS_CONFIG));
+        Assertions.assertEquals("lz4", props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        Assertions.assertEquals(5, props.get(ProducerConfig.LINGER_MS_CONFIG));
+        Assertions.assertEquals(65536, props.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        Assertions.assertEquals(30000, props.get(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG));
+        Assertions.assertTrue((int) props.get(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG)
+                >= (int) props.get(ProducerConfig.LINGER_MS_CONFIG)
+                + (int) props.get(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG),
+            "Kafka client rejects a delivery timeout below linger + request timeout");
+    }
+
+}
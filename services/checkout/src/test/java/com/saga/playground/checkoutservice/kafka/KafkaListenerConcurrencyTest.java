@@ -0,0 +1,117 @@
+package com.saga.playground.checkoutservice.kafka;
+
+import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
+import com.saga.playground.checkoutservice.workers.inboxpatterns.CheckoutInboxWorker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingestion of the CDC topic with as many partitions as the order topic of Debezium
+ * every consumer thread blocks its first batch until all partitions are in flight at once,
+ * which only happens if the batches are consumed in parallel (a single consumer would time out)
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@EmbeddedKafka(topics = MessageBrokerConstant.ORDER_CREATED_TOPIC, partitions = KafkaListenerConcurrencyTest.PARTITIONS)
+@TestPropertySource(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    // more threads than partitions, the extra ones are capped
+    "worker.inbox.consumer.concurrency=8",
+    "worker.inbox.consumer.max-poll-records=10",
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import({KafkaListenerRegistrations.class, KafkaConfig.class, SimpleMeterRegistry.class})
+class KafkaListenerConcurrencyTest {
+
+    static final int PARTITIONS = 5;
+
+    private static final int MESSAGES_PER_PARTITION = 20;
+
+    @MockitoBean
+    private CheckoutInboxWorker checkoutInboxWorker;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        kafkaListenerEndpointRegistry.getListenerContainers().forEach(container ->
+            ContainerTestUtils.waitForAssignment(container, embeddedKafka.getPartitionsPerTopic()));
+    }
+
+    @Test
+    void testConcurrencyCappedToPartitions() {
+        var containers = kafkaListenerEndpointRegistry.getListenerContainers();
+
+        Assertions.assertEquals(1, containers.size());
+        var container = (ConcurrentMessageListenerContainer<?, ?>) containers.iterator().next();
+        Assertions.assertEquals(PARTITIONS, container.getConcurrency());
+        // every consumer owns exactly 1 partition
+        container.getContainers().forEach(consumer ->
+            Assertions.assertEquals(1, consumer.getAssignedPartitions().size()));
+    }
+
+    @Test
+    void testPullCreatedOrder_PartitionsConsumedInParallel() {
+        var allPartitionsInFlight = new CountDownLatch(PARTITIONS);
+        var receivedMessages = new AtomicInteger();
+        Set<String> consumerThreads = ConcurrentHashMap.newKeySet();
+        Mockito.doAnswer(invocation -> {
+            List<Message<String>> messages = invocation.getArgument(0);
+            if (consumerThreads.add(Thread.currentThread().getName())) {
+                allPartitionsInFlight.countDown();
+                allPartitionsInFlight.await(10, TimeUnit.SECONDS);
+            }
+            receivedMessages.addAndGet(messages.size());
+            return null;
+        }).when(checkoutInboxWorker).bulkSaveMessages(Mockito.any());
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < PARTITIONS * MESSAGES_PER_PARTITION; i++) {
+            kafkaTemplate.send(MessageBrokerConstant.ORDER_CREATED_TOPIC, i % PARTITIONS, "%d".formatted(i), "{}");
+        }
+
+        Awaitility.await().atMost(30, TimeUnit.SECONDS)
+            .until(() -> receivedMessages.get() == PARTITIONS * MESSAGES_PER_PARTITION);
+
+        Assertions.assertEquals(0, allPartitionsInFlight.getCount(),
+            "Batches of all partitions should be handled at the same time");
+        Assertions.assertEquals(PARTITIONS, consumerThreads.size(), "1 consumer thread per partition");
+        // 1 consumer would have waited for the latch timeout
+        Assertions.assertTrue(System.currentTimeMillis() - startTime < 10_000,
+            "Ingestion should not be serialized");
+    }
+
+}
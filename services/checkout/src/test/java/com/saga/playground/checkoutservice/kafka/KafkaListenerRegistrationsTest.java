@@ -3,6 +3,7 @@ package com.saga.playground.checkoutservice.kafka;
 import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
 import com.saga.playground.checkoutservice.workers.inboxpatterns.CheckoutInboxWorker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,9 +36,13 @@ import java.util.concurrent.TimeUnit;
 @ExtendWith({OutputCaptureExtension.class, SpringExtension.class})
 @ActiveProfiles("test")
 @EmbeddedKafka(topics = MessageBrokerConstant.ORDER_CREATED_TOPIC)
-@TestPropertySource(properties = {"spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"})
+@TestPropertySource(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    // 1 consumer -> the 3 messages arrive in 1 batch no matter which partitions they're sent to
+    "worker.inbox.consumer.concurrency=1",
+})
 @TestInstance(TestInstance.Lifecycle.PER_CLASS) // we don't want to init multiple brokers
-@Import({KafkaListenerRegistrations.class, KafkaConfig.class})
+@Import({KafkaListenerRegistrations.class, KafkaConfig.class, SimpleMeterRegistry.class})
 class KafkaListenerRegistrationsTest {
 
     private final TransactionalInboxOrder mockPayload =
@@ -61,6 +66,9 @@ class KafkaListenerRegistrationsTest {
     @Autowired
     private KafkaListenerRegistrations kafkaListenerRegistrations;
 
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     public void setUp() {
         embeddedKafka.brokerProperties(Map.of("controlled.shutdown.enable", "true"));
@@ -96,6 +104,12 @@ class KafkaListenerRegistrationsTest {
         Assertions.assertTrue(output.toString().contains("INBOX_ORDER_START"));
         Assertions.assertTrue(output.toString().contains("INBOX_ORDER_ACK"));
         Assertions.assertTrue(output.toString().contains("INBOX_ORDER_FINISHED"));
+
+        var batchSize = meterRegistry.summary(KafkaListenerRegistrations.BATCH_SIZE_SUMMARY);
+        Assertions.assertEquals(1, batchSize.count());
+        Assertions.assertEquals(3, batchSize.totalAmount());
+        Assertions.assertEquals(1, meterRegistry.timer(KafkaListenerRegistrations.INGEST_TIMER).count());
+        Assertions.assertEquals(1, meterRegistry.timer(KafkaListenerRegistrations.RECORD_AGE_TIMER).count());
     }
 
 }
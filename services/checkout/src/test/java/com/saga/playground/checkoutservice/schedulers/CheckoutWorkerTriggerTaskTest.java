@@ -3,6 +3,8 @@ package com.saga.playground.checkoutservice.schedulers;
 import com.saga.playground.checkoutservice.configs.ThreadPoolConfig;
 import com.saga.playground.checkoutservice.tasks.SingleExecutionQueuedTaskRunner;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutStatusPublishWorker;
+import com.saga.playground.checkoutservice.workers.checkout.InboxLeaseSweeper;
+import com.saga.playground.checkoutservice.workers.inboxpatterns.InboxBacklogMetrics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -25,15 +27,23 @@ import java.util.concurrent.TimeUnit;
 @TestPropertySource(properties = {
     "worker.checkout.interval=5",
     "worker.checkout-status.interval=5",
+    "worker.inbox.backlog-metrics-interval=5",
+    "worker.checkout.lease.sweep-interval=5",
 })
 class CheckoutWorkerTriggerTaskTest {
 
-    @MockitoBean
+    @MockitoBean(name = "checkoutPullOrderRunner")
     private SingleExecutionQueuedTaskRunner checkoutRunner;
 
     @MockitoBean
     private CheckoutStatusPublishWorker checkoutStatusPublishWorker;
 
+    @MockitoBean
+    private InboxBacklogMetrics inboxBacklogMetrics;
+
+    @MockitoBean
+    private InboxLeaseSweeper inboxLeaseSweeper;
+
     @Autowired
     private CheckoutWorkerTriggerTask checkoutWorkerTriggerTask;
 
@@ -56,4 +66,28 @@ class CheckoutWorkerTriggerTaskTest {
             publishCheckoutStatus();
     }
 
+    @Test
+    void testScheduledRefreshInboxBacklog() {
+        Awaitility.await().pollDelay(25, TimeUnit.MILLISECONDS).until(() -> true);
+
+        Mockito.verify(inboxBacklogMetrics, Mockito.atLeast(2)).refresh();
+    }
+
+    @Test
+    void testScheduledSweepInboxLeases() {
+        Awaitility.await().pollDelay(25, TimeUnit.MILLISECONDS).until(() -> true);
+
+        Mockito.verify(inboxLeaseSweeper, Mockito.atLeast(2)).sweep();
+    }
+
+    @Test
+    void testScheduledSweepInboxLeases_TriggerPullOrders() {
+        Mockito.when(inboxLeaseSweeper.sweep()).thenReturn(3);
+
+        Awaitility.await().pollDelay(25, TimeUnit.MILLISECONDS).until(() -> true);
+
+        // reclaimed orders are pulled right away, on top of the scheduled pulls
+        Mockito.verify(checkoutRunner, Mockito.atLeast(4)).tryRun();
+    }
+
 }
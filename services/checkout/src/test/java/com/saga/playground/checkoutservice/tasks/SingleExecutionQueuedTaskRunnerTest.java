@@ -136,4 +136,26 @@ class SingleExecutionQueuedTaskRunnerTest {
         Assertions.assertEquals(2, startCounter.get());
     }
 
+    @Test
+    void testTryRun_FailedTask() {
+        // we just need to have a mock for verifying, just an arbitrary class here
+        var checkoutHelper = Mockito.mock(CheckoutHelper.class);
+        Mockito.doThrow(new RuntimeException("db is down"))
+            .doNothing()
+            .when(checkoutHelper).postCheckoutProcess(Mockito.any());
+
+        var taskRunner = new SingleExecutionQueuedTaskRunner(taskName,
+            () -> checkoutHelper.postCheckoutProcess(Instancio.of(Checkout.class).create().getOrderId()));
+
+        Assertions.assertThrows(RuntimeException.class, taskRunner::tryRun);
+        // the failed run doesn't block the next ones
+        Assertions.assertFalse(taskRunner.getIsRunning().get());
+
+        taskRunner.tryRun();
+
+        Mockito.verify(checkoutHelper, Mockito.times(2))
+            .postCheckoutProcess(Mockito.any());
+        Assertions.assertFalse(taskRunner.getIsRunning().get());
+    }
+
 }
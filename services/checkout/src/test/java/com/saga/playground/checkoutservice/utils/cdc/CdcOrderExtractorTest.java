@@ -0,0 +1,106 @@
+package com.saga.playground.checkoutservice.utils.cdc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.saga.playground.checkoutservice.TestConstants;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+class CdcOrderExtractorTest {
+
+    // envelope of the connector with value.converter.schemas.enable=true, schema block first
+    private static final String ENVELOPE_WITH_SCHEMA = """
+        {"schema":{"type":"struct","fields":[
+          {"type":"struct","fields":[{"type":"int64","optional":false,"field":"id"},
+            {"type":"string","optional":false,"field":"user_id"},
+            {"type":"bytes","optional":false,"name":"org.apache.kafka.connect.data.Decimal","version":1,
+              "parameters":{"scale":"2","connect.decimal.precision":"10"},"field":"amount"}],
+            "optional":true,"name":"db.saga_playground.public.orders.Value","field":"after"}],
+          "optional":false,"name":"db.saga_playground.public.orders.Envelope","version":2},
+         "payload":{"before":null,
+          "after":{"id":120,"user_id":"user-120","status":"created","amount":"Hxk=","message":"",
+            "nested":{"id":1,"list":[{"id":2}]}},
+          "source":{"version":"2.7.3.Final","connector":"postgresql","name":"db.saga_playground"},
+          "op":"c","ts_ms":1737902298741}}
+        """;
+
+    private final CdcOrderExtractor cdcOrderExtractor = new CdcOrderExtractor();
+
+    @SneakyThrows
+    @Test
+    void testExtract_OK() {
+        var res = cdcOrderExtractor.extract(TestConstants.MOCK_CDC_PAYLOAD.formatted(67));
+
+        Assertions.assertTrue(res.isPresent());
+        Assertions.assertEquals("67", res.get().orderId());
+        Assertions.assertEquals("jlZHXEryFFDNnRPWXFKjtSNcg", res.get().userId());
+        Assertions.assertEquals(CdcOrderExtractor.decodeAmount("B68="), res.get().amount());
+    }
+
+    @SneakyThrows
+    @Test
+    void testExtract_SchemaIsSkipped() {
+        var res = cdcOrderExtractor.extract(ENVELOPE_WITH_SCHEMA);
+
+        // the ids of the schema fields & of nested values of after are not taken for the order id
+        Assertions.assertTrue(res.isPresent());
+        Assertions.assertEquals("120", res.get().orderId());
+        Assertions.assertEquals("user-120", res.get().userId());
+        Assertions.assertEquals(new BigDecimal("79.61"), res.get().amount());
+    }
+
+    @SneakyThrows
+    @Test
+    void testExtract_NestedValuesAreSkipped() {
+        var res = cdcOrderExtractor.extract(
+            "{\"payload\":{\"after\":{\"user_id\":{\"id\":9},\"amount\":[\"Hxk=\",{\"id\":8}],\"id\":121}}}");
+
+        // the nested values are neither read nor mistaken for fields of after
+        Assertions.assertTrue(res.isPresent());
+        Assertions.assertEquals("121", res.get().orderId());
+        Assertions.assertNull(res.get().userId());
+        Assertions.assertNull(res.get().amount());
+    }
+
+    @SneakyThrows
+    @Test
+    void testExtract_NullValues() {
+        var res = cdcOrderExtractor.extract(
+            "{\"payload\":{\"after\":{\"id\":122,\"user_id\":null,\"amount\":null}}}");
+
+        Assertions.assertTrue(res.isPresent());
+        Assertions.assertEquals("122", res.get().orderId());
+        Assertions.assertNull(res.get().userId());
+        Assertions.assertNull(res.get().amount());
+    }
+
+    @SneakyThrows
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{}",
+        "[]",
+        "{\"payload\":null}",
+        "{\"payload\":{\"before\":{\"id\":1},\"after\":null}}",
+        "{\"payload\":{\"after\":{\"user_id\":\"user\"}}}",
+        "{\"payload\":{\"after\":{\"id\":null,\"user_id\":\"user\"}}}",
+        "{\"payload\":{\"after\":{\"id\":{\"value\":1},\"user_id\":\"user\"}}}",
+        "{\"schema\":{\"after\":{\"id\":1}}}",
+    })
+    void testExtract_NoOrder(String rawPayload) {
+        Assertions.assertTrue(cdcOrderExtractor.extract(rawPayload).isEmpty());
+    }
+
+    @Test
+    void testExtract_InvalidJson() {
+        Assertions.assertThrows(JsonProcessingException.class,
+            () -> cdcOrderExtractor.extract("Dummy string, obviously invalid json format"));
+        // placeholder instead of the id
+        Assertions.assertThrows(JsonProcessingException.class,
+            () -> cdcOrderExtractor.extract(TestConstants.MOCK_CDC_PAYLOAD));
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.saga.playground.checkoutservice.utils.compression;
+
+import com.saga.playground.checkoutservice.TestConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+
+class GzipCodecTest {
+
+    @Test
+    void testCompressDecompress() {
+        String payload = TestConstants.MOCK_CDC_PAYLOAD.formatted(1) + " \u00fcn\u00efc\u00f6d\u00e9";
+
+        var compressed = GzipCodec.compress(payload);
+
+        Assertions.assertEquals(payload, GzipCodec.decompress(compressed));
+    }
+
+    @Test
+    void testDecompress_Corrupted() {
+        Assertions.assertThrows(UncheckedIOException.class, () -> GzipCodec.decompress(new byte[]{1, 2, 3}));
+    }
+
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saga.playground.checkoutservice.constants.ErrorConstant;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
 import com.saga.playground.checkoutservice.presentations.responses.IPNResponse;
 import com.saga.playground.checkoutservice.utils.http.error.HttpException;
@@ -32,6 +33,9 @@ class PaymentGatewayHandlerTest {
     @Mock
     private CheckoutRepository checkoutRepository;
 
+    @Mock
+    private CheckoutOutboxRepository checkoutOutboxRepository;
+
     @InjectMocks
     private PaymentGatewayHandler paymentGatewayHandler;
 
@@ -100,6 +104,8 @@ class PaymentGatewayHandlerTest {
             .save(captor.capture());
         Assertions.assertEquals(mockRes.status(), captor.getValue().getCheckoutStatus());
         Assertions.assertNotNull(captor.getValue().getWebhookPayload());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .appendStatusChange(captor.getValue());
     }
 
     @SneakyThrows
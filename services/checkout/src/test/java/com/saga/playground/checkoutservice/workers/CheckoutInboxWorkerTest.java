@@ -2,18 +2,25 @@ package com.saga.playground.checkoutservice.workers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
+import com.saga.playground.checkoutservice.utils.compression.GzipCodec;
 import com.saga.playground.checkoutservice.TestConstants;
 import com.saga.playground.checkoutservice.configs.ObjectMapperConfig;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.events.inbox.InboxOrderSavedEvent;
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderBulkWriter;
 import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
 import com.saga.playground.checkoutservice.presentations.requests.KafkaCreatedOrderMessage;
 import com.saga.playground.checkoutservice.utils.http.error.CommonHttpError;
 import com.saga.playground.checkoutservice.utils.http.error.HttpException;
 import com.saga.playground.checkoutservice.workers.inboxpatterns.CheckoutInboxWorker;
+import com.saga.playground.checkoutservice.workers.inboxpatterns.InboxPayloadStorage;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.system.CapturedOutput;
@@ -22,20 +29,24 @@ import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 @ExtendWith({SpringExtension.class, OutputCaptureExtension.class})
 @Import({
-    ObjectMapperConfig.class,
+    CdcOrderExtractor.class,
     CheckoutInboxWorker.class,
 })
+@RecordApplicationEvents
 class CheckoutInboxWorkerTest {
     private final TransactionalInboxOrder mockDbLogs =
         new TransactionalInboxOrder("1", "{\"key\":\"dummyValue\"}");
@@ -43,12 +54,18 @@ class CheckoutInboxWorkerTest {
     @MockitoBean
     private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
 
+    @MockitoBean
+    private TransactionalInboxOrderBulkWriter transactionalInboxOrderBulkWriter;
+
     @MockitoSpyBean
-    private ObjectMapper mapper;
+    private CdcOrderExtractor cdcOrderExtractor;
 
     @Autowired
     private CheckoutInboxWorker checkoutInboxWorker;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     @Test
     void bulkSaveMessages_OK(CapturedOutput output) {
         final int numberOfMessages = 10;
@@ -57,19 +74,51 @@ class CheckoutInboxWorkerTest {
             messageList.add(createMsg(TestConstants.MOCK_CDC_PAYLOAD.formatted(i)));
         }
 
-        Mockito.when(transactionalInboxOrderRepository.saveAllAndFlush(Mockito.any()))
-            .thenReturn(null);
+        // the last message is a redelivered one
+        Mockito.when(transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(Mockito.any()))
+            .thenAnswer(invocation -> {
+                List<TransactionalInboxOrder> orders = invocation.getArgument(0);
+                return orders.subList(0, orders.size() - 1).stream()
+                    .map(TransactionalInboxOrder::getOrderId)
+                    .toList();
+            });
 
         Assertions.assertDoesNotThrow(() -> {
             checkoutInboxWorker.bulkSaveMessages(messageList);
         });
 
-        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
-            .saveAllAndFlush(Mockito.any());
+        Mockito.verify(transactionalInboxOrderBulkWriter, Mockito.times(1))
+            .insertIgnoreDuplicates(Mockito.argThat(orders -> orders.size() == numberOfMessages));
         Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0))
             .save(Mockito.any());
         Assertions.assertTrue(output.toString().contains("INBOX_ORDER_BULK_SAVED"),
             "Successful message should be printed");
+        Assertions.assertTrue(output.toString().contains("1 duplicated"),
+            "Skipped duplicated message should be printed");
+        Assertions.assertEquals(1, applicationEvents.stream(InboxOrderSavedEvent.class).count(),
+            "Pull order runner should be signaled once per batch");
+    }
+
+    @Test
+    void bulkSaveMessages_AllDuplicated(CapturedOutput output) {
+        final int numberOfMessages = 3;
+        List<Message<String>> messageList = new ArrayList<>();
+        for (int i = 0; i < numberOfMessages; i++) {
+            messageList.add(createMsg(TestConstants.MOCK_CDC_PAYLOAD.formatted(i)));
+        }
+
+        // the whole batch is redelivered
+        Mockito.when(transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(Mockito.any()))
+            .thenReturn(List.of());
+
+        Assertions.assertDoesNotThrow(() -> {
+            checkoutInboxWorker.bulkSaveMessages(messageList);
+        });
+
+        Assertions.assertTrue(output.toString().contains("%d duplicated".formatted(numberOfMessages)),
+            "Skipped duplicated message should be printed");
+        Assertions.assertEquals(0, applicationEvents.stream(InboxOrderSavedEvent.class).count(),
+            "Nothing new saved, pull order runner should not be signaled");
     }
 
     @Test
@@ -77,19 +126,18 @@ class CheckoutInboxWorkerTest {
         List<Message<String>> messageList = new ArrayList<>();
         messageList.add(createMsg("dummyString"));
 
-        Mockito.when(transactionalInboxOrderRepository.saveAllAndFlush(Mockito.any()))
-            .thenReturn(null);
-
         Assertions.assertDoesNotThrow(() -> {
             checkoutInboxWorker.bulkSaveMessages(messageList);
         });
 
-        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0))
-            .saveAllAndFlush(Collections.emptyList());
+        Mockito.verify(transactionalInboxOrderBulkWriter, Mockito.times(0))
+            .insertIgnoreDuplicates(Mockito.any());
         Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0))
             .save(Mockito.any());
         Assertions.assertTrue(output.toString().contains("INBOX_ORDER_EMPTY_MESSAGE"),
             "Empty message should be printed");
+        Assertions.assertEquals(0, applicationEvents.stream(InboxOrderSavedEvent.class).count(),
+            "Nothing saved, pull order runner should not be signaled");
     }
 
     @Test
@@ -100,7 +148,7 @@ class CheckoutInboxWorkerTest {
             messageList.add(createMsg(TestConstants.MOCK_CDC_PAYLOAD.formatted(i)));
         }
 
-        Mockito.when(transactionalInboxOrderRepository.saveAllAndFlush(Mockito.any()))
+        Mockito.when(transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(Mockito.any()))
             .thenThrow(new RuntimeException());
         Mockito.when(transactionalInboxOrderRepository.save(Mockito.any()))
             .thenReturn(null);
@@ -110,8 +158,8 @@ class CheckoutInboxWorkerTest {
             checkoutInboxWorker.bulkSaveMessages(messageList);
         });
 
-        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
-            .saveAllAndFlush(Mockito.any());
+        Mockito.verify(transactionalInboxOrderBulkWriter, Mockito.times(1))
+            .insertIgnoreDuplicates(Mockito.any());
         Mockito.verify(transactionalInboxOrderRepository, Mockito.times(numberOfMessages))
             .save(Mockito.any());
         Assertions.assertFalse(output.toString().contains("INBOX_ORDER_BULK_SAVED"),
@@ -120,6 +168,26 @@ class CheckoutInboxWorkerTest {
             Assertions.assertTrue(output.toString().contains("INBOX_ORDER_SAVED %d".formatted(i)),
                 "Single successful message should be printed");
         }
+        Assertions.assertEquals(1, applicationEvents.stream(InboxOrderSavedEvent.class).count(),
+            "Orders saved by the fallback should signal the pull order runner");
+    }
+
+    @Test
+    void bulkSaveMessages_ErrorAllDuplicated() {
+        List<Message<String>> messageList = new ArrayList<>();
+        messageList.add(createMsg(TestConstants.MOCK_CDC_PAYLOAD.formatted(1)));
+
+        Mockito.when(transactionalInboxOrderBulkWriter.insertIgnoreDuplicates(Mockito.any()))
+            .thenThrow(new RuntimeException());
+        Mockito.when(transactionalInboxOrderRepository.save(Mockito.any()))
+            .thenThrow(new DataIntegrityViolationException("Violate unique constraint"));
+
+        Assertions.assertDoesNotThrow(() -> {
+            checkoutInboxWorker.bulkSaveMessages(messageList);
+        });
+
+        Assertions.assertEquals(0, applicationEvents.stream(InboxOrderSavedEvent.class).count(),
+            "Nothing saved by the fallback, pull order runner should not be signaled");
     }
 
     @Test
@@ -174,10 +242,45 @@ class CheckoutInboxWorkerTest {
 
         Message<String> mockMsg = createMsg(s);
 
-        List<String> results = checkoutInboxWorker.extractPayloadFromMessage(mockMsg);
-        Assertions.assertNotSame(0, results.size(),
-            "Result should not be empty list");
-        Assertions.assertEquals(mockId, results.get(0), "ID should match");
+        var result = checkoutInboxWorker.extractPayloadFromMessage(mockMsg);
+        Assertions.assertTrue(result.isPresent(), "Result should not be empty");
+        Assertions.assertEquals(mockId, result.get().getOrderId(), "ID should match");
+        Assertions.assertEquals("jlZHXEryFFDNnRPWXFKjtSNcg", result.get().getUserId(), "UserID should match");
+        Assertions.assertEquals(CdcOrderExtractor.decodeAmount("B68="), result.get().getAmount(),
+            "Amount should be decoded at ingest time");
+        Assertions.assertEquals(s, result.get().getPayload(), "Raw payload should be kept");
+    }
+
+    @ParameterizedTest
+    @EnumSource(InboxPayloadStorage.class)
+    void extractPayloadFromMessage_PayloadStorage(InboxPayloadStorage payloadStorage) {
+        String s = TestConstants.MOCK_CDC_PAYLOAD.formatted("67");
+        ReflectionTestUtils.setField(checkoutInboxWorker, "payloadStorage", payloadStorage);
+
+        try {
+            var result = checkoutInboxWorker.extractPayloadFromMessage(createMsg(s)).orElseThrow();
+
+            // extracted columns are always there
+            Assertions.assertEquals("67", result.getOrderId());
+            Assertions.assertNotNull(result.getUserId());
+            Assertions.assertNotNull(result.getAmount());
+            switch (payloadStorage) {
+                case JSON -> {
+                    Assertions.assertEquals(s, result.getPayload());
+                    Assertions.assertNull(result.getCompressedPayload());
+                }
+                case COMPRESSED -> {
+                    Assertions.assertNull(result.getPayload());
+                    Assertions.assertEquals(s, GzipCodec.decompress(result.getCompressedPayload()));
+                }
+                default -> {
+                    Assertions.assertNull(result.getPayload());
+                    Assertions.assertNull(result.getCompressedPayload());
+                }
+            }
+        } finally {
+            ReflectionTestUtils.setField(checkoutInboxWorker, "payloadStorage", InboxPayloadStorage.JSON);
+        }
     }
 
     @Test
@@ -186,15 +289,25 @@ class CheckoutInboxWorkerTest {
 
         Message<String> mockMsg = createMsg(s);
 
-        Assertions.assertDoesNotThrow(() -> checkoutInboxWorker.extractPayloadFromMessage(mockMsg));
+        var result = Assertions.assertDoesNotThrow(() -> checkoutInboxWorker.extractPayloadFromMessage(mockMsg));
+        Assertions.assertTrue(result.isEmpty());
         Assertions.assertTrue(output.toString().contains("Failed to parse payload from message"));
     }
 
     @Test
-    void extractPayloadFromMessage_UnhandedError(CapturedOutput output) throws JsonProcessingException {
+    void extractPayloadFromMessage_NoOrderId(CapturedOutput output) {
+        Message<String> mockMsg = createMsg("{\"payload\":{\"after\":null}}");
+
+        var result = Assertions.assertDoesNotThrow(() -> checkoutInboxWorker.extractPayloadFromMessage(mockMsg));
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertTrue(output.toString().contains("Failed to parse payload from message, no order id"));
+    }
+
+    @Test
+    void extractPayloadFromMessage_UnhandedError(CapturedOutput output) throws IOException {
         String s = "Dummy string, obviously invalid json format";
         Mockito.doThrow(new HttpException(CommonHttpError.INTERNAL_SERVER_ERROR))
-            .when(mapper).readValue(s, KafkaCreatedOrderMessage.class);
+            .when(cdcOrderExtractor).extract(s);
 
         Message<String> mockMsg = createMsg(s);
 
@@ -5,23 +5,31 @@ import com.saga.playground.checkoutservice.basetest.PostgresContainerBaseTest;
 import com.saga.playground.checkoutservice.basetest.ZookeeperTestConfig;
 import com.saga.playground.checkoutservice.configs.CuratorConfig;
 import com.saga.playground.checkoutservice.configs.ObjectMapperConfig;
+import com.saga.playground.checkoutservice.configs.ThreadPoolConfig;
 import com.saga.playground.checkoutservice.constants.ErrorConstant;
-import com.saga.playground.checkoutservice.constants.GRPCConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
 import com.saga.playground.checkoutservice.grpc.services.OrderGRPCService;
+import com.saga.playground.checkoutservice.grpc.services.OrderSwitchMultiplexer;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
 import com.saga.playground.checkoutservice.utils.locks.impl.ZookeeperDistributedLock;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutHelper;
+import com.saga.playground.checkoutservice.workers.checkout.CheckoutPrefetchBuffer;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutProcessingWorker;
+import com.saga.playground.checkoutservice.workers.checkout.ClaimBatchSizer;
 import com.saga.playground.checkoutservice.workers.workerregistration.CheckoutRegistrationWorker;
 import com.saga.playground.checkoutservice.workers.workerregistration.ZookeeperWorkerRegistration;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
 import org.apache.curator.test.TestingServer;
 import org.apache.logging.log4j.util.Strings;
@@ -47,8 +55,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.LogManager;
 
@@ -62,7 +73,9 @@ import static java.lang.System.exit;
 @ExtendWith({SpringExtension.class, OutputCaptureExtension.class})
 @TestPropertySource(properties = {
     "zookeeper.port=22181",
-    "zookeeper.host=localhost"
+    "zookeeper.host=localhost",
+    "worker.checkout.claim-strategy=DISTRIBUTED_LOCK",
+    "worker.checkout.order-switch.retry-backoff-ms=10"
 })
 @DataJpaTest
 @Import({
@@ -72,8 +85,14 @@ import static java.lang.System.exit;
     ZookeeperWorkerRegistration.class,
     CheckoutProcessingWorker.class,
     OrderGRPCService.class,
+    OrderSwitchMultiplexer.class,
     CheckoutHelper.class,
-    ObjectMapperConfig.class
+    CdcOrderExtractor.class,
+    ObjectMapperConfig.class,
+    ThreadPoolConfig.class,
+    ClaimBatchSizer.class,
+    CheckoutPrefetchBuffer.class,
+    SimpleMeterRegistry.class
 })
 @EnableRetry
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -94,6 +113,9 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
     @MockitoSpyBean
     private CheckoutHelper checkoutHelper;
 
+    @MockitoSpyBean
+    private CheckoutOutboxRepository checkoutOutboxRepository;
+
     @Autowired
     private CheckoutRepository checkoutRepository;
 
@@ -153,6 +175,21 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
             }
         }
 
+        // same as the coordinator, the inbox is failed once the switch gives up
+        private void switchOrderStatusAndFail(String orderId) {
+            var switched = checkoutProcessingWorker.switchOrderStatuses(List.of(orderId)).get(orderId);
+            var e = Assertions.assertThrows(CompletionException.class, switched::join);
+            checkoutProcessingWorker.failCheckout(orderId, e.getCause());
+        }
+
+        private void verifySwitchRetry(CapturedOutput output) {
+            Assertions.assertTrue(output.toString().contains(ErrorConstant.CODE_RETRY_LIMIT_EXCEEDED));
+            for (int i = 0; i < WorkerConstant.MAX_RETRY_TIMES; i++) {
+                Assertions.assertTrue(output.toString().contains("Start switching orders [1], retry %d".formatted(i)),
+                    "Retry number %d should be printed".formatted(i));
+            }
+        }
+
         private void verifyFailedInboxUpdate(String orderId) {
             // verify inbox is saved with FAILED and note
             var inbox = transactionalInboxOrderRepository.findByOrderId(orderId);
@@ -163,15 +200,16 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
         @Test
         void RetryAndRecover(CapturedOutput output) {
-            Mockito.doThrow(new RuntimeException())
-                .when(orderGRPCService).switchOrderStatus(1);
+            Mockito.doReturn(CompletableFuture.failedFuture(new RuntimeException()))
+                .when(orderGRPCService).switchOrderStatuses(List.of(1));
 
-            Assertions.assertDoesNotThrow(
-                () -> checkoutProcessingWorker.processCheckout("1"));
+            Assertions.assertDoesNotThrow(() -> switchOrderStatusAndFail("1"));
 
             Assertions.assertTrue(
                 output.toString().contains(ErrorConstant.CODE_RETRY_LIMIT_EXCEEDED));
-            verifyRetry(output);
+            Mockito.verify(orderGRPCService, Mockito.times(WorkerConstant.MAX_RETRY_TIMES))
+                .switchOrderStatuses(List.of(1));
+            verifySwitchRetry(output);
         }
 
         @Test
@@ -191,17 +229,14 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
             Assertions.assertNull(mockInbox.getNote());
 
-            Assertions.assertDoesNotThrow(
-                () -> checkoutProcessingWorker.processCheckout("dummy")
-            );
+            Assertions.assertDoesNotThrow(() -> switchOrderStatusAndFail("dummy"));
 
             Assertions.assertTrue(output.toString().contains("INVALID ORDER FORMAT"));
             Assertions.assertFalse(output.toString().contains("Successfully submit checkout request for order"));
 
             Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
                 .findByOrderId("dummy");
-
-            verifyNoRetry(output);
+            Mockito.verifyNoInteractions(orderGRPCService);
         }
 
         @Test
@@ -221,19 +256,19 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
             Assertions.assertNull(mockInbox.getNote());
 
-            Mockito.doThrow(new StatusRuntimeException(Status.UNKNOWN.withDescription(
-                    GRPCConstant.ORDER_SERVER_INVALID_ACTION)))
-                .when(orderGRPCService).switchOrderStatus(Integer.parseInt(orderId));
-            Assertions.assertDoesNotThrow(
-                () -> checkoutProcessingWorker.processCheckout(orderId)
-            );
+            Mockito.doReturn(CompletableFuture.completedFuture(List.of(SwitchToPendingPaymentResult.newBuilder()
+                    .setId(Integer.parseInt(orderId))
+                    .setResult(SwitchResult.INVALID_ACTION)
+                    .build())))
+                .when(orderGRPCService).switchOrderStatuses(List.of(Integer.parseInt(orderId)));
+            Assertions.assertDoesNotThrow(() -> switchOrderStatusAndFail(orderId));
 
             Assertions.assertTrue(output.toString().contains("INVALID ACTION"));
             Assertions.assertFalse(output.toString().contains("Successfully submit checkout request for order"));
 
             verifyFailedInboxUpdate(orderId);
 
-            verifyNoRetry(output);
+            Mockito.verify(orderGRPCService, Mockito.times(1)).switchOrderStatuses(List.of(Integer.parseInt(orderId)));
         }
 
         @Test
@@ -253,11 +288,9 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
             Assertions.assertNull(mockInbox.getNote());
 
-            Mockito.doThrow(new StatusRuntimeException(Status.UNKNOWN))
-                .when(orderGRPCService).switchOrderStatus(1);
-            Assertions.assertDoesNotThrow(
-                () -> checkoutProcessingWorker.processCheckout("1")
-            );
+            Mockito.doReturn(CompletableFuture.failedFuture(new StatusRuntimeException(Status.UNKNOWN)))
+                .when(orderGRPCService).switchOrderStatuses(List.of(1));
+            Assertions.assertDoesNotThrow(() -> switchOrderStatusAndFail("1"));
 
             Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
                 .findByOrderId(Mockito.any());
@@ -269,12 +302,11 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
             verifyFailedInboxUpdate(orderId);
 
-            verifyRetry(output);
+            verifySwitchRetry(output);
         }
 
         @Test
         void NotFoundInbox(CapturedOutput output) {
-            Mockito.doNothing().when(orderGRPCService).switchOrderStatus(1);
             Mockito.when(transactionalInboxOrderRepository.findByOrderId(Mockito.any()))
                 .thenReturn(Optional.empty());
             Assertions.assertDoesNotThrow(
@@ -309,7 +341,6 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
             Assertions.assertNull(mockInbox.getNote());
 
-            Mockito.doNothing().when(orderGRPCService).switchOrderStatus(Integer.parseInt(orderId));
             Mockito.doReturn(Optional.empty()).when(checkoutHelper)
                 .upsertCheckoutInfo(mockInbox);
 
@@ -349,7 +380,6 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
 
             Checkout mockCheckout = Instancio.of(Checkout.class).create();
 
-            Mockito.doNothing().when(orderGRPCService).switchOrderStatus(Integer.parseInt(orderId));
             Mockito.doReturn(Optional.of(mockCheckout)).when(checkoutHelper)
                 .upsertCheckoutInfo(mockInbox);
             Mockito.doThrow(new RuntimeException("SOME_ERROR")).when(checkoutHelper)
@@ -386,7 +416,6 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
                 new TransactionalInboxOrder("%s".formatted(orderId), TestConstants.MOCK_CDC_PAYLOAD.formatted(orderId));
             transactionalInboxOrderRepository.save(mockInbox);
 
-            Mockito.doNothing().when(orderGRPCService).switchOrderStatus(orderId);
 
             String mockCheckoutSessionId = UUID.randomUUID().toString();
             Mockito.doReturn(mockCheckoutSessionId).when(checkoutHelper)
@@ -434,27 +463,13 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
                 new TransactionalInboxOrder("%s".formatted(orderId), TestConstants.MOCK_CDC_PAYLOAD.formatted(orderId));
             transactionalInboxOrderRepository.save(mockInbox);
 
-            Checkout mockCheckout = Instancio.of(Checkout.class)
-                .ignore(Select.field(Checkout::getId))
-                .ignore(Select.field(Checkout::getEventPublished))
-                .ignore(Select.field(Checkout::getWebhookPayload))
-                .ignore(Select.field(Checkout::getCreatedAt))
-                .ignore(Select.field(Checkout::getUpdatedAt))
-                .set(Select.field(Checkout::getCheckoutStatus), PaymentStatus.INIT)
-                .create();
-
-            var spyCheckout = Mockito.spy(mockCheckout);
-            // crash at the end of the method should roll back all DB change
-            Mockito.doThrow(new RuntimeException()).when(spyCheckout)
-                .setCheckoutStatus(Mockito.any());
-
-            Mockito.doNothing().when(orderGRPCService).switchOrderStatus(orderId);
-            Mockito.doReturn(Optional.of(spyCheckout)).when(checkoutHelper)
-                .upsertCheckoutInfo(Mockito.any());
+            // crash while persisting the result should roll back the result only
+            Mockito.doThrow(new RuntimeException()).when(checkoutOutboxRepository)
+                .appendStatusChange(Mockito.any());
 
             String mockCheckoutSessionId = UUID.randomUUID().toString();
             Mockito.doReturn(mockCheckoutSessionId).when(checkoutHelper)
-                .registerCheckout(spyCheckout);
+                .registerCheckout(Mockito.any());
 
             Assertions.assertDoesNotThrow(
                 () -> checkoutProcessingWorker.processCheckout("%d".formatted(orderId))
@@ -466,13 +481,18 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
             Assertions.assertNotEquals(InboxOrderStatus.DONE, inbox.get().getStatus(),
                 "Inbox status should NOT be DONE");
 
+            // the intent is committed before the gateway call, so the order can be processed again
             checkouts = checkoutRepository.findAll();
-            Assertions.assertTrue(checkouts.isEmpty(), "Checkout table SHOULD BE EMPTY");
+            Assertions.assertEquals(1, checkouts.size(), "Checkout intent should be persisted");
+            Assertions.assertEquals(PaymentStatus.INIT, checkouts.get(0).getCheckoutStatus(),
+                "Checkout status should be %s".formatted(PaymentStatus.INIT));
+            Assertions.assertNull(checkouts.get(0).getCheckoutSessionId(), "Checkout result should be rolled back");
             Assertions.assertFalse(output.toString().contains("INVALID ACTION"));
             Assertions.assertFalse(output.toString().contains("INVALID ORDER FORMAT"));
             Assertions.assertFalse(output.toString().contains("INBOX NOT FOUND"));
             Assertions.assertFalse(output.toString().contains("Successfully submit checkout request for order"));
 
+            checkoutRepository.deleteAll();
             transactionalInboxOrderRepository.delete(mockInbox);
             verifyRetry(output);
         }
@@ -530,7 +550,7 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
                     WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
                     TimeUnit.SECONDS);
             Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0))
-                .findNewOrders();
+                .findNewOrders(Mockito.anyInt());
             Mockito.verify(distributedLock, Mockito.times(0))
                 .releaseLock(WorkerConstant.WORKER_PULL_ORDER_LOCK);
         }
@@ -611,7 +631,7 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
                     WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
                     TimeUnit.SECONDS);
             Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
-                .findNewOrders();
+                .findNewOrders(Mockito.anyInt());
             Mockito.verify(distributedLock, Mockito.times(1))
                 .releaseLock(WorkerConstant.WORKER_PULL_ORDER_LOCK);
         }
@@ -668,7 +688,7 @@ class CheckoutProcessingWorkerIntegrationTest extends PostgresContainerBaseTest
                     WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
                     TimeUnit.SECONDS);
             Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
-                .findNewOrders();
+                .findNewOrders(Mockito.anyInt());
             Mockito.verify(distributedLock, Mockito.times(1))
                 .releaseLock(WorkerConstant.WORKER_PULL_ORDER_LOCK);
         }
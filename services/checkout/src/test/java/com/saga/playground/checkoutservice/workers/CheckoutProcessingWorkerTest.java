@@ -1,19 +1,29 @@
 package com.saga.playground.checkoutservice.workers;
 
+import com.saga.playground.checkoutservice.constants.ErrorConstant;
 import com.saga.playground.checkoutservice.constants.GRPCConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
+import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchResult;
+import com.saga.playground.checkoutservice.grpc.protobufs.SwitchToPendingPaymentResult;
 import com.saga.playground.checkoutservice.grpc.services.OrderGRPCService;
+import com.saga.playground.checkoutservice.grpc.services.OrderSwitchMultiplexer;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
 import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
 import com.saga.playground.checkoutservice.utils.locks.impl.ZookeeperDistributedLock;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutHelper;
+import com.saga.playground.checkoutservice.workers.checkout.CheckoutPrefetchBuffer;
 import com.saga.playground.checkoutservice.workers.checkout.CheckoutProcessingWorker;
+import com.saga.playground.checkoutservice.workers.checkout.ClaimBatchSizer;
+import com.saga.playground.checkoutservice.workers.checkout.InboxClaimStrategy;
 import com.saga.playground.checkoutservice.workers.workerregistration.CheckoutRegistrationWorker;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
 import org.instancio.Instancio;
 import org.instancio.Select;
@@ -29,15 +39,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.LogManager;
 import java.util.stream.Stream;
@@ -49,6 +66,8 @@ class CheckoutProcessingWorkerTest {
 
     private final String mockWorkerId = "worker-1";
 
+    private final int batchSize = 10;
+
     @Mock
     private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
 
@@ -61,12 +80,32 @@ class CheckoutProcessingWorkerTest {
     @Mock
     private OrderGRPCService orderGRPCService;
 
+    @Mock
+    private OrderSwitchMultiplexer orderSwitchMultiplexer;
+
     @Mock
     private CheckoutHelper checkoutHelper;
 
     @Mock
     private CheckoutRepository checkoutRepository;
 
+    @Mock
+    private CheckoutOutboxRepository checkoutOutboxRepository;
+
+    @Mock
+    private ClaimBatchSizer claimBatchSizer;
+
+    @Mock
+    private CheckoutPrefetchBuffer checkoutPrefetchBuffer;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // runs the callback in place, there is no database
+    @Spy
+    private TransactionTemplate transactionTemplate =
+        new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private CheckoutProcessingWorker checkoutProcessingWorker;
 
@@ -88,48 +127,144 @@ class CheckoutProcessingWorkerTest {
         LogManager.getLogManager().readConfiguration();
     }
 
+    private static SwitchToPendingPaymentResult switchResult(int orderId, SwitchResult result) {
+        return SwitchToPendingPaymentResult.newBuilder()
+            .setId(orderId)
+            .setResult(result)
+            .build();
+    }
+
     @Test
-    void testProcessCheckout_InvalidOrderId(CapturedOutput output) {
-        Assertions.assertDoesNotThrow(() ->
-            checkoutProcessingWorker.processCheckout("dummy")
-        );
-        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(1);
+    void testSwitchOrderStatuses_InvalidOrderId() {
+        var res = checkoutProcessingWorker.switchOrderStatuses(List.of("dummy"));
 
-        Assertions.assertTrue(output.toString().contains("INVALID ORDER FORMAT"));
+        var e = Assertions.assertThrows(CompletionException.class, res.get("dummy")::join);
+        Assertions.assertInstanceOf(NumberFormatException.class, e.getCause());
+        Mockito.verifyNoInteractions(orderGRPCService);
     }
 
     @Test
-    void testProcessCheckout_InvalidAction(CapturedOutput output) {
-        Mockito.doThrow(new StatusRuntimeException(Status.UNKNOWN.withDescription(
-                GRPCConstant.ORDER_SERVER_INVALID_ACTION)))
-            .when(orderGRPCService).switchOrderStatus(1);
-        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(1);
+    void testSwitchOrderStatuses_OK() {
+        Mockito.when(orderGRPCService.switchOrderStatuses(List.of(1, 2)))
+            .thenReturn(CompletableFuture.completedFuture(List.of(
+                switchResult(1, SwitchResult.SWITCHED), switchResult(2, SwitchResult.SWITCHED))));
+
+        var res = checkoutProcessingWorker.switchOrderStatuses(List.of("1", "2"));
+
+        Assertions.assertEquals(2, res.size());
+        Assertions.assertDoesNotThrow(() -> res.get("1").join());
+        Assertions.assertDoesNotThrow(() -> res.get("2").join());
+        // one call for the whole batch
+        Mockito.verify(orderGRPCService, Mockito.times(1)).switchOrderStatuses(Mockito.anyList());
+        Mockito.verifyNoInteractions(transactionalInboxOrderRepository);
+    }
 
-        Assertions.assertDoesNotThrow(() ->
-            checkoutProcessingWorker.processCheckout("1")
-        );
+    @Test
+    void testSwitchOrderStatuses_Stream() {
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "streamEnabled", true);
+        Mockito.when(orderSwitchMultiplexer.switchOrderStatuses(List.of(1)))
+            .thenReturn(CompletableFuture.completedFuture(List.of(switchResult(1, SwitchResult.SWITCHED))));
+
+        var res = checkoutProcessingWorker.switchOrderStatuses(List.of("1"));
+
+        Assertions.assertDoesNotThrow(() -> res.get("1").join());
+        Mockito.verifyNoInteractions(orderGRPCService);
+    }
+
+    @Test
+    void testSwitchOrderStatuses_OnlyFailedOrdersRetried(CapturedOutput output) {
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "retryBackoffMs", 10L);
+        Mockito.when(orderGRPCService.switchOrderStatuses(List.of(1, 2, 3)))
+            .thenReturn(CompletableFuture.completedFuture(List.of(
+                switchResult(1, SwitchResult.SWITCHED),
+                switchResult(2, SwitchResult.INVALID_ACTION),
+                switchResult(3, SwitchResult.ERROR).toBuilder().setError("connection reset").build())));
+        Mockito.when(orderGRPCService.switchOrderStatuses(List.of(3)))
+            .thenReturn(CompletableFuture.completedFuture(List.of(switchResult(3, SwitchResult.SWITCHED))));
+
+        var res = checkoutProcessingWorker.switchOrderStatuses(List.of("1", "2", "3"));
+
+        Assertions.assertDoesNotThrow(() -> res.get("1").join());
+        Assertions.assertDoesNotThrow(() -> res.get("3").join());
+        // invalid orders fail like a failed unary call & are not retried
+        var e = Assertions.assertThrows(CompletionException.class, res.get("2")::join);
+        var statusException = Assertions.assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        Assertions.assertEquals(GRPCConstant.ORDER_SERVER_INVALID_ACTION,
+            statusException.getStatus().getDescription());
+        Mockito.verify(orderGRPCService, Mockito.times(1)).switchOrderStatuses(List.of(3));
+        Assertions.assertEquals(1, meterRegistry.counter("checkout.process.retries").count());
+        Assertions.assertTrue(output.toString().contains("Start switching orders [3], retry 1"));
+    }
+
+    @Test
+    void testSwitchOrderStatuses_MissingResult() {
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "retryBackoffMs", 10L);
+        Mockito.when(orderGRPCService.switchOrderStatuses(List.of(1)))
+            .thenReturn(CompletableFuture.completedFuture(List.of()))
+            .thenReturn(CompletableFuture.completedFuture(List.of(switchResult(1, SwitchResult.SWITCHED))));
+
+        Assertions.assertDoesNotThrow(() -> checkoutProcessingWorker.switchOrderStatuses(List.of("1")).get("1").join());
+
+        Mockito.verify(orderGRPCService, Mockito.times(2)).switchOrderStatuses(List.of(1));
+    }
+
+    @Test
+    void testSwitchOrderStatuses_RetryLimitExceeded() {
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "retryBackoffMs", 10L);
+        Mockito.when(orderGRPCService.switchOrderStatuses(List.of(1, 2)))
+            .thenReturn(CompletableFuture.failedFuture(new StatusRuntimeException(Status.UNAVAILABLE)));
+
+        var res = checkoutProcessingWorker.switchOrderStatuses(List.of("1", "2"));
+
+        for (var switched : res.values()) {
+            var e = Assertions.assertThrows(CompletionException.class, switched::join);
+            Assertions.assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        }
+        Mockito.verify(orderGRPCService, Mockito.times(WorkerConstant.MAX_RETRY_TIMES))
+            .switchOrderStatuses(List.of(1, 2));
+        // every retried order is counted
+        Assertions.assertEquals(2 * (WorkerConstant.MAX_RETRY_TIMES - 1),
+            meterRegistry.counter("checkout.process.retries").count());
+    }
+
+    @Test
+    void testFailCheckout_InvalidOrderId(CapturedOutput output) {
+        checkoutProcessingWorker.failCheckout("dummy", new NumberFormatException());
+
+        Assertions.assertTrue(output.toString().contains("INVALID ORDER FORMAT"));
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1)).findByOrderId("dummy");
+    }
+
+    @Test
+    void testFailCheckout_InvalidAction(CapturedOutput output) {
+        checkoutProcessingWorker.failCheckout("1", new StatusRuntimeException(Status.UNKNOWN.withDescription(
+            GRPCConstant.ORDER_SERVER_INVALID_ACTION)));
 
         Assertions.assertTrue(output.toString().contains("INVALID ACTION"));
+        Assertions.assertEquals(0, meterRegistry.counter("checkout.process.recovered",
+            "exception", StatusRuntimeException.class.getSimpleName()).count());
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1)).findByOrderId("1");
     }
 
     @Test
-    void testProcessCheckout_InvalidActionThrowException() {
-        Mockito.doThrow(new StatusRuntimeException(Status.UNKNOWN))
-            .when(orderGRPCService).switchOrderStatus(1);
-        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(1);
+    void testFailCheckout_RetryLimitExceeded(CapturedOutput output) {
+        var mockInbox = Instancio.of(TransactionalInboxOrder.class)
+            .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.IN_PROGRESS)
+            .create();
+        Mockito.when(transactionalInboxOrderRepository.findByOrderId("1")).thenReturn(Optional.of(mockInbox));
 
-        Assertions.assertThrows(StatusRuntimeException.class, () ->
-            checkoutProcessingWorker.processCheckout("1")
-        );
+        checkoutProcessingWorker.failCheckout("1", new StatusRuntimeException(Status.UNAVAILABLE));
 
-        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0))
-            .findByOrderId(Mockito.any());
+        Assertions.assertTrue(output.toString().contains(ErrorConstant.CODE_RETRY_LIMIT_EXCEEDED));
+        Assertions.assertEquals(1, meterRegistry.counter("checkout.process.recovered",
+            "exception", StatusRuntimeException.class.getSimpleName()).count());
+        Assertions.assertEquals(InboxOrderStatus.FAILED, mockInbox.getStatus());
+        Assertions.assertNotNull(mockInbox.getNote());
     }
 
     @Test
     void testProcessCheckout_NoOrderInbox(CapturedOutput output) {
         int orderId = 1;
-        Mockito.doNothing().when(orderGRPCService).switchOrderStatus(orderId);
         Mockito.when(transactionalInboxOrderRepository.findByOrderId(Mockito.any()))
             .thenReturn(Optional.empty());
         Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(1);
@@ -148,13 +283,16 @@ class CheckoutProcessingWorkerTest {
         TransactionalInboxOrder mockInbox = Instancio.of(TransactionalInboxOrder.class)
             .set(Select.field(TransactionalInboxOrder::getOrderId), "%d".formatted(orderId))
             .create();
-        Checkout mockCheckout = Instancio.of(Checkout.class).create();
+        Checkout mockCheckout = Instancio.of(Checkout.class)
+            .set(Select.field(Checkout::getCheckoutStatus), PaymentStatus.INIT)
+            .create();
 
-        Mockito.doNothing().when(orderGRPCService).switchOrderStatus(orderId);
         Mockito.when(transactionalInboxOrderRepository.findByOrderId(Mockito.any()))
             .thenReturn(Optional.of(mockInbox));
         Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(1);
         Mockito.when(checkoutHelper.upsertCheckoutInfo(mockInbox)).thenReturn(Optional.of(mockCheckout));
+        Mockito.when(checkoutHelper.registerCheckout(mockCheckout)).thenReturn("session");
+        Mockito.when(checkoutRepository.findByOrderId("%d".formatted(orderId))).thenReturn(Optional.of(mockCheckout));
 
         Assertions.assertDoesNotThrow(() ->
             checkoutProcessingWorker.processCheckout("%s".formatted(orderId))
@@ -163,6 +301,94 @@ class CheckoutProcessingWorkerTest {
         Assertions.assertFalse(output.toString().contains("Inbox not found %d".formatted(orderId)));
         Assertions.assertTrue(output.toString()
             .contains("Successfully submit checkout request for order %d".formatted(orderId)));
+        Assertions.assertEquals(PaymentStatus.PROCESSING, mockCheckout.getCheckoutStatus());
+        Assertions.assertEquals("session", mockCheckout.getCheckoutSessionId());
+        Assertions.assertEquals(InboxOrderStatus.DONE, mockInbox.getStatus());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1)).appendStatusChange(mockCheckout);
+        // the result is persisted in its own transaction after the gateway call
+        Mockito.verify(transactionTemplate, Mockito.times(1)).executeWithoutResult(Mockito.any());
+        // the order is already switched before the transaction
+        Mockito.verifyNoInteractions(orderGRPCService);
+    }
+
+    @Test
+    void testProcessCheckout_AlreadyCompleted(CapturedOutput output) {
+        int orderId = 1;
+        TransactionalInboxOrder mockInbox = Instancio.of(TransactionalInboxOrder.class)
+            .set(Select.field(TransactionalInboxOrder::getOrderId), "%d".formatted(orderId))
+            .create();
+        // the previous attempt crashed after its result was committed
+        Checkout mockCheckout = Instancio.of(Checkout.class)
+            .set(Select.field(Checkout::getCheckoutStatus), PaymentStatus.PROCESSING)
+            .create();
+        String sessionId = mockCheckout.getCheckoutSessionId();
+
+        Mockito.when(transactionalInboxOrderRepository.findByOrderId(Mockito.any()))
+            .thenReturn(Optional.of(mockInbox));
+        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(0);
+        Mockito.when(checkoutHelper.upsertCheckoutInfo(mockInbox)).thenReturn(Optional.of(mockCheckout));
+        Mockito.when(checkoutHelper.registerCheckout(mockCheckout)).thenReturn("other session");
+        Mockito.when(checkoutRepository.findByOrderId("%d".formatted(orderId))).thenReturn(Optional.of(mockCheckout));
+
+        Assertions.assertDoesNotThrow(() ->
+            checkoutProcessingWorker.processCheckout("%s".formatted(orderId))
+        );
+
+        // neither overwritten nor notified twice
+        Assertions.assertEquals(PaymentStatus.PROCESSING, mockCheckout.getCheckoutStatus());
+        Assertions.assertEquals(sessionId, mockCheckout.getCheckoutSessionId());
+        Assertions.assertEquals(InboxOrderStatus.DONE, mockInbox.getStatus());
+        Mockito.verifyNoInteractions(checkoutOutboxRepository);
+    }
+
+    @Test
+    void testProcessCheckout_GatewayFailedAfterIntent() {
+        int orderId = 1;
+        TransactionalInboxOrder mockInbox = Instancio.of(TransactionalInboxOrder.class)
+            .set(Select.field(TransactionalInboxOrder::getOrderId), "%d".formatted(orderId))
+            .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.IN_PROGRESS)
+            .create();
+        Checkout mockCheckout = Instancio.of(Checkout.class)
+            .set(Select.field(Checkout::getCheckoutStatus), PaymentStatus.INIT)
+            .create();
+
+        Mockito.when(transactionalInboxOrderRepository.findByOrderId(Mockito.any()))
+            .thenReturn(Optional.of(mockInbox));
+        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(0);
+        Mockito.when(checkoutHelper.upsertCheckoutInfo(mockInbox)).thenReturn(Optional.of(mockCheckout));
+        Mockito.when(checkoutHelper.registerCheckout(mockCheckout)).thenThrow(new RuntimeException("SOME_ERROR"));
+
+        Assertions.assertThrows(RuntimeException.class, () ->
+            checkoutProcessingWorker.processCheckout("%s".formatted(orderId))
+        );
+
+        // the intent stays committed for the retry, no result is persisted
+        Mockito.verify(transactionTemplate, Mockito.times(1)).execute(Mockito.any());
+        Mockito.verify(transactionTemplate, Mockito.never()).executeWithoutResult(Mockito.any());
+        Assertions.assertEquals(PaymentStatus.INIT, mockCheckout.getCheckoutStatus());
+        Assertions.assertEquals(InboxOrderStatus.IN_PROGRESS, mockInbox.getStatus());
+        Mockito.verifyNoInteractions(checkoutOutboxRepository);
+    }
+
+    @Test
+    void testProcessCheckout_RetryCounted() {
+        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(0);
+        Assertions.assertDoesNotThrow(() -> checkoutProcessingWorker.processCheckout("dummy"));
+        Assertions.assertEquals(0, meterRegistry.counter("checkout.process.retries").count(),
+            "First attempt is not a retry");
+
+        Mockito.when(RETRY_CONTEXT.getRetryCount()).thenReturn(2);
+        Assertions.assertDoesNotThrow(() -> checkoutProcessingWorker.processCheckout("dummy"));
+        Assertions.assertEquals(1, meterRegistry.counter("checkout.process.retries").count());
+    }
+
+    @Test
+    void testRecoverCheckoutFailed() {
+        checkoutProcessingWorker.recoverCheckoutFailed(new StatusRuntimeException(Status.UNAVAILABLE), "1");
+
+        Assertions.assertEquals(1, meterRegistry.counter("checkout.process.recovered",
+            "exception", StatusRuntimeException.class.getSimpleName()).count());
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1)).findByOrderId("1");
     }
 
     @ParameterizedTest(name = "{0}")
@@ -201,13 +427,55 @@ class CheckoutProcessingWorkerTest {
         ));
     }
 
+    @Test
+    void testPullOrders_ExistingOrdersInFlight(CapturedOutput output) {
+        int numberOfRecords = 10;
+        List<TransactionalInboxOrder> mockExisitingOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(numberOfRecords)
+            .set(Select.field(TransactionalInboxOrder::getWorkerId), mockWorkerId)
+            .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.IN_PROGRESS)
+            .create();
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "claimStrategy", InboxClaimStrategy.SKIP_LOCKED);
+
+        Mockito.when(checkoutRegistrationWorker.getWorkerId()).thenReturn(mockWorkerId);
+        Mockito.when(transactionalInboxOrderRepository
+                .findByWorkerIdAndStatus(mockWorkerId, InboxOrderStatus.IN_PROGRESS))
+            .thenReturn(mockExisitingOrders);
+        // all existing orders are still queued or running in this worker
+        Mockito.when(checkoutPrefetchBuffer.contains(Mockito.any())).thenReturn(true);
+        Mockito.when(claimBatchSizer.nextBatchSize()).thenReturn(batchSize);
+        Mockito.when(transactionalInboxOrderRepository.claimNewOrders(mockWorkerId, batchSize, 120000L))
+            .thenReturn(Collections.emptyList());
+
+        var res = checkoutProcessingWorker.pullOrders();
+
+        Assertions.assertTrue(res.isEmpty(), "In-flight orders must not be returned again");
+        Assertions.assertFalse(output.toString().contains("found existing orders"));
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(1))
+            .claimNewOrders(mockWorkerId, batchSize, 120000L);
+    }
+
+    @Test
+    void testReleaseOrders(CapturedOutput output) {
+        var orderIds = List.of("1", "2", "3");
+        Mockito.when(checkoutRegistrationWorker.getWorkerId()).thenReturn(mockWorkerId);
+        Mockito.when(transactionalInboxOrderRepository.releaseOrders(mockWorkerId, orderIds))
+            .thenReturn(orderIds.size());
+
+        Assertions.assertEquals(orderIds.size(), checkoutProcessingWorker.releaseOrders(orderIds));
+        Assertions.assertTrue(output.toString().contains(
+            "%s released orders %s".formatted(mockWorkerId, orderIds)));
+    }
+
     @Test
     @SneakyThrows
     void testPullOrders_AcquireLockFailed(CapturedOutput output) {
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "claimStrategy", InboxClaimStrategy.DISTRIBUTED_LOCK);
         Mockito.when(checkoutRegistrationWorker.getWorkerId()).thenReturn(mockWorkerId);
         Mockito.when(transactionalInboxOrderRepository
                 .findByWorkerIdAndStatus(mockWorkerId, InboxOrderStatus.IN_PROGRESS))
             .thenReturn(Collections.emptyList());
+        Mockito.when(claimBatchSizer.nextBatchSize()).thenReturn(batchSize);
         Mockito.when(distributedLock.acquireLock(WorkerConstant.WORKER_PULL_ORDER_LOCK,
                 WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
                 TimeUnit.SECONDS))
@@ -220,6 +488,10 @@ class CheckoutProcessingWorkerTest {
             "%s cannot acquire lock to pull new orders".formatted(mockWorkerId)
         ));
         Mockito.verify(distributedLock, Mockito.times(0)).releaseLock(Mockito.any());
+        Assertions.assertEquals(1,
+            meterRegistry.timer("checkout.claim.lock.wait", "acquired", "false").count());
+        Assertions.assertEquals(1,
+            meterRegistry.timer("checkout.claim", "strategy", "DISTRIBUTED_LOCK").count());
     }
 
     @Test
@@ -228,11 +500,12 @@ class CheckoutProcessingWorkerTest {
         Mockito.when(transactionalInboxOrderRepository
                 .findByWorkerIdAndStatus(mockWorkerId, InboxOrderStatus.IN_PROGRESS))
             .thenReturn(Collections.emptyList());
+        Mockito.when(claimBatchSizer.nextBatchSize()).thenReturn(batchSize);
         Mockito.when(distributedLock.acquireLock(WorkerConstant.WORKER_PULL_ORDER_LOCK,
                 WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
                 TimeUnit.SECONDS))
             .thenReturn(true);
-        Mockito.when(transactionalInboxOrderRepository.findNewOrders())
+        Mockito.when(transactionalInboxOrderRepository.findNewOrders(batchSize))
             .thenThrow(new RuntimeException());
 
         Assertions.assertThrows(RuntimeException.class, () -> checkoutProcessingWorker.pullOrders());
@@ -249,17 +522,19 @@ class CheckoutProcessingWorkerTest {
             .size(numberOfRecords)
             .set(Select.field(TransactionalInboxOrder::getWorkerId), mockWorkerId)
             .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.NEW)
+            .set(Select.field(TransactionalInboxOrder::getAttempts), 0)
             .create();
 
         Mockito.when(checkoutRegistrationWorker.getWorkerId()).thenReturn(mockWorkerId);
         Mockito.when(transactionalInboxOrderRepository
                 .findByWorkerIdAndStatus(mockWorkerId, InboxOrderStatus.IN_PROGRESS))
             .thenReturn(Collections.emptyList());
+        Mockito.when(claimBatchSizer.nextBatchSize()).thenReturn(batchSize);
         Mockito.when(distributedLock.acquireLock(WorkerConstant.WORKER_PULL_ORDER_LOCK,
                 WorkerConstant.WORKER_PULL_ORDER_LOCK_WAITING_SECONDS,
                 TimeUnit.SECONDS))
             .thenReturn(true);
-        Mockito.when(transactionalInboxOrderRepository.findNewOrders())
+        Mockito.when(transactionalInboxOrderRepository.findNewOrders(batchSize))
             .thenReturn(mockNewOrders);
 
         ArgumentCaptor<List<TransactionalInboxOrder>> argumentCaptor = ArgumentCaptor.forClass(List.class);
@@ -271,10 +546,61 @@ class CheckoutProcessingWorkerTest {
         argumentCaptor.getValue().forEach(order -> {
             Assertions.assertEquals(mockWorkerId, order.getWorkerId());
             Assertions.assertEquals(InboxOrderStatus.IN_PROGRESS, order.getStatus());
+            Assertions.assertEquals(1, order.getAttempts());
+            Assertions.assertTrue(order.getLeaseUntil().isAfter(Instant.now()), "Claimed order should be leased");
         });
         Assertions.assertTrue(output.toString().contains("acquired lock successfully"));
         Assertions.assertTrue(output.toString().contains("successfully acquired orders"));
         Assertions.assertTrue(output.toString().contains("successfully released lock"));
         Mockito.verify(distributedLock, Mockito.times(1)).releaseLock(Mockito.any());
     }
+
+    @Test
+    void testPullNewOrder_SkipLockedClaim(CapturedOutput output) {
+        int numberOfRecords = 10;
+        List<TransactionalInboxOrder> mockClaimedOrders = Instancio.ofList(TransactionalInboxOrder.class)
+            .size(numberOfRecords)
+            .set(Select.field(TransactionalInboxOrder::getWorkerId), mockWorkerId)
+            .set(Select.field(TransactionalInboxOrder::getStatus), InboxOrderStatus.IN_PROGRESS)
+            .create();
+
+        ReflectionTestUtils.setField(checkoutProcessingWorker, "claimStrategy", InboxClaimStrategy.SKIP_LOCKED);
+        Mockito.when(checkoutRegistrationWorker.getWorkerId()).thenReturn(mockWorkerId);
+        Mockito.when(transactionalInboxOrderRepository
+                .findByWorkerIdAndStatus(mockWorkerId, InboxOrderStatus.IN_PROGRESS))
+            .thenReturn(Collections.emptyList());
+        Mockito.when(claimBatchSizer.nextBatchSize()).thenReturn(batchSize);
+        Mockito.when(transactionalInboxOrderRepository.claimNewOrders(mockWorkerId, batchSize, 120000L))
+            .thenReturn(mockClaimedOrders);
+
+        var res = Assertions.assertDoesNotThrow(() -> checkoutProcessingWorker.pullOrders());
+
+        Assertions.assertIterableEquals(mockClaimedOrders, res);
+        Assertions.assertTrue(output.toString().contains("%s successfully claimed orders".formatted(mockWorkerId)));
+        // no distributed lock & no separated update for the claimed orders
+        Mockito.verifyNoInteractions(distributedLock);
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0)).findNewOrders(Mockito.anyInt());
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0)).saveAll(Mockito.any());
+        Assertions.assertEquals(1, meterRegistry.timer("checkout.claim", "strategy", "SKIP_LOCKED").count());
+        Assertions.assertNull(meterRegistry.find("checkout.claim.lock.wait").timer());
+    }
+
+    @Test
+    void testPullNewOrder_NoFreeCapacity(CapturedOutput output) {
+        Mockito.when(checkoutRegistrationWorker.getWorkerId()).thenReturn(mockWorkerId);
+        Mockito.when(transactionalInboxOrderRepository
+                .findByWorkerIdAndStatus(mockWorkerId, InboxOrderStatus.IN_PROGRESS))
+            .thenReturn(Collections.emptyList());
+        Mockito.when(claimBatchSizer.nextBatchSize()).thenReturn(0);
+
+        var res = Assertions.assertDoesNotThrow(() -> checkoutProcessingWorker.pullOrders());
+
+        Assertions.assertTrue(res.isEmpty());
+        Assertions.assertTrue(output.toString().contains("%s has no free capacity to pull new orders"
+            .formatted(mockWorkerId)));
+        Mockito.verifyNoInteractions(distributedLock);
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0)).findNewOrders(Mockito.anyInt());
+        Mockito.verify(transactionalInboxOrderRepository, Mockito.times(0))
+            .claimNewOrders(Mockito.any(), Mockito.anyInt(), Mockito.anyLong());
+    }
 }
@@ -0,0 +1,83 @@
+package com.saga.playground.checkoutservice.workers;
+
+import com.saga.playground.checkoutservice.domains.entities.InboxOrderStatus;
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
+import com.saga.playground.checkoutservice.workers.inboxpatterns.InboxBacklogMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+class InboxBacklogMetricsTest {
+
+    private final TransactionalInboxOrderRepository transactionalInboxOrderRepository =
+        Mockito.mock(TransactionalInboxOrderRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private InboxBacklogMetrics inboxBacklogMetrics;
+
+    @BeforeEach
+    void setUp() {
+        inboxBacklogMetrics = new InboxBacklogMetrics(transactionalInboxOrderRepository, meterRegistry);
+    }
+
+    private double backlog(InboxOrderStatus status) {
+        return meterRegistry.get("inbox.backlog").tag("status", status.name()).gauge().value();
+    }
+
+    private TransactionalInboxOrderRepository.StatusCount statusCount(InboxOrderStatus status, long total) {
+        return new TransactionalInboxOrderRepository.StatusCount() {
+            @Override
+            public InboxOrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    @Test
+    void testRefresh() {
+        Mockito.when(transactionalInboxOrderRepository.countByStatusIn(Mockito.anyCollection()))
+            .thenReturn(List.of(
+                statusCount(InboxOrderStatus.NEW, 42),
+                statusCount(InboxOrderStatus.IN_PROGRESS, 7)));
+
+        inboxBacklogMetrics.refresh();
+
+        Assertions.assertEquals(42, backlog(InboxOrderStatus.NEW));
+        Assertions.assertEquals(7, backlog(InboxOrderStatus.IN_PROGRESS));
+        Assertions.assertEquals(0, backlog(InboxOrderStatus.FAILED), "Statuses without orders should be 0");
+        Assertions.assertTrue(meterRegistry.find("inbox.backlog").tag("status", "DONE").meters().isEmpty(),
+            "DONE isn't a backlog");
+
+        // drained
+        Mockito.when(transactionalInboxOrderRepository.countByStatusIn(Mockito.anyCollection()))
+            .thenReturn(List.of());
+
+        inboxBacklogMetrics.refresh();
+
+        Assertions.assertEquals(0, backlog(InboxOrderStatus.NEW));
+        Assertions.assertEquals(0, backlog(InboxOrderStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void testRefresh_QueryFailed() {
+        Mockito.when(transactionalInboxOrderRepository.countByStatusIn(Mockito.anyCollection()))
+            .thenReturn(List.of(statusCount(InboxOrderStatus.NEW, 42)))
+            .thenThrow(new RuntimeException("connection refused"));
+
+        inboxBacklogMetrics.refresh();
+        Assertions.assertDoesNotThrow(() -> inboxBacklogMetrics.refresh());
+
+        Assertions.assertEquals(42, backlog(InboxOrderStatus.NEW), "Last values should be kept");
+    }
+
+}
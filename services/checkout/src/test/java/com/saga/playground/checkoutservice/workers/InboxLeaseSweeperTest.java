@@ -0,0 +1,67 @@
+package com.saga.playground.checkoutservice.workers;
+
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
+import com.saga.playground.checkoutservice.workers.checkout.InboxLeaseSweeper;
+import com.saga.playground.checkoutservice.workers.workerregistration.CheckoutRegistrationWorker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
+class InboxLeaseSweeperTest {
+
+    private final String mockWorkerId = "worker-1";
+
+    @Mock
+    private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
+
+    @Mock
+    private CheckoutRegistrationWorker registrationWorker;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private InboxLeaseSweeper inboxLeaseSweeper;
+
+    @Test
+    void testSweep_RenewThenReclaim(CapturedOutput output) {
+        ReflectionTestUtils.setField(inboxLeaseSweeper, "leaseDurationMs", 1000L);
+        ReflectionTestUtils.setField(inboxLeaseSweeper, "maxAttempts", 3);
+        Mockito.when(registrationWorker.getWorkerId()).thenReturn(mockWorkerId);
+        Mockito.when(transactionalInboxOrderRepository.renewLeases(mockWorkerId, 1000L)).thenReturn(4);
+        Mockito.when(transactionalInboxOrderRepository.reclaimExpiredLeases(3)).thenReturn(2);
+
+        Assertions.assertEquals(2, inboxLeaseSweeper.sweep());
+
+        // own leases must be renewed before reclaiming, otherwise a slow live worker could reclaim its own orders
+        var inOrder = Mockito.inOrder(transactionalInboxOrderRepository);
+        inOrder.verify(transactionalInboxOrderRepository).renewLeases(mockWorkerId, 1000L);
+        inOrder.verify(transactionalInboxOrderRepository).reclaimExpiredLeases(3);
+        Assertions.assertEquals(4, meterRegistry.counter("inbox.lease.renewed").count());
+        Assertions.assertEquals(2, meterRegistry.counter("inbox.lease.reclaimed").count());
+        Assertions.assertTrue(output.toString().contains("%s reclaimed 2 orders".formatted(mockWorkerId)));
+    }
+
+    @Test
+    void testSweep_NothingExpired(CapturedOutput output) {
+        Mockito.when(registrationWorker.getWorkerId()).thenReturn(mockWorkerId);
+        Mockito.when(transactionalInboxOrderRepository.renewLeases(mockWorkerId, 120000L)).thenReturn(0);
+        Mockito.when(transactionalInboxOrderRepository.reclaimExpiredLeases(5)).thenReturn(0);
+
+        Assertions.assertEquals(0, inboxLeaseSweeper.sweep());
+
+        Assertions.assertEquals(0, meterRegistry.counter("inbox.lease.reclaimed").count());
+        Assertions.assertFalse(output.toString().contains("reclaimed"));
+    }
+
+}
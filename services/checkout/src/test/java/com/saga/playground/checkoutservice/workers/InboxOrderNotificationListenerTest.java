@@ -0,0 +1,63 @@
+package com.saga.playground.checkoutservice.workers;
+
+import com.saga.playground.checkoutservice.basetest.PostgresContainerBaseTest;
+import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
+import com.saga.playground.checkoutservice.events.inbox.InboxOrderSavedListener;
+import com.saga.playground.checkoutservice.infrastructure.repositories.TransactionalInboxOrderRepository;
+import com.saga.playground.checkoutservice.tasks.SingleExecutionQueuedTaskRunner;
+import com.saga.playground.checkoutservice.workers.inboxpatterns.InboxOrderNotificationListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+    InboxOrderNotificationListener.class,
+    InboxOrderSavedListener.class,
+})
+@TestPropertySource(properties = {
+    "worker.checkout.notification-enabled=true",
+})
+class InboxOrderNotificationListenerTest extends PostgresContainerBaseTest {
+
+    @MockitoBean(name = "checkoutPullOrderRunner")
+    private SingleExecutionQueuedTaskRunner checkoutPullOrderRunner;
+
+    @Autowired
+    private TransactionalInboxOrderRepository transactionalInboxOrderRepository;
+
+    @AfterEach
+    void cleanUp() {
+        transactionalInboxOrderRepository.deleteAll();
+    }
+
+    @Test
+    // notifications are only delivered when the inserting transaction commits
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testInsertedOrders_WakeUpRunner() {
+        // give the listener thread time to subscribe
+        Awaitility.await().pollDelay(500, TimeUnit.MILLISECONDS).until(() -> true);
+        Mockito.verify(checkoutPullOrderRunner, Mockito.never()).tryRun();
+
+        transactionalInboxOrderRepository.saveAllAndFlush(List.of(
+            new TransactionalInboxOrder("1", "{}"),
+            new TransactionalInboxOrder("2", "{}")));
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAsserted(
+            () -> Mockito.verify(checkoutPullOrderRunner, Mockito.atLeastOnce()).tryRun());
+    }
+
+}
@@ -1,16 +1,15 @@
 package com.saga.playground.checkoutservice.workers.checkout;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saga.playground.checkoutservice.TestConstants;
-import com.saga.playground.checkoutservice.configs.ObjectMapperConfig;
 import com.saga.playground.checkoutservice.configs.ThreadPoolConfig;
 import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
 import com.saga.playground.checkoutservice.domains.entities.Checkout;
 import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
 import com.saga.playground.checkoutservice.domains.entities.TransactionalInboxOrder;
 import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
-import com.saga.playground.checkoutservice.presentations.requests.KafkaCreatedOrderMessage;
+import com.saga.playground.checkoutservice.utils.cdc.CdcOrderExtractor;
+import com.saga.playground.checkoutservice.utils.compression.GzipCodec;
 import lombok.SneakyThrows;
 import org.apache.logging.log4j.util.Strings;
 import org.instancio.Instancio;
@@ -39,7 +38,7 @@ import java.util.stream.Stream;
 
 @ExtendWith({SpringExtension.class, OutputCaptureExtension.class})
 @Import({
-    ObjectMapperConfig.class,
+    CdcOrderExtractor.class,
     CheckoutHelper.class,
     ThreadPoolConfig.class,
 })
@@ -49,7 +48,7 @@ class CheckoutHelperTest {
     private CheckoutRepository checkoutRepository;
 
     @MockitoSpyBean
-    private ObjectMapper objectMapper;
+    private CdcOrderExtractor cdcOrderExtractor;
 
     @Autowired
     private CheckoutHelper checkoutHelper;
@@ -100,8 +99,8 @@ class CheckoutHelperTest {
         // verify no new record is created
         Assertions.assertFalse(res.isEmpty());
         Assertions.assertSame(mockCheckout, res.get());
-        Mockito.verify(objectMapper, Mockito.times(0))
-            .readValue(rawPayload, KafkaCreatedOrderMessage.class);
+        Mockito.verify(cdcOrderExtractor, Mockito.times(0))
+            .extract(Mockito.any());
     }
 
 
@@ -124,8 +123,8 @@ class CheckoutHelperTest {
         // verify no new record is created
         Assertions.assertTrue(res.isEmpty());
         Assertions.assertTrue(output.toString().contains("INVALID CHECKOUT STATE"));
-        Mockito.verify(objectMapper, Mockito.times(0))
-            .readValue(rawPayload, KafkaCreatedOrderMessage.class);
+        Mockito.verify(cdcOrderExtractor, Mockito.times(0))
+            .extract(Mockito.any());
     }
 
     @SneakyThrows
@@ -134,6 +133,31 @@ class CheckoutHelperTest {
         String orderId = "1";
         String rawPayload = TestConstants.MOCK_CDC_PAYLOAD.formatted(orderId);
 
+        // fields are extracted at ingest time
+        TransactionalInboxOrder mockInbox =
+            new TransactionalInboxOrder(orderId, "userId", BigDecimal.valueOf(79.61), rawPayload);
+        var res = Assertions.assertDoesNotThrow(
+            () -> checkoutHelper.upsertCheckoutInfo(mockInbox)
+        );
+
+        Assertions.assertTrue(res.isPresent());
+        Assertions.assertEquals(orderId, res.get().getOrderId(), "ID should match");
+        Assertions.assertEquals("userId", res.get().getUserId(), "UserID should match");
+        Assertions.assertEquals(PaymentStatus.INIT, res.get().getCheckoutStatus(), "Status should match");
+        Assertions.assertEquals(BigDecimal.valueOf(79.61), res.get().getAmount(), "Amount should match");
+
+        Mockito.verify(checkoutRepository, Mockito.times(1)).save(Mockito.any());
+        Mockito.verify(cdcOrderExtractor, Mockito.times(0))
+            .extract(Mockito.any());
+    }
+
+    @SneakyThrows
+    @Test
+    void testUpsertCheckoutInfo_PayloadOnly(CapturedOutput output) {
+        String orderId = "1";
+        String rawPayload = TestConstants.MOCK_CDC_PAYLOAD.formatted(orderId);
+
+        // ingested before the fields were extracted
         TransactionalInboxOrder mockInbox = new TransactionalInboxOrder(orderId, rawPayload);
         var res = Assertions.assertDoesNotThrow(
             () -> checkoutHelper.upsertCheckoutInfo(mockInbox)
@@ -148,8 +172,8 @@ class CheckoutHelperTest {
             "Amount should be greater than 0");
 
         Mockito.verify(checkoutRepository, Mockito.times(1)).save(Mockito.any());
-        Mockito.verify(objectMapper, Mockito.times(1))
-            .readValue(rawPayload, KafkaCreatedOrderMessage.class);
+        Mockito.verify(cdcOrderExtractor, Mockito.times(1))
+            .extract(rawPayload);
     }
 
     @ParameterizedTest(name = "{1} ### {2}")
@@ -171,6 +195,44 @@ class CheckoutHelperTest {
         );
     }
 
+    @SneakyThrows
+    @Test
+    void testUpsertCheckoutInfo_CompressedPayloadOnly() {
+        String orderId = "1";
+        String rawPayload = TestConstants.MOCK_CDC_PAYLOAD.formatted(orderId);
+        TransactionalInboxOrder mockInbox = new TransactionalInboxOrder(orderId, null);
+        mockInbox.setCompressedPayload(GzipCodec.compress(rawPayload));
+
+        var res = Assertions.assertDoesNotThrow(
+            () -> checkoutHelper.upsertCheckoutInfo(mockInbox)
+        );
+
+        Assertions.assertTrue(res.isPresent());
+        Assertions.assertEquals("jlZHXEryFFDNnRPWXFKjtSNcg", res.get().getUserId(), "UserID should match");
+        Mockito.verify(cdcOrderExtractor, Mockito.times(1))
+            .extract(rawPayload);
+    }
+
+    @Test
+    void testUpsertCheckoutInfo_NoPayload() {
+        TransactionalInboxOrder mockInbox = new TransactionalInboxOrder("1", null);
+
+        Assertions.assertThrows(JsonProcessingException.class,
+            () -> checkoutHelper.upsertCheckoutInfo(mockInbox)
+        );
+        Mockito.verify(checkoutRepository, Mockito.times(0)).save(Mockito.any());
+    }
+
+    @Test
+    void testUpsertCheckoutInfo_NoOrderInPayload() {
+        TransactionalInboxOrder mockInbox = new TransactionalInboxOrder("1", "{\"payload\":{}}");
+
+        Assertions.assertThrows(JsonProcessingException.class,
+            () -> checkoutHelper.upsertCheckoutInfo(mockInbox)
+        );
+        Mockito.verify(checkoutRepository, Mockito.times(0)).save(Mockito.any());
+    }
+
     @Test
     void testRegisterCheckout_OK(CapturedOutput output) {
         var mockCheckout = Instancio.of(Checkout.class).create();
@@ -185,6 +247,18 @@ class CheckoutHelperTest {
         Assertions.assertFalse(Strings.isBlank(res), "Checkout should return session id");
     }
 
+    @Test
+    void testRegisterCheckout_Idempotent() {
+        var mockCheckout = Instancio.of(Checkout.class).create();
+        var otherCheckout = Instancio.of(Checkout.class).create();
+
+        var first = checkoutHelper.registerCheckout(mockCheckout);
+
+        // repeated after a crash before the session id was persisted
+        Assertions.assertEquals(first, checkoutHelper.registerCheckout(mockCheckout));
+        Assertions.assertNotEquals(first, checkoutHelper.registerCheckout(otherCheckout));
+    }
+
     @Test
     void testRegisterCheckout_Failed(CapturedOutput output) {
         var mockCheckout = Mockito.mock(Checkout.class);
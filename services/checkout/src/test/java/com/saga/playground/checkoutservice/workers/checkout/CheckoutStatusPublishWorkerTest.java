@@ -4,25 +4,29 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saga.playground.checkoutservice.constants.MessageBrokerConstant;
 import com.saga.playground.checkoutservice.constants.WorkerConstant;
-import com.saga.playground.checkoutservice.domains.entities.Checkout;
-import com.saga.playground.checkoutservice.domains.entities.PaymentStatus;
-import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutRepository;
+import com.saga.playground.checkoutservice.domains.entities.CheckoutOutbox;
+import com.saga.playground.checkoutservice.infrastructure.repositories.CheckoutOutboxRepository;
 import com.saga.playground.checkoutservice.utils.locks.impl.ZookeeperDistributedLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
@@ -30,8 +34,14 @@ import java.util.concurrent.CompletableFuture;
 @ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
 class CheckoutStatusPublishWorkerTest {
 
+    private static final int PAGE_SIZE = 2;
+
+    private static final long BACKOFF_MS = 1000;
+
+    private static final long MAX_BACKOFF_MS = 60000;
+
     @Mock
-    private CheckoutRepository checkoutRepository;
+    private CheckoutOutboxRepository checkoutOutboxRepository;
 
     @Mock
     private ZookeeperDistributedLock distributedLock;
@@ -42,9 +52,19 @@ class CheckoutStatusPublishWorkerTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private CheckoutStatusPublishWorker checkoutStatusPublishWorker;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(checkoutStatusPublishWorker, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(checkoutStatusPublishWorker, "backoffMs", BACKOFF_MS);
+        ReflectionTestUtils.setField(checkoutStatusPublishWorker, "maxBackoffMs", MAX_BACKOFF_MS);
+    }
+
     @Test
     void testPublishCheckoutStatus_AcquireLockFailed(CapturedOutput output) {
         Mockito.when(distributedLock.acquireLock(WorkerConstant.WORKER_CHECKOUT_STATUS_PUBLISH_LOCK))
@@ -63,7 +83,7 @@ class CheckoutStatusPublishWorkerTest {
     void testPublishCheckoutStatus_LockReleaseInCrash(CapturedOutput output) {
         Mockito.when(distributedLock.acquireLock(WorkerConstant.WORKER_CHECKOUT_STATUS_PUBLISH_LOCK))
             .thenReturn(true);
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(Mockito.any(), Mockito.any()))
+        Mockito.when(checkoutOutboxRepository.findPublishableRecords(Mockito.anyLong(), Mockito.any()))
             .thenThrow(new RuntimeException());
 
         checkoutStatusPublishWorker.publishCheckoutStatus();
@@ -78,7 +98,7 @@ class CheckoutStatusPublishWorkerTest {
     void testPublishCheckoutStatus_OK(CapturedOutput output) {
         Mockito.when(distributedLock.acquireLock(WorkerConstant.WORKER_CHECKOUT_STATUS_PUBLISH_LOCK))
             .thenReturn(true);
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(Mockito.any(), Mockito.any()))
+        Mockito.when(checkoutOutboxRepository.findPublishableRecords(Mockito.anyLong(), Mockito.any()))
             .thenReturn(Collections.emptyList());
 
         checkoutStatusPublishWorker.publishCheckoutStatus();
@@ -90,54 +110,68 @@ class CheckoutStatusPublishWorkerTest {
             .releaseLock(WorkerConstant.WORKER_CHECKOUT_STATUS_PUBLISH_LOCK);
     }
 
+    @SneakyThrows
     @Test
-    void testGetCheckoutRecordForPublishing_EmptyList() {
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(Mockito.any(), Mockito.any()))
-            .thenReturn(Collections.emptyList());
+    void testDrainOutbox_AllPages(CapturedOutput output) {
+        var firstPage = Instancio.ofList(CheckoutOutbox.class).size(PAGE_SIZE).create();
+        var secondPage = Instancio.ofList(CheckoutOutbox.class).size(PAGE_SIZE).create();
+        var lastPage = Instancio.ofList(CheckoutOutbox.class).size(1).create();
+        Mockito.when(checkoutOutboxRepository.findPublishableRecords(0L, Limit.of(PAGE_SIZE)))
+            .thenReturn(firstPage);
+        Mockito.when(checkoutOutboxRepository.findPublishableRecords(
+                firstPage.get(PAGE_SIZE - 1).getId(), Limit.of(PAGE_SIZE)))
+            .thenReturn(secondPage);
+        Mockito.when(checkoutOutboxRepository.findPublishableRecords(
+                secondPage.get(PAGE_SIZE - 1).getId(), Limit.of(PAGE_SIZE)))
+            .thenReturn(lastPage);
+        Mockito.when(objectMapper.writeValueAsString(Mockito.any()))
+            .thenReturn("dummy");
+        Mockito.when(kafkaTemplate.send(Mockito.any(), Mockito.any(), Mockito.any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
 
-        var res = checkoutStatusPublishWorker.getCheckoutRecordForPublishing();
+        checkoutStatusPublishWorker.drainOutbox();
 
-        Assertions.assertTrue(res.isEmpty());
+        // the last page isn't full -> no more query
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(3))
+            .findPublishableRecords(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(kafkaTemplate, Mockito.times(PAGE_SIZE * 2 + 1))
+            .send(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(3))
+            .deleteSentRecords(Mockito.any());
+        Assertions.assertTrue(output.toString().contains("Drained %d checkouts".formatted(PAGE_SIZE * 2 + 1)));
+        Assertions.assertEquals(1, meterRegistry.timer(CheckoutStatusPublishWorker.PUBLISH_CYCLE_TIMER).count());
+        Assertions.assertEquals(PAGE_SIZE * 2 + 1,
+            meterRegistry.summary(CheckoutStatusPublishWorker.PUBLISH_CYCLE_RECORDS_SUMMARY).totalAmount());
+        Assertions.assertEquals(PAGE_SIZE * 2 + 1, meterRegistry.counter(
+            CheckoutStatusPublishWorker.PUBLISHED_RECORDS_COUNTER, "result", "sent").count());
     }
 
     @Test
-    void testGetCheckoutRecordForPublishing_EmptyFailedRecord() {
-        int numberOfRecords = 10;
-        var mockRecords = Instancio.ofList(Checkout.class).size(numberOfRecords).create();
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(PaymentStatus.FAILED, false))
-            .thenReturn(Collections.emptyList());
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(PaymentStatus.FINALIZED, false))
-            .thenReturn(mockRecords);
-
-        var res = checkoutStatusPublishWorker.getCheckoutRecordForPublishing();
+    void testDrainOutbox_EmptyOutbox() {
+        checkoutStatusPublishWorker.drainOutbox();
 
-        Assertions.assertEquals(numberOfRecords, res.size());
-
-        Mockito.verify(checkoutRepository, Mockito.times(2))
-            .findTop100ByCheckoutStatusAndEventPublished(Mockito.any(), Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .findPublishableRecords(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(kafkaTemplate, Mockito.times(0))
+            .send(Mockito.any(), Mockito.any(), Mockito.any());
     }
 
     @Test
-    void testGetCheckoutRecordForPublishing_CombineRecords() {
-        int numberOfRecords = 10;
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(PaymentStatus.FAILED, false))
-            .thenReturn(Instancio.ofList(Checkout.class).size(numberOfRecords).create());
-        Mockito.when(checkoutRepository.findTop100ByCheckoutStatusAndEventPublished(PaymentStatus.FINALIZED, false))
-            .thenReturn(Instancio.ofList(Checkout.class).size(numberOfRecords).create());
-
-        var res = checkoutStatusPublishWorker.getCheckoutRecordForPublishing();
+    void testGetCheckoutRecordForPublishing_NextPage() {
+        var lastRecord = Instancio.create(CheckoutOutbox.class);
+        var mockRecords = Instancio.ofList(CheckoutOutbox.class).size(PAGE_SIZE).create();
+        Mockito.when(checkoutOutboxRepository.findPublishableRecords(lastRecord.getId(), Limit.of(PAGE_SIZE)))
+            .thenReturn(mockRecords);
 
-        Assertions.assertEquals(numberOfRecords * 2, res.size());
+        var res = checkoutStatusPublishWorker.getCheckoutRecordForPublishing(lastRecord);
 
-        Mockito.verify(checkoutRepository, Mockito.times(2))
-            .findTop100ByCheckoutStatusAndEventPublished(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(mockRecords, res);
     }
 
-    // integration test will be used for better testing this method
     @SneakyThrows
     @Test
     void testPublish_FailedJsonParsing() {
-        var mockCheckouts = Instancio.ofList(Checkout.class).size(1).create();
+        var mockCheckouts = Instancio.ofList(CheckoutOutbox.class).size(1).create();
         Mockito.when(objectMapper.writeValueAsString(Mockito.any()))
             .thenThrow(JsonProcessingException.class);
 
@@ -145,12 +179,16 @@ class CheckoutStatusPublishWorkerTest {
 
         Mockito.verify(kafkaTemplate, Mockito.times(0))
             .send(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(0))
+            .deleteSentRecords(Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .rescheduleFailedRecords(new Long[]{mockCheckouts.get(0).getId()}, BACKOFF_MS, MAX_BACKOFF_MS);
     }
 
     @SneakyThrows
     @Test
     void testPublish_FailedKafkaSend(CapturedOutput output) {
-        var mockCheckouts = Instancio.ofList(Checkout.class).size(1).create();
+        var mockCheckouts = Instancio.ofList(CheckoutOutbox.class).size(1).create();
         var mockPayload = "dummy";
 
         Mockito.when(objectMapper.writeValueAsString(Mockito.any()))
@@ -162,11 +200,64 @@ class CheckoutStatusPublishWorkerTest {
 
         Mockito.verify(kafkaTemplate, Mockito.times(1))
             .send(Mockito.any(), Mockito.any(), Mockito.any());
-        Mockito.verify(checkoutRepository, Mockito.times(1))
-            .saveAll(Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(0))
+            .deleteSentRecords(Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .rescheduleFailedRecords(new Long[]{mockCheckouts.get(0).getId()}, BACKOFF_MS, MAX_BACKOFF_MS);
+        Assertions.assertTrue(output.toString().contains("ERROR_KAFKA_SEND for checkout"));
+        Assertions.assertFalse(output.toString().contains("Published checkout of order"));
+    }
+
+    @SneakyThrows
+    @Test
+    void testPublish_SendThrows(CapturedOutput output) {
+        var mockCheckouts = Instancio.ofList(CheckoutOutbox.class).size(1).create();
+
+        Mockito.when(objectMapper.writeValueAsString(Mockito.any()))
+            .thenReturn("dummy");
+        Mockito.when(kafkaTemplate.send(Mockito.any(), Mockito.any(), Mockito.any()))
+            .thenThrow(new RuntimeException());
+
+        Assertions.assertDoesNotThrow(() -> checkoutStatusPublishWorker.publish(mockCheckouts));
+
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(0))
+            .deleteSentRecords(Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .rescheduleFailedRecords(new Long[]{mockCheckouts.get(0).getId()}, BACKOFF_MS, MAX_BACKOFF_MS);
         Assertions.assertTrue(output.toString().contains("ERROR_KAFKA_SEND for checkout"));
     }
 
+    @SneakyThrows
+    @Test
+    void testPublish_PartiallyAcknowledged(CapturedOutput output) {
+        var mockCheckouts = Instancio.ofList(CheckoutOutbox.class).size(3).create();
+        var ackedRecord = mockCheckouts.get(1);
+
+        Mockito.when(objectMapper.writeValueAsString(Mockito.any()))
+            .thenReturn("dummy");
+        Mockito.when(kafkaTemplate.send(Mockito.any(), Mockito.any(), Mockito.any()))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException()));
+        Mockito.when(kafkaTemplate.send(Mockito.any(), Mockito.eq(ackedRecord.getOrderId()), Mockito.any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        Assertions.assertDoesNotThrow(() -> checkoutStatusPublishWorker.publish(mockCheckouts));
+
+        // 1 bulk statement for each outcome
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .deleteSentRecords(new Long[]{ackedRecord.getId()});
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .rescheduleFailedRecords(new Long[]{mockCheckouts.get(0).getId(), mockCheckouts.get(2).getId()},
+                BACKOFF_MS, MAX_BACKOFF_MS);
+        Assertions.assertTrue(output.toString().contains("Published checkout of order %s"
+            .formatted(ackedRecord.getOrderId())));
+        Assertions.assertFalse(output.toString().contains("Published checkout of order %s"
+            .formatted(mockCheckouts.get(0).getOrderId())));
+        Assertions.assertEquals(1, meterRegistry.counter(
+            CheckoutStatusPublishWorker.PUBLISHED_RECORDS_COUNTER, "result", "sent").count());
+        Assertions.assertEquals(2, meterRegistry.counter(
+            CheckoutStatusPublishWorker.PUBLISHED_RECORDS_COUNTER, "result", "failed").count());
+    }
+
     @SneakyThrows
     @Test
     void testPublish_emptyList(CapturedOutput output) {
@@ -180,7 +271,7 @@ class CheckoutStatusPublishWorkerTest {
     @SneakyThrows
     @Test
     void testPublish_OK(CapturedOutput output) {
-        var mockCheckouts = Instancio.ofList(Checkout.class).size(1).create();
+        var mockCheckouts = Instancio.ofList(CheckoutOutbox.class).size(1).create();
         var mockPayload = "dummy";
         var mockRecordData = Instancio.of(RecordMetadata.class).create();
         var mockProducerRecord = Instancio.of(ProducerRecord.class)
@@ -201,8 +292,10 @@ class CheckoutStatusPublishWorkerTest {
 
         Mockito.verify(kafkaTemplate, Mockito.times(1))
             .send(Mockito.any(), Mockito.any(), Mockito.any());
-        Mockito.verify(checkoutRepository, Mockito.times(1))
-            .saveAll(Mockito.any());
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(1))
+            .deleteSentRecords(new Long[]{mockCheckouts.get(0).getId()});
+        Mockito.verify(checkoutOutboxRepository, Mockito.times(0))
+            .rescheduleFailedRecords(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
         Assertions.assertTrue(output.toString().contains("Start publishing"));
         Assertions.assertTrue(output.toString().contains("Published checkout of order %s"
             .formatted(mockCheckouts.get(0).getOrderId())));
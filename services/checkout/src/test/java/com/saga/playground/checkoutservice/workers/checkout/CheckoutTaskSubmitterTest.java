@@ -0,0 +1,91 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+class CheckoutTaskSubmitterTest {
+
+    private final ThreadPoolExecutor threadPoolExecutor = Mockito.mock(ThreadPoolExecutor.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Runnable task = () -> {
+    };
+
+    private CheckoutTaskSubmitter checkoutTaskSubmitter;
+
+    @BeforeEach
+    void setUp() {
+        checkoutTaskSubmitter = new CheckoutTaskSubmitter(threadPoolExecutor, meterRegistry);
+        ReflectionTestUtils.setField(checkoutTaskSubmitter, "submitTimeoutMilliseconds", 100L);
+        ReflectionTestUtils.setField(checkoutTaskSubmitter, "retryIntervalMilliseconds", 10L);
+    }
+
+    private double count(String counterName) {
+        return meterRegistry.counter(counterName).count();
+    }
+
+    @Test
+    void testSubmit_Accepted() {
+        Assertions.assertTrue(checkoutTaskSubmitter.submit(task));
+
+        Mockito.verify(threadPoolExecutor, Mockito.times(1)).execute(task);
+        Assertions.assertEquals(0, count(CheckoutTaskSubmitter.REJECTED_COUNTER));
+        Assertions.assertEquals(0, count(CheckoutTaskSubmitter.BLOCKED_COUNTER));
+    }
+
+    @Test
+    void testSubmit_AcceptedAfterWaiting() {
+        Mockito.doThrow(new RejectedExecutionException())
+            .doThrow(new RejectedExecutionException())
+            .doNothing()
+            .when(threadPoolExecutor).execute(task);
+
+        Assertions.assertTrue(checkoutTaskSubmitter.submit(task));
+
+        Mockito.verify(threadPoolExecutor, Mockito.times(3)).execute(task);
+        Assertions.assertEquals(2, count(CheckoutTaskSubmitter.REJECTED_COUNTER));
+        Assertions.assertEquals(1, count(CheckoutTaskSubmitter.BLOCKED_COUNTER));
+    }
+
+    @Test
+    void testSubmit_Timeout() {
+        Mockito.doThrow(new RejectedExecutionException())
+            .when(threadPoolExecutor).execute(task);
+
+        long startTime = System.currentTimeMillis();
+        Assertions.assertFalse(checkoutTaskSubmitter.submit(task));
+
+        Assertions.assertTrue(System.currentTimeMillis() - startTime >= 100,
+            "Submission should wait until the timeout");
+        Assertions.assertTrue(count(CheckoutTaskSubmitter.REJECTED_COUNTER) > 1);
+        Assertions.assertEquals(1, count(CheckoutTaskSubmitter.BLOCKED_COUNTER));
+    }
+
+    @Test
+    void testSubmit_PoolShutdown() {
+        Mockito.doThrow(new RejectedExecutionException())
+            .when(threadPoolExecutor).execute(task);
+        Mockito.when(threadPoolExecutor.isShutdown()).thenReturn(true);
+
+        Assertions.assertFalse(checkoutTaskSubmitter.submit(task));
+
+        Mockito.verify(threadPoolExecutor, Mockito.times(1)).execute(task);
+    }
+
+    @Test
+    void testRecordRequeued() {
+        checkoutTaskSubmitter.recordRequeued(3);
+        checkoutTaskSubmitter.recordRequeued(2);
+
+        Assertions.assertEquals(5, count(CheckoutTaskSubmitter.REQUEUED_COUNTER));
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.saga.playground.checkoutservice.workers.checkout;
+
+import com.saga.playground.checkoutservice.constants.ThreadPoolConstant;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+class ClaimBatchSizerTest {
+
+    private final ThreadPoolExecutor threadPoolExecutor = Mockito.mock(ThreadPoolExecutor.class);
+
+    private final CheckoutPrefetchBuffer checkoutPrefetchBuffer = Mockito.mock(CheckoutPrefetchBuffer.class);
+
+    private final ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(ThreadPoolConstant.QUEUE_CAPACITY);
+
+    private ClaimBatchSizer claimBatchSizer;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(threadPoolExecutor.getMaximumPoolSize()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+        Mockito.when(threadPoolExecutor.getQueue()).thenReturn(queue);
+        Mockito.when(checkoutPrefetchBuffer.remainingCapacity()).thenReturn(Integer.MAX_VALUE);
+
+        claimBatchSizer = new ClaimBatchSizer(threadPoolExecutor, checkoutPrefetchBuffer);
+        ReflectionTestUtils.setField(claimBatchSizer, "minBatchSize", 1);
+        ReflectionTestUtils.setField(claimBatchSizer, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(claimBatchSizer, "pullIntervalMilliseconds", 5000L);
+    }
+
+    @Test
+    void testNextBatchSize_NoLatencySample() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(0);
+
+        // idle pool -> fill all threads & queue slots
+        Assertions.assertEquals(ThreadPoolConstant.MAX_POOL_SIZE + ThreadPoolConstant.QUEUE_CAPACITY,
+            claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_NoFreeCapacity() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+        for (int i = 0; i < ThreadPoolConstant.QUEUE_CAPACITY; i++) {
+            queue.add(() -> { });
+        }
+
+        Assertions.assertEquals(0, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_BoundedByFreeCapacity() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+        for (int i = 0; i < ThreadPoolConstant.QUEUE_CAPACITY - 5; i++) {
+            queue.add(() -> { });
+        }
+        claimBatchSizer.recordLatency(10); // fast orders, the estimation alone would reach the upper bound
+
+        Assertions.assertEquals(5, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_BoundedByPrefetchBuffer() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(0);
+        Mockito.when(checkoutPrefetchBuffer.remainingCapacity()).thenReturn(3);
+
+        Assertions.assertEquals(3, claimBatchSizer.nextBatchSize());
+
+        Mockito.when(checkoutPrefetchBuffer.remainingCapacity()).thenReturn(0);
+
+        Assertions.assertEquals(0, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_BoundedByLatency() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+        // no idle thread, 10 threads * 5000 ms interval / 5000 ms per order -> 10 orders until next pull
+        claimBatchSizer.recordLatency(5000);
+
+        Assertions.assertEquals(10, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_IdleThreads() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE - 4);
+        claimBatchSizer.recordLatency(60_000); // very slow orders
+
+        // idle threads always get an order
+        Assertions.assertEquals(4, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_LatencyWithProductionConfig() {
+        // values of application.yml, the safety-net interval is far longer than the refill cadence
+        ReflectionTestUtils.setField(claimBatchSizer, "pullIntervalMilliseconds", 30_000L);
+        Mockito.when(checkoutPrefetchBuffer.remainingCapacity()).thenReturn(30);
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+
+        // first claim, no sample yet -> fill the free queue slots
+        Assertions.assertEquals(ThreadPoolConstant.QUEUE_CAPACITY, claimBatchSizer.nextBatchSize(1_000));
+        // refilled 400 ms later
+        claimBatchSizer.recordLatency(400);
+        // 10 threads * 400 ms refill interval / 400 ms per order
+        Assertions.assertEquals(10, claimBatchSizer.nextBatchSize(1_400));
+        Assertions.assertEquals(400, claimBatchSizer.getAverageRefillIntervalMilliseconds(), 0.001);
+
+        // orders got 4 times slower, so fewer orders are claimed for the same cadence
+        for (int i = 0; i < 20; i++) {
+            claimBatchSizer.recordLatency(1600);
+        }
+        Assertions.assertEquals(2, claimBatchSizer.nextBatchSize(1_800));
+    }
+
+    @Test
+    void testNextBatchSize_RefillIntervalCappedByPullInterval() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+
+        claimBatchSizer.nextBatchSize(1_000);
+        // idle worker, only the safety-net pull claimed again
+        claimBatchSizer.nextBatchSize(1_000_000);
+
+        Assertions.assertEquals(5000, claimBatchSizer.getAverageRefillIntervalMilliseconds(), 0.001);
+    }
+
+    @Test
+    void testNextBatchSize_LowerBound() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(ThreadPoolConstant.MAX_POOL_SIZE);
+        ReflectionTestUtils.setField(claimBatchSizer, "minBatchSize", 3);
+        claimBatchSizer.recordLatency(60_000); // very slow orders
+
+        Assertions.assertEquals(3, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testNextBatchSize_UpperBound() {
+        Mockito.when(threadPoolExecutor.getActiveCount()).thenReturn(0);
+        ReflectionTestUtils.setField(claimBatchSizer, "maxBatchSize", 7);
+
+        Assertions.assertEquals(7, claimBatchSizer.nextBatchSize());
+    }
+
+    @Test
+    void testRecordLatency_MovingAverage() {
+        Assertions.assertEquals(0, claimBatchSizer.getAverageLatencyMilliseconds());
+
+        claimBatchSizer.recordLatency(1000);
+        Assertions.assertEquals(1000, claimBatchSizer.getAverageLatencyMilliseconds(), 0.001);
+
+        claimBatchSizer.recordLatency(2000);
+        Assertions.assertEquals(1000 + ClaimBatchSizer.LATENCY_SMOOTHING_FACTOR * 1000,
+            claimBatchSizer.getAverageLatencyMilliseconds(), 0.001);
+    }
+
+}
@@ -53,6 +53,12 @@ const (
 	BATCH_SIZE             = 5
 )
 
+// gRPC constants
+const (
+	// max number of orders of one switch stream which are switched at the same time
+	STREAM_SWITCH_CONCURRENCY = 16
+)
+
 const (
 	CHECKOUT_STATUS_FINALIZED = "FINALIZED"
 	CHECKOUT_STATUS_FAILED    = "FAILED"
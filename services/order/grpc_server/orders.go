@@ -2,7 +2,9 @@ package grpc_server
 
 import (
 	"context"
+	"io"
 	"log/slog"
+	"sync"
 
 	"github.com/TrungTho/saga-playground/constants"
 	db "github.com/TrungTho/saga-playground/db/sqlc"
@@ -35,3 +37,78 @@ func (server GRPCServer) SwitchOrderToPendingPayment(ctx context.Context, req *p
 		},
 	}, nil
 }
+
+// BatchSwitchOrderToPendingPayment switches every order in its own transaction,
+// so one invalid or failed order doesn't hold back the rest of the batch
+func (server GRPCServer) BatchSwitchOrderToPendingPayment(ctx context.Context, req *pb.BatchSwitchToPendingPaymentRequest) (*pb.BatchSwitchToPendingPaymentResponse, error) {
+	results := make([]*pb.SwitchToPendingPaymentResult, 0, len(req.Ids))
+	for _, id := range req.Ids {
+		results = append(results, server.switchOrder(ctx, id, "BatchSwitchOrderToPendingPayment"))
+	}
+
+	return &pb.BatchSwitchToPendingPaymentResponse{Results: results}, nil
+}
+
+// StreamSwitchOrderToPendingPayment answers every request of the stream with the result of its order.
+// Requests are switched concurrently, so responses may come back in a different order than the requests,
+// and a failed order is reported in its result instead of breaking the stream for the other orders
+func (server GRPCServer) StreamSwitchOrderToPendingPayment(stream pb.OrderService_StreamSwitchOrderToPendingPaymentServer) error {
+	ctx := stream.Context()
+
+	var wg sync.WaitGroup
+	var sendMu sync.Mutex // Send is not safe to be called from multiple goroutines
+	inflight := make(chan struct{}, constants.STREAM_SWITCH_CONCURRENCY)
+	// the stream is closed once the handler returns, so in-flight switches have to send their result first
+	defer wg.Wait()
+
+	for {
+		req, err := stream.Recv()
+		if err == io.EOF {
+			return nil
+		}
+		if err != nil {
+			return err
+		}
+
+		inflight <- struct{}{}
+		wg.Add(1)
+		go func() {
+			defer wg.Done()
+			defer func() { <-inflight }()
+
+			result := server.switchOrder(ctx, req.Id, "StreamSwitchOrderToPendingPayment")
+
+			sendMu.Lock()
+			defer sendMu.Unlock()
+			if err := stream.Send(result); err != nil {
+				slog.ErrorContext(ctx, constants.ERROR_ORDER_RPC_START_PAYMENT, slog.Int("order_id", int(req.Id)), slog.Any("error", err))
+			}
+		}()
+	}
+}
+
+// switchOrder switches one order in its own transaction and reports the failure in the result
+func (server GRPCServer) switchOrder(ctx context.Context, id int32, method string) *pb.SwitchToPendingPaymentResult {
+	logFields := slog.Group("rpc",
+		slog.String("method", method),
+		slog.Int("order_id", int(id)),
+	)
+
+	result := &pb.SwitchToPendingPaymentResult{Id: id, Result: pb.SwitchResult_SWITCHED}
+	_, err := server.dbStore.ValidateAndUpdateOrderStatusTx(ctx, int(id), db.OrderStatusCreated, db.OrderStatusPendingPayment, logFields)
+	if err != nil {
+		slog.ErrorContext(ctx, constants.ERROR_ORDER_RPC_START_PAYMENT, logFields, slog.Any("error", err))
+
+		result.Result = pb.SwitchResult_ERROR
+		if err.Error() == constants.INVALID_ACTION {
+			result.Result = pb.SwitchResult_INVALID_ACTION
+		}
+		result.Error = err.Error()
+		return result
+	}
+
+	slog.InfoContext(ctx, constants.ORDER_STATUS_CHANGED, logFields, slog.String(
+		"new_status", string(db.OrderStatusPendingPayment),
+	))
+	return result
+}
@@ -4,7 +4,10 @@ import (
 	"context"
 	"errors"
 	"fmt"
+	"io"
 	"math/big"
+	"sort"
+	"sync"
 	"testing"
 
 	"github.com/TrungTho/saga-playground/constants"
@@ -16,6 +19,7 @@ import (
 	"github.com/jackc/pgx/v5/pgtype"
 	"github.com/stretchr/testify/require"
 	"go.uber.org/mock/gomock"
+	"google.golang.org/grpc"
 )
 
 var (
@@ -97,3 +101,191 @@ func TestCancelOrder(t *testing.T) {
 		})
 	}
 }
+
+func TestBatchSwitchOrderToPendingPayment(t *testing.T) {
+	switchedId, invalidId, failedId := int32(1), int32(2), int32(3)
+
+	testCases := []struct {
+		testName      string
+		buildStubs    func(dbStore *mock_db.MockDBStore)
+		req           *pb.BatchSwitchToPendingPaymentRequest
+		checkResponse func(t *testing.T, resp *pb.BatchSwitchToPendingPaymentResponse, err error)
+	}{
+		{
+			testName: "OK",
+			buildStubs: func(dbStore *mock_db.MockDBStore) {
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(switchedId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(int(switchedId), nil)
+			},
+			req: &pb.BatchSwitchToPendingPaymentRequest{
+				Ids: []int32{switchedId},
+			},
+			checkResponse: func(t *testing.T, resp *pb.BatchSwitchToPendingPaymentResponse, err error) {
+				require.NoError(t, err, "Successful call should always return nil error")
+				require.Len(t, resp.Results, 1)
+				require.Equal(t, switchedId, resp.Results[0].Id, "ID should be equal")
+				require.Equal(t, pb.SwitchResult_SWITCHED, resp.Results[0].Result)
+				require.Empty(t, resp.Results[0].Error)
+			},
+		},
+		{
+			testName: "PartialFailure",
+			buildStubs: func(dbStore *mock_db.MockDBStore) {
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(switchedId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(int(switchedId), nil)
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(invalidId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(-1, errors.New(constants.INVALID_ACTION))
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(failedId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(-1, errors.New("connection reset"))
+			},
+			req: &pb.BatchSwitchToPendingPaymentRequest{
+				Ids: []int32{switchedId, invalidId, failedId},
+			},
+			checkResponse: func(t *testing.T, resp *pb.BatchSwitchToPendingPaymentResponse, err error) {
+				require.NoError(t, err, "Failed orders are reported per order, not as a call error")
+				require.Len(t, resp.Results, 3)
+				require.Equal(t, pb.SwitchResult_SWITCHED, resp.Results[0].Result)
+				require.Equal(t, invalidId, resp.Results[1].Id, "ID should be equal")
+				require.Equal(t, pb.SwitchResult_INVALID_ACTION, resp.Results[1].Result)
+				require.Equal(t, constants.INVALID_ACTION, resp.Results[1].Error)
+				require.Equal(t, failedId, resp.Results[2].Id, "ID should be equal")
+				require.Equal(t, pb.SwitchResult_ERROR, resp.Results[2].Result)
+				require.Equal(t, "connection reset", resp.Results[2].Error)
+			},
+		},
+		{
+			testName:   "EmptyBatch",
+			buildStubs: func(dbStore *mock_db.MockDBStore) {},
+			req:        &pb.BatchSwitchToPendingPaymentRequest{},
+			checkResponse: func(t *testing.T, resp *pb.BatchSwitchToPendingPaymentResponse, err error) {
+				require.NoError(t, err)
+				require.Empty(t, resp.Results)
+			},
+		},
+	}
+
+	for i := range testCases {
+		tc := testCases[i]
+
+		t.Run(tc.testName, func(t *testing.T) {
+			ctrl := gomock.NewController(t)
+			defer ctrl.Finish()
+
+			setupTest(ctrl)
+
+			tc.buildStubs(dbStore)
+
+			grpcServer, err := NewServer(dbStore)
+			require.NoError(t, err, "Can not start mock grpc server", err, tc.testName)
+
+			res, err := grpcServer.BatchSwitchOrderToPendingPayment(context.Background(), tc.req)
+			tc.checkResponse(t, res, err)
+		})
+	}
+}
+
+// fakeSwitchStream replays the requests then fails Recv with recvErr, io.EOF once the client closes its side
+type fakeSwitchStream struct {
+	grpc.ServerStream
+	requests []*pb.SwitchToPendingPaymentRequest
+	recvErr  error
+
+	mu      sync.Mutex
+	results []*pb.SwitchToPendingPaymentResult
+}
+
+func (s *fakeSwitchStream) Context() context.Context {
+	return context.Background()
+}
+
+func (s *fakeSwitchStream) Recv() (*pb.SwitchToPendingPaymentRequest, error) {
+	if len(s.requests) == 0 {
+		return nil, s.recvErr
+	}
+	req := s.requests[0]
+	s.requests = s.requests[1:]
+	return req, nil
+}
+
+func (s *fakeSwitchStream) Send(result *pb.SwitchToPendingPaymentResult) error {
+	s.mu.Lock()
+	defer s.mu.Unlock()
+	s.results = append(s.results, result)
+	return nil
+}
+
+func TestStreamSwitchOrderToPendingPayment(t *testing.T) {
+	switchedId, invalidId, failedId := int32(1), int32(2), int32(3)
+
+	testCases := []struct {
+		testName      string
+		buildStubs    func(dbStore *mock_db.MockDBStore)
+		stream        *fakeSwitchStream
+		checkResponse func(t *testing.T, results []*pb.SwitchToPendingPaymentResult, err error)
+	}{
+		{
+			testName: "PartialFailure",
+			buildStubs: func(dbStore *mock_db.MockDBStore) {
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(switchedId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(int(switchedId), nil)
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(invalidId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(-1, errors.New(constants.INVALID_ACTION))
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(failedId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(-1, errors.New("connection reset"))
+			},
+			stream: &fakeSwitchStream{
+				requests: []*pb.SwitchToPendingPaymentRequest{{Id: switchedId}, {Id: invalidId}, {Id: failedId}},
+				recvErr:  io.EOF,
+			},
+			checkResponse: func(t *testing.T, results []*pb.SwitchToPendingPaymentResult, err error) {
+				require.NoError(t, err, "Failed orders are reported per order, not by breaking the stream")
+				require.Len(t, results, 3, "Every request should be answered")
+				// switched concurrently, responses are correlated by id
+				sort.Slice(results, func(i, j int) bool { return results[i].Id < results[j].Id })
+				require.Equal(t, pb.SwitchResult_SWITCHED, results[0].Result)
+				require.Empty(t, results[0].Error)
+				require.Equal(t, pb.SwitchResult_INVALID_ACTION, results[1].Result)
+				require.Equal(t, constants.INVALID_ACTION, results[1].Error)
+				require.Equal(t, pb.SwitchResult_ERROR, results[2].Result)
+				require.Equal(t, "connection reset", results[2].Error)
+			},
+		},
+		{
+			testName:   "EmptyStream",
+			buildStubs: func(dbStore *mock_db.MockDBStore) {},
+			stream:     &fakeSwitchStream{recvErr: io.EOF},
+			checkResponse: func(t *testing.T, results []*pb.SwitchToPendingPaymentResult, err error) {
+				require.NoError(t, err)
+				require.Empty(t, results)
+			},
+		},
+		{
+			testName: "BrokenStream",
+			buildStubs: func(dbStore *mock_db.MockDBStore) {
+				dbStore.EXPECT().ValidateAndUpdateOrderStatusTx(gomock.Any(), int(switchedId), db.OrderStatusCreated, db.OrderStatusPendingPayment, gomock.Any()).Times(1).Return(int(switchedId), nil)
+			},
+			stream: &fakeSwitchStream{
+				requests: []*pb.SwitchToPendingPaymentRequest{{Id: switchedId}},
+				recvErr:  errors.New("stream reset"),
+			},
+			checkResponse: func(t *testing.T, results []*pb.SwitchToPendingPaymentResult, err error) {
+				require.EqualError(t, err, "stream reset")
+				// the in-flight switch is finished before the handler returns
+				require.Len(t, results, 1)
+				require.Equal(t, switchedId, results[0].Id, "ID should be equal")
+			},
+		},
+	}
+
+	for i := range testCases {
+		tc := testCases[i]
+
+		t.Run(tc.testName, func(t *testing.T) {
+			ctrl := gomock.NewController(t)
+			defer ctrl.Finish()
+
+			setupTest(ctrl)
+
+			tc.buildStubs(dbStore)
+
+			grpcServer, err := NewServer(dbStore)
+			require.NoError(t, err, "Can not start mock grpc server", err, tc.testName)
+
+			err = grpcServer.StreamSwitchOrderToPendingPayment(tc.stream)
+			tc.checkResponse(t, tc.stream.results, err)
+		})
+	}
+}
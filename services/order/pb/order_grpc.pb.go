@@ -19,7 +19,9 @@ import (
 const _ = grpc.SupportPackageIsVersion9
 
 const (
-	OrderService_SwitchOrderToPendingPayment_FullMethodName = "/OrderService/SwitchOrderToPendingPayment"
+	OrderService_SwitchOrderToPendingPayment_FullMethodName       = "/OrderService/SwitchOrderToPendingPayment"
+	OrderService_BatchSwitchOrderToPendingPayment_FullMethodName  = "/OrderService/BatchSwitchOrderToPendingPayment"
+	OrderService_StreamSwitchOrderToPendingPayment_FullMethodName = "/OrderService/StreamSwitchOrderToPendingPayment"
 )
 
 // OrderServiceClient is the client API for OrderService service.
@@ -27,6 +29,9 @@ const (
 // For semantics around ctx use and closing/ending streaming RPCs, please refer to https://pkg.go.dev/google.golang.org/grpc/?tab=doc#ClientConn.NewStream.
 type OrderServiceClient interface {
 	SwitchOrderToPendingPayment(ctx context.Context, in *SwitchToPendingPaymentRequest, opts ...grpc.CallOption) (*SwitchToPendingPaymentResponse, error)
+	BatchSwitchOrderToPendingPayment(ctx context.Context, in *BatchSwitchToPendingPaymentRequest, opts ...grpc.CallOption) (*BatchSwitchToPendingPaymentResponse, error)
+	// long-lived stream of switches, answered with one result per request in any order, correlated by order id
+	StreamSwitchOrderToPendingPayment(ctx context.Context, opts ...grpc.CallOption) (grpc.BidiStreamingClient[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult], error)
 }
 
 type orderServiceClient struct {
@@ -47,11 +52,37 @@ func (c *orderServiceClient) SwitchOrderToPendingPayment(ctx context.Context, in
 	return out, nil
 }
 
+func (c *orderServiceClient) BatchSwitchOrderToPendingPayment(ctx context.Context, in *BatchSwitchToPendingPaymentRequest, opts ...grpc.CallOption) (*BatchSwitchToPendingPaymentResponse, error) {
+	cOpts := append([]grpc.CallOption{grpc.StaticMethod()}, opts...)
+	out := new(BatchSwitchToPendingPaymentResponse)
+	err := c.cc.Invoke(ctx, OrderService_BatchSwitchOrderToPendingPayment_FullMethodName, in, out, cOpts...)
+	if err != nil {
+		return nil, err
+	}
+	return out, nil
+}
+
+func (c *orderServiceClient) StreamSwitchOrderToPendingPayment(ctx context.Context, opts ...grpc.CallOption) (grpc.BidiStreamingClient[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult], error) {
+	cOpts := append([]grpc.CallOption{grpc.StaticMethod()}, opts...)
+	stream, err := c.cc.NewStream(ctx, &OrderService_ServiceDesc.Streams[0], OrderService_StreamSwitchOrderToPendingPayment_FullMethodName, cOpts...)
+	if err != nil {
+		return nil, err
+	}
+	x := &grpc.GenericClientStream[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult]{ClientStream: stream}
+	return x, nil
+}
+
+// This type alias is provided for backwards compatibility with existing code that references the prior non-generic stream type by name.
+type OrderService_StreamSwitchOrderToPendingPaymentClient = grpc.BidiStreamingClient[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult]
+
 // OrderServiceServer is the server API for OrderService service.
 // All implementations must embed UnimplementedOrderServiceServer
 // for forward compatibility.
 type OrderServiceServer interface {
 	SwitchOrderToPendingPayment(context.Context, *SwitchToPendingPaymentRequest) (*SwitchToPendingPaymentResponse, error)
+	BatchSwitchOrderToPendingPayment(context.Context, *BatchSwitchToPendingPaymentRequest) (*BatchSwitchToPendingPaymentResponse, error)
+	// long-lived stream of switches, answered with one result per request in any order, correlated by order id
+	StreamSwitchOrderToPendingPayment(grpc.BidiStreamingServer[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult]) error
 	mustEmbedUnimplementedOrderServiceServer()
 }
 
@@ -65,6 +96,12 @@ type UnimplementedOrderServiceServer struct{}
 func (UnimplementedOrderServiceServer) SwitchOrderToPendingPayment(context.Context, *SwitchToPendingPaymentRequest) (*SwitchToPendingPaymentResponse, error) {
 	return nil, status.Errorf(codes.Unimplemented, "method SwitchOrderToPendingPayment not implemented")
 }
+func (UnimplementedOrderServiceServer) BatchSwitchOrderToPendingPayment(context.Context, *BatchSwitchToPendingPaymentRequest) (*BatchSwitchToPendingPaymentResponse, error) {
+	return nil, status.Errorf(codes.Unimplemented, "method BatchSwitchOrderToPendingPayment not implemented")
+}
+func (UnimplementedOrderServiceServer) StreamSwitchOrderToPendingPayment(grpc.BidiStreamingServer[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult]) error {
+	return status.Errorf(codes.Unimplemented, "method StreamSwitchOrderToPendingPayment not implemented")
+}
 func (UnimplementedOrderServiceServer) mustEmbedUnimplementedOrderServiceServer() {}
 func (UnimplementedOrderServiceServer) testEmbeddedByValue()                      {}
 
@@ -104,6 +141,31 @@ func _OrderService_SwitchOrderToPendingPayment_Handler(srv interface{}, ctx cont
 	return interceptor(ctx, in, info, handler)
 }
 
+func _OrderService_BatchSwitchOrderToPendingPayment_Handler(srv interface{}, ctx context.Context, dec func(interface{}) error, interceptor grpc.UnaryServerInterceptor) (interface{}, error) {
+	in := new(BatchSwitchToPendingPaymentRequest)
+	if err := dec(in); err != nil {
+		return nil, err
+	}
+	if interceptor == nil {
+		return srv.(OrderServiceServer).BatchSwitchOrderToPendingPayment(ctx, in)
+	}
+	info := &grpc.UnaryServerInfo{
+		Server:     srv,
+		FullMethod: OrderService_BatchSwitchOrderToPendingPayment_FullMethodName,
+	}
+	handler := func(ctx context.Context, req interface{}) (interface{}, error) {
+		return srv.(OrderServiceServer).BatchSwitchOrderToPendingPayment(ctx, req.(*BatchSwitchToPendingPaymentRequest))
+	}
+	return interceptor(ctx, in, info, handler)
+}
+
+func _OrderService_StreamSwitchOrderToPendingPayment_Handler(srv interface{}, stream grpc.ServerStream) error {
+	return srv.(OrderServiceServer).StreamSwitchOrderToPendingPayment(&grpc.GenericServerStream[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult]{ServerStream: stream})
+}
+
+// This type alias is provided for backwards compatibility with existing code that references the prior non-generic stream type by name.
+type OrderService_StreamSwitchOrderToPendingPaymentServer = grpc.BidiStreamingServer[SwitchToPendingPaymentRequest, SwitchToPendingPaymentResult]
+
 // OrderService_ServiceDesc is the grpc.ServiceDesc for OrderService service.
 // It's only intended for direct use with grpc.RegisterService,
 // and not to be introspected or modified (even as a copy)
@@ -115,7 +177,18 @@ var OrderService_ServiceDesc = grpc.ServiceDesc{
 			MethodName: "SwitchOrderToPendingPayment",
 			Handler:    _OrderService_SwitchOrderToPendingPayment_Handler,
 		},
+		{
+			MethodName: "BatchSwitchOrderToPendingPayment",
+			Handler:    _OrderService_BatchSwitchOrderToPendingPayment_Handler,
+		},
+	},
+	Streams: []grpc.StreamDesc{
+		{
+			StreamName:    "StreamSwitchOrderToPendingPayment",
+			Handler:       _OrderService_StreamSwitchOrderToPendingPayment_Handler,
+			ServerStreams: true,
+			ClientStreams: true,
+		},
 	},
-	Streams:  []grpc.StreamDesc{},
 	Metadata: "order.proto",
 }